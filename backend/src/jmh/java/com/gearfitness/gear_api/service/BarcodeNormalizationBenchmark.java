@@ -0,0 +1,52 @@
+package com.gearfitness.gear_api.service;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * GTIN-14 canonicalization of a scanned barcode, per symbology: UPC-E (also
+ * expanded through UPC-A), EAN-8, UPC-A and EAN-13, and a full GTIN-14.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BarcodeNormalizationBenchmark {
+
+  @Param(
+    {
+      "04252614",
+      "96385074",
+      "036000291452",
+      "0036000291452",
+      "10036000291459",
+    }
+  )
+  String scanned;
+
+  private String digits;
+
+  @Setup
+  public void setUp() {
+    // lookup() strips non-digits before normalizing.
+    digits = scanned.replaceAll("\\D", "");
+  }
+
+  @Benchmark
+  public Set<String> canonicalForms() {
+    return BarcodeFoodService.canonicalForms(digits);
+  }
+}
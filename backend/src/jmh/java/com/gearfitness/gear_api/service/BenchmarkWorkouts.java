@@ -0,0 +1,95 @@
+package com.gearfitness.gear_api.service;
+
+import com.gearfitness.gear_api.entity.AppUser;
+import com.gearfitness.gear_api.entity.Exercise;
+import com.gearfitness.gear_api.entity.MuscleGroup;
+import com.gearfitness.gear_api.entity.Workout;
+import com.gearfitness.gear_api.entity.WorkoutExercise;
+import com.gearfitness.gear_api.entity.WorkoutSet;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Synthetic workouts shaped like our heaviest users: long histories, 8-10
+ * exercises a session, 4-6 sets each, with the occasional bodyweight set
+ * (null weight) mixed in. Seeded so every run measures the same data.
+ */
+final class BenchmarkWorkouts {
+
+  private BenchmarkWorkouts() {}
+
+  static AppUser user(int n) {
+    return AppUser.builder()
+      .userId(UUID.randomUUID())
+      .username("lifter_" + n)
+      .profilePictureUrl("https://cdn.example.com/avatars/" + n + ".jpg")
+      .build();
+  }
+
+  /** {@code count} workouts for one user, oldest first, one every other day. */
+  static List<Workout> history(AppUser user, int count, Random random) {
+    List<Exercise> catalog = new ArrayList<>();
+    for (int i = 0; i < 40; i++) {
+      catalog.add(
+        Exercise.builder().exerciseId(UUID.randomUUID()).name("Ex " + i).build()
+      );
+    }
+    LocalDate start = LocalDate.of(2020, 1, 1);
+    List<Workout> workouts = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      LocalDate date = start.plusDays(2L * i);
+      workouts.add(workout(user, date, catalog, 8 + random.nextInt(3), random));
+    }
+    return workouts;
+  }
+
+  static Workout workout(
+    AppUser user,
+    LocalDate date,
+    List<Exercise> catalog,
+    int exerciseCount,
+    Random random
+  ) {
+    Workout workout = Workout.builder()
+      .workoutId(UUID.randomUUID())
+      .user(user)
+      .name("Push day")
+      .datePerformed(date)
+      .durationMin(45 + random.nextInt(60))
+      .createdAt(date.atTime(18, 0))
+      .build();
+    MuscleGroup[] groups = MuscleGroup.values();
+    workout.getBodyTags().add(groups[random.nextInt(groups.length)]);
+    for (int e = 0; e < exerciseCount; e++) {
+      WorkoutExercise we = WorkoutExercise.builder()
+        .workoutExerciseId(UUID.randomUUID())
+        .workout(workout)
+        .exercise(catalog.get(random.nextInt(catalog.size())))
+        .position(e)
+        .build();
+      int setCount = 4 + random.nextInt(3);
+      for (int s = 0; s < setCount; s++) {
+        BigDecimal weight = random.nextInt(20) == 0
+          ? null
+          : BigDecimal.valueOf(45 + random.nextInt(80) * 5L);
+        we
+          .getWorkoutSets()
+          .add(
+            WorkoutSet.builder()
+              .workoutSetId(UUID.randomUUID())
+              .workoutExercise(we)
+              .setNumber(s + 1)
+              .reps(3 + random.nextInt(10))
+              .weightLbs(weight)
+              .build()
+          );
+      }
+      workout.getWorkoutExercises().add(we);
+    }
+    return workout;
+  }
+}
@@ -0,0 +1,119 @@
+package com.gearfitness.gear_api.service;
+
+import com.gearfitness.gear_api.dto.FeedPostDTO;
+import com.gearfitness.gear_api.entity.AppUser;
+import com.gearfitness.gear_api.entity.Exercise;
+import com.gearfitness.gear_api.entity.Post;
+import com.gearfitness.gear_api.entity.Workout;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SocialFeedService.mapToDTO over one feed page, with the batched like and
+ * follow lookups already resolved (as mapPosts does).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeedMappingBenchmark {
+
+  @Param({ "20", "50" })
+  int pageSize;
+
+  private SocialFeedService socialFeedService;
+  private List<Post> page;
+  private Set<UUID> likedPostIds;
+  private Set<UUID> followedAuthorIds;
+
+  @Setup
+  public void setUp() {
+    // mapToDTO touches none of the collaborators.
+    socialFeedService = new SocialFeedService(
+      null,
+      null,
+      null,
+      null,
+      null,
+      null,
+      null,
+      null
+    );
+
+    Random random = new Random(42);
+    List<Exercise> catalog = new ArrayList<>();
+    for (int i = 0; i < 40; i++) {
+      catalog.add(
+        Exercise.builder().exerciseId(UUID.randomUUID()).name("Ex " + i).build()
+      );
+    }
+    List<AppUser> authors = new ArrayList<>();
+    for (int i = 0; i < 15; i++) {
+      authors.add(BenchmarkWorkouts.user(i));
+    }
+
+    page = new ArrayList<>(pageSize);
+    likedPostIds = new HashSet<>();
+    followedAuthorIds = new HashSet<>();
+    LocalDate today = LocalDate.of(2026, 1, 15);
+    for (int i = 0; i < pageSize; i++) {
+      AppUser author = authors.get(random.nextInt(authors.size()));
+      Workout workout = BenchmarkWorkouts.workout(
+        author,
+        today.minusDays(i / 5),
+        catalog,
+        8 + random.nextInt(3),
+        random
+      );
+      workout.getPhotoUrls().add("https://cdn.example.com/w/" + i + "/1.jpg");
+      workout.getPhotoUrls().add("https://cdn.example.com/w/" + i + "/2.jpg");
+      Post post = Post.builder()
+        .postId(UUID.randomUUID())
+        .user(author)
+        .workout(workout)
+        .caption("Felt strong today #" + i)
+        .createdAt(workout.getCreatedAt())
+        .likeCount(random.nextInt(300))
+        .commentCount(random.nextInt(40))
+        .build();
+      page.add(post);
+
+      if (random.nextBoolean()) {
+        likedPostIds.add(post.getPostId());
+      }
+      if (random.nextInt(3) > 0) {
+        followedAuthorIds.add(author.getUserId());
+      }
+    }
+  }
+
+  @Benchmark
+  public List<FeedPostDTO> mapPage() {
+    List<FeedPostDTO> dtos = new ArrayList<>(page.size());
+    for (Post post : page) {
+      dtos.add(
+        socialFeedService.mapToDTO(post, likedPostIds, followedAuthorIds)
+      );
+    }
+    return dtos;
+  }
+}
@@ -0,0 +1,63 @@
+package com.gearfitness.gear_api.service;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mention parsing on every caption, comment and reply: a plain comment, and a
+ * long caption that tags more people than the mention cap allows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MentionServiceBenchmark {
+
+  private MentionService mentionService;
+  private String plainComment;
+  private String taggedCaption;
+
+  @Setup
+  public void setUp() {
+    // extractUsernames touches none of the collaborators.
+    mentionService = new MentionService(null, null, null, null);
+    plainComment =
+      "Great session today, that last set of squats looked really solid!";
+
+    Random random = new Random(42);
+    StringBuilder caption = new StringBuilder(
+      "Leg day with the crew, new PR on squat and deadlift. "
+    );
+    for (int i = 0; i < 25; i++) {
+      caption
+        .append("@Lifter_")
+        .append(random.nextInt(10_000))
+        .append(i % 3 == 0 ? ", " : " and ");
+    }
+    caption.append("thanks for the spot! Email me at coach@example.com");
+    taggedCaption = caption.toString();
+  }
+
+  @Benchmark
+  public Set<String> plainComment() {
+    return mentionService.extractUsernames(plainComment);
+  }
+
+  @Benchmark
+  public Set<String> taggedCaption() {
+    return mentionService.extractUsernames(taggedCaption);
+  }
+}
@@ -0,0 +1,63 @@
+package com.gearfitness.gear_api.service;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * AiNutritionService cache-key normalization, run on every AI food log
+ * before the cache lookup: a short entry and a long multi-item meal.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NutritionCacheKeyBenchmark {
+
+  private AiNutritionService aiNutritionService;
+  private String shortEntry;
+  private String longMeal;
+
+  @Setup
+  public void setUp() {
+    // normalizeKey touches none of the collaborators.
+    aiNutritionService = new AiNutritionService(
+      null,
+      null,
+      null,
+      null,
+      null,
+      new QuotaLedger(null, 4, 120),
+      500,
+      20,
+      2000,
+      60
+    );
+    shortEntry = "  2 Scrambled Eggs! ";
+    longMeal =
+      "-- Breakfast:   3 large eggs scrambled in 1 tbsp butter,  2 slices " +
+      "of sourdough toast with\tavocado, 1 cup Greek yogurt (2%) topped " +
+      "with 1/2 cup blueberries and a drizzle of honey, plus a 16 oz " +
+      "iced oat milk latte with    2 pumps vanilla ... !!! ";
+  }
+
+  @Benchmark
+  public String shortEntry() {
+    return aiNutritionService.normalizeKey(shortEntry);
+  }
+
+  @Benchmark
+  public String longMeal() {
+    return aiNutritionService.normalizeKey(longMeal);
+  }
+}
@@ -0,0 +1,87 @@
+package com.gearfitness.gear_api.service;
+
+import com.gearfitness.gear_api.entity.Workout;
+import com.gearfitness.gear_api.entity.WorkoutExercise;
+import com.gearfitness.gear_api.entity.WorkoutSet;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * PrService's in-memory PR decision: the full-history running-max walk (a
+ * rebuild), the tail walk after a back-dated submit or delete, and the
+ * per-exercise best-set pick of the submit fast path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrServiceBenchmark {
+
+  /** Sessions of one exercise: ~6 years of a lift trained 3-4x a week. */
+  @Param({ "100", "1200" })
+  int sessionCount;
+
+  private List<List<WorkoutSet>> sessions;
+  private List<List<WorkoutSet>> lastTenth;
+  private BigDecimal maxBeforeLastTenth;
+  private Workout todaysWorkout;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    List<Workout> history = BenchmarkWorkouts.history(
+      BenchmarkWorkouts.user(0),
+      sessionCount,
+      random
+    );
+    // Treat each workout's first exercise as the same lift across history.
+    sessions = new ArrayList<>(sessionCount);
+    for (Workout workout : history) {
+      sessions.add(workout.getWorkoutExercises().get(0).getWorkoutSets());
+    }
+    int split = sessionCount - sessionCount / 10;
+    lastTenth = sessions.subList(split, sessionCount);
+    maxBeforeLastTenth = PrService.walk(
+      sessions.subList(0, split),
+      null
+    ).runningMax();
+    todaysWorkout = history.get(history.size() - 1);
+  }
+
+  @Benchmark
+  public PrService.PrWalk fullRecompute() {
+    return PrService.walk(sessions, null);
+  }
+
+  @Benchmark
+  public PrService.PrWalk backdatedRecompute() {
+    return PrService.walk(lastTenth, maxBeforeLastTenth);
+  }
+
+  @Benchmark
+  public int submitFastPath() {
+    int flagged = 0;
+    for (WorkoutExercise we : todaysWorkout.getWorkoutExercises()) {
+      if (PrService.bestOf(we.getWorkoutSets()) != null) {
+        flagged++;
+      }
+    }
+    return flagged;
+  }
+}
@@ -0,0 +1,61 @@
+package com.gearfitness.gear_api.service;
+
+import com.gearfitness.gear_api.entity.Workout;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Workout volume (sum of weight x reps): once per submit/delete for the
+ * daily rollup, and over a whole history when rebuilding it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VolumeBenchmark {
+
+  @Param({ "1500" })
+  int workoutCount;
+
+  private List<Workout> history;
+  private Workout latest;
+
+  @Setup
+  public void setUp() {
+    history = BenchmarkWorkouts.history(
+      BenchmarkWorkouts.user(0),
+      workoutCount,
+      new Random(42)
+    );
+    latest = history.get(history.size() - 1);
+  }
+
+  @Benchmark
+  public BigDecimal singleWorkout() {
+    return VolumeRollupService.volumeOf(latest);
+  }
+
+  @Benchmark
+  public BigDecimal fullHistory() {
+    BigDecimal total = BigDecimal.ZERO;
+    for (Workout workout : history) {
+      total = total.add(VolumeRollupService.volumeOf(workout));
+    }
+    return total;
+  }
+}
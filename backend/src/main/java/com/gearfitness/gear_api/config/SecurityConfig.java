@@ -38,6 +38,11 @@ public class SecurityConfig {
           // including ResponseStatusException 403/400/502/503, as a 401.
           .dispatcherTypeMatchers(DispatcherType.ERROR)
           .permitAll()
+          // Likewise the ASYNC dispatch that completes a notification stream
+          // (SseEmitter): the JWT filter only runs on the original request,
+          // which was already authorized.
+          .dispatcherTypeMatchers(DispatcherType.ASYNC)
+          .permitAll()
           .requestMatchers("/health")
           .permitAll()
           .requestMatchers("/actuator/health")
@@ -1,30 +1,25 @@
 package com.gearfitness.gear_api.controller;
 
-import com.gearfitness.gear_api.dto.BodyPartDTO;
 import com.gearfitness.gear_api.dto.CreateExerciseRequest;
 import com.gearfitness.gear_api.dto.ExerciseDTO;
 import com.gearfitness.gear_api.dto.ExerciseHistoryDTO;
-import com.gearfitness.gear_api.dto.ExerciseSessionDTO;
-import com.gearfitness.gear_api.dto.ExerciseSetDTO;
 import com.gearfitness.gear_api.entity.AppUser;
 import com.gearfitness.gear_api.entity.Exercise;
 import com.gearfitness.gear_api.entity.ExerciseBodyPart;
 import com.gearfitness.gear_api.entity.MuscleGroup;
-import com.gearfitness.gear_api.entity.WorkoutExercise;
 import com.gearfitness.gear_api.repository.ExerciseRepository;
-import com.gearfitness.gear_api.repository.WorkoutExerciseRepository;
 import com.gearfitness.gear_api.security.JwtService;
-import java.math.BigDecimal;
-import java.util.LinkedHashMap;
+import com.gearfitness.gear_api.service.ExerciseCatalogService;
+import com.gearfitness.gear_api.service.ExerciseHistoryService;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -34,58 +29,62 @@ import org.springframework.web.server.ResponseStatusException;
 public class ExerciseController {
 
   private final ExerciseRepository exerciseRepo;
-  private final WorkoutExerciseRepository workoutExerciseRepo;
+  private final ExerciseCatalogService exerciseCatalogService;
+  private final ExerciseHistoryService exerciseHistoryService;
   private final JwtService jwtService;
 
+  /**
+   * The global catalog plus the caller's custom exercises, from the in-memory
+   * snapshot. Send the last ETag as If-None-Match to get a 304 when unchanged.
+   */
   @GetMapping
-  public List<ExerciseDTO> getAllExercises(
+  public ResponseEntity<byte[]> getAllExercises(
     @RequestHeader("Authorization") String authHeader
   ) {
     UUID userId = jwtService.extractUserId(authHeader.substring(7));
-
-    return exerciseRepo
-      .findByUserIsNullOrUserUserId(userId)
-      .stream()
-      .map(this::toDTO)
-      .toList();
+    return exerciseCatalogService.catalogFor(userId).toResponse();
   }
 
+  /** Global and (if signed in) the caller's exercises for one body part. */
   @GetMapping("/filter")
-  public List<ExerciseDTO> getByBodyPart(@RequestParam MuscleGroup bodyPart) {
-    return exerciseRepo
-      .findByBodyPart(bodyPart)
-      .stream()
-      .map(this::toDTO)
-      .toList();
+  public ResponseEntity<byte[]> getByBodyPart(
+    @RequestHeader(value = "Authorization", required = false) String authHeader,
+    @RequestParam MuscleGroup bodyPart
+  ) {
+    UUID userId =
+      authHeader != null && authHeader.startsWith("Bearer ")
+        ? jwtService.extractUserId(authHeader.substring(7))
+        : null;
+    return exerciseCatalogService.catalogFor(userId, bodyPart).toResponse();
   }
 
-  @Transactional(readOnly = true)
+  /**
+   * One page of the caller's sessions for an exercise, newest first. Pass the
+   * previous response's watermark as {@code since} to fetch only sessions
+   * logged after it.
+   */
   @GetMapping("/{exerciseId}/history")
   public ResponseEntity<ExerciseHistoryDTO> getExerciseHistory(
     @PathVariable UUID exerciseId,
-    @RequestHeader("Authorization") String authHeader
+    @RequestHeader("Authorization") String authHeader,
+    @RequestParam(defaultValue = "0") int page,
+    @RequestParam(defaultValue = "50") int size,
+    @RequestParam(required = false) @DateTimeFormat(
+      iso = DateTimeFormat.ISO.DATE_TIME
+    ) LocalDateTime since
   ) {
     try {
       String token = authHeader.substring(7);
       UUID userId = jwtService.extractUserId(token);
 
-      List<WorkoutExercise> workoutExercises =
-        workoutExerciseRepo.findByExercise_ExerciseIdAndWorkout_User_UserIdOrderByWorkout_DatePerformedDesc(
-          exerciseId,
-          userId
-        );
-
-      Exercise exercise;
-      if (!workoutExercises.isEmpty()) {
-        exercise = workoutExercises.get(0).getExercise();
-      } else {
-        exercise = exerciseRepo
-          .findById(exerciseId)
-          .orElseThrow(() -> new RuntimeException("Exercise not found"));
-      }
-
       return ResponseEntity.ok(
-        buildHistoryDTO(exerciseId, exercise, workoutExercises)
+        exerciseHistoryService.getExerciseHistory(
+          userId,
+          exerciseId,
+          page,
+          size,
+          since
+        )
       );
     } catch (RuntimeException e) {
       System.err.println("=== RuntimeException: " + e.getMessage());
@@ -97,101 +96,31 @@ public class ExerciseController {
     }
   }
 
-  @Transactional(readOnly = true)
+  /**
+   * The first {@code size} sessions of every exercise the caller has logged;
+   * page further into one exercise with the endpoint above.
+   */
   @GetMapping("/history/all")
   public ResponseEntity<List<ExerciseHistoryDTO>> getAllExerciseHistory(
-    @RequestHeader("Authorization") String authHeader
+    @RequestHeader("Authorization") String authHeader,
+    @RequestParam(defaultValue = "50") int size,
+    @RequestParam(required = false) @DateTimeFormat(
+      iso = DateTimeFormat.ISO.DATE_TIME
+    ) LocalDateTime since
   ) {
     try {
       String token = authHeader.substring(7);
       UUID userId = jwtService.extractUserId(token);
 
-      List<WorkoutExercise> all =
-        workoutExerciseRepo.findByWorkout_User_UserIdOrderByWorkout_DatePerformedDesc(
-          userId
-        );
-
-      // Preserve date-desc order: LinkedHashMap keeps first-seen insertion order,
-      // which matches the per-exercise endpoint (newest session first).
-      Map<UUID, List<WorkoutExercise>> byExercise = new LinkedHashMap<>();
-      for (WorkoutExercise we : all) {
-        byExercise
-          .computeIfAbsent(we.getExercise().getExerciseId(), k ->
-            new java.util.ArrayList<>()
-          )
-          .add(we);
-      }
-
-      List<ExerciseHistoryDTO> result = byExercise
-        .entrySet()
-        .stream()
-        .map(entry -> {
-          UUID exerciseId = entry.getKey();
-          List<WorkoutExercise> rows = entry.getValue();
-          Exercise exercise = rows.get(0).getExercise();
-          return buildHistoryDTO(exerciseId, exercise, rows);
-        })
-        .toList();
-
-      return ResponseEntity.ok(result);
+      return ResponseEntity.ok(
+        exerciseHistoryService.getAllExerciseHistory(userId, size, since)
+      );
     } catch (Exception e) {
       e.printStackTrace();
       return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
     }
   }
 
-  private ExerciseHistoryDTO buildHistoryDTO(
-    UUID exerciseId,
-    Exercise exercise,
-    List<WorkoutExercise> workoutExercises
-  ) {
-    List<ExerciseSessionDTO> sessions = workoutExercises
-      .stream()
-      .map(we ->
-        new ExerciseSessionDTO(
-          we.getWorkout().getWorkoutId(),
-          we.getWorkout().getName(),
-          we.getWorkout().getDatePerformed(),
-          we
-            .getWorkoutSets()
-            .stream()
-            .map(s ->
-              new ExerciseSetDTO(
-                s.getSetNumber(),
-                s.getReps(),
-                s.getWeightLbs(),
-                s.getIsPr()
-              )
-            )
-            .toList()
-        )
-      )
-      .toList();
-
-    BigDecimal pr = workoutExercises
-      .stream()
-      .flatMap(we -> we.getWorkoutSets().stream())
-      .map(s -> s.getWeightLbs())
-      .filter(w -> w != null)
-      .max(BigDecimal::compareTo)
-      .orElse(null);
-
-    List<BodyPartDTO> bodyPartDTOs = exercise
-      .getBodyParts()
-      .stream()
-      .map(bp -> new BodyPartDTO(bp.getBodyPart(), bp.getTargetType()))
-      .toList();
-
-    return new ExerciseHistoryDTO(
-      exerciseId,
-      exercise.getName(),
-      bodyPartDTOs,
-      sessions.size(),
-      pr,
-      sessions
-    );
-  }
-
   @PostMapping
   public ExerciseDTO createExercise(
     @RequestHeader("Authorization") String authHeader,
@@ -217,7 +146,7 @@ public class ExerciseController {
 
     Exercise saved = exerciseRepo.save(exercise);
 
-    return toDTO(saved);
+    return ExerciseCatalogService.toDTO(saved);
   }
 
   @DeleteMapping("/{exerciseId}")
@@ -243,19 +172,4 @@ public class ExerciseController {
     exerciseRepo.delete(exercise);
     return ResponseEntity.ok().build();
   }
-
-  private ExerciseDTO toDTO(Exercise ex) {
-    List<BodyPartDTO> bodyPartDTOs = ex
-      .getBodyParts()
-      .stream()
-      .map(bp -> new BodyPartDTO(bp.getBodyPart(), bp.getTargetType()))
-      .toList();
-
-    return new ExerciseDTO(
-      ex.getExerciseId(),
-      ex.getName(),
-      bodyPartDTOs,
-      ex.getDescription()
-    );
-  }
 }
@@ -4,7 +4,8 @@ import com.gearfitness.gear_api.dto.ImageUploadUrlRequest;
 import com.gearfitness.gear_api.dto.ImageViewUrlsRequest;
 import com.gearfitness.gear_api.security.JwtService;
 import com.gearfitness.gear_api.service.S3StorageService;
-import java.util.LinkedHashMap;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -114,15 +115,15 @@ public class ImageController {
     }
 
     try {
-      String url = s3StorageService.generateViewUrl(key);
+      S3StorageService.ViewUrl viewUrl = s3StorageService.viewUrl(key);
       return ResponseEntity.ok(
         Map.of(
           "key",
           key,
           "url",
-          url,
+          viewUrl.url(),
           "expiresInSeconds",
-          S3StorageService.VIEW_URL_TTL.getSeconds()
+          secondsUntil(viewUrl.expiresAt())
         )
       );
     } catch (IllegalArgumentException e) {
@@ -164,25 +165,18 @@ public class ImageController {
       );
     }
 
-    Map<String, String> urls = new LinkedHashMap<>();
-    for (String key : keys) {
-      if (key == null || urls.containsKey(key)) {
-        continue;
-      }
-      try {
-        urls.put(key, s3StorageService.generateViewUrl(key));
-      } catch (IllegalArgumentException ignored) {
-        // Skip unrecognized keys; client renders a placeholder.
-      }
-    }
-
+    S3StorageService.ViewUrls viewUrls = s3StorageService.viewUrls(keys);
     return ResponseEntity.ok(
       Map.of(
         "urls",
-        urls,
+        viewUrls.urls(),
         "expiresInSeconds",
-        S3StorageService.VIEW_URL_TTL.getSeconds()
+        secondsUntil(viewUrls.expiresAt())
       )
     );
   }
+
+  private static long secondsUntil(Instant instant) {
+    return Math.max(0, Duration.between(Instant.now(), instant).getSeconds());
+  }
 }
@@ -1,13 +1,17 @@
 package com.gearfitness.gear_api.controller;
 
 import com.gearfitness.gear_api.dto.NotificationDTO;
+import com.gearfitness.gear_api.dto.NotificationPageDTO;
 import com.gearfitness.gear_api.security.JwtService;
 import com.gearfitness.gear_api.service.NotificationService;
+import com.gearfitness.gear_api.service.NotificationStreamService;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/notifications")
@@ -15,6 +19,7 @@ import org.springframework.web.bind.annotation.*;
 public class NotificationController {
 
   private final NotificationService notificationService;
+  private final NotificationStreamService notificationStreamService;
   private final JwtService jwtService;
 
   @GetMapping
@@ -27,6 +32,37 @@ public class NotificationController {
     return notificationService.getNotificationsForUser(userId);
   }
 
+  /**
+   * Keyset-paginated inbox. Pass the previous response's nextCursor (omit it
+   * for the first page).
+   */
+  @GetMapping("/cursor")
+  public NotificationPageDTO getNotificationPage(
+    @RequestHeader("Authorization") String authHeader,
+    @RequestParam(required = false) String cursor,
+    @RequestParam(defaultValue = "30") int size
+  ) {
+    String token = authHeader.substring(7);
+    UUID userId = jwtService.extractUserId(token);
+
+    return notificationService.getNotificationPage(userId, cursor, size);
+  }
+
+  /**
+   * Live notifications and unread badge as Server-Sent Events. Clients that
+   * reconnect send Last-Event-ID to have what they missed replayed.
+   */
+  @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter stream(
+    @RequestHeader("Authorization") String authHeader,
+    @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId
+  ) {
+    String token = authHeader.substring(7);
+    UUID userId = jwtService.extractUserId(token);
+
+    return notificationStreamService.subscribe(userId, lastEventId);
+  }
+
   @GetMapping("/unread-count")
   public long getUnreadCount(
     @RequestHeader("Authorization") String authHeader
@@ -1,11 +1,8 @@
 package com.gearfitness.gear_api.controller;
 
-import com.gearfitness.gear_api.dto.BodyPartDTO;
-import com.gearfitness.gear_api.dto.ExerciseDTO;
-import com.gearfitness.gear_api.entity.Exercise;
-import com.gearfitness.gear_api.repository.ExerciseRepository;
-import java.util.List;
+import com.gearfitness.gear_api.service.ExerciseCatalogService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -16,31 +13,18 @@ import org.springframework.web.bind.annotation.RestController;
  * so the routine builder can reference real exercises. Never exposes
  * user-created/custom exercises. Lives under the already-public "/api/public"
  * prefix; create/update/delete remain authenticated under "/api/exercises".
+ * Served from the in-memory catalog snapshot with an ETag, so a client that
+ * already has it gets a 304.
  */
 @RestController
 @RequestMapping("/api/public/exercises")
 @RequiredArgsConstructor
 public class PublicExerciseController {
 
-  private final ExerciseRepository exerciseRepo;
+  private final ExerciseCatalogService exerciseCatalogService;
 
   @GetMapping
-  public List<ExerciseDTO> getGlobalCatalog() {
-    return exerciseRepo.findByUserIsNull().stream().map(this::toDTO).toList();
-  }
-
-  private ExerciseDTO toDTO(Exercise ex) {
-    List<BodyPartDTO> bodyPartDTOs = ex
-      .getBodyParts()
-      .stream()
-      .map(bp -> new BodyPartDTO(bp.getBodyPart(), bp.getTargetType()))
-      .toList();
-
-    return new ExerciseDTO(
-      ex.getExerciseId(),
-      ex.getName(),
-      bodyPartDTOs,
-      ex.getDescription()
-    );
+  public ResponseEntity<byte[]> getGlobalCatalog() {
+    return exerciseCatalogService.globalCatalog().toResponse();
   }
 }
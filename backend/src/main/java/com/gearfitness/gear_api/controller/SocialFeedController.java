@@ -1,7 +1,9 @@
 package com.gearfitness.gear_api.controller;
 
+import com.gearfitness.gear_api.dto.FeedPageDTO;
 import com.gearfitness.gear_api.dto.FeedPostDTO;
 import com.gearfitness.gear_api.security.JwtService;
+import com.gearfitness.gear_api.service.FeedViewUrlService;
 import com.gearfitness.gear_api.service.SocialFeedService;
 import java.util.Map;
 import java.util.UUID;
@@ -23,6 +25,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class SocialFeedController {
 
   private final SocialFeedService socialFeedService;
+  private final FeedViewUrlService feedViewUrlService;
   private final JwtService jwtService;
 
   @GetMapping
@@ -75,6 +78,77 @@ public class SocialFeedController {
     return ResponseEntity.ok(posts);
   }
 
+  /**
+   * Cursor-paginated variants of the three feeds. The page/size endpoints above
+   * stay as a compatibility mode for older app builds; new clients pass the
+   * previous response's nextCursor (omit it for the first page).
+   * The cursor discover feed is ranked by trending score rather than recency.
+   *
+   * With embedUrls=true the page comes back with its images already presigned
+   * (see FeedViewUrlService), saving the client the /api/images/view-urls
+   * round trip; image fields still carry the keys.
+   */
+  @GetMapping("/cursor")
+  public ResponseEntity<FeedPageDTO> getFeedByCursor(
+    @RequestHeader("Authorization") String authHeader,
+    @RequestParam(required = false) String cursor,
+    @RequestParam(defaultValue = "20") int size,
+    @RequestParam(defaultValue = "false") boolean embedUrls
+  ) {
+    String token = authHeader.substring(7);
+    UUID currentUserId = jwtService.extractUserId(token);
+    return ResponseEntity.ok(
+      withUrls(
+        socialFeedService.getFeedAfter(currentUserId, cursor, size),
+        embedUrls
+      )
+    );
+  }
+
+  @GetMapping("/discover/cursor")
+  public ResponseEntity<FeedPageDTO> getDiscoverFeedByCursor(
+    @RequestHeader("Authorization") String authHeader,
+    @RequestParam(required = false) String cursor,
+    @RequestParam(defaultValue = "20") int size,
+    @RequestParam(defaultValue = "false") boolean embedUrls
+  ) {
+    String token = authHeader.substring(7);
+    UUID currentUserId = jwtService.extractUserId(token);
+    return ResponseEntity.ok(
+      withUrls(
+        socialFeedService.getDiscoverFeedAfter(currentUserId, cursor, size),
+        embedUrls
+      )
+    );
+  }
+
+  @GetMapping("/user/{userId}/cursor")
+  public ResponseEntity<FeedPageDTO> getUserPostsByCursor(
+    @PathVariable UUID userId,
+    @RequestHeader("Authorization") String authHeader,
+    @RequestParam(required = false) String cursor,
+    @RequestParam(defaultValue = "20") int size,
+    @RequestParam(defaultValue = "false") boolean embedUrls
+  ) {
+    String token = authHeader.substring(7);
+    UUID currentUserId = jwtService.extractUserId(token);
+    return ResponseEntity.ok(
+      withUrls(
+        socialFeedService.getUserPostsAfter(
+          userId,
+          currentUserId,
+          cursor,
+          size
+        ),
+        embedUrls
+      )
+    );
+  }
+
+  private FeedPageDTO withUrls(FeedPageDTO page, boolean embedUrls) {
+    return embedUrls ? feedViewUrlService.embedViewUrls(page) : page;
+  }
+
   @GetMapping("/posts/{postId}")
   public ResponseEntity<FeedPostDTO> getPost(
     @PathVariable UUID postId,
@@ -4,19 +4,25 @@ import com.gearfitness.gear_api.dto.DailyVolumeDTO;
 import com.gearfitness.gear_api.dto.WeeklyVolumeDTO;
 import com.gearfitness.gear_api.dto.WorkoutDTO;
 import com.gearfitness.gear_api.dto.WorkoutDetailDTO;
+import com.gearfitness.gear_api.dto.WorkoutImportResultDTO;
+import com.gearfitness.gear_api.dto.WorkoutPageDTO;
 import com.gearfitness.gear_api.dto.WorkoutSubmissionDTO;
 import com.gearfitness.gear_api.entity.Workout;
 import com.gearfitness.gear_api.security.JwtService;
 import com.gearfitness.gear_api.service.S3StorageService;
+import com.gearfitness.gear_api.service.WorkoutImportService;
 import com.gearfitness.gear_api.service.WorkoutService;
+import java.io.InputStream;
 import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -29,6 +35,7 @@ import org.springframework.web.multipart.MultipartFile;
 public class WorkoutController {
 
   private final WorkoutService workoutService;
+  private final WorkoutImportService workoutImportService;
   private final JwtService jwtService;
   private final S3StorageService s3StorageService;
 
@@ -37,32 +44,38 @@ public class WorkoutController {
     @PathVariable UUID userId
   ) {
     try {
-      List<WorkoutDTO> workouts = workoutService
-        .getWorkoutsByUser(userId)
-        .stream()
-        .map(w ->
-          new WorkoutDTO(
-            w.getWorkoutId(),
-            w.getName(),
-            w.getDatePerformed(),
-            w.getCreatedAt(),
-            w.getDurationMin(),
-            w.getWorkoutExercises() == null
-              ? 0
-              : w.getWorkoutExercises().size(),
-            w.getBodyTags() == null
-              ? List.of()
-              : w.getBodyTags().stream().map(Enum::name).toList()
-          )
-        )
-        .collect(Collectors.toList());
-      return ResponseEntity.ok(workouts);
+      return ResponseEntity.ok(workoutService.getWorkoutsByUser(userId));
     } catch (Exception e) {
       e.printStackTrace();
       return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
     }
   }
 
+  /**
+   * Keyset-paginated workout list. Pass the previous response's nextCursor
+   * (omit it for the first page). from/to filter on datePerformed; since
+   * returns only workouts created after it, for incremental sync.
+   */
+  @GetMapping("/user/{userId}/cursor")
+  public ResponseEntity<WorkoutPageDTO> getWorkoutPage(
+    @PathVariable UUID userId,
+    @RequestParam(required = false) String cursor,
+    @RequestParam(defaultValue = "50") int size,
+    @RequestParam(required = false) @DateTimeFormat(
+      iso = DateTimeFormat.ISO.DATE
+    ) LocalDate from,
+    @RequestParam(required = false) @DateTimeFormat(
+      iso = DateTimeFormat.ISO.DATE
+    ) LocalDate to,
+    @RequestParam(required = false) @DateTimeFormat(
+      iso = DateTimeFormat.ISO.DATE_TIME
+    ) LocalDateTime since
+  ) {
+    return ResponseEntity.ok(
+      workoutService.getWorkoutPage(userId, cursor, size, from, to, since)
+    );
+  }
+
   @GetMapping("/{workoutId}")
   public ResponseEntity<WorkoutDetailDTO> getWorkoutDetails(
     @PathVariable UUID workoutId,
@@ -91,6 +104,27 @@ public class WorkoutController {
     }
   }
 
+  /**
+   * Bulk import of another app's CSV export. The request body is the raw CSV
+   * (not multipart), so it is parsed as it streams in rather than buffered.
+   */
+  @PostMapping(
+    value = "/import",
+    consumes = {
+      "text/csv",
+      MediaType.TEXT_PLAIN_VALUE,
+      MediaType.APPLICATION_OCTET_STREAM_VALUE,
+    }
+  )
+  public ResponseEntity<WorkoutImportResultDTO> importWorkouts(
+    @RequestHeader("Authorization") String authHeader,
+    InputStream body
+  ) {
+    String token = authHeader.substring(7);
+    UUID userId = jwtService.extractUserId(token);
+    return ResponseEntity.ok(workoutImportService.importCsv(userId, body));
+  }
+
   @PostMapping
   public ResponseEntity<WorkoutDTO> addWorkout(@RequestBody Workout workout) {
     try {
@@ -107,7 +141,8 @@ public class WorkoutController {
             : saved.getWorkoutExercises().size(),
           saved.getBodyTags() == null
             ? List.of()
-            : saved.getBodyTags().stream().map(Enum::name).toList()
+            : saved.getBodyTags().stream().map(Enum::name).toList(),
+          saved.getPhotoUrls() == null ? List.of() : saved.getPhotoUrls()
         )
       );
     } catch (Exception e) {
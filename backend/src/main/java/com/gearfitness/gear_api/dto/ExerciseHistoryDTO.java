@@ -1,6 +1,7 @@
 package com.gearfitness.gear_api.dto;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 import lombok.AllArgsConstructor;
@@ -16,4 +17,11 @@ public class ExerciseHistoryDTO {
   private Integer totalSessions;
   private BigDecimal personalRecordLbs;
   private List<ExerciseSessionDTO> sessions;
+
+  // More (older) sessions exist past this page.
+  private Boolean hasMore;
+
+  // Latest workout created_at for this exercise; pass back as `since` to fetch
+  // only sessions logged afterwards. Totals are all-time regardless of since.
+  private LocalDateTime watermark;
 }
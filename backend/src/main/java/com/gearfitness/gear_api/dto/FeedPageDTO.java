@@ -0,0 +1,31 @@
+package com.gearfitness.gear_api.dto;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of a cursor-paginated feed. nextCursor is opaque to the client:
+ * pass it back unchanged to fetch the following page. It is null (and hasMore
+ * false) once the feed is exhausted. No total count is computed.
+ *
+ * With embedUrls, avatars maps each author on the page to a presigned url for
+ * their profile picture and urlsExpireInSeconds is when the soonest of the
+ * page's urls lapses; both are null otherwise.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeedPageDTO {
+
+  private List<FeedPostDTO> posts;
+  private String nextCursor;
+  private Boolean hasMore;
+  private Map<UUID, String> avatars;
+  private Long urlsExpireInSeconds;
+}
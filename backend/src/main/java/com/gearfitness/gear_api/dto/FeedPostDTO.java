@@ -38,4 +38,9 @@ public class FeedPostDTO {
   private Boolean likedByCurrentUser;
   private String visibility;
   private Boolean viewerFollowsAuthor;
+
+  // Presigned urls for imageUrl/photoUrls, only in embedUrls mode; the
+  // author's avatar url is in the page's avatars map.
+  private String imageViewUrl;
+  private List<String> photoViewUrls;
 }
@@ -0,0 +1,23 @@
+package com.gearfitness.gear_api.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of the notification inbox. nextCursor is opaque: pass it back
+ * unchanged for the following page. It is null (and hasMore false) once the
+ * inbox is exhausted.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationPageDTO {
+
+  private List<NotificationDTO> notifications;
+  private String nextCursor;
+  private Boolean hasMore;
+}
@@ -18,4 +18,6 @@ public class WorkoutDTO {
   private Integer durationMin;
   private Integer exerciseCount;
   private List<String> bodyTags;
+  // S3 keys, in display order.
+  private List<String> photoUrls;
 }
@@ -0,0 +1,26 @@
+package com.gearfitness.gear_api.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a CSV workout import. duplicateWorkouts were already present
+ * (from an earlier import of the same export) and left alone; skippedRows
+ * could not be read or named an exercise we couldn't match, listed (capped)
+ * in unknownExercises.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkoutImportResultDTO {
+
+  private Integer importedWorkouts;
+  private Integer importedSets;
+  private Integer duplicateWorkouts;
+  private Integer skippedRows;
+  private List<String> unknownExercises;
+}
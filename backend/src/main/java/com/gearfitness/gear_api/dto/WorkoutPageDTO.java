@@ -0,0 +1,23 @@
+package com.gearfitness.gear_api.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of a user's workout list. nextCursor is opaque: pass it back
+ * unchanged for the following page. It is null (and hasMore false) once the
+ * list is exhausted.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkoutPageDTO {
+
+  private List<WorkoutDTO> workouts;
+  private String nextCursor;
+  private Boolean hasMore;
+}
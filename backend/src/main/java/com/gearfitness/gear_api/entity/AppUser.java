@@ -88,6 +88,21 @@ public class AppUser {
   @Column(name = "last_streak_date")
   private LocalDate lastStreakDate;
 
+  // Denormalized profile counters (V54). Read-only to JPA: they are changed
+  // only by the atomic adjust* updates in AppUserRepository, so saving a
+  // stale AppUser can never write an old count back.
+  @Column(name = "follower_count", insertable = false, updatable = false)
+  @Builder.Default
+  private Integer followerCount = 0;
+
+  @Column(name = "following_count", insertable = false, updatable = false)
+  @Builder.Default
+  private Integer followingCount = 0;
+
+  @Column(name = "workout_count", insertable = false, updatable = false)
+  @Builder.Default
+  private Integer workoutCount = 0;
+
   // Subscription tier, authoritative source written by the RevenueCat webhook.
   @Enumerated(EnumType.STRING)
   @Column(name = "tier", nullable = false, length = 20)
@@ -0,0 +1,67 @@
+package com.gearfitness.gear_api.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Running-max index for PR detection, one row per (user, exercise) the user has
+ * logged sets for. Owned by PrService; see V53 for the invariant it keeps.
+ */
+@Entity
+@Table(name = "exercise_pr_state")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@IdClass(ExercisePrState.ExercisePrStateId.class)
+public class ExercisePrState {
+
+  @Id
+  @Column(name = "user_id")
+  private UUID userId;
+
+  @Id
+  @Column(name = "exercise_id")
+  private UUID exerciseId;
+
+  // Null while every logged set for the exercise is unweighted.
+  @Column(name = "max_weight_lbs", precision = 10, scale = 2)
+  private BigDecimal maxWeightLbs;
+
+  @Column(name = "last_date", nullable = false)
+  private LocalDate lastDate;
+
+  // Composite Key Class
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class ExercisePrStateId implements Serializable {
+
+    private UUID userId;
+    private UUID exerciseId;
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      ExercisePrStateId that = (ExercisePrStateId) o;
+      return (
+        Objects.equals(userId, that.userId) &&
+        Objects.equals(exerciseId, that.exerciseId)
+      );
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(userId, exerciseId);
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package com.gearfitness.gear_api.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One post id in one user's materialized following timeline. created_at and
+ * author_id are copied from the post so a timeline page (and the unfollow/
+ * block prune) never has to join back to post.
+ */
+@Entity
+@Table(name = "home_timeline")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@IdClass(HomeTimelineEntry.HomeTimelineEntryId.class)
+public class HomeTimelineEntry {
+
+  @Id
+  @Column(name = "owner_id")
+  private UUID ownerId;
+
+  @Id
+  @Column(name = "post_id")
+  private UUID postId;
+
+  @Column(name = "author_id", nullable = false)
+  private UUID authorId;
+
+  @Column(name = "created_at", nullable = false)
+  private LocalDateTime createdAt;
+
+  // Composite Key Class
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class HomeTimelineEntryId implements Serializable {
+
+    private UUID ownerId;
+    private UUID postId;
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      HomeTimelineEntryId that = (HomeTimelineEntryId) o;
+      return (
+        Objects.equals(ownerId, that.ownerId) &&
+        Objects.equals(postId, that.postId)
+      );
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(ownerId, postId);
+    }
+  }
+}
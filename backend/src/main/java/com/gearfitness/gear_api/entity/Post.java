@@ -72,6 +72,17 @@ public class Post {
   @Column(name = "created_at", nullable = false, updatable = false)
   private LocalDateTime createdAt;
 
+  // Denormalized engagement counters (V61). Read-only on the entity: written
+  // only by the atomic adjust* updates in PostRepository, so saving a stale
+  // Post can never write an old count back.
+  @Column(name = "like_count", insertable = false, updatable = false)
+  @Builder.Default
+  private Integer likeCount = 0;
+
+  @Column(name = "comment_count", insertable = false, updatable = false)
+  @Builder.Default
+  private Integer commentCount = 0;
+
   // Relationships
   @OneToMany(mappedBy = "post", cascade = CascadeType.ALL, orphanRemoval = true)
   @Builder.Default
@@ -0,0 +1,33 @@
+package com.gearfitness.gear_api.entity;
+
+import jakarta.persistence.*;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Persisted form of a user's ActivityBitmap. Rows are created through the
+ * insert-if-absent in UserActivityBitmapRepository and updated only while
+ * holding its FOR UPDATE lock.
+ */
+@Entity
+@Table(name = "user_activity_bitmap")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserActivityBitmap {
+
+  @Id
+  @Column(name = "user_id")
+  private UUID userId;
+
+  // Epoch day of bit 0; always a multiple of 8.
+  @Column(name = "base_day", nullable = false)
+  private Integer baseDay;
+
+  @Column(name = "bits", nullable = false)
+  private byte[] bits;
+}
@@ -0,0 +1,65 @@
+package com.gearfitness.gear_api.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-(user, day) volume rollup backing the weekly/daily volume charts. Rows
+ * are written only through the upsert in UserDailyVolumeRepository, never by
+ * saving this entity, so concurrent submits on the same day can't lose an
+ * increment.
+ */
+@Entity
+@Table(name = "user_daily_volume")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@IdClass(UserDailyVolume.UserDailyVolumeId.class)
+public class UserDailyVolume {
+
+  @Id
+  @Column(name = "user_id")
+  private UUID userId;
+
+  @Id
+  @Column(name = "day")
+  private LocalDate day;
+
+  @Column(name = "total_volume_lbs", nullable = false, precision = 16, scale = 2)
+  private BigDecimal totalVolumeLbs;
+
+  @Column(name = "workout_count", nullable = false)
+  private Integer workoutCount;
+
+  // Composite Key Class
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class UserDailyVolumeId implements Serializable {
+
+    private UUID userId;
+    private LocalDate day;
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      UserDailyVolumeId that = (UserDailyVolumeId) o;
+      return Objects.equals(userId, that.userId) && Objects.equals(day, that.day);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(userId, day);
+    }
+  }
+}
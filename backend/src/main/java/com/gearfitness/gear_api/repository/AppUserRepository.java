@@ -2,13 +2,16 @@ package com.gearfitness.gear_api.repository;
 
 import com.gearfitness.gear_api.entity.AppUser;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface AppUserRepository extends JpaRepository<AppUser, UUID> {
@@ -17,7 +20,9 @@ public interface AppUserRepository extends JpaRepository<AppUser, UUID> {
   Optional<AppUser> findByUsernameIgnoreCase(String username);
 
   /**
-   * Relevance-first user search for the social tab.
+   * Relevance-first user search for the social tab. AppUserService serves
+   * typeahead from UserSearchIndex and only falls back to this for contains
+   * and fuzzy matches when the prefix index finds too few.
    *
    * <p>Results are ordered by a blended score: a text-match tier (exact 100 >
    * prefix 80 > word-start 60 > contains 40 > trigram-fuzzy 20, taken as the
@@ -33,7 +38,8 @@ public interface AppUserRepository extends JpaRepository<AppUser, UUID> {
    * operators backed by the trigram GIN indexes from migration V17. Because it
    * bypasses the entity {@code @SQLRestriction} filters, the soft-delete
    * ({@code app_user.deleted_at}) and follow-hidden ({@code follow.hidden_at})
-   * conditions are replicated explicitly.
+   * conditions are replicated explicitly. Accounts blocked either way are
+   * excluded through blockedIds, the current user's set from RelationshipCache.
    */
   @Query(
     value = """
@@ -52,14 +58,7 @@ public interface AppUserRepository extends JpaRepository<AppUser, UUID> {
              OR LOWER(u.username) % LOWER(:query)
              OR LOWER(u.display_name) % LOWER(:query)
           )
-          AND NOT EXISTS (
-            SELECT 1 FROM follow b
-            WHERE b.hidden_at IS NULL AND b.status = 'BLOCKED'
-              AND (
-                   (b.follower_id = :currentUserId AND b.followee_id = u.user_id)
-                OR (b.follower_id = u.user_id AND b.followee_id = :currentUserId)
-              )
-          )
+          AND u.user_id NOT IN (:blockedIds)
         ORDER BY (
             GREATEST(
               CASE
@@ -95,6 +94,7 @@ public interface AppUserRepository extends JpaRepository<AppUser, UUID> {
   List<AppUser> rankedSearch(
     @Param("query") String query,
     @Param("currentUserId") UUID currentUserId,
+    @Param("blockedIds") Collection<UUID> blockedIds,
     @Param("threshold") double threshold,
     @Param("limit") int limit
   );
@@ -124,6 +124,49 @@ public interface AppUserRepository extends JpaRepository<AppUser, UUID> {
   )
   List<AppUser> findPushNotifiableAtLocalMidnight();
 
+  /**
+   * Drop a push token Expo reported as DeviceNotRegistered. Matched by token
+   * rather than user so a token that has since moved to another account (same
+   * device, new login) is cleared wherever it now lives.
+   */
+  @Modifying
+  @Transactional
+  @Query(
+    value = "UPDATE app_user SET expo_push_token = NULL WHERE expo_push_token IN (:tokens)",
+    nativeQuery = true
+  )
+  int clearExpoPushTokens(@Param("tokens") Collection<String> tokens);
+
+  /**
+   * Apply a follow edge entering (+1) or leaving (-1) ACCEPTED to both ends'
+   * counters in one statement.
+   */
+  @Modifying
+  @Query(
+    value = """
+    UPDATE app_user SET
+      following_count = following_count + CASE WHEN user_id = :followerId THEN :delta ELSE 0 END,
+      follower_count = follower_count + CASE WHEN user_id = :followeeId THEN :delta ELSE 0 END
+    WHERE user_id IN (:followerId, :followeeId)
+    """,
+    nativeQuery = true
+  )
+  void adjustFollowCounts(
+    @Param("followerId") UUID followerId,
+    @Param("followeeId") UUID followeeId,
+    @Param("delta") int delta
+  );
+
+  @Modifying
+  @Query(
+    value = "UPDATE app_user SET workout_count = workout_count + :delta WHERE user_id = :userId",
+    nativeQuery = true
+  )
+  void adjustWorkoutCount(
+    @Param("userId") UUID userId,
+    @Param("delta") int delta
+  );
+
   boolean existsByEmail(String email);
   boolean existsByUsername(String username);
 
@@ -145,6 +188,16 @@ public interface AppUserRepository extends JpaRepository<AppUser, UUID> {
   )
   List<AppUser> findSoftDeletedBefore(@Param("cutoff") LocalDateTime cutoff);
 
+  /**
+   * Ids of every soft-deleted (not yet purged) account. Backs the JWT filter's
+   * in-memory revocation set; small because purges run after 48h.
+   */
+  @Query(
+    value = "SELECT user_id FROM app_user WHERE deleted_at IS NOT NULL",
+    nativeQuery = true
+  )
+  List<UUID> findSoftDeletedUserIds();
+
   @Query(
     value = "SELECT EXISTS(SELECT 1 FROM app_user WHERE LOWER(username) = LOWER(:username))",
     nativeQuery = true
@@ -29,6 +29,29 @@ public class ContentVisibilityRepository {
       .setParameter("uid", userId)
       .executeUpdate();
 
+    // Release the like/comment counters of the posts this user engaged with,
+    // for exactly the rows about to be hidden (before the hide, while they
+    // still match).
+    em
+      .createNativeQuery(
+        "UPDATE post p SET comment_count = p.comment_count - c.n FROM (" +
+          "SELECT post_id, COUNT(*) AS n FROM post_comment " +
+          "WHERE user_id = :uid AND hidden_at IS NULL " +
+          "AND moderation_status = 'VISIBLE' GROUP BY post_id" +
+          ") c WHERE c.post_id = p.post_id"
+      )
+      .setParameter("uid", userId)
+      .executeUpdate();
+    em
+      .createNativeQuery(
+        "UPDATE post p SET like_count = p.like_count - l.n FROM (" +
+          "SELECT post_id, COUNT(*) AS n FROM post_like " +
+          "WHERE user_id = :uid AND hidden_at IS NULL GROUP BY post_id" +
+          ") l WHERE l.post_id = p.post_id"
+      )
+      .setParameter("uid", userId)
+      .executeUpdate();
+
     em
       .createNativeQuery(
         "UPDATE post_comment SET hidden_at = :ts WHERE user_id = :uid AND hidden_at IS NULL"
@@ -45,18 +68,41 @@ public class ContentVisibilityRepository {
       .setParameter("uid", userId)
       .executeUpdate();
 
+    // Notifications go before the follow edges: the unread-counter trigger
+    // (V59) judges each hidden row against the blocks still in place, the
+    // same ones it was counted under.
     em
       .createNativeQuery(
-        "UPDATE follow SET hidden_at = :ts " +
-          "WHERE (follower_id = :uid OR followee_id = :uid) AND hidden_at IS NULL"
+        "UPDATE notification SET hidden_at = :ts " +
+          "WHERE (actor_user_id = :uid OR recipient_user_id = :uid) AND hidden_at IS NULL"
       )
       .setParameter("ts", hiddenAt)
       .setParameter("uid", userId)
       .executeUpdate();
+
+    // Release the counterparts' follower/following counters for the ACCEPTED
+    // edges about to be hidden (before the hide, while they still match).
     em
       .createNativeQuery(
-        "UPDATE notification SET hidden_at = :ts " +
-          "WHERE (actor_user_id = :uid OR recipient_user_id = :uid) AND hidden_at IS NULL"
+        "UPDATE app_user u SET follower_count = u.follower_count - 1 FROM follow f " +
+          "WHERE f.follower_id = :uid AND f.followee_id = u.user_id " +
+          "AND f.status = 'ACCEPTED' AND f.hidden_at IS NULL"
+      )
+      .setParameter("uid", userId)
+      .executeUpdate();
+    em
+      .createNativeQuery(
+        "UPDATE app_user u SET following_count = u.following_count - 1 FROM follow f " +
+          "WHERE f.followee_id = :uid AND f.follower_id = u.user_id " +
+          "AND f.status = 'ACCEPTED' AND f.hidden_at IS NULL"
+      )
+      .setParameter("uid", userId)
+      .executeUpdate();
+
+    em
+      .createNativeQuery(
+        "UPDATE follow SET hidden_at = :ts " +
+          "WHERE (follower_id = :uid OR followee_id = :uid) AND hidden_at IS NULL"
       )
       .setParameter("ts", hiddenAt)
       .setParameter("uid", userId)
@@ -77,6 +123,30 @@ public class ContentVisibilityRepository {
       .setParameter("uid", userId)
       .executeUpdate();
 
+    // Re-count the posts' like/comment counters for exactly the rows being
+    // restored.
+    em
+      .createNativeQuery(
+        "UPDATE post p SET comment_count = p.comment_count + c.n FROM (" +
+          "SELECT post_id, COUNT(*) AS n FROM post_comment " +
+          "WHERE user_id = :uid AND hidden_at = :ts " +
+          "AND moderation_status = 'VISIBLE' GROUP BY post_id" +
+          ") c WHERE c.post_id = p.post_id"
+      )
+      .setParameter("ts", hiddenAt)
+      .setParameter("uid", userId)
+      .executeUpdate();
+    em
+      .createNativeQuery(
+        "UPDATE post p SET like_count = p.like_count + l.n FROM (" +
+          "SELECT post_id, COUNT(*) AS n FROM post_like " +
+          "WHERE user_id = :uid AND hidden_at = :ts GROUP BY post_id" +
+          ") l WHERE l.post_id = p.post_id"
+      )
+      .setParameter("ts", hiddenAt)
+      .setParameter("uid", userId)
+      .executeUpdate();
+
     em
       .createNativeQuery(
         "UPDATE post_comment SET hidden_at = NULL WHERE user_id = :uid AND hidden_at = :ts"
@@ -93,6 +163,26 @@ public class ContentVisibilityRepository {
       .setParameter("uid", userId)
       .executeUpdate();
 
+    // Re-count the counterparts for exactly the ACCEPTED edges being restored.
+    em
+      .createNativeQuery(
+        "UPDATE app_user u SET follower_count = u.follower_count + 1 FROM follow f " +
+          "WHERE f.follower_id = :uid AND f.followee_id = u.user_id " +
+          "AND f.status = 'ACCEPTED' AND f.hidden_at = :ts"
+      )
+      .setParameter("ts", hiddenAt)
+      .setParameter("uid", userId)
+      .executeUpdate();
+    em
+      .createNativeQuery(
+        "UPDATE app_user u SET following_count = u.following_count + 1 FROM follow f " +
+          "WHERE f.followee_id = :uid AND f.follower_id = u.user_id " +
+          "AND f.status = 'ACCEPTED' AND f.hidden_at = :ts"
+      )
+      .setParameter("ts", hiddenAt)
+      .setParameter("uid", userId)
+      .executeUpdate();
+
     em
       .createNativeQuery(
         "UPDATE follow SET hidden_at = NULL " +
@@ -0,0 +1,64 @@
+package com.gearfitness.gear_api.repository;
+
+import com.gearfitness.gear_api.entity.ExercisePrState;
+import com.gearfitness.gear_api.entity.ExercisePrState.ExercisePrStateId;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ExercisePrStateRepository
+  extends JpaRepository<ExercisePrState, ExercisePrStateId>
+{
+  /**
+   * Row-locked read so two submits touching the same exercise decide their
+   * PRs one after the other instead of both beating the same old max.
+   */
+  @Query(
+    value = """
+    SELECT * FROM exercise_pr_state
+    WHERE user_id = :userId AND exercise_id = :exerciseId
+    FOR UPDATE
+    """,
+    nativeQuery = true
+  )
+  Optional<ExercisePrState> findForUpdate(
+    @Param("userId") UUID userId,
+    @Param("exerciseId") UUID exerciseId
+  );
+
+  /** Insert or overwrite the (user, exercise) row after a PR walk. */
+  @Modifying
+  @Query(
+    value = """
+    INSERT INTO exercise_pr_state (user_id, exercise_id, max_weight_lbs, last_date)
+    VALUES (:userId, :exerciseId, :maxWeight, :lastDate)
+    ON CONFLICT (user_id, exercise_id) DO UPDATE SET
+      max_weight_lbs = EXCLUDED.max_weight_lbs,
+      last_date = EXCLUDED.last_date
+    """,
+    nativeQuery = true
+  )
+  void upsert(
+    @Param("userId") UUID userId,
+    @Param("exerciseId") UUID exerciseId,
+    @Param("maxWeight") BigDecimal maxWeight,
+    @Param("lastDate") LocalDate lastDate
+  );
+
+  @Modifying
+  @Query(
+    value = "DELETE FROM exercise_pr_state WHERE user_id = :userId AND exercise_id = :exerciseId",
+    nativeQuery = true
+  )
+  void deleteState(
+    @Param("userId") UUID userId,
+    @Param("exerciseId") UUID exerciseId
+  );
+}
@@ -1,7 +1,7 @@
 package com.gearfitness.gear_api.repository;
 
 import com.gearfitness.gear_api.entity.Exercise;
-import com.gearfitness.gear_api.entity.MuscleGroup;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -9,14 +9,37 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 public interface ExerciseRepository extends JpaRepository<Exercise, UUID> {
+  /** Exercises with their body parts in one query (no per-row collection load). */
   @Query(
-    "SELECT DISTINCT e FROM Exercise e JOIN e.bodyParts bp " +
-      "WHERE bp.bodyPart = :bodyPart"
+    "SELECT DISTINCT e FROM Exercise e LEFT JOIN FETCH e.bodyParts " +
+      "WHERE e.exerciseId IN :ids"
   )
-  List<Exercise> findByBodyPart(@Param("bodyPart") MuscleGroup bodyPart);
+  List<Exercise> findWithBodyPartsByIdIn(@Param("ids") Collection<UUID> ids);
 
-  List<Exercise> findByUserIsNullOrUserUserId(UUID userId);
+  /** The global catalog with body parts, in one query. */
+  @Query(
+    "SELECT DISTINCT e FROM Exercise e LEFT JOIN FETCH e.bodyParts " +
+      "WHERE e.user IS NULL"
+  )
+  List<Exercise> findGlobalWithBodyParts();
 
-  /** Global catalog only — exercises with no owning user. */
-  List<Exercise> findByUserIsNull();
+  /** A user's custom exercises with body parts, in one query. */
+  @Query(
+    "SELECT DISTINCT e FROM Exercise e LEFT JOIN FETCH e.bodyParts " +
+      "WHERE e.user.userId = :userId"
+  )
+  List<Exercise> findOwnedWithBodyParts(@Param("userId") UUID userId);
+
+  /**
+   * Id and name of every exercise the user can log (global catalog plus their
+   * own), without loading entities. Rows: [exercise_id, name, user_id].
+   */
+  @Query(
+    value = """
+    SELECT exercise_id, name, user_id FROM exercise
+    WHERE user_id IS NULL OR user_id = :userId
+    """,
+    nativeQuery = true
+  )
+  List<Object[]> findLoggableNamesRaw(@Param("userId") UUID userId);
 }
@@ -69,24 +69,6 @@ public interface FollowRepository
     Follow.FollowStatus status
   );
 
-  /**
-   * Fetch all ACCEPTED follow edges between the current user and the given
-   * other users in either direction. Used to populate relationship flags on
-   * user search results in a single batched query.
-   */
-  @Query(
-    """
-        SELECT f FROM Follow f
-        WHERE f.status = com.gearfitness.gear_api.entity.Follow.FollowStatus.ACCEPTED
-          AND ((f.follower.userId = :currentUserId AND f.followee.userId IN :otherUserIds)
-            OR (f.followee.userId = :currentUserId AND f.follower.userId IN :otherUserIds))
-    """
-  )
-  List<Follow> findAcceptedEdgesBetween(
-    @Param("currentUserId") UUID currentUserId,
-    @Param("otherUserIds") List<UUID> otherUserIds
-  );
-
   /**
    * Of the given authors, which ones does the viewer follow with ACCEPTED
    * status. Batched so a feed page resolves follow state in one query, the
@@ -113,6 +95,48 @@ public interface FollowRepository
     return new HashSet<>(findFollowedAuthorIdsRaw(viewerId, authorIds));
   }
 
+  /**
+   * Of the given authors, which ones follow the viewer with ACCEPTED status.
+   * The reverse of findFollowedAuthorIds; together they resolve the mutual
+   * follow that FRIENDS posts require for a whole page at once.
+   */
+  @Query(
+    """
+        SELECT f.follower.userId FROM Follow f
+        WHERE f.followee.userId = :viewerId
+          AND f.follower.userId IN :authorIds
+          AND f.status = com.gearfitness.gear_api.entity.Follow.FollowStatus.ACCEPTED
+    """
+  )
+  List<UUID> findAuthorIdsFollowingViewerRaw(
+    @Param("viewerId") UUID viewerId,
+    @Param("authorIds") List<UUID> authorIds
+  );
+
+  default Set<UUID> findAuthorIdsFollowingViewer(
+    UUID viewerId,
+    List<UUID> authorIds
+  ) {
+    if (authorIds == null || authorIds.isEmpty()) {
+      return Set.of();
+    }
+    return new HashSet<>(findAuthorIdsFollowingViewerRaw(viewerId, authorIds));
+  }
+
+  /**
+   * Users with more than :threshold accepted followers. Their posts are merged
+   * into timelines at read time rather than fanned out on write.
+   */
+  @Query(
+    """
+        SELECT f.followee.userId FROM Follow f
+        WHERE f.status = com.gearfitness.gear_api.entity.Follow.FollowStatus.ACCEPTED
+        GROUP BY f.followee.userId
+        HAVING COUNT(f) > :threshold
+    """
+  )
+  List<UUID> findUserIdsWithFollowersOver(@Param("threshold") long threshold);
+
   /**
    * Check whether a block exists in either direction between two users.
    */
@@ -18,7 +18,8 @@ public interface FoodItemRepository extends JpaRepository<FoodItem, UUID> {
    * 20), with the user's own foods first inside a tier, then trigram
    * similarity, with shorter (less specific) descriptions and whole foods
    * preferred on ties. Native query so it can use the {@code pg_trgm}
-   * operators backed by the trigram GIN index from V32.
+   * operators backed by the trigram GIN index from V32. Serves search only
+   * until FoodSearchIndex, which reproduces this ranking in memory, loads.
    */
   @Query(
     value = """
@@ -0,0 +1,152 @@
+package com.gearfitness.gear_api.repository;
+
+import com.gearfitness.gear_api.entity.HomeTimelineEntry;
+import com.gearfitness.gear_api.entity.HomeTimelineEntry.HomeTimelineEntryId;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface HomeTimelineRepository
+  extends JpaRepository<HomeTimelineEntry, HomeTimelineEntryId>
+{
+  /**
+   * One page of a user's timeline strictly after the (createdAt, postId)
+   * cursor. Served entirely by idx_home_timeline_owner_created.
+   */
+  @Query(
+    """
+    SELECT t FROM HomeTimelineEntry t
+    WHERE t.ownerId = :ownerId
+    AND (
+        t.createdAt < :cursorCreatedAt
+        OR (t.createdAt = :cursorCreatedAt AND t.postId < :cursorPostId)
+    )
+    ORDER BY t.createdAt DESC, t.postId DESC
+    """
+  )
+  List<HomeTimelineEntry> findPageBefore(
+    @Param("ownerId") UUID ownerId,
+    @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+    @Param("cursorPostId") UUID cursorPostId,
+    Pageable pageable
+  );
+
+  /**
+   * Push a new post into the timeline of every accepted follower of its
+   * author. Private posts are never fanned out. Reads the committed post row,
+   * so call it after the creating transaction commits.
+   */
+  @Modifying
+  @Query(
+    value = """
+    INSERT INTO home_timeline (owner_id, post_id, author_id, created_at)
+    SELECT f.follower_id, p.post_id, p.user_id, p.created_at
+    FROM post p
+      JOIN follow f ON f.followee_id = p.user_id
+    WHERE p.post_id = :postId
+      AND p.visibility <> 'PRIVATE'
+      AND f.status = 'ACCEPTED'
+      AND f.hidden_at IS NULL
+    ON CONFLICT DO NOTHING
+    """,
+    nativeQuery = true
+  )
+  int fanOut(@Param("postId") UUID postId);
+
+  /** Seed a new follower's timeline with the followee's most recent posts. */
+  @Modifying
+  @Query(
+    value = """
+    INSERT INTO home_timeline (owner_id, post_id, author_id, created_at)
+    SELECT :ownerId, p.post_id, p.user_id, p.created_at
+    FROM post p
+    WHERE p.user_id = :authorId
+      AND p.visibility <> 'PRIVATE'
+      AND p.hidden_at IS NULL
+      AND p.moderation_status = 'VISIBLE'
+    ORDER BY p.created_at DESC
+    LIMIT :limit
+    ON CONFLICT DO NOTHING
+    """,
+    nativeQuery = true
+  )
+  int backfillFromAuthor(
+    @Param("ownerId") UUID ownerId,
+    @Param("authorId") UUID authorId,
+    @Param("limit") int limit
+  );
+
+  /**
+   * Seed every accepted follower's timeline with the author's most recent
+   * posts, for an account that drops back under the fan-out threshold and
+   * stops being merged in at read time.
+   */
+  @Modifying
+  @Transactional
+  @Query(
+    value = """
+    INSERT INTO home_timeline (owner_id, post_id, author_id, created_at)
+    SELECT f.follower_id, p.post_id, p.user_id, p.created_at
+    FROM (
+      SELECT post_id, user_id, created_at FROM post
+      WHERE user_id = :authorId
+        AND visibility <> 'PRIVATE'
+        AND hidden_at IS NULL
+        AND moderation_status = 'VISIBLE'
+      ORDER BY created_at DESC
+      LIMIT :limit
+    ) p
+      JOIN follow f ON f.followee_id = p.user_id
+    WHERE f.status = 'ACCEPTED'
+      AND f.hidden_at IS NULL
+    ON CONFLICT DO NOTHING
+    """,
+    nativeQuery = true
+  )
+  int backfillFollowersFromAuthor(
+    @Param("authorId") UUID authorId,
+    @Param("limit") int limit
+  );
+
+  @Modifying
+  @Query(
+    value = "DELETE FROM home_timeline WHERE owner_id = :ownerId AND author_id = :authorId",
+    nativeQuery = true
+  )
+  int deleteByOwnerAndAuthor(
+    @Param("ownerId") UUID ownerId,
+    @Param("authorId") UUID authorId
+  );
+
+  /** Drop every row beyond the newest :maxEntries of each timeline. */
+  @Modifying
+  @Query(
+    value = """
+    DELETE FROM home_timeline t
+    USING (
+      SELECT owner_id, post_id
+      FROM (
+        SELECT owner_id, post_id,
+               row_number() OVER (
+                 PARTITION BY owner_id
+                 ORDER BY created_at DESC, post_id DESC
+               ) AS rn
+        FROM home_timeline
+      ) ranked
+      WHERE ranked.rn > :maxEntries
+    ) stale
+    WHERE t.owner_id = stale.owner_id
+      AND t.post_id = stale.post_id
+    """,
+    nativeQuery = true
+  )
+  int trimToMaxEntries(@Param("maxEntries") int maxEntries);
+}
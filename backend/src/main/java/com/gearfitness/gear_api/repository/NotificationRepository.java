@@ -4,10 +4,12 @@ import com.gearfitness.gear_api.entity.AppUser;
 import com.gearfitness.gear_api.entity.Notification;
 import com.gearfitness.gear_api.entity.Post;
 import com.gearfitness.gear_api.entity.PostComment;
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -15,42 +17,153 @@ public interface NotificationRepository
   extends JpaRepository<Notification, UUID>
 {
   /**
-   * Notifications for a recipient, newest first, excluding any whose actor is
-   * blocked relative to the recipient in either direction. A blocked user's
-   * account effectively does not exist to them, so their activity is hidden.
+   * A recipient's inbox as flat rows, so the actor, post, thumbnail and
+   * comment come from one query instead of lazy loads per notification.
+   * Excludes hidden rows and any whose actor is blocked relative to the
+   * recipient in either direction: a blocked user's account effectively does
+   * not exist to them. blockedIds is the recipient's set from
+   * RelationshipCache. The queries below append their own seek and order.
+   * Rows: [notification_id, type, created_at (timestamp), is_read,
+   * actor_user_id, actor username, actor profile_picture_url, post_id,
+   * workout_id, post thumbnail (the post image, else its first workout photo),
+   * comment body, thread-root comment id].
+   */
+  String INBOX_ROWS = """
+    SELECT n.notification_id, n.type, n.created_at, n.is_read,
+      a.user_id, a.username, a.profile_picture_url,
+      p.post_id, p.workout_id,
+      CASE WHEN btrim(p.image_url) <> '' THEN p.image_url
+        ELSE (SELECT ph.photo_url FROM workout_photo_url ph
+          WHERE ph.workout_id = p.workout_id
+          ORDER BY ph.position LIMIT 1)
+      END,
+      c.body, COALESCE(c.parent_comment_id, c.comment_id)
+    FROM notification n
+    JOIN app_user a ON a.user_id = n.actor_user_id
+    LEFT JOIN post p ON p.post_id = n.post_id
+    LEFT JOIN post_comment c ON c.comment_id = n.comment_id
+    WHERE n.recipient_user_id = :userId
+      AND n.hidden_at IS NULL
+      AND n.actor_user_id NOT IN (:blockedIds)
+    """;
+
+  /**
+   * One keyset page of the inbox, newest first ({@link #INBOX_ROWS}). Seeks
+   * strictly past the cursor; callers pass a START sentinel for the first
+   * page.
    */
   @Query(
+    value = INBOX_ROWS +
     """
-    SELECT n FROM Notification n
-    WHERE n.recipient.userId = :userId
-    AND NOT EXISTS (
-        SELECT b FROM Follow b WHERE
-        (b.follower.userId = :userId AND b.followee.userId = n.actor.userId AND b.status = 'BLOCKED')
-        OR (b.follower.userId = n.actor.userId AND b.followee.userId = :userId AND b.status = 'BLOCKED')
-    )
-    ORDER BY n.createdAt DESC
-    """
+      AND (n.created_at, n.notification_id) < (:cursorCreatedAt, :cursorId)
+    ORDER BY n.created_at DESC, n.notification_id DESC
+    LIMIT :limit
+    """,
+    nativeQuery = true
   )
-  List<Notification> findVisibleByRecipient(@Param("userId") UUID userId);
+  List<Object[]> findInboxPageRaw(
+    @Param("userId") UUID userId,
+    @Param("blockedIds") Collection<UUID> blockedIds,
+    @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+    @Param("cursorId") UUID cursorId,
+    @Param("limit") int limit
+  );
 
   /**
-   * Count of unread notifications for a recipient, excluding any whose actor is
-   * blocked relative to the recipient in either direction, so the unread badge
-   * matches what {@link #findVisibleByRecipient} actually shows.
+   * Inbox rows newer than the cursor, oldest first ({@link #INBOX_ROWS}):
+   * what a reconnecting notification stream missed.
    */
   @Query(
+    value = INBOX_ROWS +
     """
-    SELECT COUNT(n) FROM Notification n
-    WHERE n.recipient.userId = :userId
-    AND n.isRead = false
-    AND NOT EXISTS (
-        SELECT b FROM Follow b WHERE
-        (b.follower.userId = :userId AND b.followee.userId = n.actor.userId AND b.status = 'BLOCKED')
-        OR (b.follower.userId = n.actor.userId AND b.followee.userId = :userId AND b.status = 'BLOCKED')
+      AND (n.created_at, n.notification_id) > (:cursorCreatedAt, :cursorId)
+    ORDER BY n.created_at, n.notification_id
+    LIMIT :limit
+    """,
+    nativeQuery = true
+  )
+  List<Object[]> findInboxAfterRaw(
+    @Param("userId") UUID userId,
+    @Param("blockedIds") Collection<UUID> blockedIds,
+    @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+    @Param("cursorId") UUID cursorId,
+    @Param("limit") int limit
+  );
+
+  /**
+   * A single inbox row ({@link #INBOX_ROWS}); empty when the notification is
+   * hidden from the recipient or gone.
+   */
+  @Query(
+    value = INBOX_ROWS + "  AND n.notification_id = :notificationId",
+    nativeQuery = true
+  )
+  List<Object[]> findInboxRowRaw(
+    @Param("userId") UUID userId,
+    @Param("blockedIds") Collection<UUID> blockedIds,
+    @Param("notificationId") UUID notificationId
+  );
+
+  /**
+   * Mark every notification the recipient can see as read, in one statement.
+   * A blocked actor's notifications stay unread so they re-surface on
+   * unblock. The V59 trigger releases the unread counter in the same write.
+   */
+  @Modifying
+  @Query(
+    value = """
+    UPDATE notification n SET is_read = TRUE
+    WHERE n.recipient_user_id = :userId
+      AND n.is_read = FALSE
+      AND n.hidden_at IS NULL
+      AND NOT EXISTS (
+        SELECT 1 FROM follow b
+        WHERE b.status = 'BLOCKED' AND b.hidden_at IS NULL
+          AND ((b.follower_id = :userId AND b.followee_id = n.actor_user_id)
+            OR (b.follower_id = n.actor_user_id AND b.followee_id = :userId))
+      )
+    """,
+    nativeQuery = true
+  )
+  int markAllVisibleRead(@Param("userId") UUID userId);
+
+  /**
+   * The recipient's unread badge: notification_counter, kept by triggers on
+   * notification (V59), so this is a primary-key lookup.
+   */
+  @Query(
+    value = """
+    SELECT COALESCE(
+      (SELECT unread FROM notification_counter WHERE user_id = :userId), 0)
+    """,
+    nativeQuery = true
+  )
+  long findUnreadCount(@Param("userId") UUID userId);
+
+  /**
+   * Recompute the users' unread counters from scratch. Blocking or
+   * unblocking changes which notifications count without touching them, so
+   * the triggers cannot see it; FollowService calls this after either.
+   */
+  @Modifying
+  @Query(
+    value = """
+    INSERT INTO notification_counter (user_id, unread)
+    SELECT u.user_id, (
+      SELECT COUNT(*) FROM notification n
+      WHERE n.recipient_user_id = u.user_id
+        AND n.is_read = FALSE
+        AND n.hidden_at IS NULL
+        AND notification_counts_as_unread(
+          n.recipient_user_id, n.actor_user_id, n.is_read, n.hidden_at)
     )
-    """
+    FROM app_user u
+    WHERE u.user_id IN (:userIds)
+    ON CONFLICT (user_id) DO UPDATE SET unread = EXCLUDED.unread
+    """,
+    nativeQuery = true
   )
-  long countUnreadVisibleByRecipient(@Param("userId") UUID userId);
+  void recountUnread(@Param("userIds") Collection<UUID> userIds);
 
   void deleteAllByPost(Post post);
 
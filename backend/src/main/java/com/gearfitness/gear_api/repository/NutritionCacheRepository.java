@@ -5,6 +5,9 @@ import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -13,7 +16,11 @@ public interface NutritionCacheRepository
 {
   Optional<NutritionCache> findByNormalizedKey(String normalizedKey);
 
-  // Cache rows are only created on a Sonar cache miss, so counting rows created
-  // this month is a proxy for the number of paid Sonar calls (spend guard).
-  long countByCreatedAtAfter(LocalDateTime start);
+  /** Bump hit stats for a replayed key without loading the row. */
+  @Modifying
+  @Query(
+    "UPDATE NutritionCache c SET c.hitCount = c.hitCount + 1, " +
+    "c.lastHitAt = :now WHERE c.normalizedKey = :key"
+  )
+  int recordHit(@Param("key") String key, @Param("now") LocalDateTime now);
 }
@@ -1,6 +1,7 @@
 package com.gearfitness.gear_api.repository;
 
 import com.gearfitness.gear_api.entity.PostComment;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -17,39 +18,28 @@ import org.springframework.stereotype.Repository;
 public interface PostCommentRepository
   extends JpaRepository<PostComment, UUID>
 {
-  @Query(
-    """
-    SELECT pc.post.postId, COUNT(pc)
-    FROM PostComment pc
-    WHERE pc.post.postId IN :postIds
-    GROUP BY pc.post.postId
-    """
-  )
-  List<Object[]> countByPostIdsRaw(@Param("postIds") List<UUID> postIds);
-
   /** Top-level comments only (anonymous viewer path). */
   Page<PostComment> findByPost_PostIdAndParentCommentIsNull(
     UUID postId,
     Pageable pageable
   );
 
-  /** Top-level comments only, block-aware (signed-in viewer path). */
+  /**
+   * Top-level comments only, block-aware (signed-in viewer path): blockedIds
+   * is the viewer's set from RelationshipCache.
+   */
   @Query(
     """
     SELECT c FROM PostComment c
     WHERE c.post.postId = :postId
     AND c.parentComment IS NULL
-    AND NOT EXISTS (
-        SELECT b FROM Follow b WHERE
-        (b.follower.userId = :viewingUserId AND b.followee.userId = c.user.userId AND b.status = 'BLOCKED')
-        OR (b.follower.userId = c.user.userId AND b.followee.userId = :viewingUserId AND b.status = 'BLOCKED')
-    )
+    AND c.user.userId NOT IN :blockedIds
     ORDER BY c.createdAt DESC
     """
   )
   Page<PostComment> findVisibleComments(
     @Param("postId") UUID postId,
-    @Param("viewingUserId") UUID viewingUserId,
+    @Param("blockedIds") Collection<UUID> blockedIds,
     Pageable pageable
   );
 
@@ -64,17 +54,13 @@ public interface PostCommentRepository
     """
     SELECT c FROM PostComment c
     WHERE c.parentComment.commentId = :parentCommentId
-    AND NOT EXISTS (
-        SELECT b FROM Follow b WHERE
-        (b.follower.userId = :viewingUserId AND b.followee.userId = c.user.userId AND b.status = 'BLOCKED')
-        OR (b.follower.userId = c.user.userId AND b.followee.userId = :viewingUserId AND b.status = 'BLOCKED')
-    )
+    AND c.user.userId NOT IN :blockedIds
     ORDER BY c.createdAt ASC
     """
   )
   Page<PostComment> findVisibleReplies(
     @Param("parentCommentId") UUID parentCommentId,
-    @Param("viewingUserId") UUID viewingUserId,
+    @Param("blockedIds") Collection<UUID> blockedIds,
     Pageable pageable
   );
 
@@ -105,15 +91,6 @@ public interface PostCommentRepository
   )
   Optional<PostComment> findByIdIncludingHidden(@Param("id") UUID id);
 
-  default Map<UUID, Long> countByPostIds(List<UUID> postIds) {
-    if (postIds == null || postIds.isEmpty()) {
-      return Map.of();
-    }
-    return countByPostIdsRaw(postIds)
-      .stream()
-      .collect(Collectors.toMap(row -> (UUID) row[0], row -> (Long) row[1]));
-  }
-
   /** Visible reply counts keyed by top-level parent comment id. */
   default Map<UUID, Long> countByParentCommentIds(List<UUID> parentIds) {
     if (parentIds == null || parentIds.isEmpty()) {
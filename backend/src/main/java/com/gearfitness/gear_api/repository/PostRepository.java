@@ -1,6 +1,9 @@
 package com.gearfitness.gear_api.repository;
 
 import com.gearfitness.gear_api.entity.Post;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.domain.Page;
@@ -16,7 +19,7 @@ public interface PostRepository extends JpaRepository<Post, UUID> {
   /**
    * Social feed: posts from followed users, filtered by visibility and mutual-
    * follow requirement for FRIENDS posts. Blocked users' posts are hidden in
-   * both directions.
+   * both directions; blockedIds is the viewer's set from RelationshipCache.
    */
   @Query(
     """
@@ -37,16 +40,13 @@ public interface PostRepository extends JpaRepository<Post, UUID> {
             )
         )
     )
-    AND NOT EXISTS (
-        SELECT b FROM Follow b WHERE
-        (b.follower.userId = :userId AND b.followee.userId = p.user.userId AND b.status = 'BLOCKED')
-        OR (b.follower.userId = p.user.userId AND b.followee.userId = :userId AND b.status = 'BLOCKED')
-    )
+    AND p.user.userId NOT IN :blockedIds
     ORDER BY p.createdAt DESC
     """
   )
   Page<Post> findFollowedUsersPosts(
     @Param("userId") UUID userId,
+    @Param("blockedIds") Collection<UUID> blockedIds,
     Pageable pageable
   );
 
@@ -56,7 +56,8 @@ public interface PostRepository extends JpaRepository<Post, UUID> {
    * - PUBLIC posts are visible to everyone (no block).
    * - FRIENDS posts require mutual ACCEPTED follows.
    * - PRIVATE posts are visible to owner only.
-   * Blocked users see nothing.
+   * Blocked users see nothing: callers check RelationshipCache and skip the
+   * query, and pass mutualFollow from it too.
    */
   @Query(
     """
@@ -65,26 +66,7 @@ public interface PostRepository extends JpaRepository<Post, UUID> {
     AND (
         p.user.userId = :viewingUserId
         OR p.visibility = 'PUBLIC'
-        OR (
-            p.visibility = 'FRIENDS'
-            AND EXISTS (
-                SELECT f FROM Follow f
-                WHERE f.follower.userId = :viewingUserId
-                  AND f.followee.userId = :userId
-                  AND f.status = 'ACCEPTED'
-            )
-            AND EXISTS (
-                SELECT f2 FROM Follow f2
-                WHERE f2.follower.userId = :userId
-                  AND f2.followee.userId = :viewingUserId
-                  AND f2.status = 'ACCEPTED'
-            )
-        )
-    )
-    AND NOT EXISTS (
-        SELECT b FROM Follow b WHERE
-        (b.follower.userId = :viewingUserId AND b.followee.userId = :userId AND b.status = 'BLOCKED')
-        OR (b.follower.userId = :userId AND b.followee.userId = :viewingUserId AND b.status = 'BLOCKED')
+        OR (p.visibility = 'FRIENDS' AND :mutualFollow = true)
     )
     ORDER BY p.createdAt DESC
     """
@@ -92,31 +74,87 @@ public interface PostRepository extends JpaRepository<Post, UUID> {
   Page<Post> findPostsByUser(
     @Param("userId") UUID userId,
     @Param("viewingUserId") UUID viewingUserId,
+    @Param("mutualFollow") boolean mutualFollow,
     Pageable pageable
   );
 
   /**
-   * Discover feed: all PUBLIC posts from non-private accounts, so users can
+   * Chronological discover feed, kept for the page/size endpoint; the cursor
+   * endpoint ranks through discover_rank instead. All PUBLIC posts from non-private accounts, so users can
    * find each other. Excludes posts from private accounts (a private account's
    * PUBLIC posts stay visible to its followers in the following feed, but are
    * never surfaced to strangers here) and any account blocked in either
-   * direction relative to the viewer. The viewer's own public posts are
-   * included. Newest first.
+   * direction relative to the viewer (blockedIds, from RelationshipCache). The
+   * viewer's own public posts are included. Newest first.
    */
   @Query(
     """
     SELECT p FROM Post p
     WHERE p.visibility = 'PUBLIC'
     AND p.user.isPrivate = false
-    AND NOT EXISTS (
-        SELECT b FROM Follow b WHERE
-        (b.follower.userId = :userId AND b.followee.userId = p.user.userId AND b.status = 'BLOCKED')
-        OR (b.follower.userId = p.user.userId AND b.followee.userId = :userId AND b.status = 'BLOCKED')
-    )
+    AND p.user.userId NOT IN :blockedIds
     ORDER BY p.createdAt DESC
     """
   )
-  Page<Post> findDiscoverPosts(@Param("userId") UUID userId, Pageable pageable);
+  Page<Post> findDiscoverPosts(
+    @Param("blockedIds") Collection<UUID> blockedIds,
+    Pageable pageable
+  );
+
+  /**
+   * Keyset (seek) variant of findPostsByUser: same filters, but starts
+   * strictly after the (createdAt, postId) cursor and orders on both columns
+   * so ties are stable. Returned as a List so no COUNT query is issued; pass
+   * PageRequest.of(0, size + 1) to detect whether another page exists.
+   */
+  @Query(
+    """
+    SELECT p FROM Post p
+    WHERE p.user.userId = :userId
+    AND (
+        p.user.userId = :viewingUserId
+        OR p.visibility = 'PUBLIC'
+        OR (p.visibility = 'FRIENDS' AND :mutualFollow = true)
+    )
+    AND (
+        p.createdAt < :cursorCreatedAt
+        OR (p.createdAt = :cursorCreatedAt AND p.postId < :cursorPostId)
+    )
+    ORDER BY p.createdAt DESC, p.postId DESC
+    """
+  )
+  List<Post> findPostsByUserBefore(
+    @Param("userId") UUID userId,
+    @Param("viewingUserId") UUID viewingUserId,
+    @Param("mutualFollow") boolean mutualFollow,
+    @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+    @Param("cursorPostId") UUID cursorPostId,
+    Pageable pageable
+  );
+
+  /**
+   * Non-private posts by the given authors strictly after the cursor. Used to
+   * merge large accounts (not fanned out on write) into a home timeline page;
+   * the caller re-checks FRIENDS visibility for the returned page.
+   */
+  @Query(
+    """
+    SELECT p FROM Post p
+    WHERE p.user.userId IN :authorIds
+    AND p.visibility <> 'PRIVATE'
+    AND (
+        p.createdAt < :cursorCreatedAt
+        OR (p.createdAt = :cursorCreatedAt AND p.postId < :cursorPostId)
+    )
+    ORDER BY p.createdAt DESC, p.postId DESC
+    """
+  )
+  List<Post> findByAuthorsBefore(
+    @Param("authorIds") Collection<UUID> authorIds,
+    @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+    @Param("cursorPostId") UUID cursorPostId,
+    Pageable pageable
+  );
 
   Optional<Post> findByWorkout_WorkoutId(UUID workoutId);
 
@@ -148,4 +186,103 @@ public interface PostRepository extends JpaRepository<Post, UUID> {
     @Param("postId") UUID postId,
     @Param("status") String status
   );
+
+  /** Apply a like being added (+1) or removed (-1) to the post's counter. */
+  @Modifying
+  @Query(
+    value = "UPDATE post SET like_count = like_count + :delta WHERE post_id = :postId",
+    nativeQuery = true
+  )
+  void adjustLikeCount(
+    @Param("postId") UUID postId,
+    @Param("delta") int delta
+  );
+
+  /** Apply comments becoming visible (+n) or not (-n) to the post's counter. */
+  @Modifying
+  @Query(
+    value = "UPDATE post SET comment_count = comment_count + :delta WHERE post_id = :postId",
+    nativeQuery = true
+  )
+  void adjustCommentCount(
+    @Param("postId") UUID postId,
+    @Param("delta") int delta
+  );
+
+  /**
+   * The post's current like count, read past the entity so it reflects an
+   * adjustLikeCount earlier in the same transaction.
+   */
+  @Query(
+    value = "SELECT like_count FROM post WHERE post_id = :postId",
+    nativeQuery = true
+  )
+  long findLikeCount(@Param("postId") UUID postId);
+
+  /**
+   * Posts whose like/comment counters disagree with the rows they count, as of
+   * this statement's snapshot. Candidates only: recountEngagement re-checks
+   * them under a row lock.
+   */
+  @Query(
+    value = """
+    SELECT p.post_id FROM post p
+    LEFT JOIN (
+      SELECT post_id, COUNT(*) AS n FROM post_like
+      WHERE hidden_at IS NULL
+      GROUP BY post_id
+    ) l ON l.post_id = p.post_id
+    LEFT JOIN (
+      SELECT post_id, COUNT(*) AS n FROM post_comment
+      WHERE hidden_at IS NULL AND moderation_status = 'VISIBLE'
+      GROUP BY post_id
+    ) c ON c.post_id = p.post_id
+    WHERE p.like_count <> COALESCE(l.n, 0)
+       OR p.comment_count <> COALESCE(c.n, 0)
+    ORDER BY p.post_id
+    """,
+    nativeQuery = true
+  )
+  List<UUID> findEngagementDriftPostIds();
+
+  /**
+   * Row-lock the posts before recounting them, in post_id order. A like or
+   * comment adjusts its post's counter in the same transaction as its row, so
+   * once the lock is held every committed change is visible to the recount
+   * and any in-flight one applies its delta after it.
+   */
+  @Query(
+    value = """
+    SELECT post_id FROM post WHERE post_id IN (:postIds)
+    ORDER BY post_id
+    FOR UPDATE
+    """,
+    nativeQuery = true
+  )
+  List<UUID> lockForRecount(@Param("postIds") Collection<UUID> postIds);
+
+  /**
+   * Recount the given (locked) posts' counters from their rows and rewrite the
+   * ones that drifted. Returns the number of posts corrected.
+   */
+  @Modifying
+  @Query(
+    value = """
+    UPDATE post p SET like_count = x.likes, comment_count = x.comments
+    FROM (
+      SELECT p2.post_id,
+        (SELECT COUNT(*) FROM post_like l
+          WHERE l.post_id = p2.post_id AND l.hidden_at IS NULL) AS likes,
+        (SELECT COUNT(*) FROM post_comment c
+          WHERE c.post_id = p2.post_id AND c.hidden_at IS NULL
+            AND c.moderation_status = 'VISIBLE') AS comments
+      FROM post p2
+      WHERE p2.post_id IN (:postIds)
+    ) x
+    WHERE x.post_id = p.post_id
+      AND (p.like_count <> x.likes OR p.comment_count <> x.comments)
+    """,
+    nativeQuery = true
+  )
+  int recountEngagement(@Param("postIds") Collection<UUID> postIds);
 }
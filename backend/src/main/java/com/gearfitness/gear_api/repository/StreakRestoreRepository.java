@@ -21,6 +21,8 @@ public interface StreakRestoreRepository
     LocalDateTime end
   );
 
+  boolean existsByUserAndRestoredDate(AppUser user, LocalDate restoredDate);
+
   @Query(
     "SELECT sr.restoredDate FROM StreakRestore sr WHERE sr.user = :user AND sr.restoredDate BETWEEN :start AND :end"
   )
@@ -0,0 +1,38 @@
+package com.gearfitness.gear_api.repository;
+
+import com.gearfitness.gear_api.entity.UserActivityBitmap;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserActivityBitmapRepository
+  extends JpaRepository<UserActivityBitmap, UUID>
+{
+  /** Row-locked read: bitmap writes are read-modify-write. */
+  @Query(
+    value = "SELECT * FROM user_activity_bitmap WHERE user_id = :userId FOR UPDATE",
+    nativeQuery = true
+  )
+  Optional<UserActivityBitmap> findForUpdate(@Param("userId") UUID userId);
+
+  /** Create the row unless a concurrent writer already did. */
+  @Modifying
+  @Query(
+    value = """
+    INSERT INTO user_activity_bitmap (user_id, base_day, bits)
+    VALUES (:userId, :baseDay, :bits)
+    ON CONFLICT (user_id) DO NOTHING
+    """,
+    nativeQuery = true
+  )
+  void insertIfAbsent(
+    @Param("userId") UUID userId,
+    @Param("baseDay") int baseDay,
+    @Param("bits") byte[] bits
+  );
+}
@@ -0,0 +1,86 @@
+package com.gearfitness.gear_api.repository;
+
+import com.gearfitness.gear_api.entity.UserDailyVolume;
+import com.gearfitness.gear_api.entity.UserDailyVolume.UserDailyVolumeId;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserDailyVolumeRepository
+  extends JpaRepository<UserDailyVolume, UserDailyVolumeId>
+{
+  boolean existsByUserId(UUID userId);
+
+  Optional<UserDailyVolume> findFirstByUserIdOrderByDayAsc(UUID userId);
+
+  List<UserDailyVolume> findByUserIdAndDayBetweenOrderByDayAsc(
+    UUID userId,
+    LocalDate start,
+    LocalDate end
+  );
+
+  /**
+   * The most recent {@code limit} weeks that contain at least one workout,
+   * newest first. date_trunc('week') is ISO (Monday-start), matching the
+   * weekly chart's buckets. Rows: [week_start (date), volume (numeric),
+   * workout_count (bigint)].
+   */
+  @Query(
+    value = """
+    SELECT CAST(date_trunc('week', day) AS date) AS week_start,
+           SUM(total_volume_lbs),
+           SUM(workout_count)
+    FROM user_daily_volume
+    WHERE user_id = :userId
+    GROUP BY week_start
+    ORDER BY week_start DESC
+    LIMIT :limit
+    """,
+    nativeQuery = true
+  )
+  List<Object[]> findRecentWeeksRaw(
+    @Param("userId") UUID userId,
+    @Param("limit") int limit
+  );
+
+  /**
+   * Atomically add a delta to a (user, day) bucket, creating it if missing.
+   * Negative deltas are used on workout delete; see deleteEmptyDay.
+   */
+  @Modifying
+  @Query(
+    value = """
+    INSERT INTO user_daily_volume (user_id, day, total_volume_lbs, workout_count)
+    VALUES (:userId, :day, :volume, :workoutCount)
+    ON CONFLICT (user_id, day) DO UPDATE SET
+      total_volume_lbs = user_daily_volume.total_volume_lbs + EXCLUDED.total_volume_lbs,
+      workout_count = user_daily_volume.workout_count + EXCLUDED.workout_count
+    """,
+    nativeQuery = true
+  )
+  void addToDay(
+    @Param("userId") UUID userId,
+    @Param("day") LocalDate day,
+    @Param("volume") BigDecimal volume,
+    @Param("workoutCount") int workoutCount
+  );
+
+  /** Drop a bucket once its last workout is gone, so weeks stay "non-empty". */
+  @Modifying
+  @Query(
+    value = "DELETE FROM user_daily_volume WHERE user_id = :userId AND day = :day AND workout_count <= 0",
+    nativeQuery = true
+  )
+  void deleteEmptyDay(
+    @Param("userId") UUID userId,
+    @Param("day") LocalDate day
+  );
+}
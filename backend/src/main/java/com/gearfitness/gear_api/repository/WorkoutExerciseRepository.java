@@ -1,23 +1,123 @@
 package com.gearfitness.gear_api.repository;
 
 import com.gearfitness.gear_api.entity.WorkoutExercise;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface WorkoutExerciseRepository
   extends JpaRepository<WorkoutExercise, UUID>
 {
   List<WorkoutExercise> findByWorkout_WorkoutId(UUID workoutId);
 
-  List<
-    WorkoutExercise
-  > findByExercise_ExerciseIdAndWorkout_User_UserIdOrderByWorkout_DatePerformedDesc(
-    UUID exerciseId,
-    UUID userId
+  /**
+   * Flat exercise-history rows for one user: one row per (session, set), or a
+   * single row with null set columns for a session without sets. A session is
+   * one workout_exercise. Sessions are numbered per exercise newest first
+   * (date_performed, created_at, position), counting only workouts created
+   * after {@code since}; only sessions numbered in (offset, offset + limit] are
+   * returned. Per-exercise totals and the watermark ignore the page and the
+   * {@code since} filter.
+   *
+   * <p>Rows are ordered exercise by exercise (most recently trained first),
+   * then session number, then set_number, so callers can build DTOs in one
+   * pass. Columns: [0 exercise_id, 1 workout_id, 2 workout name,
+   * 3 date_performed, 4 session number (bigint), 5 total sessions (bigint),
+   * 6 heaviest weight (numeric), 7 latest workout created_at, 8 set_number,
+   * 9 reps, 10 weight_lbs, 11 is_pr].
+   */
+  @Query(
+    value = """
+    WITH sessions AS (
+      SELECT we.exercise_id,
+             we.workout_exercise_id,
+             w.workout_id,
+             w.name,
+             w.date_performed,
+             w.created_at > :since AS is_new,
+             ROW_NUMBER() OVER (
+               PARTITION BY we.exercise_id, w.created_at > :since
+               ORDER BY w.date_performed DESC, w.created_at DESC, we.position ASC
+             ) AS session_no,
+             COUNT(*) OVER (PARTITION BY we.exercise_id) AS total_sessions,
+             MAX(m.max_weight) OVER (PARTITION BY we.exercise_id) AS pr_weight,
+             MAX(w.created_at) OVER (PARTITION BY we.exercise_id) AS watermark,
+             MAX(w.date_performed) OVER (PARTITION BY we.exercise_id) AS latest_date
+      FROM workout_exercise we
+        JOIN workout w ON w.workout_id = we.workout_id
+        LEFT JOIN LATERAL (
+          SELECT MAX(s.weight_lbs) AS max_weight
+          FROM workout_set s
+          WHERE s.workout_exercise_id = we.workout_exercise_id
+        ) m ON TRUE
+      WHERE w.user_id = :userId
+    )
+    SELECT s.exercise_id, s.workout_id, s.name, s.date_performed, s.session_no,
+           s.total_sessions, s.pr_weight, s.watermark,
+           ws.set_number, ws.reps, ws.weight_lbs, ws.is_pr
+    FROM sessions s
+      LEFT JOIN workout_set ws ON ws.workout_exercise_id = s.workout_exercise_id
+    WHERE s.is_new
+      AND s.session_no > :offset
+      AND s.session_no <= :offset + :limit
+    ORDER BY s.latest_date DESC, s.exercise_id, s.session_no, ws.set_number
+    """,
+    nativeQuery = true
+  )
+  List<Object[]> findHistoryRowsRaw(
+    @Param("userId") UUID userId,
+    @Param("since") LocalDateTime since,
+    @Param("offset") int offset,
+    @Param("limit") int limit
   );
 
-  List<
-    WorkoutExercise
-  > findByWorkout_User_UserIdOrderByWorkout_DatePerformedDesc(UUID userId);
+  /** findHistoryRowsRaw restricted to a single exercise. */
+  @Query(
+    value = """
+    WITH sessions AS (
+      SELECT we.exercise_id,
+             we.workout_exercise_id,
+             w.workout_id,
+             w.name,
+             w.date_performed,
+             w.created_at > :since AS is_new,
+             ROW_NUMBER() OVER (
+               PARTITION BY w.created_at > :since
+               ORDER BY w.date_performed DESC, w.created_at DESC, we.position ASC
+             ) AS session_no,
+             COUNT(*) OVER () AS total_sessions,
+             MAX(m.max_weight) OVER () AS pr_weight,
+             MAX(w.created_at) OVER () AS watermark
+      FROM workout_exercise we
+        JOIN workout w ON w.workout_id = we.workout_id
+        LEFT JOIN LATERAL (
+          SELECT MAX(s.weight_lbs) AS max_weight
+          FROM workout_set s
+          WHERE s.workout_exercise_id = we.workout_exercise_id
+        ) m ON TRUE
+      WHERE w.user_id = :userId
+        AND we.exercise_id = :exerciseId
+    )
+    SELECT s.exercise_id, s.workout_id, s.name, s.date_performed, s.session_no,
+           s.total_sessions, s.pr_weight, s.watermark,
+           ws.set_number, ws.reps, ws.weight_lbs, ws.is_pr
+    FROM sessions s
+      LEFT JOIN workout_set ws ON ws.workout_exercise_id = s.workout_exercise_id
+    WHERE s.is_new
+      AND s.session_no > :offset
+      AND s.session_no <= :offset + :limit
+    ORDER BY s.session_no, ws.set_number
+    """,
+    nativeQuery = true
+  )
+  List<Object[]> findExerciseHistoryRowsRaw(
+    @Param("userId") UUID userId,
+    @Param("exerciseId") UUID exerciseId,
+    @Param("since") LocalDateTime since,
+    @Param("offset") int offset,
+    @Param("limit") int limit
+  );
 }
@@ -3,6 +3,8 @@ package com.gearfitness.gear_api.repository;
 import com.gearfitness.gear_api.entity.AppUser;
 import com.gearfitness.gear_api.entity.Workout;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -52,9 +54,69 @@ public interface WorkoutRepository extends JpaRepository<Workout, UUID> {
   );
 
   /**
-   * Find all workouts for a user ordered by date (desc), then by creation time (desc)
+   * Per-day workout count and total minutes for a user over [startDate,
+   * endDate], one row per day that has a workout. Backs the profile stats
+   * (weekly split, days this week, activity grid) with a single aggregate
+   * instead of hydrating the same workouts several times. Rows: [date_performed
+   * (date), workout_count (bigint), total_minutes (bigint)].
    */
-  List<Workout> findByUserOrderByDatePerformedDescCreatedAtDesc(AppUser user);
+  @Query(
+    value = """
+    SELECT date_performed, COUNT(*), COALESCE(SUM(duration_min), 0)
+    FROM workout
+    WHERE user_id = :userId
+      AND date_performed BETWEEN :startDate AND :endDate
+    GROUP BY date_performed
+    """,
+    nativeQuery = true
+  )
+  List<Object[]> findDailyTotalsRaw(
+    @Param("userId") UUID userId,
+    @Param("startDate") LocalDate startDate,
+    @Param("endDate") LocalDate endDate
+  );
+
+  /**
+   * One keyset page of a user's workout list, newest first, as flat rows
+   * rather than entities (so the eager tag/photo collections are not loaded
+   * per workout). Seeks strictly past the cursor; callers pass a START
+   * sentinel for the first page and open-ended bounds when not filtering.
+   * Rows: [workout_id, name, date_performed (date), created_at (timestamp),
+   * duration_min, exercise_count (bigint), body_tags (comma-separated or
+   * null), photo_urls (newline-separated in position order, or null)].
+   */
+  @Query(
+    value = """
+    SELECT w.workout_id, w.name, w.date_performed, w.created_at,
+      w.duration_min,
+      (SELECT COUNT(*) FROM workout_exercise we
+        WHERE we.workout_id = w.workout_id),
+      (SELECT string_agg(bt.body_tag, ',') FROM workout_body_tags bt
+        WHERE bt.workout_id = w.workout_id),
+      (SELECT string_agg(p.photo_url, E'\n' ORDER BY p.position)
+        FROM workout_photo_url p
+        WHERE p.workout_id = w.workout_id)
+    FROM workout w
+    WHERE w.user_id = :userId
+      AND w.date_performed BETWEEN :fromDate AND :toDate
+      AND w.created_at > :since
+      AND (w.date_performed, w.created_at, w.workout_id)
+        < (:cursorDate, :cursorCreatedAt, :cursorId)
+    ORDER BY w.date_performed DESC, w.created_at DESC, w.workout_id DESC
+    LIMIT :limit
+    """,
+    nativeQuery = true
+  )
+  List<Object[]> findListPageRaw(
+    @Param("userId") UUID userId,
+    @Param("fromDate") LocalDate fromDate,
+    @Param("toDate") LocalDate toDate,
+    @Param("since") LocalDateTime since,
+    @Param("cursorDate") LocalDate cursorDate,
+    @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+    @Param("cursorId") UUID cursorId,
+    @Param("limit") int limit
+  );
 
   /**
    * Check if a workout exists for a user on a specific date
@@ -70,6 +132,16 @@ public interface WorkoutRepository extends JpaRepository<Workout, UUID> {
     String idempotencyKey
   );
 
+  /** Which of the given idempotency keys the user already has workouts for. */
+  @Query(
+    "SELECT w.idempotencyKey FROM Workout w " +
+      "WHERE w.user.userId = :userId AND w.idempotencyKey IN :keys"
+  )
+  List<String> findExistingIdempotencyKeys(
+    @Param("userId") UUID userId,
+    @Param("keys") Collection<String> keys
+  );
+
   /**
    * Find distinct workout dates for a user within a date range
    */
@@ -1,6 +1,7 @@
 package com.gearfitness.gear_api.repository;
 
 import com.gearfitness.gear_api.entity.WorkoutSet;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -32,4 +33,49 @@ public interface WorkoutSetRepository extends JpaRepository<WorkoutSet, UUID> {
     @Param("userId") UUID userId,
     @Param("exerciseId") UUID exerciseId
   );
+
+  /** Same ordering as above, limited to workouts dated on/after fromDate. */
+  @Query(
+    """
+    SELECT s
+    FROM WorkoutSet s
+      JOIN FETCH s.workoutExercise we
+      JOIN FETCH we.workout w
+    WHERE w.user.userId = :userId
+      AND we.exercise.exerciseId = :exerciseId
+      AND w.datePerformed >= :fromDate
+    ORDER BY w.datePerformed ASC,
+             w.createdAt ASC,
+             we.position ASC,
+             s.setNumber ASC
+    """
+  )
+  List<WorkoutSet> findChronologicalForUserExerciseFrom(
+    @Param("userId") UUID userId,
+    @Param("exerciseId") UUID exerciseId,
+    @Param("fromDate") LocalDate fromDate
+  );
+
+  /**
+   * Heaviest weight and latest workout date over the user's sets for the
+   * exercise dated strictly before {@code before}: the running max a partial
+   * PR re-walk starts from. Single row: [max weight (BigDecimal, null if no
+   * weighted set), max date (LocalDate, null if no sets)].
+   */
+  @Query(
+    """
+    SELECT MAX(s.weightLbs), MAX(w.datePerformed)
+    FROM WorkoutSet s
+      JOIN s.workoutExercise we
+      JOIN we.workout w
+    WHERE w.user.userId = :userId
+      AND we.exercise.exerciseId = :exerciseId
+      AND w.datePerformed < :before
+    """
+  )
+  List<Object[]> findPrefixStatsRaw(
+    @Param("userId") UUID userId,
+    @Param("exerciseId") UUID exerciseId,
+    @Param("before") LocalDate before
+  );
 }
@@ -1,6 +1,5 @@
 package com.gearfitness.gear_api.security;
 
-import com.gearfitness.gear_api.repository.AppUserRepository;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,18 +9,22 @@ import java.util.Collections;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+/**
+ * Stateless bearer-token authentication: one verified parse of the access
+ * token per request, with the principal built from its userId/email claims.
+ * No database is touched here; accounts that must lose access before their
+ * tokens expire (soft-deleted) are rejected via TokenRevocationService.
+ */
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
   private final JwtService jwtService;
-  private final AppUserRepository userRepository;
+  private final TokenRevocationService tokenRevocationService;
 
   @Override
   protected void doFilterInternal(
@@ -38,29 +41,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     try {
       final String jwt = authHeader.substring(7);
-      final String userEmail = jwtService.extractEmail(jwt);
 
-      if (
-        userEmail != null &&
-        SecurityContextHolder.getContext().getAuthentication() == null
-      ) {
-        UserDetails userDetails = userRepository
-          .findByEmail(userEmail)
-          .map(user ->
-            new org.springframework.security.core.userdetails.User(
-              user.getEmail(),
-              user.getPasswordHash(),
-              Collections.emptyList()
-            )
-          )
-          .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+      if (SecurityContextHolder.getContext().getAuthentication() == null) {
+        JwtPrincipal principal = jwtService.parsePrincipal(jwt);
 
-        if (jwtService.isTokenValid(jwt, userDetails.getUsername())) {
+        if (!tokenRevocationService.isRevoked(principal.userId())) {
+          // The token rides along as the credentials so JwtService can reuse
+          // this verification when controllers extract the user id.
           UsernamePasswordAuthenticationToken authToken =
             new UsernamePasswordAuthenticationToken(
-              userDetails,
-              null,
-              userDetails.getAuthorities()
+              principal,
+              jwt,
+              Collections.emptyList()
             );
           authToken.setDetails(
             new WebAuthenticationDetailsSource().buildDetails(request)
@@ -0,0 +1,16 @@
+package com.gearfitness.gear_api.security;
+
+import java.security.Principal;
+import java.util.UUID;
+
+/**
+ * Authenticated caller, built straight from a verified access token's claims
+ * so the filter never has to load the user row. getName() is the email, which
+ * is what the previous UserDetails principal reported as its username.
+ */
+public record JwtPrincipal(UUID userId, String email) implements Principal {
+  @Override
+  public String getName() {
+    return email;
+  }
+}
@@ -1,9 +1,11 @@
 package com.gearfitness.gear_api.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -11,6 +13,8 @@ import java.util.UUID;
 import java.util.function.Function;
 import javax.crypto.SecretKey;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -22,6 +26,17 @@ public class JwtService {
   @Value("${jwt.expiration}")
   private Long expiration;
 
+  // Built once: deriving the HMAC key and parser per call showed up on every
+  // authenticated request.
+  private SecretKey signKey;
+  private JwtParser parser;
+
+  @PostConstruct
+  void init() {
+    signKey = Keys.hmacShaKeyFor(secret.getBytes());
+    parser = Jwts.parser().verifyWith(signKey).build();
+  }
+
   public String generateToken(UUID userId, String email) {
     Map<String, Object> claims = new HashMap<>();
     claims.put("userId", userId.toString());
@@ -43,7 +58,19 @@ public class JwtService {
   }
 
   private SecretKey getSignKey() {
-    return Keys.hmacShaKeyFor(secret.getBytes());
+    return signKey;
+  }
+
+  /**
+   * Verify the token (signature and expiry) once and build the caller's
+   * principal from its claims. Throws a JwtException on any invalid token.
+   */
+  public JwtPrincipal parsePrincipal(String token) {
+    Claims claims = extractAllClaims(token);
+    return new JwtPrincipal(
+      UUID.fromString(claims.get("userId", String.class)),
+      claims.get("email", String.class)
+    );
   }
 
   public String extractEmail(String token) {
@@ -51,6 +78,16 @@ public class JwtService {
   }
 
   public UUID extractUserId(String token) {
+    // The filter already verified this exact token for the current request;
+    // reuse its result instead of parsing again.
+    Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+    if (
+      auth != null &&
+      auth.getPrincipal() instanceof JwtPrincipal principal &&
+      token.equals(auth.getCredentials())
+    ) {
+      return principal.userId();
+    }
     Claims claims = extractAllClaims(token);
     return UUID.fromString(claims.get("userId", String.class));
   }
@@ -61,11 +98,7 @@ public class JwtService {
   }
 
   private Claims extractAllClaims(String token) {
-    return Jwts.parser()
-      .verifyWith(getSignKey())
-      .build()
-      .parseSignedClaims(token)
-      .getPayload();
+    return parser.parseSignedClaims(token).getPayload();
   }
 
   public Boolean isTokenValid(String token, String email) {
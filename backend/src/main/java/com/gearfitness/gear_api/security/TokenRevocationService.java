@@ -0,0 +1,106 @@
+package com.gearfitness.gear_api.security;
+
+import com.gearfitness.gear_api.repository.AppUserRepository;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-memory set of user ids whose still-unexpired access tokens must be
+ * rejected (currently: soft-deleted accounts). Replaces the per-request user
+ * lookup the JWT filter used to do just to notice a deleted account.
+ *
+ * <p>The set is small — soft-deleted users are purged after 48h — and is
+ * rebuilt from the database every minute, so a deletion handled by another
+ * instance takes effect here within that TTL. Deletes and restores handled by
+ * this instance apply as soon as their transaction commits, and are re-applied
+ * over any snapshot whose read may have started before that commit.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationService {
+
+  private record LocalChange(boolean revoked, long appliedAt) {}
+
+  private final AppUserRepository userRepository;
+
+  private volatile Set<UUID> revoked = ConcurrentHashMap.newKeySet();
+
+  // Changes applied here that a refresh in flight may not have read yet.
+  private final Map<UUID, LocalChange> localChanges = new HashMap<>();
+
+  public boolean isRevoked(UUID userId) {
+    return revoked.contains(userId);
+  }
+
+  /** Applied once the current transaction commits. */
+  public void revoke(UUID userId) {
+    afterCommit(() -> apply(userId, true));
+  }
+
+  /** Applied once the current transaction commits. */
+  public void restore(UUID userId) {
+    afterCommit(() -> apply(userId, false));
+  }
+
+  /** Runs at startup and then every 60 seconds. */
+  @Scheduled(fixedDelay = 60_000)
+  public void refresh() {
+    try {
+      long started = System.nanoTime();
+      Set<UUID> next = ConcurrentHashMap.newKeySet();
+      next.addAll(userRepository.findSoftDeletedUserIds());
+      synchronized (this) {
+        // Applied after commit, so anything applied before the read started
+        // is already in the snapshot.
+        localChanges
+          .values()
+          .removeIf(change -> change.appliedAt() - started < 0);
+        localChanges.forEach((userId, change) -> {
+          if (change.revoked()) {
+            next.add(userId);
+          } else {
+            next.remove(userId);
+          }
+        });
+        revoked = next;
+      }
+    } catch (Exception e) {
+      // Keep serving the previous snapshot rather than failing open or closed.
+      log.warn("Failed to refresh token revocation set", e);
+    }
+  }
+
+  private synchronized void apply(UUID userId, boolean revoke) {
+    localChanges.put(userId, new LocalChange(revoke, System.nanoTime()));
+    if (revoke) {
+      revoked.add(userId);
+    } else {
+      revoked.remove(userId);
+    }
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+      new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      }
+    );
+  }
+}
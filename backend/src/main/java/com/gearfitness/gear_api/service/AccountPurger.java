@@ -22,10 +22,11 @@ import org.springframework.transaction.annotation.Transactional;
  *       {@code ON DELETE CASCADE} (verified against migrations V1–V48). FKs that
  *       DO cascade — notification (V8), refresh_token (V9), rest_day /
  *       streak_restore (V11), workout_photo_url (V14), exercise_body_part (V12),
- *       routine_exercise / routine_scheduled_days (V6), announcement_event (V47)
- *       — are left to the database, and routine.source_workout_id (V6, ON DELETE
- *       SET NULL) likewise. image_moderation (V48) does NOT cascade and is
- *       deleted explicitly below.</li>
+ *       routine_exercise / routine_scheduled_days (V6), announcement_event (V47),
+ *       user_daily_volume (V50), home_timeline (V52), exercise_pr_state
+ *       (V53) — are left to the database, and routine.source_workout_id (V6,
+ *       ON DELETE SET NULL) likewise. image_moderation (V48) does NOT cascade and is deleted
+ *       explicitly below.</li>
  * </ul>
  */
 @Component
@@ -75,8 +76,9 @@ public class AccountPurger {
     );
     exec("DELETE FROM image_moderation WHERE user_id = :uid", userId);
 
-    // 4) This user's posts. notification.post_id / comment_id cascade (V8), so
-    //    related notifications clear automatically here.
+    // 4) This user's posts. notification.post_id / comment_id cascade (V8), and
+    //    home_timeline.post_id (V52), so related notifications and followers'
+    //    timeline rows clear automatically here.
     exec("DELETE FROM post WHERE user_id = :uid", userId);
 
     // 5) This user's workouts + non-cascading children. post.workout_id refs are
@@ -118,7 +120,8 @@ public class AccountPurger {
     );
 
     // 9) Finally the user row. notification (actor/recipient), refresh_token,
-    //    rest_day and streak_restore all cascade on this delete.
+    //    rest_day, streak_restore, user_daily_volume and exercise_pr_state all
+    //    cascade on this delete.
     exec("DELETE FROM app_user WHERE user_id = :uid", userId);
   }
 
@@ -0,0 +1,115 @@
+package com.gearfitness.gear_api.service;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * One bit per calendar day: set when the user had a workout, a rest day or a
+ * streak restore on that day. Bit i is day {@code baseDay + i} (epoch days),
+ * stored LSB-first within each byte. baseDay is kept a multiple of 8 so the
+ * map can grow backwards a whole byte at a time.
+ *
+ * <p>Days outside [1970-01-01, 2100-01-01) are ignored so a bogus back- or
+ * forward-dated workout can't blow the map up; at most ~6 KB per user.
+ */
+public final class ActivityBitmap {
+
+  static final long MIN_DAY = LocalDate.of(1970, 1, 1).toEpochDay();
+  static final long MAX_DAY = LocalDate.of(2100, 1, 1).toEpochDay();
+
+  private long baseDay;
+  private byte[] bits;
+
+  private ActivityBitmap(long baseDay, byte[] bits) {
+    this.baseDay = baseDay;
+    this.bits = bits;
+  }
+
+  public static ActivityBitmap empty() {
+    return new ActivityBitmap(0, new byte[0]);
+  }
+
+  public static ActivityBitmap of(long baseDay, byte[] bits) {
+    return new ActivityBitmap(baseDay, bits.clone());
+  }
+
+  public long baseDay() {
+    return baseDay;
+  }
+
+  public byte[] toBytes() {
+    return bits.clone();
+  }
+
+  public boolean isSet(LocalDate date) {
+    long i = date.toEpochDay() - baseDay;
+    if (i < 0 || i >= (long) bits.length * 8) {
+      return false;
+    }
+    return (bits[(int) (i >>> 3)] & (1 << (i & 7))) != 0;
+  }
+
+  public void set(LocalDate date) {
+    long day = date.toEpochDay();
+    if (day < MIN_DAY || day >= MAX_DAY) {
+      return;
+    }
+    ensureCovers(day);
+    long i = day - baseDay;
+    bits[(int) (i >>> 3)] |= (byte) (1 << (i & 7));
+  }
+
+  public void clear(LocalDate date) {
+    if (!isSet(date)) {
+      return;
+    }
+    long i = date.toEpochDay() - baseDay;
+    bits[(int) (i >>> 3)] &= (byte) ~(1 << (i & 7));
+  }
+
+  /**
+   * Number of consecutive set days ending at {@code date} (inclusive), walking
+   * backwards. Whole 0xFF bytes are skipped eight days at a time.
+   */
+  public int runEndingAt(LocalDate date) {
+    long i = date.toEpochDay() - baseDay;
+    if (i < 0 || i >= (long) bits.length * 8) {
+      return 0;
+    }
+    int run = 0;
+    // Walk bit by bit to the byte boundary, then by whole bytes.
+    while (i >= 0) {
+      if ((i & 7) == 7 && bits[(int) (i >>> 3)] == (byte) 0xFF) {
+        run += 8;
+        i -= 8;
+        continue;
+      }
+      if ((bits[(int) (i >>> 3)] & (1 << (i & 7))) == 0) {
+        break;
+      }
+      run++;
+      i--;
+    }
+    return run;
+  }
+
+  private void ensureCovers(long day) {
+    if (bits.length == 0) {
+      baseDay = Math.floorDiv(day, 8) * 8;
+      bits = new byte[1];
+      return;
+    }
+    if (day < baseDay) {
+      long newBase = Math.floorDiv(day, 8) * 8;
+      int prepend = (int) ((baseDay - newBase) / 8);
+      byte[] grown = new byte[bits.length + prepend];
+      System.arraycopy(bits, 0, grown, prepend, bits.length);
+      bits = grown;
+      baseDay = newBase;
+    }
+    long index = (day - baseDay) >>> 3;
+    if (index >= bits.length) {
+      bits = Arrays.copyOf(bits, (int) index + 1);
+    }
+  }
+}
@@ -14,12 +14,15 @@ import com.gearfitness.gear_api.repository.AppUserRepository;
 import com.gearfitness.gear_api.repository.NutritionCacheRepository;
 import com.gearfitness.gear_api.service.PerplexityClient.ParsedFood;
 import com.gearfitness.gear_api.service.PerplexityClient.PerplexityResult;
-import java.time.LocalDate;
+import com.gearfitness.gear_api.service.QuotaLedger.Window;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -36,8 +39,10 @@ import org.springframework.web.server.ResponseStatusException;
  *   log entries via {@link NutritionService#logFood}.
  *
  * The cache is keyed by normalized user text; a hit replays the stored parse
- * without a paid Sonar call. Cache rows are only written on a miss, so their
- * per-month count backs the spend guard.
+ * without a paid Sonar call. Misses are metered by {@link QuotaLedger} against
+ * a global monthly cap and a per-user daily one. Parses are also kept in a
+ * bounded in-process near cache, and concurrent misses on one key share a
+ * single Sonar call (see {@link #resolve}).
  */
 @Service
 @Slf4j
@@ -49,45 +54,74 @@ public class AiNutritionService {
   private final AppUserRepository appUserRepository;
   private final ObjectMapper mapper = new ObjectMapper();
   private final TransactionTemplate txTemplate;
-  private final int monthlyCap;
-  private final int userDailyCap;
-
-  // Per-user daily paid-call limiter. NOTE: this is in-memory, so the count
-  // resets on restart and is per-instance only (not shared across replicas). It
-  // is a cheap backstop so one user cannot drain the global monthly cap; a
-  // durable per-user quota would need a DB column (nutrition_cache has no
-  // user attribution today). Keyed by userId; each entry holds the day it
-  // counts for and the number of paid calls made that day.
-  private final ConcurrentHashMap<UUID, DailyCount> dailyCounts =
-    new ConcurrentHashMap<>();
+  private final QuotaLedger quotaLedger;
+
+  // Spend guards, both consumed only when a paid Sonar call is about to be
+  // made: a global monthly cap, and a per-user daily cap so one user cannot
+  // drain it.
+  private final QuotaLedger.Quota monthlyQuota;
+  private final QuotaLedger.Quota userDailyQuota;
 
-  private static final class DailyCount {
+  // Hot parses by normalized key, so popular phrases skip the cache lookup.
+  // Entries expire so rows cleared from nutrition_cache stop replaying.
+  private final NearCache<String, Parse> nearCache;
 
-    private final LocalDate day;
-    private int count;
+  // Sonar calls in progress by normalized key, for coalescing misses.
+  private final ConcurrentHashMap<String, CompletableFuture<Parse>> inFlight =
+    new ConcurrentHashMap<>();
 
-    private DailyCount(LocalDate day, int count) {
-      this.day = day;
-      this.count = count;
+  /** A parse as the caches and coalesced callers share it. */
+  private record Parse(
+    List<ParsedFood> foods,
+    List<String> sourceUrls,
+    String reasoning,
+    int confidence
+  ) {
+    static Parse of(PerplexityResult result) {
+      return new Parse(
+        List.copyOf(result.foods()),
+        List.copyOf(result.citations()),
+        result.reasoning(),
+        result.confidence()
+      );
     }
   }
 
+  /** A parse and whether it was replayed rather than freshly paid for. */
+  private record Resolved(Parse parse, boolean cached) {}
+
   public AiNutritionService(
     PerplexityClient perplexityClient,
     NutritionCacheRepository cacheRepository,
     NutritionService nutritionService,
     AppUserRepository appUserRepository,
     PlatformTransactionManager txManager,
+    QuotaLedger quotaLedger,
     @Value("${ai.nutrition.monthly-sonar-cap:500}") int monthlyCap,
-    @Value("${perplexity.user.daily.cap:20}") int userDailyCap
+    @Value("${perplexity.user.daily.cap:20}") int userDailyCap,
+    @Value("${ai.nutrition.near-cache.max-entries:2000}") int nearCacheSize,
+    @Value("${ai.nutrition.near-cache.ttl-minutes:60}") long nearCacheTtlMinutes
   ) {
     this.perplexityClient = perplexityClient;
     this.cacheRepository = cacheRepository;
     this.nutritionService = nutritionService;
     this.appUserRepository = appUserRepository;
     this.txTemplate = new TransactionTemplate(txManager);
-    this.monthlyCap = monthlyCap;
-    this.userDailyCap = userDailyCap;
+    this.quotaLedger = quotaLedger;
+    this.monthlyQuota = quotaLedger.quota(
+      "ai.text.sonar",
+      Window.MONTH,
+      monthlyCap
+    );
+    this.userDailyQuota = quotaLedger.quota(
+      "ai.text.user",
+      Window.DAY,
+      userDailyCap
+    );
+    this.nearCache = new NearCache<>(
+      nearCacheSize,
+      Duration.ofMinutes(nearCacheTtlMinutes)
+    );
   }
 
   /**
@@ -114,45 +148,10 @@ public class AiNutritionService {
     }
 
     String key = normalizeKey(text);
-    Optional<NutritionCache> cached = cacheRepository.findByNormalizedKey(key);
-    if (cached.isPresent()) {
-      return replayCached(userId, req, cached.get());
-    }
-
-    // Cache miss. Spend guard first (only misses trigger a paid Sonar call), so
-    // gate on the number of cache rows created this calendar month.
-    LocalDateTime monthStart = LocalDate.now().withDayOfMonth(1).atStartOfDay();
-    if (cacheRepository.countByCreatedAtAfter(monthStart) >= monthlyCap) {
-      throw new ResponseStatusException(
-        HttpStatus.SERVICE_UNAVAILABLE,
-        "AI_MONTHLY_LIMIT"
-      );
-    }
-
-    // Per-user daily guard: only misses reach a paid Sonar call, so count and
-    // cap paid calls per user per day here. Cache hits above never get this far.
-    enforceDailyCap(userId);
-
-    PerplexityResult result;
-    try {
-      result = perplexityClient.parse(text);
-    } catch (ResponseStatusException e) {
-      // Explicit client-visible status from the client layer (e.g. 503
-      // AI_UNAVAILABLE when the API key is unset). Propagate unchanged.
-      throw e;
-    } catch (RuntimeException e) {
-      // Timeout / non-2xx / unparseable upstream response — retryable, not a
-      // server bug. Map to 502 so the client can offer a retry rather than
-      // surfacing an opaque 500.
-      log.error("Sonar parse failed for AI log: {}", e.getMessage());
-      throw new ResponseStatusException(
-        HttpStatus.BAD_GATEWAY,
-        "AI_UPSTREAM",
-        e
-      );
-    }
-
-    return persistFreshParse(userId, req, key, result);
+    Resolved resolved = resolve(userId, key, text, "AI log");
+    return resolved.cached()
+      ? replayCached(userId, req, key, resolved.parse())
+      : logFreshParse(userId, req, resolved.parse());
   }
 
   /**
@@ -179,46 +178,13 @@ public class AiNutritionService {
     }
 
     String key = normalizeKey(text);
-    Optional<NutritionCache> cached = cacheRepository.findByNormalizedKey(key);
-    if (cached.isPresent()) {
-      NutritionCache hit = cached.get();
-      txTemplate.executeWithoutResult(status -> {
-        hit.setHitCount(hit.getHitCount() + 1);
-        hit.setLastHitAt(LocalDateTime.now());
-        cacheRepository.save(hit);
-      });
-      return sumFoods(
-        deserializeFoods(hit.getParsedResult()),
-        hit.getConfidence() == null ? 0 : hit.getConfidence()
-      );
-    }
-
-    // Cache miss: same spend guards as aiLog — only misses trigger a paid call.
-    LocalDateTime monthStart = LocalDate.now().withDayOfMonth(1).atStartOfDay();
-    if (cacheRepository.countByCreatedAtAfter(monthStart) >= monthlyCap) {
-      throw new ResponseStatusException(
-        HttpStatus.SERVICE_UNAVAILABLE,
-        "AI_MONTHLY_LIMIT"
-      );
-    }
-    enforceDailyCap(userId);
-
-    PerplexityResult result;
-    try {
-      result = perplexityClient.parse(text);
-    } catch (ResponseStatusException e) {
-      throw e;
-    } catch (RuntimeException e) {
-      log.error("Sonar parse failed for AI estimate: {}", e.getMessage());
-      throw new ResponseStatusException(
-        HttpStatus.BAD_GATEWAY,
-        "AI_UPSTREAM",
-        e
+    Resolved resolved = resolve(userId, key, text, "AI estimate");
+    if (resolved.cached()) {
+      txTemplate.executeWithoutResult(status ->
+        cacheRepository.recordHit(key, LocalDateTime.now())
       );
     }
-
-    writeCacheRow(key, result);
-    return sumFoods(result.foods(), result.confidence());
+    return sumFoods(resolved.parse().foods(), resolved.parse().confidence());
   }
 
   private AiEstimateResponse sumFoods(List<ParsedFood> foods, int confidence) {
@@ -246,27 +212,19 @@ public class AiNutritionService {
   }
 
   /**
-   * Per-user daily cap on paid Sonar calls, checked and incremented atomically
-   * only when a paid call is about to be made (cache hits never reach here).
-   * Stale-day entries are reset on access. When the cap is hit, mirror the
-   * global spend guard's 503 with a distinguishable AI_DAILY_LIMIT code.
+   * Take one paid Sonar call from the global monthly cap, then from the
+   * user's daily cap (handing the monthly unit back if that fails). Only
+   * cache misses get here. Both are 503s with distinguishable codes.
    */
-  private void enforceDailyCap(UUID userId) {
-    LocalDate today = LocalDate.now();
-    boolean[] exceeded = { false };
-    dailyCounts.compute(userId, (id, existing) -> {
-      if (existing == null || !existing.day.equals(today)) {
-        // First call of a new day (or first ever) resets the stale entry.
-        return new DailyCount(today, 1);
-      }
-      if (existing.count >= userDailyCap) {
-        exceeded[0] = true;
-        return existing;
-      }
-      existing.count++;
-      return existing;
-    });
-    if (exceeded[0]) {
+  private void consumeSpendQuota(UUID userId) {
+    if (!quotaLedger.tryConsume(monthlyQuota, QuotaLedger.GLOBAL)) {
+      throw new ResponseStatusException(
+        HttpStatus.SERVICE_UNAVAILABLE,
+        "AI_MONTHLY_LIMIT"
+      );
+    }
+    if (!quotaLedger.tryConsume(userDailyQuota, userId.toString())) {
+      quotaLedger.refund(monthlyQuota, QuotaLedger.GLOBAL);
       throw new ResponseStatusException(
         HttpStatus.SERVICE_UNAVAILABLE,
         "AI_DAILY_LIMIT"
@@ -274,63 +232,137 @@ public class AiNutritionService {
     }
   }
 
+  /**
+   * The parse for a normalized key, paying for a Sonar call only when neither
+   * cache has it. Concurrent misses on one key share a single call: the first
+   * becomes the leader and runs the pipeline (database cache, spend guards,
+   * Sonar, cache write); the rest wait for its result and replay it as a
+   * cache hit. A leader stopped by its own daily cap says nothing about the
+   * waiters, so they retry; any other failure applies to all of them.
+   */
+  private Resolved resolve(UUID userId, String key, String text, String use) {
+    while (true) {
+      Parse near = nearCache.get(key);
+      if (near != null) {
+        return new Resolved(near, true);
+      }
+
+      CompletableFuture<Parse> call = new CompletableFuture<>();
+      CompletableFuture<Parse> leader = inFlight.putIfAbsent(key, call);
+      if (leader == null) {
+        try {
+          Resolved resolved = resolveUncached(userId, key, text, use);
+          call.complete(resolved.parse());
+          return resolved;
+        } catch (RuntimeException e) {
+          call.completeExceptionally(e);
+          throw e;
+        } finally {
+          inFlight.remove(key, call);
+        }
+      }
+
+      try {
+        return new Resolved(leader.join(), true);
+      } catch (CompletionException e) {
+        if (
+          !(e.getCause() instanceof ResponseStatusException rse) ||
+          !"AI_DAILY_LIMIT".equals(rse.getReason())
+        ) {
+          throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+      }
+    }
+  }
+
+  /** Leader path: database cache, then spend guards and a paid Sonar call. */
+  private Resolved resolveUncached(
+    UUID userId,
+    String key,
+    String text,
+    String use
+  ) {
+    Optional<NutritionCache> cached = cacheRepository.findByNormalizedKey(key);
+    if (cached.isPresent()) {
+      Parse parse = fromRow(cached.get());
+      nearCache.put(key, parse);
+      return new Resolved(parse, true);
+    }
+
+    // Cache miss: only misses trigger a paid Sonar call, so spend guards go
+    // here. Cache hits above never get this far.
+    consumeSpendQuota(userId);
+
+    PerplexityResult result;
+    try {
+      result = perplexityClient.parse(text);
+    } catch (ResponseStatusException e) {
+      // Explicit client-visible status from the client layer (e.g. 503
+      // AI_UNAVAILABLE when the API key is unset). Propagate unchanged.
+      throw e;
+    } catch (RuntimeException e) {
+      // Timeout / non-2xx / unparseable upstream response — retryable, not a
+      // server bug. Map to 502 so the client can offer a retry rather than
+      // surfacing an opaque 500.
+      log.error("Sonar parse failed for {}: {}", use, e.getMessage());
+      throw new ResponseStatusException(
+        HttpStatus.BAD_GATEWAY,
+        "AI_UPSTREAM",
+        e
+      );
+    }
+
+    writeCacheRow(key, result);
+    Parse parse = Parse.of(result);
+    if (!parse.foods().isEmpty()) {
+      nearCache.put(key, parse);
+    }
+    return new Resolved(parse, false);
+  }
+
   /** Cache hit: bump hit stats and re-log the stored foods, in one transaction. */
   private AiLogResponse replayCached(
     UUID userId,
     AiLogRequest req,
-    NutritionCache hit
+    String key,
+    Parse parse
   ) {
-    List<ParsedFood> foods = deserializeFoods(hit.getParsedResult());
-    List<String> sourceUrls = deserializeUrls(hit.getSourceUrls());
-    String reasoning = hit.getReasoning() == null ? "" : hit.getReasoning();
-    int confidence = hit.getConfidence() == null ? 0 : hit.getConfidence();
-
     return txTemplate.execute(status -> {
-      hit.setHitCount(hit.getHitCount() + 1);
-      hit.setLastHitAt(LocalDateTime.now());
-      cacheRepository.save(hit);
+      cacheRepository.recordHit(key, LocalDateTime.now());
       List<LogEntryDTO> entries = logFoods(
         userId,
         req,
-        foods,
+        parse.foods(),
         "AI_CACHE",
-        sourceUrls
+        parse.sourceUrls()
       );
       return new AiLogResponse(
         entries,
         true,
-        sourceUrls,
-        reasoning,
-        confidence,
-        foods.isEmpty()
+        parse.sourceUrls(),
+        parse.reasoning(),
+        parse.confidence(),
+        parse.foods().isEmpty()
       );
     });
   }
 
-  /** Cache miss: persist the fresh parse (unless empty) then log its foods. */
-  private AiLogResponse persistFreshParse(
+  /** Cache miss: log the foods of the parse just paid for. */
+  private AiLogResponse logFreshParse(
     UUID userId,
     AiLogRequest req,
-    String key,
-    PerplexityResult result
+    Parse parse
   ) {
-    List<ParsedFood> foods = result.foods();
-    List<String> sourceUrls = result.citations();
-    String reasoning = result.reasoning();
-    int confidence = result.confidence();
-
-    writeCacheRow(key, result);
-
     List<LogEntryDTO> entries = txTemplate.execute(status ->
-      logFoods(userId, req, foods, "AI_SONAR", sourceUrls)
+      logFoods(userId, req, parse.foods(), "AI_SONAR", parse.sourceUrls())
     );
     return new AiLogResponse(
       entries,
       false,
-      sourceUrls,
-      reasoning,
-      confidence,
-      foods.isEmpty()
+      parse.sourceUrls(),
+      parse.reasoning(),
+      parse.confidence(),
+      parse.foods().isEmpty()
     );
   }
 
@@ -356,8 +388,8 @@ public class AiNutritionService {
         cacheRepository.save(row);
       });
     } catch (DataIntegrityViolationException dup) {
-      // A concurrent first-time request cached the same key between our
-      // lookup and this insert. Harmless — our own parse still stands.
+      // Another instance cached the same key between our lookup and this
+      // insert (calls on this one are coalesced). Our own parse still stands.
       log.debug("Concurrent cache insert for key '{}', ignoring", key);
     }
   }
@@ -409,6 +441,15 @@ public class AiNutritionService {
     }
   }
 
+  private Parse fromRow(NutritionCache row) {
+    return new Parse(
+      deserializeFoods(row.getParsedResult()),
+      deserializeUrls(row.getSourceUrls()),
+      row.getReasoning() == null ? "" : row.getReasoning(),
+      row.getConfidence() == null ? 0 : row.getConfidence()
+    );
+  }
+
   private List<ParsedFood> deserializeFoods(String json) {
     try {
       return mapper.readValue(json, new TypeReference<List<ParsedFood>>() {});
@@ -7,12 +7,11 @@ import com.gearfitness.gear_api.entity.AppUser;
 import com.gearfitness.gear_api.entity.Tier;
 import com.gearfitness.gear_api.repository.AppUserRepository;
 import com.gearfitness.gear_api.service.PerplexityClient.PerplexityResult;
-import java.time.LocalDate;
+import com.gearfitness.gear_api.service.QuotaLedger.Window;
 import java.util.Base64;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
@@ -31,13 +30,12 @@ import org.springframework.web.server.ResponseStatusException;
  * confirms the results and logs through NutritionService), and unlike the text
  * path there is no cache because every photo is unique.
  *
- * Spend note: the per-user daily caps are the only guard. There is no durable
- * global monthly cap; the text path's global cap counts nutrition_cache rows,
- * which photo calls never create. Accepted risk while per-image cost is low.
- * Two counters per user per day: a success cap that is refunded on upstream
- * failure (a flaky upstream should not eat the allowance), and an attempt
- * ceiling at 2x the cap that is never refunded, so failed calls (which may
- * still have been billed) stay bounded.
+ * Spend note: the per-user daily caps are the only guard. There is no global
+ * monthly cap; the text path's is its own allowance. Accepted risk while
+ * per-image cost is low. Two {@link QuotaLedger} counters per user per day: a
+ * success cap that is refunded on upstream failure (a flaky upstream should
+ * not eat the allowance), and an attempt ceiling at 2x the cap that is never
+ * refunded, so failed calls (which may still have been billed) stay bounded.
  */
 @Service
 @Slf4j
@@ -56,43 +54,38 @@ public class AiPhotoNutritionService {
   private final PerplexityClient perplexityClient;
   private final AppUserRepository appUserRepository;
   private final S3StorageService s3StorageService;
-  private final int userDailyCap;
+  private final QuotaLedger quotaLedger;
 
-  // Per-user daily paid-call limiter, the same in-memory backstop
-  // AiNutritionService uses (deliberately duplicated, not shared: the two
-  // features should not drain one another's allowance). Resets on restart and
-  // is per-instance only.
-  private final ConcurrentHashMap<UUID, DailyCount> dailyCounts =
-    new ConcurrentHashMap<>();
+  // Separate from AiNutritionService's caps: the two features should not
+  // drain one another's allowance.
+  private final QuotaLedger.Quota dailySuccesses;
 
-  // Companion attempt counter: every call that reaches the paid upstream is
-  // counted here and never rolled back, with a hard ceiling at 2x the cap.
-  // Without it the refund on the 502 path would let a user (or a flaky
-  // upstream) generate unlimited billable failed attempts.
-  private final ConcurrentHashMap<UUID, DailyCount> dailyAttempts =
-    new ConcurrentHashMap<>();
-
-  private static final class DailyCount {
-
-    private final LocalDate day;
-    private int count;
-
-    private DailyCount(LocalDate day, int count) {
-      this.day = day;
-      this.count = count;
-    }
-  }
+  // Every call that reaches the paid upstream is counted here and never
+  // refunded. Without it the refund on the 502 path would let a user (or a
+  // flaky upstream) generate unlimited billable failed attempts.
+  private final QuotaLedger.Quota dailyAttempts;
 
   public AiPhotoNutritionService(
     PerplexityClient perplexityClient,
     AppUserRepository appUserRepository,
     S3StorageService s3StorageService,
+    QuotaLedger quotaLedger,
     @Value("${ai.photo.user.daily.cap:15}") int userDailyCap
   ) {
     this.perplexityClient = perplexityClient;
     this.appUserRepository = appUserRepository;
     this.s3StorageService = s3StorageService;
-    this.userDailyCap = userDailyCap;
+    this.quotaLedger = quotaLedger;
+    this.dailySuccesses = quotaLedger.quota(
+      "ai.photo.user",
+      Window.DAY,
+      userDailyCap
+    );
+    this.dailyAttempts = quotaLedger.quota(
+      "ai.photo.user.attempts",
+      Window.DAY,
+      userDailyCap * 2
+    );
   }
 
   public AiPhotoEstimateResponse estimate(
@@ -203,21 +196,19 @@ public class AiPhotoNutritionService {
   }
 
   /**
-   * Per-user daily cap on paid vision calls, checked and incremented
-   * atomically. Stale-day entries reset on access. Mirrors
-   * AiNutritionService.enforceDailyCap with the photo-specific config knob.
+   * Per-user daily cap on paid vision calls, checked and consumed atomically.
    * The attempt counter goes first and is never refunded: it is the hard
    * ceiling on billable calls, while the success counter below is the one
    * rollbackDailyCap hands back on upstream failure.
    */
   private void enforceDailyCap(UUID userId) {
-    if (!tryIncrement(dailyAttempts, userId, userDailyCap * 2)) {
+    if (!quotaLedger.tryConsume(dailyAttempts, userId.toString())) {
       throw new ResponseStatusException(
         HttpStatus.SERVICE_UNAVAILABLE,
         "AI_DAILY_LIMIT"
       );
     }
-    if (!tryIncrement(dailyCounts, userId, userDailyCap)) {
+    if (!quotaLedger.tryConsume(dailySuccesses, userId.toString())) {
       throw new ResponseStatusException(
         HttpStatus.SERVICE_UNAVAILABLE,
         "AI_DAILY_LIMIT"
@@ -226,49 +217,16 @@ public class AiPhotoNutritionService {
   }
 
   /**
-   * Atomically take one slot from a per-user daily counter; returns false
-   * when the counter is already at its limit for today.
-   */
-  private boolean tryIncrement(
-    ConcurrentHashMap<UUID, DailyCount> counts,
-    UUID userId,
-    int limit
-  ) {
-    LocalDate today = LocalDate.now();
-    boolean[] exceeded = { false };
-    counts.compute(userId, (id, existing) -> {
-      if (existing == null || !existing.day.equals(today)) {
-        return new DailyCount(today, 1);
-      }
-      if (existing.count >= limit) {
-        exceeded[0] = true;
-        return existing;
-      }
-      existing.count++;
-      return existing;
-    });
-    return !exceeded[0];
-  }
-
-  /**
-   * Return the daily-cap slot reserved by enforceDailyCap after an upstream
+   * Return the success slot reserved by enforceDailyCap after an upstream
    * failure. The slot is still taken before the paid call (so concurrent spam
    * cannot bypass the cap); this only undoes it when the call produced no
-   * result. Mutation happens inside compute, same as enforceDailyCap, so it
-   * is atomic per user. The attempt counter is deliberately not refunded;
-   * that ceiling is what keeps refunded failures from becoming unlimited
-   * billable retries. Known benign midnight edge: a call taken just before
-   * midnight that fails just after can decrement the new day's count,
-   * granting one extra success slot at most.
+   * result. The attempt counter is deliberately not refunded; that ceiling is
+   * what keeps refunded failures from becoming unlimited billable retries.
+   * Known benign midnight edge: a call taken just before midnight that fails
+   * just after refunds to the new day, granting one extra slot at most.
    */
   private void rollbackDailyCap(UUID userId) {
-    LocalDate today = LocalDate.now();
-    dailyCounts.computeIfPresent(userId, (id, existing) -> {
-      if (existing.day.equals(today) && existing.count > 0) {
-        existing.count--;
-      }
-      return existing;
-    });
+    quotaLedger.refund(dailySuccesses, userId.toString());
   }
 
   /**
@@ -8,19 +8,21 @@ import com.gearfitness.gear_api.dto.UsernameAvailabilityResponse;
 import com.gearfitness.gear_api.dto.WorkoutStatsDTO;
 import com.gearfitness.gear_api.entity.AppUser;
 import com.gearfitness.gear_api.entity.Follow;
-import com.gearfitness.gear_api.entity.Workout;
 import com.gearfitness.gear_api.repository.AppUserRepository;
 import com.gearfitness.gear_api.repository.ContentVisibilityRepository;
 import com.gearfitness.gear_api.repository.FollowRepository;
 import com.gearfitness.gear_api.repository.WorkoutRepository;
+import com.gearfitness.gear_api.security.TokenRevocationService;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
@@ -37,12 +39,20 @@ public class AppUserService {
   private static final int SEARCH_RESULT_LIMIT = 20;
   // Minimum pg_trgm word similarity for a fuzzy (typo-tolerant) name match.
   private static final double SEARCH_FUZZY_THRESHOLD = 0.3;
+  // Prefix matches scanned per query, beyond the current user's followees.
+  private static final int SEARCH_CANDIDATE_LIMIT = 200;
+  // Fewer prefix matches than this and the fuzzy database search tops up.
+  private static final int SEARCH_PREFIX_MIN_RESULTS = 5;
 
   private final AppUserRepository userRepository;
   private final WorkoutRepository workoutRepository;
   private final FollowRepository followRepository;
   private final ContentVisibilityRepository contentVisibilityRepository;
   private final StreakService streakService;
+  private final TokenRevocationService tokenRevocationService;
+  private final RelationshipCache relationshipCache;
+  private final UserSearchIndex userSearchIndex;
+  private final UsernameFilter usernameFilter;
 
   /**
    * Get user profile by user ID
@@ -90,6 +100,7 @@ public class AppUserService {
         throw new RuntimeException("Username already taken");
       }
       user.setUsername(request.getUsername());
+      usernameFilter.add(request.getUsername());
     }
 
     if (request.getDisplayName() != null) {
@@ -127,6 +138,11 @@ public class AppUserService {
 
     // Save and return
     AppUser updatedUser = userRepository.save(user);
+    userSearchIndex.putAfterCommit(
+      userId,
+      updatedUser.getUsername(),
+      updatedUser.getDisplayName()
+    );
     return convertToDTO(updatedUser);
   }
 
@@ -171,14 +187,6 @@ public class AppUserService {
     String localDate
   ) {
     WorkoutStatsDTO workoutStats = calculateWorkoutStats(user, localDate);
-    long followersCount = followRepository.countByFolloweeAndStatus(
-      user,
-      Follow.FollowStatus.ACCEPTED
-    );
-    long followingCount = followRepository.countByFollowerAndStatus(
-      user,
-      Follow.FollowStatus.ACCEPTED
-    );
 
     Boolean isFollowing = null;
     String followStatus = null;
@@ -229,23 +237,22 @@ public class AppUserService {
       .createdAt(user.getCreatedAt())
       .tier(user.getTier().name())
       .workoutStats(workoutStats)
-      .followersCount(followersCount)
-      .followingCount(followingCount)
+      .followersCount((long) user.getFollowerCount())
+      .followingCount((long) user.getFollowingCount())
       .isFollowing(isFollowing)
       .followStatus(followStatus)
       .build();
   }
 
   /**
-   * Calculate workout statistics for a user
+   * Calculate workout statistics for a user. Totals come from the counters on
+   * AppUser; everything date-bucketed comes from one per-day aggregate over the
+   * activity grid window, which always contains the current Mon–Sun week.
    */
   private WorkoutStatsDTO calculateWorkoutStats(
     AppUser user,
     String localDate
   ) {
-    // Total workouts
-    long totalWorkouts = workoutRepository.countByUser(user);
-
     // Get start and end of current week (Monday to Sunday)
     LocalDate today = (localDate != null && !localDate.isBlank())
       ? LocalDate.parse(localDate)
@@ -256,21 +263,44 @@ public class AppUserService {
     LocalDate endOfWeek = today.with(
       TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY)
     );
+    LocalDate gridStart = today
+      .with(TemporalAdjusters.previousOrSame(DayOfWeek.SUNDAY))
+      .minusWeeks(4);
 
-    // Workouts this week
-    long workoutsThisWeek =
-      workoutRepository.countByUserAndDatePerformedBetween(
-        user,
-        startOfWeek,
-        endOfWeek
+    // date -> {workout count, total minutes}
+    Map<LocalDate, long[]> dailyTotals = new HashMap<>();
+    for (Object[] row : workoutRepository.findDailyTotalsRaw(
+      user.getUserId(),
+      gridStart,
+      endOfWeek
+    )) {
+      dailyTotals.put(
+        NativeRows.toLocalDate(row[0]),
+        new long[] {
+          ((Number) row[1]).longValue(),
+          ((Number) row[2]).longValue(),
+        }
       );
+    }
 
-    // Build weekly split (map of day names to workout counts)
-    Map<String, Integer> weeklySplit = buildWeeklySplit(
-      user,
-      startOfWeek,
-      endOfWeek
-    );
+    // Weekly split (day name -> workout count), workouts and distinct workout
+    // days this week.
+    Map<String, Integer> weeklySplit = new HashMap<>();
+    long workoutsThisWeek = 0;
+    int workoutDaysCurrentWeek = 0;
+    for (
+      LocalDate day = startOfWeek;
+      !day.isAfter(endOfWeek);
+      day = day.plusDays(1)
+    ) {
+      long[] totals = dailyTotals.get(day);
+      int count = totals == null ? 0 : (int) totals[0];
+      weeklySplit.put(getDayName(day.getDayOfWeek()), count);
+      workoutsThisWeek += count;
+      if (count > 0) {
+        workoutDaysCurrentWeek++;
+      }
+    }
 
     // Correct a stale persisted streak before reading it, using the user's
     // local "today". Without this, the streak surfaced on the profile/Workout
@@ -280,23 +310,14 @@ public class AppUserService {
     streakService.refreshStreakIfStale(user, today);
     int workoutStreak = calculateWorkoutStreak(user);
 
-    // Count distinct workout days in the current week
-    List<Workout> currentWeekWorkouts =
-      workoutRepository.findByUserAndDatePerformedBetween(
-        user,
-        startOfWeek,
-        endOfWeek
-      );
-    int workoutDaysCurrentWeek = (int) currentWeekWorkouts
-      .stream()
-      .map(Workout::getDatePerformed)
-      .distinct()
-      .count();
-
-    List<Integer> dailyActivity = buildDailyActivity(user, today);
+    List<Integer> dailyActivity = buildDailyActivity(
+      dailyTotals,
+      gridStart,
+      today
+    );
 
     return WorkoutStatsDTO.builder()
-      .totalWorkouts(totalWorkouts)
+      .totalWorkouts((long) user.getWorkoutCount())
       .workoutsThisWeek(workoutsThisWeek)
       .weeklySplit(weeklySplit)
       .workoutStreak(workoutStreak)
@@ -311,36 +332,21 @@ public class AppUserService {
    * before this week's Sunday, index 34 = today. Levels are derived from total
    * workout duration on each day: 0 (none), 1 (<30 min), 2 (30–60 min), 3 (>60).
    */
-  private List<Integer> buildDailyActivity(AppUser user, LocalDate today) {
-    LocalDate gridStart = today
-      .with(TemporalAdjusters.previousOrSame(DayOfWeek.SUNDAY))
-      .minusWeeks(4);
-
-    List<Workout> windowWorkouts =
-      workoutRepository.findByUserAndDatePerformedBetween(
-        user,
-        gridStart,
-        today
-      );
-
-    Map<LocalDate, Integer> minutesByDay = new HashMap<>();
-    for (Workout w : windowWorkouts) {
-      Integer dur = w.getDurationMin();
-      int minutes = dur == null ? 0 : dur;
-      minutesByDay.merge(w.getDatePerformed(), minutes, Integer::sum);
-    }
-
+  private List<Integer> buildDailyActivity(
+    Map<LocalDate, long[]> dailyTotals,
+    LocalDate gridStart,
+    LocalDate today
+  ) {
     List<Integer> activity = new ArrayList<>(35);
     for (int i = 0; i < 35; i++) {
       LocalDate day = gridStart.plusDays(i);
-      if (day.isAfter(today)) {
+      long[] totals = dailyTotals.get(day);
+      if (day.isAfter(today) || totals == null) {
         activity.add(0);
         continue;
       }
-      Integer minutes = minutesByDay.get(day);
-      if (minutes == null) {
-        activity.add(0);
-      } else if (minutes < 30) {
+      long minutes = totals[1];
+      if (minutes < 30) {
         activity.add(1);
       } else if (minutes <= 60) {
         activity.add(2);
@@ -359,40 +365,6 @@ public class AppUserService {
     return user.getCurrentStreak();
   }
 
-  /**
-   * Build weekly split map for the current week
-   */
-  private Map<String, Integer> buildWeeklySplit(
-    AppUser user,
-    LocalDate startOfWeek,
-    LocalDate endOfWeek
-  ) {
-    List<Workout> weekWorkouts =
-      workoutRepository.findByUserAndDatePerformedBetween(
-        user,
-        startOfWeek,
-        endOfWeek
-      );
-
-    // Initialize all days to 0
-    Map<String, Integer> weeklySplit = new HashMap<>();
-    weeklySplit.put("Mon", 0);
-    weeklySplit.put("Tue", 0);
-    weeklySplit.put("Wed", 0);
-    weeklySplit.put("Thu", 0);
-    weeklySplit.put("Fri", 0);
-    weeklySplit.put("Sat", 0);
-    weeklySplit.put("Sun", 0);
-
-    // Count workouts per day
-    for (Workout workout : weekWorkouts) {
-      String dayName = getDayName(workout.getDatePerformed().getDayOfWeek());
-      weeklySplit.put(dayName, weeklySplit.get(dayName) + 1);
-    }
-
-    return weeklySplit;
-  }
-
   /**
    * Convert DayOfWeek to short day name
    */
@@ -439,46 +411,106 @@ public class AppUserService {
   }
 
   /**
-   * Ranked user search for the social tab. Results are ordered server-side by a
-   * blended relevance score: text-match quality dominates (exact > prefix >
-   * word-start > contains > trigram-fuzzy, best of username and display name)
-   * and the relationship to the current user (mutual > current follows them >
-   * they follow current) only breaks ties between comparable text matches.
-   * Typo-tolerant via pg_trgm word similarity. See {@code rankedSearch}.
+   * Ranked user search for the social tab. Results are ordered by a blended
+   * relevance score: text-match quality dominates (exact > prefix >
+   * word-start, best of username and display name) and the relationship to
+   * the current user (mutual > current follows them > they follow current)
+   * only breaks ties between comparable text matches.
+   *
+   * <p>Served from UserSearchIndex, so a keystroke costs a prefix range scan
+   * plus one batched follower lookup, whatever the size of the user table.
+   * The current user's followees and blocks come from RelationshipCache.
+   * Only when that finds fewer than SEARCH_PREFIX_MIN_RESULTS does it fall
+   * back to {@code rankedSearch} for contains and typo-tolerant (pg_trgm)
+   * matches, which are appended after the prefix matches.
    */
   public List<UserSearchResultDTO> searchUsers(
     String query,
     UUID currentUserId
   ) {
-    List<AppUser> results = userRepository.rankedSearch(
-      query,
-      currentUserId,
-      SEARCH_FUZZY_THRESHOLD,
-      SEARCH_RESULT_LIMIT
-    );
-    if (results.isEmpty()) {
-      return List.of();
-    }
-
-    List<UUID> resultIds = results.stream().map(AppUser::getUserId).toList();
-    List<Follow> edges = followRepository.findAcceptedEdgesBetween(
-      currentUserId,
-      resultIds
+    RelationshipCache.Relationships relationships = relationshipCache.get(
+      currentUserId
     );
+    String term = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
 
-    Set<UUID> currentUserFollows = new HashSet<>();
+    List<UUID> resultIds = new ArrayList<>();
     Set<UUID> followsCurrentUser = new HashSet<>();
-    for (Follow edge : edges) {
-      UUID followerId = edge.getFollower().getUserId();
-      UUID followeeId = edge.getFollowee().getUserId();
-      if (followerId.equals(currentUserId)) {
-        currentUserFollows.add(followeeId);
+    if (!term.isEmpty() && userSearchIndex.isReady()) {
+      Map<UUID, UserSearchIndex.Match> candidates = new HashMap<>();
+      for (UserSearchIndex.Match match : userSearchIndex.prefixMatches(
+        term,
+        SEARCH_CANDIDATE_LIMIT
+      )) {
+        candidates.put(match.userId(), match);
       }
-      if (followeeId.equals(currentUserId)) {
-        followsCurrentUser.add(followerId);
+      // Followees outrank strangers within a tier, so consider all of them
+      // rather than only those among the first candidates in term order.
+      for (UUID followeeId : relationships.following().toList()) {
+        UserSearchIndex.Match match = userSearchIndex.match(followeeId, term);
+        if (match != null) {
+          candidates.put(followeeId, match);
+        }
+      }
+      candidates.remove(currentUserId);
+      candidates.keySet().removeIf(relationships::isBlocked);
+
+      followsCurrentUser.addAll(
+        followRepository.findAuthorIdsFollowingViewer(
+          currentUserId,
+          new ArrayList<>(candidates.keySet())
+        )
+      );
+      candidates
+        .values()
+        .stream()
+        .sorted(
+          Comparator.comparingInt((UserSearchIndex.Match match) ->
+            -(match.tier() +
+              relationshipBoost(
+                relationships.follows(match.userId()),
+                followsCurrentUser.contains(match.userId())
+              ))
+          ).thenComparing(UserSearchIndex.Match::username)
+        )
+        .limit(SEARCH_RESULT_LIMIT)
+        .forEach(match -> resultIds.add(match.userId()));
+    }
+
+    Map<UUID, AppUser> users = new HashMap<>();
+    userRepository
+      .findAllById(resultIds)
+      .forEach(user -> users.put(user.getUserId(), user));
+    List<AppUser> results = new ArrayList<>();
+    for (UUID userId : resultIds) {
+      AppUser user = users.get(userId);
+      if (user != null) {
+        results.add(user);
       }
     }
 
+    if (results.size() < SEARCH_PREFIX_MIN_RESULTS) {
+      List<UUID> fuzzyIds = new ArrayList<>();
+      for (AppUser user : userRepository.rankedSearch(
+        query,
+        currentUserId,
+        relationships.blockedIds(),
+        SEARCH_FUZZY_THRESHOLD,
+        SEARCH_RESULT_LIMIT
+      )) {
+        if (results.size() >= SEARCH_RESULT_LIMIT) {
+          break;
+        }
+        if (!users.containsKey(user.getUserId())) {
+          users.put(user.getUserId(), user);
+          results.add(user);
+          fuzzyIds.add(user.getUserId());
+        }
+      }
+      followsCurrentUser.addAll(
+        followRepository.findAuthorIdsFollowingViewer(currentUserId, fuzzyIds)
+      );
+    }
+
     return results
       .stream()
       .map(u ->
@@ -487,13 +519,24 @@ public class AppUserService {
           .username(u.getUsername())
           .displayName(u.getDisplayName())
           .profilePictureUrl(u.getProfilePictureUrl())
-          .currentUserFollows(currentUserFollows.contains(u.getUserId()))
+          .currentUserFollows(relationships.follows(u.getUserId()))
           .followsCurrentUser(followsCurrentUser.contains(u.getUserId()))
           .build()
       )
       .toList();
   }
 
+  /** Same weights as rankedSearch: smaller than the gap between tiers. */
+  private static int relationshipBoost(
+    boolean currentUserFollows,
+    boolean followsCurrentUser
+  ) {
+    if (currentUserFollows && followsCurrentUser) return 15;
+    if (currentUserFollows) return 10;
+    if (followsCurrentUser) return 8;
+    return 0;
+  }
+
   public UsernameAvailabilityResponse getUsernameAvailability(String username) {
     if (username == null || username.trim().isEmpty()) {
       return UsernameAvailabilityResponse.builder()
@@ -519,9 +562,7 @@ public class AppUserService {
         .build();
     }
 
-    boolean taken = userRepository.existsByUsernameIncludingDeleted(
-      normalizedUsername
-    );
+    boolean taken = usernameFilter.isTaken(normalizedUsername);
     return UsernameAvailabilityResponse.builder()
       .available(!taken)
       .reason(taken ? "Username is already taken" : null)
@@ -549,6 +590,8 @@ public class AppUserService {
     user.setExpoPushToken(null);
     user.setDeletedAt(now);
     userRepository.save(user);
+    userSearchIndex.removeAfterCommit(userId);
+    tokenRevocationService.revoke(userId);
   }
 
   public UserDTO restoreAccount(UUID userId) {
@@ -558,6 +601,12 @@ public class AppUserService {
 
     user.setDeletedAt(null);
     AppUser restored = userRepository.save(user);
+    userSearchIndex.putAfterCommit(
+      userId,
+      restored.getUsername(),
+      restored.getDisplayName()
+    );
+    tokenRevocationService.restore(userId);
     return convertToDTO(restored);
   }
 }
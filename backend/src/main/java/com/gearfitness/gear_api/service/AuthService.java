@@ -12,6 +12,7 @@ import com.gearfitness.gear_api.repository.RefreshTokenRepository;
 import com.gearfitness.gear_api.security.AppleTokenVerifier;
 import com.gearfitness.gear_api.security.GoogleTokenVerifier;
 import com.gearfitness.gear_api.security.JwtService;
+import com.gearfitness.gear_api.security.TokenRevocationService;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
 import com.nimbusds.jwt.JWTClaimsSet;
 import java.io.IOException;
@@ -41,6 +42,9 @@ public class AuthService {
   private final RefreshTokenRepository refreshTokenRepository;
   private final ContentVisibilityRepository contentVisibilityRepository;
   private final AppleTokenVerifier appleTokenVerifier;
+  private final TokenRevocationService tokenRevocationService;
+  private final UserSearchIndex userSearchIndex;
+  private final UsernameFilter usernameFilter;
 
   @Value("${jwt.refresh-expiration}")
   private Long refreshExpiration;
@@ -79,6 +83,12 @@ public class AuthService {
       LocalDateTime previousDeletedAt = user.getDeletedAt();
       user.setDeletedAt(null);
       userRepository.save(user);
+      tokenRevocationService.restore(user.getUserId());
+      userSearchIndex.putAfterCommit(
+        user.getUserId(),
+        user.getUsername(),
+        user.getDisplayName()
+      );
 
       contentVisibilityRepository.restoreAllContentForUser(
         user.getUserId(),
@@ -221,7 +231,14 @@ public class AuthService {
       .isPrivate(false)
       .build();
 
-    return userRepository.save(newUser);
+    AppUser saved = userRepository.save(newUser);
+    usernameFilter.add(saved.getUsername());
+    userSearchIndex.putAfterCommit(
+      saved.getUserId(),
+      saved.getUsername(),
+      saved.getDisplayName()
+    );
+    return saved;
   }
 
   @Transactional
@@ -257,6 +274,12 @@ public class AuthService {
       LocalDateTime previousDeletedAt = user.getDeletedAt();
       user.setDeletedAt(null);
       userRepository.save(user);
+      tokenRevocationService.restore(user.getUserId());
+      userSearchIndex.putAfterCommit(
+        user.getUserId(),
+        user.getUsername(),
+        user.getDisplayName()
+      );
 
       contentVisibilityRepository.restoreAllContentForUser(
         user.getUserId(),
@@ -420,7 +443,14 @@ public class AuthService {
       .age(request.getAge())
       .build();
 
-    return userRepository.save(newUser);
+    AppUser saved = userRepository.save(newUser);
+    usernameFilter.add(saved.getUsername());
+    userSearchIndex.putAfterCommit(
+      saved.getUserId(),
+      saved.getUsername(),
+      saved.getDisplayName()
+    );
+    return saved;
   }
 
   private boolean isBlank(String value) {
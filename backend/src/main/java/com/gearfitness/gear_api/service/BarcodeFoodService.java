@@ -69,12 +69,8 @@ public class BarcodeFoodService {
 
     // Local first. Try the code as scanned plus, for a possible UPC-E, its
     // UPC-A expansion; both in canonical GTIN-14 form.
-    Set<String> canonicals = new LinkedHashSet<>();
-    canonicals.add(toGtin14(digits));
     String upcA = expandUpcE(digits);
-    if (upcA != null) canonicals.add(toGtin14(upcA));
-
-    for (String canonical : canonicals) {
+    for (String canonical : canonicalForms(digits)) {
       Optional<FoodItem> local = foodItemRepository.findByBarcode(canonical);
       if (local.isPresent()) {
         return BarcodeLookupResponse.found(FoodItemDTO.from(local.get()));
@@ -160,6 +156,15 @@ public class BarcodeFoodService {
     }
   }
 
+  /** GTIN-14 forms to look up for a scanned code: as scanned, then as UPC-E. */
+  static Set<String> canonicalForms(String digits) {
+    Set<String> canonicals = new LinkedHashSet<>();
+    canonicals.add(toGtin14(digits));
+    String upcA = expandUpcE(digits);
+    if (upcA != null) canonicals.add(toGtin14(upcA));
+    return canonicals;
+  }
+
   /** Canonical storage form: digits zero-padded on the left to 14. */
   static String toGtin14(String digits) {
     return "0".repeat(14 - digits.length()) + digits;
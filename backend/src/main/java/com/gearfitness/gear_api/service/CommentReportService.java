@@ -6,6 +6,7 @@ import com.gearfitness.gear_api.entity.PostComment;
 import com.gearfitness.gear_api.repository.AppUserRepository;
 import com.gearfitness.gear_api.repository.CommentReportRepository;
 import com.gearfitness.gear_api.repository.PostCommentRepository;
+import com.gearfitness.gear_api.repository.PostRepository;
 import jakarta.transaction.Transactional;
 import java.util.List;
 import java.util.UUID;
@@ -28,6 +29,7 @@ public class CommentReportService {
 
   private final CommentReportRepository commentReportRepository;
   private final PostCommentRepository postCommentRepository;
+  private final PostRepository postRepository;
   private final AppUserRepository appUserRepository;
 
   public void createReport(
@@ -113,6 +115,8 @@ public class CommentReportService {
     ) {
       comment.setModerationStatus(PostComment.ModerationStatus.HIDDEN);
       postCommentRepository.save(comment);
+      // A comment already deleted by its author was no longer counted.
+      int uncounted = comment.getHiddenAt() == null ? 1 : 0;
 
       // Cascade: hiding a top-level comment hides its visible replies too, so
       // the post comment count stays consistent with what can be displayed.
@@ -120,10 +124,23 @@ public class CommentReportService {
         List<PostComment> replies =
           postCommentRepository.findByParentComment_CommentId(commentId);
         for (PostComment reply : replies) {
+          // Only replies still counted (not deleted, not moderated) come off.
+          if (
+            reply.getHiddenAt() == null &&
+            reply.getModerationStatus() == PostComment.ModerationStatus.VISIBLE
+          ) {
+            uncounted++;
+          }
           reply.setModerationStatus(PostComment.ModerationStatus.HIDDEN);
         }
         postCommentRepository.saveAll(replies);
       }
+      if (uncounted > 0) {
+        postRepository.adjustCommentCount(
+          comment.getPost().getPostId(),
+          -uncounted
+        );
+      }
     }
   }
 }
@@ -0,0 +1,50 @@
+package com.gearfitness.gear_api.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in the ranked discover feed: a discover_rank generation and the
+ * last position returned from it. Opaque to clients, like FeedCursor.
+ */
+public record DiscoverCursor(long generation, int position) {
+  /** Sentinel for the first page: read the current generation from the top. */
+  public static final DiscoverCursor START = new DiscoverCursor(0L, 0);
+
+  public boolean isStart() {
+    return generation == START.generation;
+  }
+
+  public String encode() {
+    String raw = generation + "|" + position;
+    return Base64.getUrlEncoder()
+      .withoutPadding()
+      .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Null/blank decodes to START. Throws IllegalArgumentException for a token
+   * this server didn't mint.
+   */
+  public static DiscoverCursor decode(String token) {
+    if (token == null || token.isBlank()) {
+      return START;
+    }
+    try {
+      String raw = new String(
+        Base64.getUrlDecoder().decode(token),
+        StandardCharsets.UTF_8
+      );
+      int sep = raw.indexOf('|');
+      if (sep < 0) {
+        throw new IllegalArgumentException("Malformed discover cursor");
+      }
+      return new DiscoverCursor(
+        Long.parseLong(raw.substring(0, sep)),
+        Integer.parseInt(raw.substring(sep + 1))
+      );
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException("Malformed discover cursor", e);
+    }
+  }
+}
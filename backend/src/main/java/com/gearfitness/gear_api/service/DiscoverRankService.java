@@ -0,0 +1,151 @@
+package com.gearfitness.gear_api.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Keeps the discover_rank table (V63): a periodic snapshot of the top public
+ * posts by time-decayed engagement, which the discover feed pages through by
+ * position instead of sorting every public post on each request.
+ *
+ * <p>Score is (1 + likes + 2 * comments) / (ageHours + 2)^1.5, read off the
+ * post counters (V61): a comment counts double a like, and engagement has to
+ * keep arriving for a post to hold its place as it ages. Only posts from the
+ * last maxAgeDays are candidates, so a refresh reads a bounded slice of post.
+ * The snapshot is only as fresh as the last refresh; the feed re-checks
+ * visibility and blocks on each page it serves.
+ */
+@Service
+@Slf4j
+public class DiscoverRankService {
+
+  // Any constant unique to this job; refreshes on other instances skip while
+  // one holds it.
+  private static final long REFRESH_LOCK = 0x6469_7363_7276L;
+
+  private static final String REFRESH_SQL = """
+    INSERT INTO discover_rank (generation, position, post_id, author_id, score)
+    SELECT ?, row_number() OVER (ORDER BY r.score DESC, r.post_id DESC),
+      r.post_id, r.user_id, r.score
+    FROM (
+      SELECT p.post_id, p.user_id,
+        (1 + p.like_count + 2 * p.comment_count)
+          / power(
+              GREATEST(EXTRACT(EPOCH FROM (CAST(? AS timestamp) - p.created_at)), 0)
+                / 3600 + 2,
+              1.5) AS score
+      FROM post p
+      JOIN app_user u ON u.user_id = p.user_id
+      WHERE p.visibility = 'PUBLIC'
+        AND p.hidden_at IS NULL
+        AND p.moderation_status = 'VISIBLE'
+        AND p.created_at > CAST(? AS timestamp)
+        AND u.is_private = FALSE
+        AND u.deleted_at IS NULL
+      ORDER BY score DESC, p.post_id DESC
+      LIMIT ?
+    ) r
+    """;
+
+  // Keeps the generation just replaced, for clients still paging it.
+  private static final String PRUNE_SQL = """
+    DELETE FROM discover_rank
+    WHERE generation < (
+      SELECT MAX(generation) FROM discover_rank WHERE generation < ?)
+    """;
+
+  private static final String PAGE_SQL = """
+    SELECT position, post_id, author_id FROM discover_rank
+    WHERE generation = ? AND position > ?
+    ORDER BY position
+    LIMIT ?
+    """;
+
+  /** One entry of a ranking snapshot. */
+  public record RankedPost(int position, UUID postId, UUID authorId) {}
+
+  private final JdbcTemplate jdbcTemplate;
+  private final int windowSize;
+  private final int maxAgeDays;
+
+  public DiscoverRankService(
+    JdbcTemplate jdbcTemplate,
+    @Value("${discover.rank.window-size:1000}") int windowSize,
+    @Value("${discover.rank.max-age-days:30}") int maxAgeDays
+  ) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.windowSize = windowSize;
+    this.maxAgeDays = maxAgeDays;
+  }
+
+  /** Runs at startup and then every refresh-ms. */
+  @Scheduled(fixedDelayString = "${discover.rank.refresh-ms:300000}")
+  @Transactional
+  public void refresh() {
+    Boolean locked = jdbcTemplate.queryForObject(
+      "SELECT pg_try_advisory_xact_lock(?)",
+      Boolean.class,
+      REFRESH_LOCK
+    );
+    if (!Boolean.TRUE.equals(locked)) {
+      return;
+    }
+    long generation = jdbcTemplate.queryForObject(
+      "SELECT nextval('discover_rank_generation_seq')",
+      Long.class
+    );
+    LocalDateTime now = LocalDateTime.now();
+    int ranked = jdbcTemplate.update(
+      REFRESH_SQL,
+      generation,
+      now,
+      now.minusDays(maxAgeDays),
+      windowSize
+    );
+    jdbcTemplate.update(PRUNE_SQL, generation);
+    log.debug("Ranked {} discover posts (generation {})", ranked, generation);
+  }
+
+  /** The newest snapshot, or 0 before the first refresh has committed. */
+  public long currentGeneration() {
+    Long generation = jdbcTemplate.queryForObject(
+      "SELECT MAX(generation) FROM discover_rank",
+      Long.class
+    );
+    return generation != null ? generation : 0L;
+  }
+
+  /** False once a snapshot has been pruned. */
+  public boolean hasGeneration(long generation) {
+    return Boolean.TRUE.equals(
+      jdbcTemplate.queryForObject(
+        "SELECT EXISTS (SELECT 1 FROM discover_rank WHERE generation = ?)",
+        Boolean.class,
+        generation
+      )
+    );
+  }
+
+  /** Up to limit entries of a snapshot after the given position, in order. */
+  public List<RankedPost> page(long generation, int afterPosition, int limit) {
+    return jdbcTemplate.query(
+      PAGE_SQL,
+      (rs, rowNum) ->
+        new RankedPost(
+          rs.getInt(1),
+          rs.getObject(2, UUID.class),
+          rs.getObject(3, UUID.class)
+        ),
+      generation,
+      afterPosition,
+      limit
+    );
+  }
+}
@@ -0,0 +1,247 @@
+package com.gearfitness.gear_api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gearfitness.gear_api.dto.BodyPartDTO;
+import com.gearfitness.gear_api.dto.ExerciseDTO;
+import com.gearfitness.gear_api.entity.Exercise;
+import com.gearfitness.gear_api.entity.MuscleGroup;
+import com.gearfitness.gear_api.repository.ExerciseRepository;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * The exercise catalog, served from memory. The global catalog (exercises with
+ * no owner) only changes through migrations or manual edits, so it is loaded
+ * once into an immutable snapshot, already serialized to JSON in full and per
+ * MuscleGroup, and reloaded on a timer. Each read merges in the caller's own
+ * exercises (one indexed query) by splicing JSON arrays.
+ *
+ * Every view carries an ETag derived from its content: the snapshot's hash
+ * plus a hash of the caller's exercises. Creating or deleting a custom
+ * exercise changes it, and instances that loaded the same catalog agree on
+ * it, so clients can revalidate with If-None-Match against any instance.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExerciseCatalogService {
+
+  private static final byte[] EMPTY_ARRAY = "[]".getBytes(
+    StandardCharsets.UTF_8
+  );
+
+  private final ExerciseRepository exerciseRepository;
+  private final ObjectMapper objectMapper;
+
+  private volatile Snapshot snapshot;
+
+  /** A serialized catalog view and its strong ETag (quoted). */
+  public record CatalogView(String etag, byte[] json) {
+    /** The view as a JSON response that clients revalidate on every use. */
+    public ResponseEntity<byte[]> toResponse() {
+      // With an ETag set, Spring answers a matching If-None-Match with a 304.
+      return ResponseEntity.ok()
+        .eTag(etag)
+        .cacheControl(CacheControl.noCache())
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(json);
+    }
+  }
+
+  private record Snapshot(
+    String hash,
+    byte[] json,
+    Map<MuscleGroup, byte[]> jsonByBodyPart
+  ) {}
+
+  /** Global catalog only (onboarding, before sign-up). */
+  public CatalogView globalCatalog() {
+    Snapshot current = current();
+    return new CatalogView(etag(current.hash(), null), current.json());
+  }
+
+  /** Global catalog plus the user's custom exercises. */
+  @Transactional(readOnly = true)
+  public CatalogView catalogFor(UUID userId) {
+    Snapshot current = current();
+    List<ExerciseDTO> own = ownExercises(userId);
+    byte[] ownJson = own.isEmpty() ? EMPTY_ARRAY : serialize(own);
+    return new CatalogView(
+      etag(current.hash(), own.isEmpty() ? null : ownJson),
+      concatArrays(current.json(), ownJson)
+    );
+  }
+
+  /**
+   * Exercises targeting a body part: global ones plus the user's own (none when
+   * userId is null).
+   */
+  @Transactional(readOnly = true)
+  public CatalogView catalogFor(UUID userId, MuscleGroup bodyPart) {
+    Snapshot current = current();
+    List<ExerciseDTO> own = userId == null
+      ? List.of()
+      : ownExercises(userId)
+          .stream()
+          .filter(dto ->
+            dto
+              .getBodyParts()
+              .stream()
+              .anyMatch(bp -> bp.getBodyPart() == bodyPart)
+          )
+          .toList();
+    byte[] ownJson = own.isEmpty() ? EMPTY_ARRAY : serialize(own);
+    return new CatalogView(
+      etag(
+        current.hash() + "/" + bodyPart.name(),
+        own.isEmpty() ? null : ownJson
+      ),
+      concatArrays(current.jsonByBodyPart().get(bodyPart), ownJson)
+    );
+  }
+
+  /** Reload the global snapshot; picks up catalog edits made in the DB. */
+  @Scheduled(
+    fixedDelayString = "${exercise.catalog.refresh-ms:900000}",
+    initialDelayString = "${exercise.catalog.refresh-ms:900000}"
+  )
+  public void refresh() {
+    Snapshot previous = snapshot;
+    Snapshot loaded = load();
+    if (previous != null && previous.hash().equals(loaded.hash())) {
+      return;
+    }
+    snapshot = loaded;
+    log.info("Exercise catalog snapshot loaded ({})", loaded.hash());
+  }
+
+  private Snapshot current() {
+    Snapshot current = snapshot;
+    if (current == null) {
+      synchronized (this) {
+        if (snapshot == null) {
+          refresh();
+        }
+        current = snapshot;
+      }
+    }
+    return current;
+  }
+
+  private Snapshot load() {
+    List<ExerciseDTO> global = exerciseRepository
+      .findGlobalWithBodyParts()
+      .stream()
+      .map(ExerciseCatalogService::toDTO)
+      .sorted(
+        Comparator.comparing(
+          ExerciseDTO::getName,
+          String.CASE_INSENSITIVE_ORDER
+        ).thenComparing(ExerciseDTO::getExerciseId)
+      )
+      .toList();
+
+    Map<MuscleGroup, byte[]> byBodyPart = new EnumMap<>(MuscleGroup.class);
+    for (MuscleGroup group : MuscleGroup.values()) {
+      byBodyPart.put(
+        group,
+        serialize(
+          global
+            .stream()
+            .filter(dto ->
+              dto
+                .getBodyParts()
+                .stream()
+                .anyMatch(bp -> bp.getBodyPart() == group)
+            )
+            .toList()
+        )
+      );
+    }
+    byte[] json = serialize(global);
+    return new Snapshot(hash(json), json, Map.copyOf(byBodyPart));
+  }
+
+  private List<ExerciseDTO> ownExercises(UUID userId) {
+    return exerciseRepository
+      .findOwnedWithBodyParts(userId)
+      .stream()
+      .map(ExerciseCatalogService::toDTO)
+      .sorted(Comparator.comparing(ExerciseDTO::getExerciseId))
+      .toList();
+  }
+
+  public static ExerciseDTO toDTO(Exercise ex) {
+    // Body parts come from a Set; order them so the JSON (and ETag) is stable.
+    List<BodyPartDTO> bodyPartDTOs = ex
+      .getBodyParts()
+      .stream()
+      .map(bp -> new BodyPartDTO(bp.getBodyPart(), bp.getTargetType()))
+      .sorted(
+        Comparator.comparing(BodyPartDTO::getTargetType).thenComparing(
+          BodyPartDTO::getBodyPart
+        )
+      )
+      .toList();
+
+    return new ExerciseDTO(
+      ex.getExerciseId(),
+      ex.getName(),
+      bodyPartDTOs,
+      ex.getDescription()
+    );
+  }
+
+  private byte[] serialize(List<ExerciseDTO> exercises) {
+    try {
+      return objectMapper.writeValueAsBytes(exercises);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Failed to serialize exercises", e);
+    }
+  }
+
+  /** Splice two serialized JSON arrays into one: [a..., b...]. */
+  static byte[] concatArrays(byte[] a, byte[] b) {
+    if (b.length <= 2) {
+      return a;
+    }
+    if (a.length <= 2) {
+      return b;
+    }
+    byte[] merged = new byte[a.length + b.length - 1];
+    System.arraycopy(a, 0, merged, 0, a.length - 1);
+    merged[a.length - 1] = ',';
+    System.arraycopy(b, 1, merged, a.length, b.length - 1);
+    return merged;
+  }
+
+  private static String etag(String catalogHash, byte[] ownJson) {
+    String own = ownJson == null ? "" : "-" + hash(ownJson);
+    return "\"" + catalogHash + own + "\"";
+  }
+
+  private static String hash(byte[] json) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+      return HexFormat.of().formatHex(digest, 0, 12);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 unavailable", e);
+    }
+  }
+}
@@ -0,0 +1,204 @@
+package com.gearfitness.gear_api.service;
+
+import com.gearfitness.gear_api.dto.BodyPartDTO;
+import com.gearfitness.gear_api.dto.ExerciseHistoryDTO;
+import com.gearfitness.gear_api.dto.ExerciseSessionDTO;
+import com.gearfitness.gear_api.dto.ExerciseSetDTO;
+import com.gearfitness.gear_api.entity.Exercise;
+import com.gearfitness.gear_api.repository.ExerciseRepository;
+import com.gearfitness.gear_api.repository.WorkoutExerciseRepository;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Exercise history (the PR chart and session list in ExerciseHistory.tsx)
+ * built from the flat rows of WorkoutExerciseRepository.findHistoryRowsRaw in
+ * a single pass — no WorkoutExercise/Workout/WorkoutSet entities are loaded.
+ * Sessions are paged per exercise, newest first, and can be limited to
+ * workouts created after a {@code since} watermark.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExerciseHistoryService {
+
+  static final int MAX_PAGE_SIZE = 200;
+  // Stands in for "no since": every workout was created after it.
+  private static final LocalDateTime BEGINNING =
+    LocalDateTime.of(1970, 1, 1, 0, 0);
+
+  private final WorkoutExerciseRepository workoutExerciseRepository;
+  private final ExerciseRepository exerciseRepository;
+
+  /** One page of sessions for one exercise. */
+  @Transactional(readOnly = true)
+  public ExerciseHistoryDTO getExerciseHistory(
+    UUID userId,
+    UUID exerciseId,
+    int page,
+    int size,
+    LocalDateTime since
+  ) {
+    int limit = clampSize(size);
+    int offset = Math.max(page, 0) * limit;
+    Exercise exercise = exerciseRepository
+      .findWithBodyPartsByIdIn(List.of(exerciseId))
+      .stream()
+      .findFirst()
+      .orElseThrow(() ->
+        new ResponseStatusException(HttpStatus.NOT_FOUND, "Exercise not found")
+      );
+
+    List<Object[]> rows = workoutExerciseRepository.findExerciseHistoryRowsRaw(
+      userId,
+      exerciseId,
+      since != null ? since : BEGINNING,
+      offset,
+      limit + 1
+    );
+    List<ExerciseHistoryDTO> history = assemble(
+      rows,
+      Map.of(exerciseId, exercise),
+      offset + limit
+    );
+    if (!history.isEmpty()) {
+      return history.get(0);
+    }
+
+    // Nothing on this page. Without since that means no (more) sessions at
+    // all; with since the all-time totals weren't read, so leave them null.
+    return new ExerciseHistoryDTO(
+      exerciseId,
+      exercise.getName(),
+      toBodyPartDTOs(exercise),
+      since == null && offset == 0 ? 0 : null,
+      null,
+      List.of(),
+      false,
+      since
+    );
+  }
+
+  /**
+   * The first page of sessions for every exercise the user has logged, most
+   * recently trained exercise first. Later pages come from the per-exercise
+   * endpoint.
+   */
+  @Transactional(readOnly = true)
+  public List<ExerciseHistoryDTO> getAllExerciseHistory(
+    UUID userId,
+    int size,
+    LocalDateTime since
+  ) {
+    int limit = clampSize(size);
+    List<Object[]> rows = workoutExerciseRepository.findHistoryRowsRaw(
+      userId,
+      since != null ? since : BEGINNING,
+      0,
+      limit + 1
+    );
+    if (rows.isEmpty()) {
+      return List.of();
+    }
+
+    Set<UUID> exerciseIds = new LinkedHashSet<>();
+    for (Object[] row : rows) {
+      exerciseIds.add((UUID) row[0]);
+    }
+    Map<UUID, Exercise> exercises = exerciseRepository
+      .findWithBodyPartsByIdIn(exerciseIds)
+      .stream()
+      .collect(Collectors.toMap(Exercise::getExerciseId, Function.identity()));
+
+    return assemble(rows, exercises, limit);
+  }
+
+  /**
+   * Fold ordered rows into one DTO per exercise. Rows numbered past
+   * {@code lastSessionNo} are the look-ahead session: they only set hasMore.
+   */
+  private List<ExerciseHistoryDTO> assemble(
+    List<Object[]> rows,
+    Map<UUID, Exercise> exercises,
+    int lastSessionNo
+  ) {
+    List<ExerciseHistoryDTO> result = new ArrayList<>();
+    ExerciseHistoryDTO current = null;
+    long currentSessionNo = -1;
+    List<ExerciseSetDTO> currentSets = null;
+
+    for (Object[] row : rows) {
+      UUID exerciseId = (UUID) row[0];
+      if (current == null || !current.getExerciseId().equals(exerciseId)) {
+        Exercise exercise = exercises.get(exerciseId);
+        current = new ExerciseHistoryDTO(
+          exerciseId,
+          exercise != null ? exercise.getName() : null,
+          exercise != null ? toBodyPartDTOs(exercise) : List.of(),
+          ((Number) row[5]).intValue(),
+          (BigDecimal) row[6],
+          new ArrayList<>(),
+          false,
+          NativeRows.toLocalDateTime(row[7])
+        );
+        result.add(current);
+        currentSessionNo = -1;
+      }
+
+      long sessionNo = ((Number) row[4]).longValue();
+      if (sessionNo > lastSessionNo) {
+        current.setHasMore(true);
+        continue;
+      }
+      if (sessionNo != currentSessionNo) {
+        currentSets = new ArrayList<>();
+        current
+          .getSessions()
+          .add(
+            new ExerciseSessionDTO(
+              (UUID) row[1],
+              (String) row[2],
+              NativeRows.toLocalDate(row[3]),
+              currentSets
+            )
+          );
+        currentSessionNo = sessionNo;
+      }
+      if (row[8] != null) {
+        currentSets.add(
+          new ExerciseSetDTO(
+            ((Number) row[8]).intValue(),
+            ((Number) row[9]).intValue(),
+            (BigDecimal) row[10],
+            (Boolean) row[11]
+          )
+        );
+      }
+    }
+    return result;
+  }
+
+  private static List<BodyPartDTO> toBodyPartDTOs(Exercise exercise) {
+    return exercise
+      .getBodyParts()
+      .stream()
+      .map(bp -> new BodyPartDTO(bp.getBodyPart(), bp.getTargetType()))
+      .toList();
+  }
+
+  private static int clampSize(int size) {
+    return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+  }
+}
@@ -0,0 +1,240 @@
+package com.gearfitness.gear_api.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * HTTP side of Expo push delivery: one POST per batch of up to 100 messages to
+ * /push/send, and receipt lookups against /push/getReceipts. Retries 429 and
+ * 5xx (and I/O failures) with capped exponential backoff plus full jitter so a
+ * throttled burst from several instances doesn't retry in lockstep.
+ *
+ * The base URL is configurable so a local stub server can stand in for Expo.
+ */
+@Component
+@Slf4j
+public class ExpoPushClient {
+
+  /** Expo's per-request message limit for /push/send. */
+  public static final int MAX_BATCH_SIZE = 100;
+  /** Expo's per-request id limit for /push/getReceipts. */
+  public static final int MAX_RECEIPT_IDS = 1000;
+
+  private static final int MAX_ATTEMPTS = 4;
+  private static final long BASE_BACKOFF_MS = 250;
+  private static final long MAX_BACKOFF_MS = 8_000;
+
+  private final HttpClient httpClient = HttpClient.newBuilder()
+    .connectTimeout(Duration.ofSeconds(10))
+    .build();
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final String sendUrl;
+  private final String receiptsUrl;
+
+  public ExpoPushClient(
+    @Value("${expo.push.base-url:https://exp.host}") String baseUrl
+  ) {
+    this.sendUrl = baseUrl + "/--/api/v2/push/send";
+    this.receiptsUrl = baseUrl + "/--/api/v2/push/getReceipts";
+  }
+
+  /** One queued notification. data is a JSON object string (may be null). */
+  public record PushMessage(
+    String to,
+    String title,
+    String body,
+    String data
+  ) {}
+
+  /**
+   * Expo's per-message answer, in request order. On "ok" the id is the receipt
+   * to poll later; on "error" the error is Expo's details.error code (e.g.
+   * DeviceNotRegistered) or the top-level message.
+   */
+  public record Ticket(String to, boolean ok, String receiptId, String error) {}
+
+  /**
+   * A looked-up receipt. On "ok" the error is null; otherwise it is Expo's
+   * details.error code or the top-level message.
+   */
+  public record Receipt(boolean ok, String error) {}
+
+  /**
+   * Send one batch (at most MAX_BATCH_SIZE). Returns one ticket per message,
+   * or an empty list if the batch could not be delivered after retries. A
+   * message whose data is not valid JSON is left out of the request and gets
+   * an error ticket, so it cannot sink the rest of the batch.
+   */
+  public List<Ticket> send(List<PushMessage> batch) {
+    List<Ticket> tickets = new ArrayList<>(batch.size());
+    List<PushMessage> sent = new ArrayList<>(batch.size());
+    ArrayNode payload = mapper.createArrayNode();
+    for (PushMessage message : batch) {
+      JsonNode data = null;
+      if (message.data() != null && !message.data().isBlank()) {
+        try {
+          data = mapper.readTree(message.data());
+        } catch (IOException e) {
+          log.warn(
+            "Skipping push to {} with invalid data: {}",
+            message.to(),
+            e.getMessage()
+          );
+          tickets.add(new Ticket(message.to(), false, null, "InvalidData"));
+          continue;
+        }
+      }
+      ObjectNode node = payload.addObject();
+      node.put("to", message.to());
+      node.put("sound", "default");
+      node.put("title", message.title() != null ? message.title() : "");
+      node.put("body", message.body() != null ? message.body() : "");
+      if (data != null) {
+        node.set("data", data);
+      }
+      sent.add(message);
+    }
+    if (sent.isEmpty()) {
+      return tickets;
+    }
+
+    JsonNode response;
+    try {
+      response = postWithRetry(sendUrl, mapper.writeValueAsString(payload));
+    } catch (IOException e) {
+      log.error("Failed to build Expo push batch: {}", e.getMessage());
+      return List.of();
+    }
+    if (response == null) {
+      return List.of();
+    }
+
+    JsonNode data = response.path("data");
+    for (int i = 0; i < sent.size(); i++) {
+      JsonNode ticket = data.path(i);
+      String to = sent.get(i).to();
+      if ("ok".equals(ticket.path("status").asText())) {
+        String receiptId = ticket.path("id").asText(null);
+        tickets.add(new Ticket(to, true, receiptId, null));
+      } else {
+        tickets.add(new Ticket(to, false, null, errorCode(ticket)));
+      }
+    }
+    return tickets;
+  }
+
+  /**
+   * Look up receipts (at most MAX_RECEIPT_IDS). Returns receipt id -> receipt
+   * for every receipt Expo reported; ones it has not finished are omitted.
+   * Returns null if the lookup itself failed, so callers can tell that apart
+   * from a chunk with nothing to report.
+   */
+  public Map<String, Receipt> fetchReceipts(List<String> receiptIds) {
+    JsonNode response;
+    try {
+      ObjectNode payload = mapper.createObjectNode();
+      ArrayNode ids = payload.putArray("ids");
+      receiptIds.forEach(ids::add);
+      response = postWithRetry(receiptsUrl, mapper.writeValueAsString(payload));
+    } catch (IOException e) {
+      log.error("Failed to build Expo receipt request: {}", e.getMessage());
+      return null;
+    }
+    if (response == null) {
+      return null;
+    }
+
+    Map<String, Receipt> receipts = new HashMap<>();
+    Iterator<Map.Entry<String, JsonNode>> fields = response
+      .path("data")
+      .fields();
+    while (fields.hasNext()) {
+      Map.Entry<String, JsonNode> entry = fields.next();
+      JsonNode receipt = entry.getValue();
+      String status = receipt.path("status").asText();
+      if ("ok".equals(status)) {
+        receipts.put(entry.getKey(), new Receipt(true, null));
+      } else if ("error".equals(status)) {
+        receipts.put(entry.getKey(), new Receipt(false, errorCode(receipt)));
+      }
+    }
+    return receipts;
+  }
+
+  private static String errorCode(JsonNode node) {
+    String detail = node.path("details").path("error").asText(null);
+    return detail != null ? detail : node.path("message").asText("unknown");
+  }
+
+  /** POST json; returns the parsed body on 2xx, null once retries run out. */
+  private JsonNode postWithRetry(String url, String json) {
+    HttpRequest request = HttpRequest.newBuilder()
+      .uri(URI.create(url))
+      .timeout(Duration.ofSeconds(30))
+      .header("Content-Type", "application/json")
+      .header("Accept", "application/json")
+      .POST(HttpRequest.BodyPublishers.ofString(json))
+      .build();
+
+    for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+      try {
+        HttpResponse<String> response = httpClient.send(
+          request,
+          HttpResponse.BodyHandlers.ofString()
+        );
+        int status = response.statusCode();
+        if (status >= 200 && status < 300) {
+          return mapper.readTree(response.body());
+        }
+        if (status != 429 && status < 500) {
+          log.error("Expo push rejected ({}): {}", status, response.body());
+          return null;
+        }
+        log.warn("Expo push returned {} (attempt {})", status, attempt);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return null;
+      } catch (IOException e) {
+        log.warn(
+          "Expo push I/O failure (attempt {}): {}",
+          attempt,
+          e.getMessage()
+        );
+      }
+      if (attempt < MAX_ATTEMPTS && !sleepBackoff(attempt)) {
+        return null;
+      }
+    }
+    log.error("Expo push gave up after {} attempts", MAX_ATTEMPTS);
+    return null;
+  }
+
+  // Full jitter: uniform in [0, min(cap, base * 2^attempt)).
+  private static boolean sleepBackoff(int attempt) {
+    long ceiling = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << attempt);
+    try {
+      Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling));
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
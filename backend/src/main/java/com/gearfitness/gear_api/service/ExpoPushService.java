@@ -1,24 +1,117 @@
 package com.gearfitness.gear_api.service;
 
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import lombok.RequiredArgsConstructor;
+import com.gearfitness.gear_api.repository.AppUserRepository;
+import com.gearfitness.gear_api.service.ExpoPushClient.PushMessage;
+import com.gearfitness.gear_api.service.ExpoPushClient.Receipt;
+import com.gearfitness.gear_api.service.ExpoPushClient.Ticket;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+/**
+ * Push delivery pipeline. Callers enqueue onto a bounded in-memory queue and
+ * return immediately; a single dispatcher thread drains it into batches of up
+ * to 100 (Expo's per-request limit, waiting at most {@code linger-ms} to fill
+ * one) and hands each batch to a small dedicated sender pool.
+ *
+ * <p>Backpressure: the sender pool has a bounded work queue and runs overflow
+ * on the dispatcher itself, which stops draining while it sends; the message
+ * queue then fills and enqueue waits briefly before dropping with a warning.
+ * Pushes are best-effort, so a drop is preferable to stalling a request thread.
+ *
+ * <p>Tokens Expo reports as DeviceNotRegistered — on the ticket or later on
+ * the receipt — are cleared from {@code app_user.expo_push_token}.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class ExpoPushService {
 
-  private static final String EXPO_PUSH_URL =
-    "https://exp.host/--/api/v2/push/send";
-  private final HttpClient httpClient = HttpClient.newHttpClient();
+  private static final String DEVICE_NOT_REGISTERED = "DeviceNotRegistered";
+  private static final long ENQUEUE_TIMEOUT_MS = 100;
+  private static final int MAX_PENDING_RECEIPTS = 100_000;
+  // Expo keeps receipts for about a day; past that a lookup can only miss.
+  private static final long RECEIPT_MAX_AGE_MS = 24 * 60 * 60 * 1000L;
+
+  private final ExpoPushClient expoPushClient;
+  private final AppUserRepository appUserRepository;
+  private final BlockingQueue<PushMessage> queue;
+  private final ThreadPoolExecutor sendExecutor;
+  private final long lingerMs;
+  private final long receiptDelayMs;
+
+  // Receipt id -> token + send time, polled once Expo has had time to deliver.
+  private final Map<String, PendingReceipt> pendingReceipts =
+    new ConcurrentHashMap<>();
+
+  private volatile boolean running;
+  private Thread dispatcher;
+
+  private record PendingReceipt(String token, long sentAtMillis) {}
+
+  public ExpoPushService(
+    ExpoPushClient expoPushClient,
+    AppUserRepository appUserRepository,
+    @Value("${expo.push.queue-capacity:10000}") int queueCapacity,
+    @Value("${expo.push.sender-threads:4}") int senderThreads,
+    @Value("${expo.push.linger-ms:50}") long lingerMs,
+    @Value("${expo.push.receipt-delay-ms:900000}") long receiptDelayMs
+  ) {
+    this.expoPushClient = expoPushClient;
+    this.appUserRepository = appUserRepository;
+    this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    this.lingerMs = lingerMs;
+    this.receiptDelayMs = receiptDelayMs;
+
+    AtomicInteger threadCount = new AtomicInteger();
+    this.sendExecutor = new ThreadPoolExecutor(
+      senderThreads,
+      senderThreads,
+      60,
+      TimeUnit.SECONDS,
+      new ArrayBlockingQueue<>(senderThreads * 2),
+      runnable -> {
+        Thread thread = new Thread(
+          runnable,
+          "expo-push-sender-" + threadCount.incrementAndGet()
+        );
+        thread.setDaemon(true);
+        return thread;
+      },
+      new ThreadPoolExecutor.CallerRunsPolicy()
+    );
+  }
+
+  @PostConstruct
+  public void start() {
+    running = true;
+    dispatcher = new Thread(this::dispatchLoop, "expo-push-dispatcher");
+    dispatcher.setDaemon(true);
+    dispatcher.start();
+  }
+
+  /** Flush what is already queued, then let in-flight batches finish. */
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    running = false;
+    dispatcher.join(10_000);
+    sendExecutor.shutdown();
+    sendExecutor.awaitTermination(10, TimeUnit.SECONDS);
+  }
 
-  @Async
   public void sendPushNotification(
     String expoPushToken,
     String title,
@@ -29,50 +122,129 @@ public class ExpoPushService {
       return;
     }
 
+    PushMessage message = new PushMessage(expoPushToken, title, body, jsonData);
     try {
-      String payload = String.format(
-        """
-        {
-            "to": "%s",
-            "sound": "default",
-            "title": "%s",
-            "body": "%s",
-            "data": %s
+      if (!queue.offer(message, ENQUEUE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+        log.warn("Push queue full, dropping notification to {}", expoPushToken);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void dispatchLoop() {
+    while (running || !queue.isEmpty()) {
+      try {
+        PushMessage first = queue.poll(500, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
         }
-        """,
-        expoPushToken,
-        escapeJson(title),
-        escapeJson(body),
-        jsonData
-      );
+        List<PushMessage> batch = new ArrayList<>(
+          ExpoPushClient.MAX_BATCH_SIZE
+        );
+        batch.add(first);
+        long deadline = System.nanoTime() + lingerMs * 1_000_000;
+        while (batch.size() < ExpoPushClient.MAX_BATCH_SIZE) {
+          queue.drainTo(batch, ExpoPushClient.MAX_BATCH_SIZE - batch.size());
+          long remaining = deadline - System.nanoTime();
+          if (batch.size() >= ExpoPushClient.MAX_BATCH_SIZE || remaining <= 0) {
+            break;
+          }
+          PushMessage next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+        sendExecutor.execute(() -> sendBatch(batch));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (Exception e) {
+        log.error("Push dispatcher error: {}", e.getMessage());
+      }
+    }
+  }
 
-      HttpRequest request = HttpRequest.newBuilder()
-        .uri(URI.create(EXPO_PUSH_URL))
-        .header("Content-Type", "application/json")
-        .header("Accept", "application/json")
-        .POST(HttpRequest.BodyPublishers.ofString(payload))
-        .build();
+  private void sendBatch(List<PushMessage> batch) {
+    List<Ticket> tickets = expoPushClient.send(batch);
+    long now = System.currentTimeMillis();
+    Set<String> deadTokens = new HashSet<>();
+    for (Ticket ticket : tickets) {
+      if (ticket.ok()) {
+        if (
+          ticket.receiptId() != null &&
+          pendingReceipts.size() < MAX_PENDING_RECEIPTS
+        ) {
+          pendingReceipts.put(
+            ticket.receiptId(),
+            new PendingReceipt(ticket.to(), now)
+          );
+        }
+      } else if (DEVICE_NOT_REGISTERED.equals(ticket.error())) {
+        deadTokens.add(ticket.to());
+      } else {
+        log.warn("Expo push to {} failed: {}", ticket.to(), ticket.error());
+      }
+    }
+    clearTokens(deadTokens);
+  }
 
-      HttpResponse<String> response = httpClient.send(
-        request,
-        HttpResponse.BodyHandlers.ofString()
-      );
-      log.info("Expo push response: {}", response.body());
-    } catch (Exception e) {
-      log.error(
-        "Failed to send push notification to {}: {}",
-        expoPushToken,
-        e.getMessage()
+  /**
+   * Receipts are usually ready within 15 minutes, so each is first polled
+   * after receipt-delay-ms. One Expo has not reported yet, or whose lookup
+   * failed, stays pending for the next poll until it is a day old.
+   */
+  @Scheduled(fixedDelay = 300_000)
+  public void pollReceipts() {
+    pollReceiptsSentBefore(System.currentTimeMillis() - receiptDelayMs);
+  }
+
+  void pollReceiptsSentBefore(long cutoffMillis) {
+    long expiredBefore = System.currentTimeMillis() - RECEIPT_MAX_AGE_MS;
+    pendingReceipts
+      .values()
+      .removeIf(pending -> pending.sentAtMillis() < expiredBefore);
+
+    List<String> due = pendingReceipts
+      .entrySet()
+      .stream()
+      .filter(entry -> entry.getValue().sentAtMillis() <= cutoffMillis)
+      .map(Map.Entry::getKey)
+      .toList();
+
+    Set<String> deadTokens = new HashSet<>();
+    for (int i = 0; i < due.size(); i += ExpoPushClient.MAX_RECEIPT_IDS) {
+      List<String> chunk = due.subList(
+        i,
+        Math.min(i + ExpoPushClient.MAX_RECEIPT_IDS, due.size())
       );
+      Map<String, Receipt> receipts = expoPushClient.fetchReceipts(chunk);
+      if (receipts == null) {
+        continue; // lookup failed; retried on the next poll
+      }
+      for (Map.Entry<String, Receipt> entry : receipts.entrySet()) {
+        PendingReceipt pending = pendingReceipts.remove(entry.getKey());
+        String error = entry.getValue().error();
+        if (pending != null && DEVICE_NOT_REGISTERED.equals(error)) {
+          deadTokens.add(pending.token());
+        } else if (error != null) {
+          log.warn("Expo receipt {} failed: {}", entry.getKey(), error);
+        }
+      }
     }
+    clearTokens(deadTokens);
   }
 
-  private String escapeJson(String text) {
-    if (text == null) return "";
-    return text
-      .replace("\\", "\\\\")
-      .replace("\"", "\\\"")
-      .replace("\n", "\\n")
-      .replace("\r", "\\r");
+  private void clearTokens(Set<String> tokens) {
+    if (tokens.isEmpty()) {
+      return;
+    }
+    try {
+      int cleared = appUserRepository.clearExpoPushTokens(tokens);
+      log.info("Cleared {} unregistered Expo push token(s)", cleared);
+    } catch (Exception e) {
+      log.error("Failed to clear Expo push tokens: {}", e.getMessage());
+    }
   }
 }
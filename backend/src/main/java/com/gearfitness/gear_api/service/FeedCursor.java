@@ -0,0 +1,55 @@
+package com.gearfitness.gear_api.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a (createdAt DESC, postId DESC) ordered feed. Serialized as an
+ * opaque URL-safe token so clients can't depend on its shape and we can change
+ * the encoding later without an API break.
+ */
+public record FeedCursor(LocalDateTime createdAt, UUID postId) {
+  /**
+   * Sentinel for the first page: every real post sorts strictly after it, so
+   * the seek queries need no separate "no cursor" variant.
+   */
+  public static final FeedCursor START = new FeedCursor(
+    LocalDateTime.of(9999, 12, 31, 23, 59, 59),
+    new UUID(-1L, -1L)
+  );
+
+  public String encode() {
+    String raw = createdAt + "|" + postId;
+    return Base64.getUrlEncoder()
+      .withoutPadding()
+      .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Null/blank decodes to START. Throws IllegalArgumentException for a token
+   * this server didn't mint.
+   */
+  public static FeedCursor decode(String token) {
+    if (token == null || token.isBlank()) {
+      return START;
+    }
+    try {
+      String raw = new String(
+        Base64.getUrlDecoder().decode(token),
+        StandardCharsets.UTF_8
+      );
+      int sep = raw.indexOf('|');
+      if (sep < 0) {
+        throw new IllegalArgumentException("Malformed feed cursor");
+      }
+      return new FeedCursor(
+        LocalDateTime.parse(raw.substring(0, sep)),
+        UUID.fromString(raw.substring(sep + 1))
+      );
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException("Malformed feed cursor", e);
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package com.gearfitness.gear_api.service;
+
+import com.gearfitness.gear_api.dto.FeedPageDTO;
+import com.gearfitness.gear_api.dto.FeedPostDTO;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Presigns every image key on a feed page server-side, so the client can
+ * render the page without a follow-up POST /api/images/view-urls.
+ *
+ * <p>Post images and workout photos are filled in on each card (imageViewUrl,
+ * photoViewUrls, in the same order as photoUrls). Avatars repeat across a page
+ * whenever an author has several posts on it, so they go once per user into
+ * the page's avatars map instead. Keys that fail validation resolve to null
+ * and the client renders a placeholder, as with the batch endpoint, and
+ * urlsExpireInSeconds is the batch's soonest expiry (see
+ * S3StorageService.viewUrls).
+ */
+@Service
+@RequiredArgsConstructor
+public class FeedViewUrlService {
+
+  private final S3StorageService s3StorageService;
+
+  public FeedPageDTO embedViewUrls(FeedPageDTO page) {
+    Set<String> keys = new LinkedHashSet<>();
+    Map<UUID, String> avatarKeys = new LinkedHashMap<>();
+    for (FeedPostDTO post : page.getPosts()) {
+      keys.add(post.getImageUrl());
+      if (post.getPhotoUrls() != null) {
+        keys.addAll(post.getPhotoUrls());
+      }
+      if (post.getUserProfilePictureUrl() != null) {
+        avatarKeys.putIfAbsent(
+          post.getUserId(),
+          post.getUserProfilePictureUrl()
+        );
+      }
+    }
+    keys.addAll(avatarKeys.values());
+    S3StorageService.ViewUrls viewUrls = s3StorageService.viewUrls(keys);
+    Map<String, String> urls = viewUrls.urls();
+
+    for (FeedPostDTO post : page.getPosts()) {
+      if (post.getImageUrl() != null) {
+        post.setImageViewUrl(urls.get(post.getImageUrl()));
+      }
+      if (post.getPhotoUrls() != null) {
+        List<String> photoViewUrls = new ArrayList<>(
+          post.getPhotoUrls().size()
+        );
+        for (String key : post.getPhotoUrls()) {
+          photoViewUrls.add(key != null ? urls.get(key) : null);
+        }
+        post.setPhotoViewUrls(photoViewUrls);
+      }
+    }
+    Map<UUID, String> avatars = new LinkedHashMap<>();
+    avatarKeys.forEach((userId, key) -> {
+      String avatar = urls.get(key);
+      if (avatar != null) {
+        avatars.put(userId, avatar);
+      }
+    });
+    page.setAvatars(avatars);
+    page.setUrlsExpireInSeconds(
+      Math.max(
+        0,
+        Duration.between(Instant.now(), viewUrls.expiresAt()).getSeconds()
+      )
+    );
+    return page;
+  }
+}
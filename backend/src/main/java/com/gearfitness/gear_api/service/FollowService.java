@@ -26,6 +26,8 @@ public class FollowService {
   private final AppUserRepository userRepository;
   private final NotificationRepository notificationRepository;
   private final ExpoPushService expoPushService;
+  private final TimelineService timelineService;
+  private final RelationshipCache relationshipCache;
 
   /**
    * Follow a user
@@ -90,6 +92,12 @@ public class FollowService {
 
     followRepository.save(follow);
 
+    if (status == Follow.FollowStatus.ACCEPTED) {
+      relationshipCache.invalidateAfterCommit(followerId, followeeId);
+      userRepository.adjustFollowCounts(followerId, followeeId, 1);
+      timelineService.onFollowAccepted(followerId, followeeId);
+    }
+
     // FOLLOW_REQUEST for private accounts, FOLLOW for public accounts
     Notification.NotificationType notifType =
       status == Follow.FollowStatus.PENDING
@@ -176,6 +184,11 @@ public class FollowService {
     if (follow.isEmpty()) return; // already not following — treat as success
 
     followRepository.delete(follow.get());
+    if (follow.get().getStatus() == Follow.FollowStatus.ACCEPTED) {
+      userRepository.adjustFollowCounts(followerId, followeeId, -1);
+      relationshipCache.invalidateAfterCommit(followerId, followeeId);
+    }
+    timelineService.onUnfollow(followerId, followeeId);
 
     // If a pending request is being rescinded, drop the follow-request
     // notification so it disappears from the recipient's activity.
@@ -315,8 +328,15 @@ public class FollowService {
       .findByFollowerAndFollowee(follower, followee)
       .orElseThrow(() -> new RuntimeException("Follow request not found"));
 
+    boolean alreadyAccepted =
+      follow.getStatus() == Follow.FollowStatus.ACCEPTED;
     follow.setStatus(Follow.FollowStatus.ACCEPTED);
     follow.setRespondedAt(LocalDateTime.now());
+    if (!alreadyAccepted) {
+      userRepository.adjustFollowCounts(followerId, followeeId, 1);
+    }
+    relationshipCache.invalidateAfterCommit(followerId, followeeId);
+    timelineService.onFollowAccepted(followerId, followeeId);
 
     // Replace the pending follow-request notification with a fresh follow
     // notification. Re-creating it (rather than flipping the type in place)
@@ -421,13 +441,14 @@ public class FollowService {
     // Remove follow from blocker → target (any status)
     followRepository
       .findByFollowerAndFollowee(blocker, target)
-      .ifPresent(followRepository::delete);
+      .ifPresent(this::deleteEdge);
     // Remove follow from target → blocker (any status)
     followRepository
       .findByFollowerAndFollowee(target, blocker)
-      .ifPresent(followRepository::delete);
+      .ifPresent(this::deleteEdge);
 
     followRepository.flush();
+    timelineService.onBlock(blockerId, targetId);
 
     Follow block = Follow.builder()
       .follower(blocker)
@@ -435,7 +456,23 @@ public class FollowService {
       .status(Follow.FollowStatus.BLOCKED)
       .createdAt(LocalDateTime.now())
       .build();
-    followRepository.save(block);
+    followRepository.saveAndFlush(block);
+    relationshipCache.invalidateAfterCommit(blockerId, targetId);
+    // Their notifications to each other just stopped counting toward either
+    // unread badge.
+    notificationRepository.recountUnread(List.of(blockerId, targetId));
+  }
+
+  /** Delete a follow row, releasing its counters if it was ACCEPTED. */
+  private void deleteEdge(Follow follow) {
+    followRepository.delete(follow);
+    if (follow.getStatus() == Follow.FollowStatus.ACCEPTED) {
+      userRepository.adjustFollowCounts(
+        follow.getFollower().getUserId(),
+        follow.getFollowee().getUserId(),
+        -1
+      );
+    }
   }
 
   /**
@@ -456,6 +493,9 @@ public class FollowService {
       .orElseThrow(() -> new RuntimeException("No block found"));
 
     followRepository.delete(block);
+    followRepository.flush();
+    relationshipCache.invalidateAfterCommit(blockerId, targetId);
+    notificationRepository.recountUnread(List.of(blockerId, targetId));
   }
 
   /**
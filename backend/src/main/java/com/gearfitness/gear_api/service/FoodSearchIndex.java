@@ -0,0 +1,229 @@
+package com.gearfitness.gear_api.service;
+
+import com.gearfitness.gear_api.dto.FoodItemDTO;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Food search over an in-memory {@link FoodTextIndex} of the shared food rows
+ * (owner_user_id IS NULL: the seeded USDA extracts plus products the barcode
+ * scanner pulled from OpenFoodFacts), so typeahead doesn't run a trigram query
+ * over the whole table on every keystroke.
+ *
+ * The index is built in the background once the app is up; until then
+ * {@link #isLoaded()} is false and callers stay on the database query. Seeded
+ * rows never change. New shared rows only come from barcode scans, and a
+ * timer picks those up by created_at and searches them alongside the index;
+ * once enough pile up the index is rebuilt.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FoodSearchIndex {
+
+  private static final String COLUMNS = """
+    food_id, fdc_id, description, brand_owner, data_type, serving_size,
+    serving_unit, household_serving, calories, protein_g, carbs_g, fat_g,
+    barcode, created_at
+    """;
+
+  private static final String LOAD_SQL =
+    "SELECT " +
+    COLUMNS +
+    " FROM food_item WHERE owner_user_id IS NULL AND food_id > ?" +
+    " ORDER BY food_id LIMIT ?";
+
+  private static final String RECENT_SQL =
+    "SELECT " +
+    COLUMNS +
+    " FROM food_item WHERE owner_user_id IS NULL AND created_at >= ?";
+
+  private static final int LOAD_PAGE_SIZE = 10_000;
+
+  // Re-read a window before the newest created_at seen, so a row whose
+  // transaction committed after a later-stamped one is still picked up.
+  private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(5);
+
+  // Rows added since the build are matched by a linear scan; past this many
+  // a rebuild is cheaper.
+  private static final int MAX_RECENT = 5_000;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private volatile Snapshot snapshot;
+
+  private record Row(FoodItemDTO food, LocalDateTime createdAt) {}
+
+  /**
+   * The index, shared rows added since it was built, the ids of every loaded
+   * row carrying a created_at (to skip re-reads), and the newest created_at.
+   */
+  private record Snapshot(
+    FoodTextIndex index,
+    List<FoodItemDTO> recent,
+    Set<UUID> datedIds,
+    LocalDateTime watermark
+  ) {}
+
+  public boolean isLoaded() {
+    return snapshot != null;
+  }
+
+  /**
+   * One page of search results, ranked like FoodItemRepository.search, with
+   * the caller's own foods merged in. Only valid once {@link #isLoaded()}.
+   */
+  public List<FoodItemDTO> search(
+    String query,
+    List<FoodItemDTO> ownFoods,
+    int limit,
+    int offset
+  ) {
+    Snapshot current = snapshot;
+    return current
+      .index()
+      .search(query, ownFoods, current.recent(), limit, offset);
+  }
+
+  @Async
+  @EventListener(ApplicationReadyEvent.class)
+  public void loadOnStartup() {
+    try {
+      load();
+    } catch (RuntimeException e) {
+      log.error(
+        "Food search index failed to load; search stays on the database",
+        e
+      );
+    }
+  }
+
+  /** Picks up shared rows created since the last load or refresh. */
+  @Scheduled(
+    fixedDelayString = "${food.search.refresh-ms:60000}",
+    initialDelayString = "${food.search.refresh-ms:60000}"
+  )
+  public void refresh() {
+    Snapshot current = snapshot;
+    if (current == null) {
+      return;
+    }
+    LocalDateTime since = current.watermark() == null
+      ? LocalDateTime.of(1970, 1, 1, 0, 0)
+      : current.watermark().minus(REFRESH_OVERLAP);
+    List<Row> fresh = jdbcTemplate
+      .query(RECENT_SQL, this::mapRow, Timestamp.valueOf(since))
+      .stream()
+      .filter(row -> !current.datedIds().contains(row.food().getFoodId()))
+      .toList();
+    if (fresh.isEmpty()) {
+      return;
+    }
+    if (current.recent().size() + fresh.size() > MAX_RECENT) {
+      load();
+      return;
+    }
+
+    List<FoodItemDTO> recent = new ArrayList<>(current.recent());
+    Set<UUID> datedIds = new HashSet<>(current.datedIds());
+    LocalDateTime watermark = current.watermark();
+    for (Row row : fresh) {
+      recent.add(row.food());
+      datedIds.add(row.food().getFoodId());
+      watermark = later(watermark, row.createdAt());
+    }
+    snapshot = new Snapshot(
+      current.index(),
+      List.copyOf(recent),
+      datedIds,
+      watermark
+    );
+  }
+
+  private void load() {
+    long started = System.currentTimeMillis();
+    FoodTextIndex.Builder builder = new FoodTextIndex.Builder();
+    Set<UUID> datedIds = new HashSet<>();
+    LocalDateTime watermark = null;
+
+    UUID after = new UUID(0, 0);
+    while (true) {
+      List<Row> page = jdbcTemplate.query(
+        LOAD_SQL,
+        this::mapRow,
+        after,
+        LOAD_PAGE_SIZE
+      );
+      for (Row row : page) {
+        builder.add(row.food());
+        if (row.createdAt() != null) {
+          datedIds.add(row.food().getFoodId());
+          watermark = later(watermark, row.createdAt());
+        }
+      }
+      if (page.size() < LOAD_PAGE_SIZE) {
+        break;
+      }
+      after = page.get(page.size() - 1).food().getFoodId();
+    }
+
+    FoodTextIndex index = builder.build();
+    snapshot = new Snapshot(index, List.of(), datedIds, watermark);
+    log.info(
+      "Food search index loaded: {} rows in {} ms",
+      index.size(),
+      System.currentTimeMillis() - started
+    );
+  }
+
+  private Row mapRow(ResultSet rs, int rowNum) throws SQLException {
+    long fdcId = rs.getLong("fdc_id");
+    Long fdc = rs.wasNull() ? null : fdcId;
+    Timestamp createdAt = rs.getTimestamp("created_at");
+    FoodItemDTO food = new FoodItemDTO(
+      rs.getObject("food_id", UUID.class),
+      fdc,
+      rs.getString("description"),
+      rs.getString("brand_owner"),
+      rs.getString("data_type"),
+      toDouble(rs.getBigDecimal("serving_size")),
+      rs.getString("serving_unit"),
+      rs.getString("household_serving"),
+      toDouble(rs.getBigDecimal("calories")),
+      toDouble(rs.getBigDecimal("protein_g")),
+      toDouble(rs.getBigDecimal("carbs_g")),
+      toDouble(rs.getBigDecimal("fat_g")),
+      null,
+      rs.getString("barcode")
+    );
+    return new Row(
+      food,
+      createdAt == null ? null : createdAt.toLocalDateTime()
+    );
+  }
+
+  private static Double toDouble(BigDecimal value) {
+    return value == null ? null : value.doubleValue();
+  }
+
+  private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+    return a == null || (b != null && b.isAfter(a)) ? b : a;
+  }
+}
@@ -0,0 +1,664 @@
+package com.gearfitness.gear_api.service;
+
+import com.gearfitness.gear_api.dto.FoodItemDTO;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable in-memory text index over food rows, ranked the way the
+ * FoodItemRepository.search query ranks them: a text-match tier on the
+ * description (exact 100 > prefix 80 > word-start 60 > contains 40 >
+ * trigram-fuzzy 20), the caller's own foods first within a tier, then word
+ * similarity, whole foods (no brand) before branded ones, and shorter
+ * descriptions first.
+ *
+ * Rows are held column-wise, with repeated strings (brands, units, common
+ * descriptions) shared, so the seeded extract costs a fraction of what its
+ * entities would. Lookups go through three structures: row ids sorted by
+ * description (exact and prefix are a binary search), the vocabulary of
+ * description words with the rows using each (word-start and contains), and
+ * the trigrams of each vocabulary word (substring and fuzzy candidates).
+ * Tiers are gathered top down and gathering stops once the requested page is
+ * covered, so a query with enough prefix matches never looks at the fuzzy
+ * tier.
+ *
+ * Trigrams follow pg_trgm: lower-cased runs of letters and digits, each
+ * padded with two spaces in front and one behind. The fuzzy tier uses
+ * pg_trgm's similarity with its default 0.3 threshold. Word similarity is the
+ * share of the query's trigrams found in the description (pg_trgm's
+ * word_similarity without its contiguous-extent rule); it only orders rows
+ * within a tier.
+ */
+final class FoodTextIndex {
+
+  static final int TIER_EXACT = 100;
+  static final int TIER_PREFIX = 80;
+  static final int TIER_WORD_START = 60;
+  static final int TIER_CONTAINS = 40;
+  static final int TIER_FUZZY = 20;
+
+  /** pg_trgm's default similarity_threshold, which the % operator applied. */
+  static final double FUZZY_THRESHOLD = 0.3;
+
+  private static final long NO_FDC_ID = Long.MIN_VALUE;
+  private static final long NO_BARCODE = -1L;
+  private static final int[] NONE = new int[0];
+
+  private static final Comparator<Hit> RANKING = Comparator.comparingInt(
+    (Hit h) -> -h.tier()
+  )
+    .thenComparing(h -> !h.own())
+    .thenComparingDouble(h -> -h.similarity())
+    .thenComparing(h -> !h.whole())
+    .thenComparingInt(Hit::length)
+    .thenComparing(Hit::description, String.CASE_INSENSITIVE_ORDER)
+    .thenComparing(Hit::foodId);
+
+  private final int size;
+  private final long[] idHi;
+  private final long[] idLo;
+  private final long[] fdcId;
+  private final String[] description;
+  private final String[] brandOwner;
+  private final String[] dataType;
+  private final double[] servingSize;
+  private final String[] servingUnit;
+  private final String[] householdServing;
+  private final double[] calories;
+  private final double[] proteinG;
+  private final double[] carbsG;
+  private final double[] fatG;
+  private final long[] barcode;
+  /** Barcodes not in canonical GTIN-14 form, which don't pack into a long. */
+  private final Map<Integer, String> rawBarcodes;
+  /** Distinct trigrams per row, for the fuzzy similarity denominator. */
+  private final short[] trigramCount;
+
+  /** Row ids ordered by description, case-insensitively. */
+  private final int[] byDescription;
+  /** Sorted vocabulary of lower-cased description words. */
+  private final String[] words;
+  /** Ascending row ids per vocabulary word. */
+  private final int[][] rowsByWord;
+  /** Vocabulary word ids per pg_trgm trigram. */
+  private final Map<String, int[]> wordsByTrigram;
+
+  private record Hit(
+    int tier,
+    boolean own,
+    double similarity,
+    boolean whole,
+    int length,
+    String description,
+    UUID foodId,
+    int row,
+    FoodItemDTO food
+  ) {}
+
+  private record Query(
+    String text,
+    String wordStart,
+    List<String> words,
+    Set<String> trigrams
+  ) {
+    static Query of(String raw) {
+      String text = raw.trim().toLowerCase(Locale.ROOT);
+      return new Query(
+        text,
+        " " + text,
+        FoodTextIndex.words(text),
+        FoodTextIndex.trigrams(text)
+      );
+    }
+  }
+
+  private FoodTextIndex(Builder b) {
+    size = b.size;
+    idHi = Arrays.copyOf(b.idHi, size);
+    idLo = Arrays.copyOf(b.idLo, size);
+    fdcId = Arrays.copyOf(b.fdcId, size);
+    description = Arrays.copyOf(b.description, size);
+    brandOwner = Arrays.copyOf(b.brandOwner, size);
+    dataType = Arrays.copyOf(b.dataType, size);
+    servingSize = Arrays.copyOf(b.servingSize, size);
+    servingUnit = Arrays.copyOf(b.servingUnit, size);
+    householdServing = Arrays.copyOf(b.householdServing, size);
+    calories = Arrays.copyOf(b.calories, size);
+    proteinG = Arrays.copyOf(b.proteinG, size);
+    carbsG = Arrays.copyOf(b.carbsG, size);
+    fatG = Arrays.copyOf(b.fatG, size);
+    barcode = Arrays.copyOf(b.barcode, size);
+    rawBarcodes = Map.copyOf(b.rawBarcodes);
+    trigramCount = Arrays.copyOf(b.trigramCount, size);
+
+    byDescription = IntStream.range(0, size)
+      .boxed()
+      .sorted((x, y) ->
+        String.CASE_INSENSITIVE_ORDER.compare(description[x], description[y])
+      )
+      .mapToInt(Integer::intValue)
+      .toArray();
+
+    words = b.rowsByWord.keySet().toArray(String[]::new);
+    Arrays.sort(words);
+    rowsByWord = new int[words.length][];
+    Map<String, Postings> byTrigram = new HashMap<>();
+    for (int w = 0; w < words.length; w++) {
+      rowsByWord[w] = b.rowsByWord.get(words[w]).toArray();
+      for (String trigram : trigrams(words[w])) {
+        byTrigram.computeIfAbsent(trigram, t -> new Postings()).add(w);
+      }
+    }
+    wordsByTrigram = new HashMap<>(byTrigram.size() * 2);
+    byTrigram.forEach((t, p) -> wordsByTrigram.put(t, p.toArray()));
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * One page of matches for a non-blank query over the indexed rows plus the
+   * given extra rows: the caller's own foods (ranked first within a tier and
+   * also matched on nickname) and shared rows added since the index was built.
+   */
+  List<FoodItemDTO> search(
+    String query,
+    List<FoodItemDTO> own,
+    List<FoodItemDTO> shared,
+    int limit,
+    int offset
+  ) {
+    Query q = Query.of(query);
+    if (q.text().isEmpty()) {
+      return List.of();
+    }
+    int needed = offset + limit;
+
+    List<Hit> hits = new ArrayList<>();
+    for (FoodItemDTO food : own) {
+      addIfMatch(hits, score(q, food, true));
+    }
+    for (FoodItemDTO food : shared) {
+      addIfMatch(hits, score(q, food, false));
+    }
+
+    // Each stage gathers its whole tier, so once the tiers gathered so far
+    // fill the page the lower ones can't reach it.
+    collectPrefix(q, hits);
+    if (countAtLeast(hits, TIER_PREFIX) < needed) {
+      collectWordStart(q, hits);
+    }
+    if (countAtLeast(hits, TIER_WORD_START) < needed) {
+      collect(q, containsCandidates(q), TIER_CONTAINS, hits);
+    }
+    if (countAtLeast(hits, TIER_CONTAINS) < needed) {
+      collectFuzzy(q, hits);
+    }
+
+    hits.sort(RANKING);
+    List<FoodItemDTO> page = new ArrayList<>(limit);
+    for (int i = offset; i < Math.min(needed, hits.size()); i++) {
+      Hit hit = hits.get(i);
+      page.add(hit.food() != null ? hit.food() : toDTO(hit.row()));
+    }
+    return page;
+  }
+
+  // ------------------------------------------------------------ stages
+
+  /** Tiers 100 and 80: a contiguous run of the description order. */
+  private void collectPrefix(Query q, List<Hit> hits) {
+    String text = q.text();
+    int lo = 0;
+    int hi = size;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      String d = description[byDescription[mid]];
+      if (String.CASE_INSENSITIVE_ORDER.compare(d, text) < 0) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    for (int i = lo; i < size; i++) {
+      int row = byDescription[i];
+      if (!description[row].regionMatches(true, 0, text, 0, text.length())) {
+        break;
+      }
+      hits.add(rowHit(q, row, tierOf(description[row], q)));
+    }
+  }
+
+  /** Tier 60: rows using a word that starts like the query. */
+  private void collectWordStart(Query q, List<Hit> hits) {
+    if (!Character.isLetterOrDigit(q.text().charAt(0))) {
+      collect(q, containsCandidates(q), TIER_WORD_START, hits);
+      return;
+    }
+    String prefix = q.words().get(0);
+    BitSet rows = new BitSet(size);
+    int w = Arrays.binarySearch(words, prefix);
+    for (w = w < 0 ? -w - 1 : w; w < words.length; w++) {
+      if (!words[w].startsWith(prefix)) {
+        break;
+      }
+      for (int row : rowsByWord[w]) {
+        rows.set(row);
+      }
+    }
+    collect(q, rows, TIER_WORD_START, hits);
+  }
+
+  /**
+   * Tier 20: rows whose trigram similarity to the query clears the threshold.
+   * Such a row shares at least threshold x |query trigrams| of them, so it
+   * must contain one of the rarest |Q| - that + 1; only those are expanded.
+   */
+  private void collectFuzzy(Query q, List<Hit> hits) {
+    Set<String> trigrams = q.trigrams();
+    if (trigrams.isEmpty()) {
+      return;
+    }
+    int required = Math.max(1, (int) (FUZZY_THRESHOLD * trigrams.size()));
+    List<int[]> byRarity = trigrams
+      .stream()
+      .map(t -> wordsByTrigram.getOrDefault(t, NONE))
+      .sorted(Comparator.comparingLong(this::rowCount))
+      .toList();
+
+    BitSet rows = new BitSet(size);
+    for (int[] wordIds : byRarity.subList(0, trigrams.size() - required + 1)) {
+      for (int w : wordIds) {
+        for (int row : rowsByWord[w]) {
+          rows.set(row);
+        }
+      }
+    }
+    for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+      String d = description[row];
+      if (tierOf(d, q) != TIER_FUZZY) {
+        continue;
+      }
+      int common = common(trigrams, padded(d));
+      if (
+        similarity(common, trigrams.size(), trigramCount[row]) >=
+        FUZZY_THRESHOLD
+      ) {
+        hits.add(hit(q, row, TIER_FUZZY, common));
+      }
+    }
+  }
+
+  private void collect(Query q, BitSet rows, int tier, List<Hit> hits) {
+    for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+      if (tierOf(description[row], q) == tier) {
+        hits.add(rowHit(q, row, tier));
+      }
+    }
+  }
+
+  /**
+   * Superset of the rows whose description contains the query: its longest
+   * word has to sit inside one of the row's words.
+   */
+  private BitSet containsCandidates(Query q) {
+    BitSet rows = new BitSet(size);
+    if (q.words().isEmpty()) {
+      rows.set(0, size);
+      return rows;
+    }
+    String longest = q
+      .words()
+      .stream()
+      .max(Comparator.comparingInt(String::length))
+      .orElseThrow();
+    for (int w : wordsContaining(longest)) {
+      for (int row : rowsByWord[w]) {
+        rows.set(row);
+      }
+    }
+    return rows;
+  }
+
+  private int[] wordsContaining(String part) {
+    if (part.length() < 3) {
+      return IntStream.range(0, words.length)
+        .filter(w -> words[w].contains(part))
+        .toArray();
+    }
+    // Every word containing the part contains each of its inner trigrams;
+    // scan the words of the rarest one.
+    int[] rarest = null;
+    for (int i = 0; i + 3 <= part.length(); i++) {
+      int[] wordIds = wordsByTrigram.getOrDefault(
+        part.substring(i, i + 3),
+        NONE
+      );
+      if (rarest == null || wordIds.length < rarest.length) {
+        rarest = wordIds;
+      }
+    }
+    return Arrays.stream(rarest).filter(w -> words[w].contains(part)).toArray();
+  }
+
+  private long rowCount(int[] wordIds) {
+    long rows = 0;
+    for (int w : wordIds) {
+      rows += rowsByWord[w].length;
+    }
+    return rows;
+  }
+
+  private static int countAtLeast(List<Hit> hits, int tier) {
+    int count = 0;
+    for (Hit hit : hits) {
+      if (hit.tier() >= tier) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  // ----------------------------------------------------------- scoring
+
+  private Hit rowHit(Query q, int row, int tier) {
+    return hit(q, row, tier, common(q.trigrams(), padded(description[row])));
+  }
+
+  private Hit hit(Query q, int row, int tier, int common) {
+    return new Hit(
+      tier,
+      false,
+      wordSimilarity(common, q),
+      brandOwner[row] == null,
+      description[row].length(),
+      description[row],
+      new UUID(idHi[row], idLo[row]),
+      row,
+      null
+    );
+  }
+
+  /** Scores a row outside the index, or null when it doesn't match at all. */
+  private static Hit score(Query q, FoodItemDTO food, boolean own) {
+    String d = food.getDescription();
+    int tier = tierOf(d, q);
+    int common = common(q.trigrams(), padded(d));
+    if (
+      tier == TIER_FUZZY &&
+      !(food.getNickname() != null &&
+        containsIgnoreCase(food.getNickname(), q.text())) &&
+      similarity(common, q.trigrams().size(), trigrams(d).size()) <
+      FUZZY_THRESHOLD
+    ) {
+      return null;
+    }
+    return new Hit(
+      tier,
+      own,
+      wordSimilarity(common, q),
+      food.getBrandOwner() == null,
+      d.length(),
+      d,
+      food.getFoodId(),
+      -1,
+      food
+    );
+  }
+
+  private static void addIfMatch(List<Hit> hits, Hit hit) {
+    if (hit != null) {
+      hits.add(hit);
+    }
+  }
+
+  /** The query's text-match tier against a description. */
+  private static int tierOf(String description, Query q) {
+    String text = q.text();
+    if (description.equalsIgnoreCase(text)) {
+      return TIER_EXACT;
+    }
+    if (description.regionMatches(true, 0, text, 0, text.length())) {
+      return TIER_PREFIX;
+    }
+    if (containsIgnoreCase(description, q.wordStart())) {
+      return TIER_WORD_START;
+    }
+    if (containsIgnoreCase(description, text)) {
+      return TIER_CONTAINS;
+    }
+    return TIER_FUZZY;
+  }
+
+  static boolean containsIgnoreCase(String text, String part) {
+    for (int i = 0, last = text.length() - part.length(); i <= last; i++) {
+      if (text.regionMatches(true, i, part, 0, part.length())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static double similarity(int common, int queryCount, int rowCount) {
+    int union = queryCount + rowCount - common;
+    return union == 0 ? 0 : (double) common / union;
+  }
+
+  private static double wordSimilarity(int common, Query q) {
+    return q.trigrams().isEmpty()
+      ? 0
+      : (double) common / q.trigrams().size();
+  }
+
+  // ---------------------------------------------------------- trigrams
+
+  /** pg_trgm words: lower-cased runs of letters and digits. */
+  static List<String> words(String text) {
+    List<String> words = new ArrayList<>();
+    int start = -1;
+    for (int i = 0; i <= text.length(); i++) {
+      boolean wordChar =
+        i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+      if (wordChar && start < 0) {
+        start = i;
+      } else if (!wordChar && start >= 0) {
+        words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+        start = -1;
+      }
+    }
+    return words;
+  }
+
+  /** pg_trgm's trigram set of a text. */
+  static Set<String> trigrams(String text) {
+    Set<String> trigrams = new HashSet<>();
+    for (String word : words(text)) {
+      String padded = "  " + word + " ";
+      for (int i = 0; i + 3 <= padded.length(); i++) {
+        trigrams.add(padded.substring(i, i + 3));
+      }
+    }
+    return trigrams;
+  }
+
+  /**
+   * The text's words, each padded as pg_trgm pads them, run together. A
+   * trigram belongs to the text's set exactly when this string contains it:
+   * the runs of spaces between words only form trigrams no word can produce.
+   */
+  static String padded(String text) {
+    StringBuilder padded = new StringBuilder(text.length() + 16);
+    for (String word : words(text)) {
+      padded.append("  ").append(word).append(' ');
+    }
+    return padded.toString();
+  }
+
+  private static int common(Set<String> trigrams, String padded) {
+    int common = 0;
+    for (String trigram : trigrams) {
+      if (padded.contains(trigram)) {
+        common++;
+      }
+    }
+    return common;
+  }
+
+  // -------------------------------------------------------------- rows
+
+  private FoodItemDTO toDTO(int row) {
+    return new FoodItemDTO(
+      new UUID(idHi[row], idLo[row]),
+      fdcId[row] == NO_FDC_ID ? null : fdcId[row],
+      description[row],
+      brandOwner[row],
+      dataType[row],
+      boxed(servingSize[row]),
+      servingUnit[row],
+      householdServing[row],
+      boxed(calories[row]),
+      boxed(proteinG[row]),
+      boxed(carbsG[row]),
+      boxed(fatG[row]),
+      null,
+      barcode[row] == NO_BARCODE
+        ? rawBarcodes.get(row)
+        : String.format("%014d", barcode[row])
+    );
+  }
+
+  private static Double boxed(double value) {
+    return Double.isNaN(value) ? null : value;
+  }
+
+  private static double unboxed(Double value) {
+    return value == null ? Double.NaN : value;
+  }
+
+  /** Growable int list for postings while building. */
+  private static final class Postings {
+
+    private int[] ids = new int[2];
+    private int size;
+
+    void add(int id) {
+      if (size > 0 && ids[size - 1] == id) {
+        return;
+      }
+      if (size == ids.length) {
+        ids = Arrays.copyOf(ids, size * 2);
+      }
+      ids[size++] = id;
+    }
+
+    int[] toArray() {
+      return Arrays.copyOf(ids, size);
+    }
+  }
+
+  /** Accumulates rows, then freezes them into an index. Not thread-safe. */
+  static final class Builder {
+
+    private int size;
+    private long[] idHi = new long[1024];
+    private long[] idLo = new long[1024];
+    private long[] fdcId = new long[1024];
+    private String[] description = new String[1024];
+    private String[] brandOwner = new String[1024];
+    private String[] dataType = new String[1024];
+    private double[] servingSize = new double[1024];
+    private String[] servingUnit = new String[1024];
+    private String[] householdServing = new String[1024];
+    private double[] calories = new double[1024];
+    private double[] proteinG = new double[1024];
+    private double[] carbsG = new double[1024];
+    private double[] fatG = new double[1024];
+    private long[] barcode = new long[1024];
+    private short[] trigramCount = new short[1024];
+    private final Map<Integer, String> rawBarcodes = new HashMap<>();
+    private final Map<String, Postings> rowsByWord = new HashMap<>();
+    private final Map<String, String> shared = new HashMap<>();
+
+    Builder add(FoodItemDTO food) {
+      if (size == idHi.length) {
+        grow(size * 2);
+      }
+      int row = size++;
+      idHi[row] = food.getFoodId().getMostSignificantBits();
+      idLo[row] = food.getFoodId().getLeastSignificantBits();
+      fdcId[row] = food.getFdcId() == null ? NO_FDC_ID : food.getFdcId();
+      description[row] = share(food.getDescription());
+      brandOwner[row] = share(food.getBrandOwner());
+      dataType[row] = share(food.getDataType());
+      servingSize[row] = unboxed(food.getServingSize());
+      servingUnit[row] = share(food.getServingUnit());
+      householdServing[row] = share(food.getHouseholdServing());
+      calories[row] = unboxed(food.getCalories());
+      proteinG[row] = unboxed(food.getProteinG());
+      carbsG[row] = unboxed(food.getCarbsG());
+      fatG[row] = unboxed(food.getFatG());
+      barcode[row] = pack(food.getBarcode());
+      if (barcode[row] == NO_BARCODE && food.getBarcode() != null) {
+        rawBarcodes.put(row, food.getBarcode());
+      }
+      trigramCount[row] = (short) Math.min(
+        Short.MAX_VALUE,
+        trigrams(food.getDescription()).size()
+      );
+      for (String word : words(food.getDescription())) {
+        rowsByWord.computeIfAbsent(word, w -> new Postings()).add(row);
+      }
+      return this;
+    }
+
+    FoodTextIndex build() {
+      return new FoodTextIndex(this);
+    }
+
+    private String share(String value) {
+      return value == null ? null : shared.computeIfAbsent(value, v -> v);
+    }
+
+    private static long pack(String barcode) {
+      if (barcode == null || barcode.length() != 14) {
+        return NO_BARCODE;
+      }
+      for (int i = 0; i < barcode.length(); i++) {
+        char c = barcode.charAt(i);
+        if (c < '0' || c > '9') {
+          return NO_BARCODE;
+        }
+      }
+      return Long.parseLong(barcode);
+    }
+
+    private void grow(int capacity) {
+      idHi = Arrays.copyOf(idHi, capacity);
+      idLo = Arrays.copyOf(idLo, capacity);
+      fdcId = Arrays.copyOf(fdcId, capacity);
+      description = Arrays.copyOf(description, capacity);
+      brandOwner = Arrays.copyOf(brandOwner, capacity);
+      dataType = Arrays.copyOf(dataType, capacity);
+      servingSize = Arrays.copyOf(servingSize, capacity);
+      servingUnit = Arrays.copyOf(servingUnit, capacity);
+      householdServing = Arrays.copyOf(householdServing, capacity);
+      calories = Arrays.copyOf(calories, capacity);
+      proteinG = Arrays.copyOf(proteinG, capacity);
+      carbsG = Arrays.copyOf(carbsG, capacity);
+      fatG = Arrays.copyOf(fatG, capacity);
+      barcode = Arrays.copyOf(barcode, capacity);
+      trigramCount = Arrays.copyOf(trigramCount, capacity);
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package com.gearfitness.gear_api.service;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/** Conversions for values read off native query rows (Object[]). */
+final class NativeRows {
+
+  private NativeRows() {}
+
+  // Native date columns come back as java.sql.Date.
+  static LocalDate toLocalDate(Object value) {
+    if (value instanceof Date sqlDate) {
+      return sqlDate.toLocalDate();
+    }
+    return (LocalDate) value;
+  }
+
+  static LocalDateTime toLocalDateTime(Object value) {
+    if (value instanceof Timestamp timestamp) {
+      return timestamp.toLocalDateTime();
+    }
+    return (LocalDateTime) value;
+  }
+}
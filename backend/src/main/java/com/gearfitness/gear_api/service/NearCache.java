@@ -0,0 +1,54 @@
+package com.gearfitness.gear_api.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Small bounded in-process cache in front of a slower lookup: entries expire
+ * a fixed TTL after they are stored, and past maxEntries the least recently
+ * used one is evicted. Calls are synchronized, so keep values immutable and
+ * loads outside of it. Per instance only — never the source of truth.
+ */
+public final class NearCache<K, V> {
+
+  private record Entry<V>(V value, long expiresAtNanos) {}
+
+  private final long ttlNanos;
+  private final LinkedHashMap<K, Entry<V>> entries;
+
+  public NearCache(int maxEntries, Duration ttl) {
+    this.ttlNanos = ttl.toNanos();
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  /** The live value for key, or null when absent or expired. */
+  public synchronized V get(K key) {
+    Entry<V> entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    if (System.nanoTime() - entry.expiresAtNanos() >= 0) {
+      entries.remove(key);
+      return null;
+    }
+    return entry.value();
+  }
+
+  public synchronized void put(K key, V value) {
+    entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+  }
+
+  public synchronized void invalidate(K key) {
+    entries.remove(key);
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+}
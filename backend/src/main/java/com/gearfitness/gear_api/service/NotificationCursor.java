@@ -0,0 +1,54 @@
+package com.gearfitness.gear_api.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a notification inbox, ordered (createdAt DESC, notificationId
+ * DESC). Opaque to clients, like FeedCursor.
+ */
+public record NotificationCursor(
+  LocalDateTime createdAt,
+  UUID notificationId
+) {
+  /** Sentinel for the first page: every real notification sorts after it. */
+  public static final NotificationCursor START = new NotificationCursor(
+    LocalDateTime.of(9999, 12, 31, 23, 59, 59),
+    new UUID(-1L, -1L)
+  );
+
+  public String encode() {
+    String raw = createdAt + "|" + notificationId;
+    return Base64.getUrlEncoder()
+      .withoutPadding()
+      .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Null/blank decodes to START. Throws IllegalArgumentException for a token
+   * this server didn't mint.
+   */
+  public static NotificationCursor decode(String token) {
+    if (token == null || token.isBlank()) {
+      return START;
+    }
+    try {
+      String raw = new String(
+        Base64.getUrlDecoder().decode(token),
+        StandardCharsets.UTF_8
+      );
+      int sep = raw.indexOf('|');
+      if (sep < 0) {
+        throw new IllegalArgumentException("Malformed notification cursor");
+      }
+      return new NotificationCursor(
+        LocalDateTime.parse(raw.substring(0, sep)),
+        UUID.fromString(raw.substring(sep + 1))
+      );
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException("Malformed notification cursor", e);
+    }
+  }
+}
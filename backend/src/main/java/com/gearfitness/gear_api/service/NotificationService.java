@@ -1,12 +1,14 @@
 package com.gearfitness.gear_api.service;
 
 import com.gearfitness.gear_api.dto.NotificationDTO;
+import com.gearfitness.gear_api.dto.NotificationPageDTO;
 import com.gearfitness.gear_api.entity.AppUser;
 import com.gearfitness.gear_api.entity.Notification;
-import com.gearfitness.gear_api.entity.Post;
 import com.gearfitness.gear_api.repository.AppUserRepository;
 import com.gearfitness.gear_api.repository.NotificationRepository;
+import java.sql.Timestamp;
 import java.time.DateTimeException;
+import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.List;
 import java.util.UUID;
@@ -20,65 +22,104 @@ import org.springframework.web.server.ResponseStatusException;
 @RequiredArgsConstructor
 public class NotificationService {
 
+  static final int MAX_PAGE_SIZE = 100;
+
   private final NotificationRepository notificationRepository;
   private final AppUserRepository appUserRepository;
+  private final RelationshipCache relationshipCache;
 
+  /**
+   * The whole inbox, newest first. Kept for app builds that predate the
+   * cursor endpoint; new clients page through getNotificationPage instead.
+   */
   @Transactional(readOnly = true)
   public List<NotificationDTO> getNotificationsForUser(UUID userId) {
+    NotificationCursor start = NotificationCursor.START;
     return notificationRepository
-      .findVisibleByRecipient(userId)
-      .stream()
-      .map(n ->
-        NotificationDTO.builder()
-          .notificationId(n.getNotificationId())
-          .type(n.getType().name())
-          .actorUserId(n.getActor().getUserId())
-          .actorUsername(n.getActor().getUsername())
-          .actorProfilePictureUrl(n.getActor().getProfilePictureUrl())
-          .postId(n.getPost() != null ? n.getPost().getPostId() : null)
-          .workoutId(
-            n.getPost() != null ? n.getPost().getWorkout().getWorkoutId() : null
-          )
-          .postImageUrl(resolvePostThumbnail(n.getPost()))
-          .commentBody(n.getComment() != null ? n.getComment().getBody() : null)
-          .focusCommentId(
-            n.getComment() != null
-              ? (n.getComment().getParentComment() != null
-                  ? n.getComment().getParentComment().getCommentId()
-                  : n.getComment().getCommentId())
-              : null
-          )
-          .createdAt(n.getCreatedAt())
-          .isRead(n.isRead())
-          .build()
+      .findInboxPageRaw(
+        userId,
+        relationshipCache.get(userId).blockedIds(),
+        start.createdAt(),
+        start.notificationId(),
+        Integer.MAX_VALUE
       )
+      .stream()
+      .map(NotificationService::toNotificationDTO)
       .toList();
   }
 
-  /**
-   * Resolve a single thumbnail S3 key for a post, preferring the legacy
-   * single image and falling back to the first workout photo. Returns null
-   * when the post has no associated image.
-   */
-  private String resolvePostThumbnail(Post post) {
-    if (post == null) {
-      return null;
-    }
-    if (post.getImageUrl() != null && !post.getImageUrl().isBlank()) {
-      return post.getImageUrl();
+  /** One keyset page of the user's inbox, newest first. */
+  @Transactional(readOnly = true)
+  public NotificationPageDTO getNotificationPage(
+    UUID userId,
+    String cursor,
+    int size
+  ) {
+    NotificationCursor position;
+    try {
+      position = NotificationCursor.decode(cursor);
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(
+        HttpStatus.BAD_REQUEST,
+        "Invalid cursor"
+      );
     }
-    if (
-      post.getWorkout() != null &&
-      post.getWorkout().getPhotoUrls() != null &&
-      !post.getWorkout().getPhotoUrls().isEmpty()
-    ) {
-      return post.getWorkout().getPhotoUrls().get(0);
+    int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+    List<Object[]> rows = notificationRepository.findInboxPageRaw(
+      userId,
+      relationshipCache.get(userId).blockedIds(),
+      position.createdAt(),
+      position.notificationId(),
+      limit + 1
+    );
+
+    // One row past the page means there is another page.
+    boolean hasMore = rows.size() > limit;
+    List<NotificationDTO> notifications = (hasMore
+        ? rows.subList(0, limit)
+        : rows)
+      .stream()
+      .map(NotificationService::toNotificationDTO)
+      .toList();
+    String nextCursor = null;
+    if (hasMore) {
+      NotificationDTO last = notifications.get(notifications.size() - 1);
+      nextCursor = new NotificationCursor(
+        last.getCreatedAt(),
+        last.getNotificationId()
+      ).encode();
     }
-    return null;
+    return NotificationPageDTO.builder()
+      .notifications(notifications)
+      .nextCursor(nextCursor)
+      .hasMore(hasMore)
+      .build();
+  }
+
+  static NotificationDTO toNotificationDTO(Object[] row) {
+    return NotificationDTO.builder()
+      .notificationId((UUID) row[0])
+      .type((String) row[1])
+      .createdAt(
+        row[2] instanceof Timestamp timestamp
+          ? timestamp.toLocalDateTime()
+          : (LocalDateTime) row[2]
+      )
+      .isRead((Boolean) row[3])
+      .actorUserId((UUID) row[4])
+      .actorUsername((String) row[5])
+      .actorProfilePictureUrl((String) row[6])
+      .postId((UUID) row[7])
+      .workoutId((UUID) row[8])
+      .postImageUrl((String) row[9])
+      .commentBody((String) row[10])
+      .focusCommentId((UUID) row[11])
+      .build();
   }
 
   public long getUnreadCount(UUID userId) {
-    return notificationRepository.countUnreadVisibleByRecipient(userId);
+    return notificationRepository.findUnreadCount(userId);
   }
 
   @Transactional
@@ -108,12 +149,7 @@ public class NotificationService {
   public void markAllAsRead(UUID userId) {
     // Only touch notifications the user can actually see; a blocked actor's
     // notifications stay untouched so they re-surface (still unread) on unblock.
-    List<Notification> notifications =
-      notificationRepository.findVisibleByRecipient(userId);
-
-    notifications.forEach(n -> n.setRead(true));
-
-    notificationRepository.saveAll(notifications);
+    notificationRepository.markAllVisibleRead(userId);
   }
 
   @Transactional
@@ -0,0 +1,336 @@
+package com.gearfitness.gear_api.service;
+
+import com.gearfitness.gear_api.dto.NotificationDTO;
+import com.gearfitness.gear_api.repository.NotificationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Live notification stream over Server-Sent Events, so clients stop polling
+ * the inbox and the unread badge.
+ *
+ * <p>Events come from the database, not from the services that create
+ * notifications: V60 triggers NOTIFY on every new notification and every
+ * unread-counter change, and one listener thread per instance LISTENs and
+ * fans them out to this instance's subscribers. That covers every writer
+ * (likes, comments, mentions, follows, bulk mark-read, cascaded deletes) and
+ * every instance without a broker. Each subscriber receives:
+ * <ul>
+ *   <li>{@code notification}: a NotificationDTO, with an event id that is an
+ *       inbox cursor. A client reconnecting with Last-Event-ID gets what it
+ *       missed replayed, or {@code reset} when too much was missed and it
+ *       should reload the inbox instead.</li>
+ *   <li>{@code unread}: the current badge count, on connect and on change.</li>
+ * </ul>
+ * plus a comment heartbeat so idle connections survive proxies. Replayed and
+ * live events can overlap briefly around a reconnect; clients dedupe by id.
+ *
+ * <p>Delivery runs on a few single-thread lanes keyed by user, so one slow
+ * client cannot hold up everyone and a user's events stay in order.
+ * Connections are capped per instance (new ones get a 503 and should fall
+ * back to polling) and per user (the oldest is closed).
+ */
+@Service
+@Slf4j
+public class NotificationStreamService {
+
+  private static final String CREATED_CHANNEL = "notification_created";
+  private static final String UNREAD_CHANNEL = "notification_unread";
+  private static final int REPLAY_LIMIT = 100;
+  private static final int DELIVERY_LANES = 4;
+  private static final int LISTEN_POLL_MS = 10_000;
+  private static final long RECONNECT_DELAY_MS = 5_000;
+
+  private final NotificationRepository notificationRepository;
+  private final RelationshipCache relationshipCache;
+  private final DataSource dataSource;
+  private final int maxConnections;
+  private final int maxPerUser;
+  private final long timeoutMs;
+
+  private final Map<UUID, List<SseEmitter>> subscribers =
+    new ConcurrentHashMap<>();
+  private final AtomicInteger connections = new AtomicInteger();
+  private final ExecutorService[] lanes = new ExecutorService[DELIVERY_LANES];
+
+  private volatile boolean running;
+  private Thread listener;
+
+  public NotificationStreamService(
+    NotificationRepository notificationRepository,
+    RelationshipCache relationshipCache,
+    DataSource dataSource,
+    @Value("${notifications.stream.max-connections:2000}") int maxConnections,
+    @Value("${notifications.stream.max-per-user:3}") int maxPerUser,
+    @Value("${notifications.stream.timeout-ms:1800000}") long timeoutMs
+  ) {
+    this.notificationRepository = notificationRepository;
+    this.relationshipCache = relationshipCache;
+    this.dataSource = dataSource;
+    this.maxConnections = maxConnections;
+    this.maxPerUser = maxPerUser;
+    this.timeoutMs = timeoutMs;
+    for (int i = 0; i < DELIVERY_LANES; i++) {
+      String name = "notification-stream-" + i;
+      lanes[i] = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+
+  @PostConstruct
+  public void start() {
+    running = true;
+    listener = new Thread(this::listenLoop, "notification-stream-listener");
+    listener.setDaemon(true);
+    listener.start();
+  }
+
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    running = false;
+    listener.interrupt();
+    listener.join(LISTEN_POLL_MS);
+    subscribers.values().forEach(emitters ->
+      emitters.forEach(SseEmitter::complete)
+    );
+    for (ExecutorService lane : lanes) {
+      lane.shutdownNow();
+    }
+  }
+
+  /**
+   * Open a stream for the user. lastEventId is the Last-Event-ID the client
+   * reconnected with, or null on a fresh connect.
+   */
+  public SseEmitter subscribe(UUID userId, String lastEventId) {
+    if (connections.incrementAndGet() > maxConnections) {
+      connections.decrementAndGet();
+      throw new ResponseStatusException(
+        HttpStatus.SERVICE_UNAVAILABLE,
+        "STREAM_LIMIT"
+      );
+    }
+    SseEmitter emitter = new SseEmitter(timeoutMs);
+    Runnable remove = () -> unsubscribe(userId, emitter);
+    emitter.onCompletion(remove);
+    emitter.onTimeout(remove);
+    emitter.onError(e -> remove.run());
+
+    List<SseEmitter> evicted = new ArrayList<>();
+    subscribers.compute(userId, (id, emitters) -> {
+      List<SseEmitter> list = emitters != null
+        ? emitters
+        : new CopyOnWriteArrayList<>();
+      list.add(emitter);
+      while (list.size() > maxPerUser) {
+        evicted.add(list.remove(0));
+      }
+      return list;
+    });
+    for (SseEmitter oldest : evicted) {
+      connections.decrementAndGet();
+      oldest.complete();
+    }
+
+    lane(userId).execute(() -> {
+      if (lastEventId != null && !lastEventId.isBlank()) {
+        replay(userId, emitter, lastEventId);
+      }
+      long unread = notificationRepository.findUnreadCount(userId);
+      send(userId, emitter, unreadEvent(unread));
+    });
+    return emitter;
+  }
+
+  /** Keep idle connections open through proxies and load balancers. */
+  @Scheduled(fixedDelayString = "${notifications.stream.heartbeat-ms:25000}")
+  public void heartbeat() {
+    subscribers.forEach((userId, emitters) ->
+      emitters.forEach(emitter ->
+        lane(userId).execute(() ->
+          send(userId, emitter, SseEmitter.event().comment("keepalive"))
+        )
+      )
+    );
+  }
+
+  private void unsubscribe(UUID userId, SseEmitter emitter) {
+    subscribers.computeIfPresent(userId, (id, emitters) -> {
+      if (emitters.remove(emitter)) {
+        connections.decrementAndGet();
+      }
+      return emitters.isEmpty() ? null : emitters;
+    });
+  }
+
+  private void replay(UUID userId, SseEmitter emitter, String lastEventId) {
+    NotificationCursor after;
+    try {
+      after = NotificationCursor.decode(lastEventId);
+    } catch (IllegalArgumentException e) {
+      send(userId, emitter, SseEmitter.event().name("reset").data(""));
+      return;
+    }
+    List<Object[]> missed = notificationRepository.findInboxAfterRaw(
+      userId,
+      relationshipCache.get(userId).blockedIds(),
+      after.createdAt(),
+      after.notificationId(),
+      REPLAY_LIMIT + 1
+    );
+    if (missed.size() > REPLAY_LIMIT) {
+      send(userId, emitter, SseEmitter.event().name("reset").data(""));
+      return;
+    }
+    for (Object[] row : missed) {
+      send(
+        userId,
+        emitter,
+        notificationEvent(NotificationService.toNotificationDTO(row))
+      );
+    }
+  }
+
+  private static SseEmitter.SseEventBuilder notificationEvent(
+    NotificationDTO notification
+  ) {
+    return SseEmitter.event()
+      .id(
+        new NotificationCursor(
+          notification.getCreatedAt(),
+          notification.getNotificationId()
+        ).encode()
+      )
+      .name("notification")
+      .data(notification);
+  }
+
+  private static SseEmitter.SseEventBuilder unreadEvent(long unread) {
+    return SseEmitter.event().name("unread").data(Map.of("unread", unread));
+  }
+
+  private void send(
+    UUID userId,
+    SseEmitter emitter,
+    SseEmitter.SseEventBuilder event
+  ) {
+    try {
+      emitter.send(event);
+    } catch (IOException | IllegalStateException e) {
+      // Client went away (or the emitter already completed); the container
+      // reports the error too, but drop it now so nothing else queues on it.
+      unsubscribe(userId, emitter);
+    }
+  }
+
+  private ExecutorService lane(UUID userId) {
+    return lanes[Math.floorMod(userId.hashCode(), DELIVERY_LANES)];
+  }
+
+  /** Holds one pooled connection for as long as LISTEN is up. */
+  private void listenLoop() {
+    while (running) {
+      try (Connection connection = dataSource.getConnection()) {
+        try (Statement statement = connection.createStatement()) {
+          statement.execute("LISTEN " + CREATED_CHANNEL);
+          statement.execute("LISTEN " + UNREAD_CHANNEL);
+        }
+        PGConnection pg = connection.unwrap(PGConnection.class);
+        while (running) {
+          PGNotification[] received = pg.getNotifications(LISTEN_POLL_MS);
+          if (received == null) {
+            continue;
+          }
+          for (PGNotification notification : received) {
+            dispatch(notification.getName(), notification.getParameter());
+          }
+        }
+      } catch (SQLException e) {
+        // Anything published while disconnected is lost to live delivery;
+        // clients recover it through Last-Event-ID on their next reconnect.
+        if (running) {
+          log.warn(
+            "Notification listener lost its connection: {}",
+            e.getMessage()
+          );
+          try {
+            Thread.sleep(RECONNECT_DELAY_MS);
+          } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return;
+          }
+        }
+      }
+    }
+  }
+
+  private void dispatch(String channel, String payload) {
+    int comma = payload.indexOf(',');
+    if (comma < 0) {
+      return;
+    }
+    UUID userId;
+    try {
+      userId = UUID.fromString(payload.substring(0, comma));
+    } catch (IllegalArgumentException e) {
+      return;
+    }
+    List<SseEmitter> emitters = subscribers.get(userId);
+    if (emitters == null || emitters.isEmpty()) {
+      return;
+    }
+    String value = payload.substring(comma + 1);
+    lane(userId).execute(() -> {
+      // Built per emitter: an event builder is consumed by the send.
+      Supplier<SseEmitter.SseEventBuilder> event;
+      if (CREATED_CHANNEL.equals(channel)) {
+        // Load through the inbox query so blocked actors stay invisible.
+        List<Object[]> rows = notificationRepository.findInboxRowRaw(
+          userId,
+          relationshipCache.get(userId).blockedIds(),
+          UUID.fromString(value)
+        );
+        if (rows.isEmpty()) {
+          return;
+        }
+        NotificationDTO notification = NotificationService.toNotificationDTO(
+          rows.get(0)
+        );
+        event = () -> notificationEvent(notification);
+      } else {
+        long unread = Long.parseLong(value);
+        event = () -> unreadEvent(unread);
+      }
+      for (SseEmitter emitter : emitters) {
+        send(userId, emitter, event.get());
+      }
+    });
+  }
+}
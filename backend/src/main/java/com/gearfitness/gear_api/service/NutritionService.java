@@ -51,6 +51,7 @@ public class NutritionService {
   private final NutritionGoalRepository nutritionGoalRepository;
   private final NutritionJournalNoteRepository journalNoteRepository;
   private final AppUserRepository appUserRepository;
+  private final FoodSearchIndex foodSearchIndex;
 
   // ---------------------------------------------------------------- search
 
@@ -58,17 +59,30 @@ public class NutritionService {
     int offset = Math.max(page, 0) * DEFAULT_PAGE_SIZE;
     // A blank query returns the default browse list rather than nothing, so the
     // Add Food screen's pre-search list comes from this same table — there is no
-    // second food source. A real query also matches the caller's own custom
-    // foods (scoped by owner in the query itself).
-    List<FoodItem> items = (query == null || query.isBlank())
-      ? foodItemRepository.browse(DEFAULT_PAGE_SIZE, offset)
-      : foodItemRepository.search(
-          query.trim(),
-          userId,
-          DEFAULT_PAGE_SIZE,
-          offset
-        );
-    return items.stream().map(FoodItemDTO::from).collect(Collectors.toList());
+    // second food source.
+    if (query == null || query.isBlank()) {
+      return foodItemRepository
+        .browse(DEFAULT_PAGE_SIZE, offset)
+        .stream()
+        .map(FoodItemDTO::from)
+        .collect(Collectors.toList());
+    }
+    // Shared foods come from the in-memory index; a real query also matches
+    // the caller's own custom foods, merged in from their (small) list. Until
+    // the index has loaded after startup, the database query does both.
+    if (!foodSearchIndex.isLoaded()) {
+      return foodItemRepository
+        .search(query.trim(), userId, DEFAULT_PAGE_SIZE, offset)
+        .stream()
+        .map(FoodItemDTO::from)
+        .collect(Collectors.toList());
+    }
+    return foodSearchIndex.search(
+      query.trim(),
+      getCustomFoods(userId),
+      DEFAULT_PAGE_SIZE,
+      offset
+    );
   }
 
   /**
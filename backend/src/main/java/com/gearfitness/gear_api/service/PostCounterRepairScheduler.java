@@ -0,0 +1,57 @@
+package com.gearfitness.gear_api.service;
+
+import com.gearfitness.gear_api.repository.PostRepository;
+import java.util.List;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Nightly reconciliation of post.like_count / comment_count (V61) against
+ * the rows they count. The counters are adjusted in the same transaction as
+ * every change, so drift only comes from a path that was missed; this puts it
+ * right by the next morning.
+ *
+ * Drifted posts are found from a snapshot, then each batch is row-locked and
+ * recounted in its own short transaction, so a like or comment landing during
+ * the run is never overwritten by a stale count.
+ */
+@Component
+@Slf4j
+public class PostCounterRepairScheduler {
+
+  private static final int BATCH_SIZE = 200;
+
+  private final PostRepository postRepository;
+  private final TransactionTemplate txTemplate;
+
+  public PostCounterRepairScheduler(
+    PostRepository postRepository,
+    PlatformTransactionManager txManager
+  ) {
+    this.postRepository = postRepository;
+    this.txTemplate = new TransactionTemplate(txManager);
+  }
+
+  @Scheduled(cron = "0 45 3 * * *")
+  public void repairEngagementCounts() {
+    List<UUID> drifted = postRepository.findEngagementDriftPostIds();
+    int repaired = 0;
+    for (int i = 0; i < drifted.size(); i += BATCH_SIZE) {
+      List<UUID> batch = drifted.subList(
+        i,
+        Math.min(i + BATCH_SIZE, drifted.size())
+      );
+      repaired += txTemplate.execute(status -> {
+        postRepository.lockForRecount(batch);
+        return postRepository.recountEngagement(batch);
+      });
+    }
+    if (repaired > 0) {
+      log.warn("Repaired like/comment counters on {} post(s)", repaired);
+    }
+  }
+}
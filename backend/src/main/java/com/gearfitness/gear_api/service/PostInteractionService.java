@@ -40,6 +40,7 @@ public class PostInteractionService {
   private final PostVisibilityService postVisibilityService;
   private final ExpoPushService expoPushService;
   private final MentionService mentionService;
+  private final RelationshipCache relationshipCache;
 
   public LikeResponse toggleLike(UUID userId, UUID postId) {
     Post post = postRepository
@@ -61,11 +62,13 @@ public class PostInteractionService {
     if (existingLike.isPresent()) {
       // Unlike
       postLikeRepository.delete(existingLike.get());
+      postRepository.adjustLikeCount(postId, -1);
       liked = false;
     } else {
       // Like
       PostLike newLike = PostLike.builder().post(post).user(user).build();
       postLikeRepository.save(newLike);
+      postRepository.adjustLikeCount(postId, 1);
       liked = true;
 
       // Create notification if user is not liking their own post
@@ -94,7 +97,7 @@ public class PostInteractionService {
       }
     }
 
-    long likeCount = postLikeRepository.countByPost_PostId(postId);
+    long likeCount = postRepository.findLikeCount(postId);
 
     return LikeResponse.builder().liked(liked).likeCount(likeCount).build();
   }
@@ -121,7 +124,7 @@ public class PostInteractionService {
     Page<PostComment> comments = (viewingUserId != null)
       ? postCommentRepository.findVisibleComments(
           postId,
-          viewingUserId,
+          relationshipCache.get(viewingUserId).blockedIds(),
           pageable
         )
       : postCommentRepository.findByPost_PostIdAndParentCommentIsNull(
@@ -177,7 +180,7 @@ public class PostInteractionService {
     Page<PostComment> replies = (viewingUserId != null)
       ? postCommentRepository.findVisibleReplies(
           parentCommentId,
-          viewingUserId,
+          relationshipCache.get(viewingUserId).blockedIds(),
           pageable
         )
       : postCommentRepository.findByParentComment_CommentIdOrderByCreatedAtAsc(
@@ -236,6 +239,7 @@ public class PostInteractionService {
       .build();
 
     PostComment savedComment = postCommentRepository.save(comment);
+    postRepository.adjustCommentCount(postId, 1);
 
     // Primary notification: REPLY to the replied-to author, or COMMENT to the
     // post owner for top-level comments. Tracked so mentions don't double-notify.
@@ -336,7 +340,15 @@ public class PostInteractionService {
       );
     }
 
+    // Only comments that were still counted (not deleted, not moderated)
+    // come off the post's comment_count.
+    int uncounted = 0;
     if (comment.getHiddenAt() == null) {
+      if (
+        comment.getModerationStatus() == PostComment.ModerationStatus.VISIBLE
+      ) {
+        uncounted++;
+      }
       comment.setHiddenAt(LocalDateTime.now());
       postCommentRepository.save(comment);
     }
@@ -348,11 +360,23 @@ public class PostInteractionService {
       LocalDateTime now = LocalDateTime.now();
       for (PostComment reply : replies) {
         if (reply.getHiddenAt() == null) {
+          if (
+            reply.getModerationStatus() == PostComment.ModerationStatus.VISIBLE
+          ) {
+            uncounted++;
+          }
           reply.setHiddenAt(now);
         }
       }
       postCommentRepository.saveAll(replies);
     }
+
+    if (uncounted > 0) {
+      postRepository.adjustCommentCount(
+        comment.getPost().getPostId(),
+        -uncounted
+      );
+    }
   }
 
   private CommentDTO mapToDTO(PostComment comment) {
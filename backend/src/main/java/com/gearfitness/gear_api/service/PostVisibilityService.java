@@ -1,8 +1,6 @@
 package com.gearfitness.gear_api.service;
 
-import com.gearfitness.gear_api.entity.Follow;
 import com.gearfitness.gear_api.entity.Post;
-import com.gearfitness.gear_api.repository.FollowRepository;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -20,13 +18,15 @@ import org.springframework.web.server.ResponseStatusException;
  *   - FRIENDS -> visible only on a mutual ACCEPTED follow
  *   - PRIVATE -> owner only
  *
- * A null viewer (anonymous request) can only see PUBLIC posts.
+ * A null viewer (anonymous request) can only see PUBLIC posts. Block and
+ * follow state come from RelationshipCache, so a check costs no point queries
+ * against follow.
  */
 @Service
 @RequiredArgsConstructor
 public class PostVisibilityService {
 
-  private final FollowRepository followRepository;
+  private final RelationshipCache relationshipCache;
 
   /** True if viewerId is allowed to see the post. */
   public boolean canView(Post post, UUID viewerId) {
@@ -41,14 +41,14 @@ public class PostVisibilityService {
 
     if (
       viewerId != null &&
-      followRepository.existsBlockBetween(viewerId, authorId)
+      relationshipCache.isBlocked(viewerId, authorId)
     ) return false;
 
     return switch (post.getVisibility()) {
       case PUBLIC -> true;
       case PRIVATE -> false; // owner-only, already handled above
       case FRIENDS -> viewerId != null &&
-      isMutualAcceptedFollow(viewerId, authorId);
+      relationshipCache.isMutualFollow(viewerId, authorId);
     };
   }
 
@@ -58,19 +58,4 @@ public class PostVisibilityService {
       throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found");
     }
   }
-
-  private boolean isMutualAcceptedFollow(UUID viewerId, UUID authorId) {
-    return (
-      followRepository.existsByFollower_UserIdAndFollowee_UserIdAndStatus(
-        viewerId,
-        authorId,
-        Follow.FollowStatus.ACCEPTED
-      ) &&
-      followRepository.existsByFollower_UserIdAndFollowee_UserIdAndStatus(
-        authorId,
-        viewerId,
-        Follow.FollowStatus.ACCEPTED
-      )
-    );
-  }
 }
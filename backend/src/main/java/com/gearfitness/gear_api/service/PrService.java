@@ -1,40 +1,160 @@
 package com.gearfitness.gear_api.service;
 
+import com.gearfitness.gear_api.entity.ExercisePrState;
+import com.gearfitness.gear_api.entity.Workout;
+import com.gearfitness.gear_api.entity.WorkoutExercise;
 import com.gearfitness.gear_api.entity.WorkoutSet;
+import com.gearfitness.gear_api.repository.ExercisePrStateRepository;
 import com.gearfitness.gear_api.repository.WorkoutSetRepository;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Maintains workout_set.is_pr.
+ *
+ * Rule: at most one set per workout is flagged as a PR — the heaviest set in
+ * that workout, and only if its weight strictly exceeds the running max
+ * across all earlier workouts. Null-weight sets are skipped. Tiebreak within
+ * a workout (multiple sets at the session max): most reps wins; if reps also
+ * tie, earliest by position then set_number.
+ *
+ * Matches the running-max semantics of the PR chart in ExerciseHistory.tsx,
+ * which collapses each session to a single point.
+ *
+ * The running max per (user, exercise) is kept in exercise_pr_state, so a
+ * workout that lands last chronologically (the normal "logged today" case) is
+ * decided from its own sets alone. Back-dated submits and deletes can change
+ * the PR status of later workouts, so those re-walk history from the affected
+ * date forward, seeded with the max of everything before it.
+ */
 @Service
 @RequiredArgsConstructor
 public class PrService {
 
   private final WorkoutSetRepository workoutSetRepository;
+  private final ExercisePrStateRepository exercisePrStateRepository;
+
+  /** Flag PRs for a freshly saved workout (sets already persisted). */
+  @Transactional
+  public void recordWorkout(UUID userId, Workout workout) {
+    // Sets per exercise in position/set_number order. An exercise may appear
+    // at more than one position; it is still one session for PR purposes.
+    if (workout.getWorkoutExercises() == null) {
+      return;
+    }
+    // Keyed in exerciseId order so the row locks below are always taken in
+    // the same order as onWorkoutDeleted's; otherwise two concurrent saves or
+    // deletes for one user can deadlock.
+    Map<UUID, List<WorkoutSet>> setsByExercise = new TreeMap<>();
+    for (WorkoutExercise we : workout.getWorkoutExercises()) {
+      if (we.getWorkoutSets() == null || we.getWorkoutSets().isEmpty()) {
+        continue;
+      }
+      setsByExercise
+        .computeIfAbsent(we.getExercise().getExerciseId(), k ->
+          new ArrayList<>()
+        )
+        .addAll(we.getWorkoutSets());
+    }
+
+    LocalDate date = workout.getDatePerformed();
+    for (Map.Entry<UUID, List<WorkoutSet>> entry : setsByExercise.entrySet()) {
+      UUID exerciseId = entry.getKey();
+      Optional<ExercisePrState> state = exercisePrStateRepository.findForUpdate(
+        userId,
+        exerciseId
+      );
+      if (state.isEmpty()) {
+        // No index row yet: either a first-time exercise (cheap) or history
+        // that predates the index. Either way a full walk rebuilds it.
+        recompute(userId, exerciseId, null);
+      } else if (date.isBefore(state.get().getLastDate())) {
+        recompute(userId, exerciseId, date);
+      } else {
+        // Dated on/after every earlier session and created now, so this
+        // workout is chronologically last: only its own sets can change.
+        BigDecimal runningMax = state.get().getMaxWeightLbs();
+        WorkoutSet best = bestOf(entry.getValue());
+        if (
+          best != null &&
+          (runningMax == null || best.getWeightLbs().compareTo(runningMax) > 0)
+        ) {
+          runningMax = best.getWeightLbs();
+          best.setIsPr(true);
+          workoutSetRepository.save(best);
+        }
+        exercisePrStateRepository.upsert(userId, exerciseId, runningMax, date);
+      }
+    }
+  }
+
+  /**
+   * A workout dated {@code date} was deleted. Sets it shadowed on or after that
+   * date may now qualify, so re-walk from there.
+   */
+  @Transactional
+  public void onWorkoutDeleted(
+    UUID userId,
+    Collection<UUID> exerciseIds,
+    LocalDate date
+  ) {
+    // Same lock order as recordWorkout.
+    for (UUID exerciseId : new TreeSet<>(exerciseIds)) {
+      exercisePrStateRepository.findForUpdate(userId, exerciseId);
+      recompute(userId, exerciseId, date);
+    }
+  }
 
   /**
-   * Recompute is_pr for every set belonging to the given (user, exercise) pair.
-   *
-   * Rule: at most one set per workout is flagged as a PR — the heaviest set in
-   * that workout, and only if its weight strictly exceeds the running max
-   * across all earlier workouts. Null-weight sets are skipped. Tiebreak within
-   * a workout (multiple sets at the session max): most reps wins; if reps also
-   * tie, earliest by position then set_number.
-   *
-   * Matches the running-max semantics of the PR chart in ExerciseHistory.tsx,
-   * which collapses each session to a single point.
+   * Recompute is_pr for every set belonging to the given (user, exercise) pair
+   * and rebuild its index row.
    */
   @Transactional
   public void recomputePrsForUserExercise(UUID userId, UUID exerciseId) {
-    List<WorkoutSet> sets =
-      workoutSetRepository.findChronologicalForUserExercise(userId, exerciseId);
+    exercisePrStateRepository.findForUpdate(userId, exerciseId);
+    recompute(userId, exerciseId, null);
+  }
+
+  /** Re-walk sets dated on/after fromDate (all sets when null). */
+  private void recompute(UUID userId, UUID exerciseId, LocalDate fromDate) {
+    BigDecimal runningMax = null;
+    LocalDate lastDate = null;
+    List<WorkoutSet> sets;
+    if (fromDate == null) {
+      sets = workoutSetRepository.findChronologicalForUserExercise(
+        userId,
+        exerciseId
+      );
+    } else {
+      List<Object[]> prefix = workoutSetRepository.findPrefixStatsRaw(
+        userId,
+        exerciseId,
+        fromDate
+      );
+      if (!prefix.isEmpty()) {
+        runningMax = (BigDecimal) prefix.get(0)[0];
+        lastDate = (LocalDate) prefix.get(0)[1];
+      }
+      sets = workoutSetRepository.findChronologicalForUserExerciseFrom(
+        userId,
+        exerciseId,
+        fromDate
+      );
+    }
 
     // Group sets by workout, preserving chronological workout order.
     LinkedHashMap<UUID, List<WorkoutSet>> byWorkout = new LinkedHashMap<>();
@@ -43,34 +163,9 @@ public class PrService {
       byWorkout.computeIfAbsent(workoutId, k -> new ArrayList<>()).add(s);
     }
 
-    BigDecimal runningMax = null;
-    Set<UUID> prSetIds = new HashSet<>();
-
-    for (List<WorkoutSet> workoutSets : byWorkout.values()) {
-      // Best qualifying set in this workout: heaviest weight, then most reps,
-      // then earliest by position/set_number (the list is already ordered that
-      // way, so strict comparison on the first two keys preserves the third).
-      WorkoutSet best = null;
-      for (WorkoutSet s : workoutSets) {
-        BigDecimal w = s.getWeightLbs();
-        if (w == null) continue;
-        if (best == null) {
-          best = s;
-          continue;
-        }
-        int weightCmp = w.compareTo(best.getWeightLbs());
-        if (weightCmp > 0 || (weightCmp == 0 && s.getReps() > best.getReps())) {
-          best = s;
-        }
-      }
-      if (best == null) continue;
-
-      BigDecimal sessionMax = best.getWeightLbs();
-      if (runningMax == null || sessionMax.compareTo(runningMax) > 0) {
-        runningMax = sessionMax;
-        prSetIds.add(best.getWorkoutSetId());
-      }
-    }
+    PrWalk walk = walk(byWorkout.values(), runningMax);
+    runningMax = walk.runningMax();
+    Set<UUID> prSetIds = walk.prSetIds();
 
     List<WorkoutSet> changed = new ArrayList<>();
     for (WorkoutSet s : sets) {
@@ -84,5 +179,70 @@ public class PrService {
     if (!changed.isEmpty()) {
       workoutSetRepository.saveAll(changed);
     }
+
+    if (!sets.isEmpty()) {
+      lastDate = sets
+        .get(sets.size() - 1)
+        .getWorkoutExercise()
+        .getWorkout()
+        .getDatePerformed();
+    }
+    if (lastDate == null) {
+      exercisePrStateRepository.deleteState(userId, exerciseId);
+    } else {
+      exercisePrStateRepository.upsert(
+        userId,
+        exerciseId,
+        runningMax,
+        lastDate
+      );
+    }
+  }
+
+  /** PR set ids decided by a walk, and the running max it ended on. */
+  record PrWalk(Set<UUID> prSetIds, BigDecimal runningMax) {}
+
+  /**
+   * Walk sessions in chronological order, flagging each session's best set
+   * that beats the running max (seeded with {@code runningMax}, null for none).
+   */
+  static PrWalk walk(
+    Collection<List<WorkoutSet>> sessions,
+    BigDecimal runningMax
+  ) {
+    Set<UUID> prSetIds = new HashSet<>();
+    for (List<WorkoutSet> workoutSets : sessions) {
+      WorkoutSet best = bestOf(workoutSets);
+      if (best == null) continue;
+
+      BigDecimal sessionMax = best.getWeightLbs();
+      if (runningMax == null || sessionMax.compareTo(runningMax) > 0) {
+        runningMax = sessionMax;
+        prSetIds.add(best.getWorkoutSetId());
+      }
+    }
+    return new PrWalk(prSetIds, runningMax);
+  }
+
+  /**
+   * Best qualifying set in one session: heaviest weight, then most reps, then
+   * earliest by position/set_number (callers pass sets already ordered that
+   * way, so strict comparison on the first two keys preserves the third).
+   */
+  static WorkoutSet bestOf(List<WorkoutSet> workoutSets) {
+    WorkoutSet best = null;
+    for (WorkoutSet s : workoutSets) {
+      BigDecimal w = s.getWeightLbs();
+      if (w == null) continue;
+      if (best == null) {
+        best = s;
+        continue;
+      }
+      int weightCmp = w.compareTo(best.getWeightLbs());
+      if (weightCmp > 0 || (weightCmp == 0 && s.getReps() > best.getReps())) {
+        best = s;
+      }
+    }
+    return best;
   }
 }
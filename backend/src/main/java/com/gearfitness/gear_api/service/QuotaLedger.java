@@ -0,0 +1,253 @@
+package com.gearfitness.gear_api.service;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Durable usage caps shared by every instance: one quota_counter row per
+ * (scope, subject, period), consumed with a single conditional upsert on its
+ * primary key, so check-and-consume is one atomic statement however many
+ * replicas race on it.
+ *
+ * Leasing: when a quota's lease size is above one, a call that finds no local
+ * units reserves a block of them in one write and later calls on this instance
+ * are served from memory until the block runs out or its lease expires, when
+ * the leftovers are handed back. A busy subject then costs one write per block
+ * rather than per call. The price is that units leased here are unavailable to
+ * other instances until then, so a subject can be refused slightly early near
+ * its limit; lease sizes are kept to a fifth of the limit to bound that, and
+ * once a block no longer fits, units are taken one at a time and the cap is
+ * exact.
+ *
+ * Periods are UTC days and months, like the server-side "today" elsewhere, and
+ * V58 seeds its carried-over count on the same UTC month.
+ */
+@Service
+@Slf4j
+public class QuotaLedger {
+
+  /** Subject for quotas shared by all users. */
+  public static final String GLOBAL = "all";
+
+  private static final String RESERVE_SQL = """
+    INSERT INTO quota_counter (scope, subject, period, used, updated_at)
+    VALUES (?, ?, ?, ?, now())
+    ON CONFLICT (scope, subject, period) DO UPDATE
+    SET used = quota_counter.used + EXCLUDED.used,
+        updated_at = EXCLUDED.updated_at
+    WHERE quota_counter.used + EXCLUDED.used <= ?
+    RETURNING used
+    """;
+
+  private static final String RELEASE_SQL = """
+    UPDATE quota_counter
+    SET used = GREATEST(used - ?, 0), updated_at = now()
+    WHERE scope = ? AND subject = ? AND period = ?
+    """;
+
+  // Long enough to outlive any period: monthly rows are idle for at most a
+  // month before their period ends.
+  private static final String PRUNE_SQL =
+    "DELETE FROM quota_counter WHERE updated_at < now() - INTERVAL '45 days'";
+
+  public enum Window {
+    DAY,
+    MONTH;
+
+    String period(LocalDate today) {
+      return this == DAY ? today.toString() : YearMonth.from(today).toString();
+    }
+  }
+
+  /** A cap of limit units per subject per window. */
+  public record Quota(String scope, Window window, int limit, int leaseSize) {}
+
+  private record LeaseKey(String scope, String subject) {}
+
+  /** Units reserved in the database but not yet used on this instance. */
+  private static final class Lease {
+
+    private String period;
+    private int remaining;
+    private long expiresAtNanos;
+    private boolean retired;
+
+    private boolean live(String currentPeriod) {
+      return (
+        remaining > 0 &&
+        currentPeriod.equals(period) &&
+        System.nanoTime() - expiresAtNanos < 0
+      );
+    }
+  }
+
+  private final JdbcTemplate jdbcTemplate;
+  private final int leaseSize;
+  private final long leaseTtlNanos;
+  private final Map<LeaseKey, Lease> leases = new ConcurrentHashMap<>();
+
+  public QuotaLedger(
+    JdbcTemplate jdbcTemplate,
+    @Value("${quota.lease-size:4}") int leaseSize,
+    @Value("${quota.lease-ttl-seconds:120}") long leaseTtlSeconds
+  ) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.leaseSize = leaseSize;
+    this.leaseTtlNanos = Duration.ofSeconds(leaseTtlSeconds).toNanos();
+  }
+
+  /** A quota with the configured lease size, capped at a fifth of limit. */
+  public Quota quota(String scope, Window window, int limit) {
+    return new Quota(
+      scope,
+      window,
+      limit,
+      Math.max(1, Math.min(leaseSize, limit / 5))
+    );
+  }
+
+  /** Take one unit for the subject; false when its limit is reached. */
+  public boolean tryConsume(Quota quota, String subject) {
+    String period = quota.window().period(today());
+    if (quota.leaseSize() <= 1) {
+      return reserve(quota, subject, period, 1);
+    }
+
+    LeaseKey key = new LeaseKey(quota.scope(), subject);
+    while (true) {
+      Lease lease = leases.computeIfAbsent(key, k -> new Lease());
+      synchronized (lease) {
+        if (lease.retired) {
+          continue;
+        }
+        if (lease.live(period)) {
+          lease.remaining--;
+          return true;
+        }
+        release(key, lease);
+        int granted = reserve(quota, subject, period, quota.leaseSize())
+          ? quota.leaseSize()
+          : (reserve(quota, subject, period, 1) ? 1 : 0);
+        if (granted == 0) {
+          return false;
+        }
+        lease.period = period;
+        lease.remaining = granted - 1;
+        lease.expiresAtNanos = System.nanoTime() + leaseTtlNanos;
+        return true;
+      }
+    }
+  }
+
+  /** Give back a unit taken by {@link #tryConsume} that went unused. */
+  public void refund(Quota quota, String subject) {
+    String period = quota.window().period(today());
+    Lease lease = leases.get(new LeaseKey(quota.scope(), subject));
+    if (lease != null) {
+      synchronized (lease) {
+        if (!lease.retired && period.equals(lease.period)) {
+          lease.remaining++;
+          return;
+        }
+      }
+    }
+    jdbcTemplate.update(RELEASE_SQL, 1, quota.scope(), subject, period);
+  }
+
+  /** Hand expired leases' leftover units back and forget them. */
+  @Scheduled(
+    fixedDelayString = "${quota.lease-ttl-seconds:120}",
+    initialDelayString = "${quota.lease-ttl-seconds:120}",
+    timeUnit = TimeUnit.SECONDS
+  )
+  public void releaseExpiredLeases() {
+    long now = System.nanoTime();
+    leases.forEach((key, lease) -> {
+      synchronized (lease) {
+        if (now - lease.expiresAtNanos >= 0) {
+          retire(key, lease);
+        }
+      }
+    });
+  }
+
+  @Scheduled(cron = "0 15 4 * * *")
+  public void pruneOldPeriods() {
+    int pruned = jdbcTemplate.update(PRUNE_SQL);
+    if (pruned > 0) {
+      log.info("Pruned {} stale quota counters", pruned);
+    }
+  }
+
+  @PreDestroy
+  public void releaseAll() {
+    leases.forEach((key, lease) -> {
+      synchronized (lease) {
+        retire(key, lease);
+      }
+    });
+  }
+
+  private static LocalDate today() {
+    return LocalDate.now(ZoneOffset.UTC);
+  }
+
+  private boolean reserve(
+    Quota quota,
+    String subject,
+    String period,
+    int amount
+  ) {
+    if (amount > quota.limit()) {
+      return false;
+    }
+    List<Integer> used = jdbcTemplate.query(
+      RESERVE_SQL,
+      (rs, rowNum) -> rs.getInt(1),
+      quota.scope(),
+      subject,
+      period,
+      amount,
+      quota.limit()
+    );
+    return !used.isEmpty();
+  }
+
+  /** Caller holds the lease's monitor. */
+  private void retire(LeaseKey key, Lease lease) {
+    release(key, lease);
+    lease.retired = true;
+    leases.remove(key, lease);
+  }
+
+  /** Return a lease's unused units to its period's row. Caller holds it. */
+  private void release(LeaseKey key, Lease lease) {
+    if (lease.remaining > 0) {
+      try {
+        jdbcTemplate.update(
+          RELEASE_SQL,
+          lease.remaining,
+          key.scope(),
+          key.subject(),
+          lease.period
+        );
+      } catch (RuntimeException e) {
+        // The units stay counted until the period ends: errs toward refusing.
+        log.warn("Failed to release quota lease for {}", key, e);
+      }
+    }
+    lease.remaining = 0;
+  }
+}
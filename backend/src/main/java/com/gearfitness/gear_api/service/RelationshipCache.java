@@ -0,0 +1,142 @@
+package com.gearfitness.gear_api.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Each user's block and follow relationships, cached per instance so read
+ * paths filter against an in-memory set instead of running the two-way
+ * BLOCKED NOT EXISTS subquery for every candidate row, and single-post views
+ * answer block and mutual-follow checks without point queries.
+ *
+ * <p>For a user this holds everyone blocked in either direction and everyone
+ * they follow with ACCEPTED status, ignoring hidden edges (the same rules as
+ * the queries it replaces). Every read first checks the user's
+ * relationship_version, which V62 triggers bump on any follow write, so a
+ * block or follow made through any instance, moderation hide or cascade is
+ * seen on the next request; that check is one primary-key lookup. FollowService
+ * also invalidates locally after commit so this instance skips the stale copy.
+ */
+@Service
+public class RelationshipCache {
+
+  /** Never a user id; stands in for an empty NOT IN list. */
+  private static final UUID NONE = new UUID(0L, 0L);
+
+  private static final String VERSION_SQL = """
+    SELECT COALESCE(
+      (SELECT version FROM relationship_version WHERE user_id = ?), 0)
+    """;
+
+  private static final String EDGES_SQL = """
+    SELECT f.status, f.followee_id FROM follow f
+    WHERE f.follower_id = ? AND f.hidden_at IS NULL
+      AND f.status IN ('ACCEPTED', 'BLOCKED')
+    UNION ALL
+    SELECT f.status, f.follower_id FROM follow f
+    WHERE f.followee_id = ? AND f.hidden_at IS NULL AND f.status = 'BLOCKED'
+    """;
+
+  /** One user's relationships. */
+  public record Relationships(UuidSet blocked, UuidSet following) {
+    /** Blocked by or blocking the user. */
+    public boolean isBlocked(UUID otherId) {
+      return blocked.contains(otherId);
+    }
+
+    /** The user follows otherId (ACCEPTED). */
+    public boolean follows(UUID otherId) {
+      return following.contains(otherId);
+    }
+
+    /** Blocked ids as a query parameter for NOT IN; never empty. */
+    public List<UUID> blockedIds() {
+      return blocked.isEmpty() ? List.of(NONE) : blocked.toList();
+    }
+  }
+
+  private record Cached(long version, Relationships relationships) {}
+
+  private final JdbcTemplate jdbcTemplate;
+  private final NearCache<UUID, Cached> cache;
+
+  public RelationshipCache(
+    JdbcTemplate jdbcTemplate,
+    @Value("${relationships.cache.max-entries:20000}") int maxEntries,
+    @Value("${relationships.cache.ttl-seconds:600}") long ttlSeconds
+  ) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.cache = new NearCache<>(maxEntries, Duration.ofSeconds(ttlSeconds));
+  }
+
+  public Relationships get(UUID userId) {
+    // Read the version before the edges: a write landing in between leaves
+    // the entry tagged older than what it holds, so it is just reloaded.
+    Long version = jdbcTemplate.queryForObject(VERSION_SQL, Long.class, userId);
+    Cached cached = cache.get(userId);
+    if (cached != null && cached.version() == version) {
+      return cached.relationships();
+    }
+    Relationships relationships = load(userId);
+    cache.put(userId, new Cached(version, relationships));
+    return relationships;
+  }
+
+  /** A block exists in either direction between the two users. */
+  public boolean isBlocked(UUID userId, UUID otherId) {
+    return get(userId).isBlocked(otherId);
+  }
+
+  /** Both users follow each other with ACCEPTED status. */
+  public boolean isMutualFollow(UUID userA, UUID userB) {
+    return get(userA).follows(userB) && get(userB).follows(userA);
+  }
+
+  /** Drop the users' entries once the current transaction commits. */
+  public void invalidateAfterCommit(UUID... userIds) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      invalidate(userIds);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+      new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          invalidate(userIds);
+        }
+      }
+    );
+  }
+
+  private void invalidate(UUID... userIds) {
+    for (UUID userId : userIds) {
+      cache.invalidate(userId);
+    }
+  }
+
+  private Relationships load(UUID userId) {
+    List<UUID> blocked = new ArrayList<>();
+    List<UUID> following = new ArrayList<>();
+    jdbcTemplate.query(
+      EDGES_SQL,
+      rs -> {
+        UUID otherId = rs.getObject(2, UUID.class);
+        if ("BLOCKED".equals(rs.getString(1))) {
+          blocked.add(otherId);
+        } else {
+          following.add(otherId);
+        }
+      },
+      userId,
+      userId
+    );
+    return new Relationships(UuidSet.of(blocked), UuidSet.of(following));
+  }
+}
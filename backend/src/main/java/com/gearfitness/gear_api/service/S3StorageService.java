@@ -1,6 +1,12 @@
 package com.gearfitness.gear_api.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -13,6 +19,7 @@ import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 
 /**
@@ -41,21 +48,46 @@ public class S3StorageService {
   public static final Duration VIEW_URL_TTL = Duration.ofMinutes(10);
   private static final Duration UPLOAD_URL_TTL = Duration.ofMinutes(5);
 
+  // View urls are presigned once per key per bucket of this length and the
+  // same url is handed out for the rest of the bucket, so repeat requests skip
+  // the SigV4 signing and clients/CDNs see a stable url to cache against. A
+  // url handed out at the very end of its bucket still has VIEW_URL_TTL minus
+  // this left to run.
+  private static final Duration VIEW_URL_BUCKET = Duration.ofMinutes(5);
+
   private final S3Client s3Client;
   private final S3Presigner s3Presigner;
   private final String profileBucket;
   private final String imagesBucket;
+  private final NearCache<String, CachedViewUrl> viewUrlCache;
+  private final Counter viewUrlHits;
+  private final Counter viewUrlMisses;
+
+  private record CachedViewUrl(long bucket, ViewUrl viewUrl) {}
 
   public S3StorageService(
     S3Client s3Client,
     S3Presigner s3Presigner,
+    MeterRegistry meterRegistry,
     @Value("${aws.s3.bucket-name}") String profileBucket,
-    @Value("${aws.s3.posts-bucket-name}") String imagesBucket
+    @Value("${aws.s3.posts-bucket-name}") String imagesBucket,
+    @Value("${aws.s3.view-url-cache.max-entries:10000}") int viewUrlCacheSize
   ) {
     this.s3Client = s3Client;
     this.s3Presigner = s3Presigner;
     this.profileBucket = profileBucket;
     this.imagesBucket = imagesBucket;
+    this.viewUrlCache = new NearCache<>(viewUrlCacheSize, VIEW_URL_BUCKET);
+    this.viewUrlHits = meterRegistry.counter(
+      "s3.view_url.cache",
+      "result",
+      "hit"
+    );
+    this.viewUrlMisses = meterRegistry.counter(
+      "s3.view_url.cache",
+      "result",
+      "miss"
+    );
   }
 
   /**
@@ -85,9 +117,25 @@ public class S3StorageService {
 
   // --- Viewing (both profile pics and post/workout images) -----------------
 
-  /** Mint a short-lived presigned GET url for a stored key. */
+  /** A short-lived presigned GET url for a stored key. */
   public String generateViewUrl(String key) {
+    return viewUrl(key).url();
+  }
+
+  /**
+   * A presigned GET url for a stored key and when it expires. Identical for
+   * every call on this instance within the current time bucket.
+   */
+  public ViewUrl viewUrl(String key) {
     String bucket = bucketForKey(key);
+    long timeBucket = System.currentTimeMillis() / VIEW_URL_BUCKET.toMillis();
+    CachedViewUrl cached = viewUrlCache.get(key);
+    if (cached != null && cached.bucket() == timeBucket) {
+      viewUrlHits.increment();
+      return cached.viewUrl();
+    }
+    viewUrlMisses.increment();
+
     GetObjectRequest getRequest = GetObjectRequest.builder()
       .bucket(bucket)
       .key(key)
@@ -98,7 +146,41 @@ public class S3StorageService {
       .getObjectRequest(getRequest)
       .build();
 
-    return s3Presigner.presignGetObject(presignRequest).url().toString();
+    PresignedGetObjectRequest presigned = s3Presigner.presignGetObject(
+      presignRequest
+    );
+    ViewUrl viewUrl = new ViewUrl(
+      presigned.url().toString(),
+      presigned.expiration()
+    );
+    viewUrlCache.put(key, new CachedViewUrl(timeBucket, viewUrl));
+    return viewUrl;
+  }
+
+  /**
+   * View urls for many keys, each distinct key signed once. Null and
+   * unrecognized keys are left out. Urls are reused within a time bucket, so
+   * they expire at different times; expiresAt is the soonest, for clients to
+   * refresh before any of them lapses.
+   */
+  public ViewUrls viewUrls(Collection<String> keys) {
+    Map<String, String> urls = new LinkedHashMap<>();
+    Instant expiresAt = Instant.now().plus(VIEW_URL_TTL);
+    for (String key : keys) {
+      if (key == null || urls.containsKey(key)) {
+        continue;
+      }
+      try {
+        ViewUrl viewUrl = viewUrl(key);
+        urls.put(key, viewUrl.url());
+        if (viewUrl.expiresAt().isBefore(expiresAt)) {
+          expiresAt = viewUrl.expiresAt();
+        }
+      } catch (IllegalArgumentException ignored) {
+        // Unrecognized key; the client renders a placeholder.
+      }
+    }
+    return new ViewUrls(urls, expiresAt);
   }
 
   // --- Profile pictures (proxy/multipart upload kept; stored as key) --------
@@ -121,6 +203,9 @@ public class S3StorageService {
       .build();
 
     s3Client.putObject(putRequest, RequestBody.fromBytes(imageBytes));
+    // Same key, new bytes: stop handing out the url clients cached the old
+    // picture under.
+    viewUrlCache.invalidate(key);
 
     return key;
   }
@@ -162,6 +247,7 @@ public class S3StorageService {
       .build();
 
     String url = s3Presigner.presignPutObject(presignRequest).url().toString();
+    viewUrlCache.invalidate(key);
     return new PresignedUpload(key, url);
   }
 
@@ -332,9 +418,14 @@ public class S3StorageService {
       .key(key)
       .build();
     s3Client.deleteObject(deleteRequest);
+    viewUrlCache.invalidate(key);
   }
 
   public record PresignedUpload(String key, String url) {}
 
+  public record ViewUrl(String url, Instant expiresAt) {}
+
+  public record ViewUrls(Map<String, String> urls, Instant expiresAt) {}
+
   public record ObjectMetadata(String contentType, long contentLength) {}
 }
@@ -1,13 +1,14 @@
 package com.gearfitness.gear_api.service;
 
+import com.gearfitness.gear_api.dto.FeedPageDTO;
 import com.gearfitness.gear_api.dto.FeedPostDTO;
 import com.gearfitness.gear_api.entity.Post;
 import com.gearfitness.gear_api.repository.AppUserRepository;
 import com.gearfitness.gear_api.repository.FollowRepository;
-import com.gearfitness.gear_api.repository.PostCommentRepository;
 import com.gearfitness.gear_api.repository.PostLikeRepository;
 import com.gearfitness.gear_api.repository.PostRepository;
 import jakarta.transaction.Transactional;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -16,10 +17,13 @@ import java.util.UUID;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 
 @Service
@@ -29,62 +33,40 @@ public class SocialFeedService {
 
   private final PostRepository postRepository;
   private final PostLikeRepository postLikeRepository;
-  private final PostCommentRepository postCommentRepository;
   private final AppUserRepository appUserRepository;
   private final PostVisibilityService postVisibilityService;
   private final FollowRepository followRepository;
+  private final TimelineService timelineService;
+  private final RelationshipCache relationshipCache;
+  private final DiscoverRankService discoverRankService;
+
+  /** Upper bound on cursor-mode page size. */
+  private static final int MAX_PAGE_SIZE = 50;
 
   public Page<FeedPostDTO> getFeed(UUID userId, int page, int size) {
     Pageable pageable = PageRequest.of(page, size);
-    Page<Post> posts = postRepository.findFollowedUsersPosts(userId, pageable);
-
-    List<UUID> postIds = posts
-      .getContent()
-      .stream()
-      .map(Post::getPostId)
-      .collect(Collectors.toList());
-    Map<UUID, Long> likeCounts = postLikeRepository.countByPostIds(postIds);
-    Map<UUID, Long> commentCounts = postCommentRepository.countByPostIds(
-      postIds
-    );
-    Set<UUID> likedPostIds = postLikeRepository.findPostIdsLikedByUser(
-      userId,
-      postIds
-    );
-    Set<UUID> followedAuthorIds = followRepository.findFollowedAuthorIds(
+    Page<Post> posts = postRepository.findFollowedUsersPosts(
       userId,
-      authorIds(posts)
+      relationshipCache.get(userId).blockedIds(),
+      pageable
     );
-
-    return posts.map(post ->
-      mapToDTO(post, likeCounts, commentCounts, likedPostIds, followedAuthorIds)
+    return new PageImpl<>(
+      mapPosts(posts.getContent(), userId),
+      pageable,
+      posts.getTotalElements()
     );
   }
 
   public Page<FeedPostDTO> getDiscoverFeed(UUID userId, int page, int size) {
     Pageable pageable = PageRequest.of(page, size);
-    Page<Post> posts = postRepository.findDiscoverPosts(userId, pageable);
-
-    List<UUID> postIds = posts
-      .getContent()
-      .stream()
-      .map(Post::getPostId)
-      .collect(Collectors.toList());
-    Map<UUID, Long> likeCounts = postLikeRepository.countByPostIds(postIds);
-    Map<UUID, Long> commentCounts = postCommentRepository.countByPostIds(
-      postIds
-    );
-    Set<UUID> likedPostIds = postLikeRepository.findPostIdsLikedByUser(
-      userId,
-      postIds
-    );
-    Set<UUID> followedAuthorIds = followRepository.findFollowedAuthorIds(
-      userId,
-      authorIds(posts)
+    Page<Post> posts = postRepository.findDiscoverPosts(
+      relationshipCache.get(userId).blockedIds(),
+      pageable
     );
-
-    return posts.map(post ->
-      mapToDTO(post, likeCounts, commentCounts, likedPostIds, followedAuthorIds)
+    return new PageImpl<>(
+      mapPosts(posts.getContent(), userId),
+      pageable,
+      posts.getTotalElements()
     );
   }
 
@@ -95,33 +77,156 @@ public class SocialFeedService {
     int size
   ) {
     Pageable pageable = PageRequest.of(page, size);
+    if (relationshipCache.isBlocked(viewingUserId, targetUserId)) {
+      return Page.empty(pageable);
+    }
     Page<Post> posts = postRepository.findPostsByUser(
       targetUserId,
       viewingUserId,
+      relationshipCache.isMutualFollow(viewingUserId, targetUserId),
       pageable
     );
+    return new PageImpl<>(
+      mapPosts(posts.getContent(), viewingUserId),
+      pageable,
+      posts.getTotalElements()
+    );
+  }
 
-    List<UUID> postIds = posts
-      .getContent()
-      .stream()
-      .map(Post::getPostId)
-      .collect(Collectors.toList());
-    Map<UUID, Long> likeCounts = postLikeRepository.countByPostIds(postIds);
-    Map<UUID, Long> commentCounts = postCommentRepository.countByPostIds(
-      postIds
+  /**
+   * Cursor-paginated following feed, read from the materialized home timeline
+   * (see TimelineService) rather than the followee/block subquery over post.
+   * Seeks past the cursor on (createdAt, postId), so deep pages cost the same
+   * as the first, and no COUNT query runs.
+   */
+  public FeedPageDTO getFeedAfter(UUID userId, String cursor, int size) {
+    FeedCursor position = decodeCursor(cursor);
+    int limit = clampSize(size);
+    TimelineService.TimelinePage page = timelineService.readPage(
+      userId,
+      position,
+      limit
     );
-    Set<UUID> likedPostIds = postLikeRepository.findPostIdsLikedByUser(
-      viewingUserId,
-      postIds
+    return FeedPageDTO.builder()
+      .posts(mapPosts(page.posts(), userId))
+      .nextCursor(page.nextCursor() != null ? page.nextCursor().encode() : null)
+      .hasMore(page.nextCursor() != null)
+      .build();
+  }
+
+  /**
+   * Cursor-paginated discover feed, ranked by trending score rather than
+   * recency: pages through the current discover_rank snapshot (see
+   * DiscoverRankService). A cursor keeps paging the snapshot it started on
+   * until that is pruned, then starts over from the top of the newest.
+   * Blocks, visibility and privacy are re-checked on each page only, since
+   * the snapshot can be a few minutes old; a page that loses posts to that is
+   * topped up from further down the ranking.
+   */
+  public FeedPageDTO getDiscoverFeedAfter(
+    UUID userId,
+    String cursor,
+    int size
+  ) {
+    DiscoverCursor position;
+    try {
+      position = DiscoverCursor.decode(cursor);
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(
+        HttpStatus.BAD_REQUEST,
+        "Invalid cursor"
+      );
+    }
+    int limit = clampSize(size);
+    // A position only means something within its own ranking: a cursor whose
+    // snapshot was pruned starts over at the top of the newest one.
+    boolean restart = position.isStart() ||
+      !discoverRankService.hasGeneration(position.generation());
+    long generation = restart
+      ? discoverRankService.currentGeneration()
+      : position.generation();
+    RelationshipCache.Relationships relationships = relationshipCache.get(
+      userId
     );
-    Set<UUID> followedAuthorIds = followRepository.findFollowedAuthorIds(
-      viewingUserId,
-      authorIds(posts)
+
+    // One past the page, as with the seek queries, to know there is more.
+    List<Post> posts = new ArrayList<>();
+    List<Integer> positions = new ArrayList<>();
+    int after = restart ? 0 : position.position();
+    boolean exhausted = false;
+    while (posts.size() <= limit && !exhausted) {
+      List<DiscoverRankService.RankedPost> ranked = discoverRankService.page(
+        generation,
+        after,
+        limit + 1
+      );
+      exhausted = ranked.size() <= limit;
+      Map<UUID, Post> loaded = postRepository
+        .findAllById(
+          ranked
+            .stream()
+            .filter(entry -> !relationships.isBlocked(entry.authorId()))
+            .map(DiscoverRankService.RankedPost::postId)
+            .toList()
+        )
+        .stream()
+        .collect(Collectors.toMap(Post::getPostId, post -> post));
+      for (DiscoverRankService.RankedPost entry : ranked) {
+        after = entry.position();
+        Post post = loaded.get(entry.postId());
+        if (post == null || !isDiscoverable(post)) {
+          continue;
+        }
+        posts.add(post);
+        positions.add(entry.position());
+        if (posts.size() > limit) {
+          break;
+        }
+      }
+    }
+
+    boolean hasMore = posts.size() > limit;
+    List<Post> page = hasMore ? posts.subList(0, limit) : posts;
+    return FeedPageDTO.builder()
+      .posts(mapPosts(page, userId))
+      .nextCursor(
+        hasMore
+          ? new DiscoverCursor(generation, positions.get(limit - 1)).encode()
+          : null
+      )
+      .hasMore(hasMore)
+      .build();
+  }
+
+  /** Still PUBLIC and from a public account, as when it was ranked. */
+  private static boolean isDiscoverable(Post post) {
+    return (
+      post.getVisibility() == Post.PostVisibility.PUBLIC &&
+      !Boolean.TRUE.equals(post.getUser().getIsPrivate())
     );
+  }
 
-    return posts.map(post ->
-      mapToDTO(post, likeCounts, commentCounts, likedPostIds, followedAuthorIds)
+  /** Cursor-paginated profile posts; see getFeedAfter. */
+  public FeedPageDTO getUserPostsAfter(
+    UUID targetUserId,
+    UUID viewingUserId,
+    String cursor,
+    int size
+  ) {
+    FeedCursor position = decodeCursor(cursor);
+    int limit = clampSize(size);
+    if (relationshipCache.isBlocked(viewingUserId, targetUserId)) {
+      return FeedPageDTO.builder().posts(List.of()).hasMore(false).build();
+    }
+    List<Post> posts = postRepository.findPostsByUserBefore(
+      targetUserId,
+      viewingUserId,
+      relationshipCache.isMutualFollow(viewingUserId, targetUserId),
+      position.createdAt(),
+      position.postId(),
+      PageRequest.of(0, limit + 1)
     );
+    return toFeedPage(posts, limit, viewingUserId);
   }
 
   public FeedPostDTO getPost(UUID postId, UUID viewingUserId) {
@@ -134,10 +239,6 @@ public class SocialFeedService {
     postVisibilityService.assertCanView(post, viewingUserId);
 
     List<UUID> postIds = Collections.singletonList(postId);
-    Map<UUID, Long> likeCounts = postLikeRepository.countByPostIds(postIds);
-    Map<UUID, Long> commentCounts = postCommentRepository.countByPostIds(
-      postIds
-    );
     Set<UUID> likedPostIds = postLikeRepository.findPostIdsLikedByUser(
       viewingUserId,
       postIds
@@ -147,29 +248,82 @@ public class SocialFeedService {
       Collections.singletonList(post.getUser().getUserId())
     );
 
-    return mapToDTO(
-      post,
-      likeCounts,
-      commentCounts,
-      likedPostIds,
-      followedAuthorIds
+    return mapToDTO(post, likedPostIds, followedAuthorIds);
+  }
+
+  private static FeedCursor decodeCursor(String cursor) {
+    try {
+      return FeedCursor.decode(cursor);
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(
+        HttpStatus.BAD_REQUEST,
+        "Invalid cursor"
+      );
+    }
+  }
+
+  private static int clampSize(int size) {
+    return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+  }
+
+  /**
+   * The seek queries fetch one row past the page; its presence means there is
+   * another page, and the last row actually returned becomes the next cursor.
+   */
+  private FeedPageDTO toFeedPage(List<Post> posts, int limit, UUID viewerId) {
+    boolean hasMore = posts.size() > limit;
+    List<Post> page = hasMore ? posts.subList(0, limit) : posts;
+    String nextCursor = null;
+    if (hasMore) {
+      Post last = page.get(page.size() - 1);
+      nextCursor = new FeedCursor(
+        last.getCreatedAt(),
+        last.getPostId()
+      ).encode();
+    }
+    return FeedPageDTO.builder()
+      .posts(mapPosts(page, viewerId))
+      .nextCursor(nextCursor)
+      .hasMore(hasMore)
+      .build();
+  }
+
+  /**
+   * Map a page of posts to DTOs, resolving the viewer's likes and follow
+   * state in one batched query each. Like/comment counts are read off the
+   * post rows themselves (V61).
+   */
+  private List<FeedPostDTO> mapPosts(List<Post> posts, UUID viewerId) {
+    List<UUID> postIds = posts
+      .stream()
+      .map(Post::getPostId)
+      .collect(Collectors.toList());
+    Set<UUID> likedPostIds = postLikeRepository.findPostIdsLikedByUser(
+      viewerId,
+      postIds
+    );
+    Set<UUID> followedAuthorIds = followRepository.findFollowedAuthorIds(
+      viewerId,
+      authorIds(posts)
     );
+
+    return posts
+      .stream()
+      .map(post -> mapToDTO(post, likedPostIds, followedAuthorIds))
+      .collect(Collectors.toList());
   }
 
   /** Distinct author ids across a page of posts, for batched follow lookups. */
-  private List<UUID> authorIds(Page<Post> posts) {
+  private List<UUID> authorIds(List<Post> posts) {
     return posts
-      .getContent()
       .stream()
       .map(post -> post.getUser().getUserId())
       .distinct()
       .collect(Collectors.toList());
   }
 
-  private FeedPostDTO mapToDTO(
+  FeedPostDTO mapToDTO(
     Post post,
-    Map<UUID, Long> likeCounts,
-    Map<UUID, Long> commentCounts,
     Set<UUID> likedPostIds,
     Set<UUID> followedAuthorIds
   ) {
@@ -205,8 +359,8 @@ public class SocialFeedService {
           .mapToLong(exercise -> exercise.getWorkoutSets().size())
           .sum()
       )
-      .likeCount(likeCounts.getOrDefault(post.getPostId(), 0L))
-      .commentCount(commentCounts.getOrDefault(post.getPostId(), 0L))
+      .likeCount(post.getLikeCount().longValue())
+      .commentCount(post.getCommentCount().longValue())
       .likedByCurrentUser(likedPostIds.contains(post.getPostId()))
       .visibility(
         post.getVisibility() != null ? post.getVisibility().name() : "PUBLIC"
@@ -232,7 +386,24 @@ public class SocialFeedService {
       throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not your post");
     }
 
+    Post.PostVisibility previous = post.getVisibility();
     post.setVisibility(Post.PostVisibility.valueOf(visibility));
     postRepository.save(post);
+
+    // A post made non-private was never fanned out; push it now. Posts made
+    // private stay in timelines and are dropped by the read-time re-check.
+    if (
+      previous == Post.PostVisibility.PRIVATE &&
+      post.getVisibility() != Post.PostVisibility.PRIVATE
+    ) {
+      TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            timelineService.fanOutPost(postId, userId);
+          }
+        }
+      );
+    }
   }
 }
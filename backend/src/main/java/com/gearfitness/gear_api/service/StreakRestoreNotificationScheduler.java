@@ -6,6 +6,9 @@ import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -30,7 +33,14 @@ public class StreakRestoreNotificationScheduler {
     int notified = 0;
     // The query already restricts to token-holders whose local hour is 0, so we
     // only load that small slice rather than every user, 24x/day.
-    for (AppUser user : appUserRepository.findPushNotifiableAtLocalMidnight()) {
+    List<AppUser> candidates =
+      appUserRepository.findPushNotifiableAtLocalMidnight();
+    // One query for every candidate's activity bitmap; eligibility is then a
+    // two-bit check per user instead of a date-range query each.
+    Map<UUID, ActivityBitmap> bitmaps = streakService.loadBitmaps(
+      candidates.stream().map(AppUser::getUserId).toList()
+    );
+    for (AppUser user : candidates) {
       try {
         ZoneId zone = resolveZone(user.getTimeZone());
         ZonedDateTime localNow = ZonedDateTime.now(zone);
@@ -42,7 +52,11 @@ public class StreakRestoreNotificationScheduler {
         }
 
         LocalDate localToday = localNow.toLocalDate();
-        if (!streakService.isRestoreAvailable(user, localToday)) {
+        ActivityBitmap bitmap = bitmaps.get(user.getUserId());
+        boolean available = bitmap != null
+          ? streakService.isRestoreAvailable(user, localToday, bitmap)
+          : streakService.isRestoreAvailable(user, localToday);
+        if (!available) {
           continue;
         }
 
@@ -5,31 +5,50 @@ import com.gearfitness.gear_api.entity.AppUser;
 import com.gearfitness.gear_api.entity.RestDay;
 import com.gearfitness.gear_api.entity.StreakRestore;
 import com.gearfitness.gear_api.entity.Tier;
+import com.gearfitness.gear_api.entity.UserActivityBitmap;
 import com.gearfitness.gear_api.repository.AppUserRepository;
 import com.gearfitness.gear_api.repository.RestDayRepository;
 import com.gearfitness.gear_api.repository.StreakRestoreRepository;
+import com.gearfitness.gear_api.repository.UserActivityBitmapRepository;
 import com.gearfitness.gear_api.repository.WorkoutRepository;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.ZoneOffset;
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Daily streaks. A day is active if it has a workout, a rest day or a streak
+ * restore; active days live in a per-user ActivityBitmap (user_activity_bitmap)
+ * that is updated on every write, so streak length and restore eligibility are
+ * bit scans rather than date-range queries. A user with no bitmap row yet is
+ * rebuilt from the three source tables (persisted on their next write).
+ */
 @Service
 @RequiredArgsConstructor
 public class StreakService {
 
+  private static final LocalDate HISTORY_START = LocalDate.ofEpochDay(
+    ActivityBitmap.MIN_DAY
+  );
+  private static final LocalDate HISTORY_END = LocalDate.ofEpochDay(
+    ActivityBitmap.MAX_DAY - 1
+  );
+
   private final AppUserRepository appUserRepository;
   private final WorkoutRepository workoutRepository;
   private final RestDayRepository restDayRepository;
   private final StreakRestoreRepository streakRestoreRepository;
+  private final UserActivityBitmapRepository userActivityBitmapRepository;
 
   @Transactional(readOnly = true)
   public StreakInfoDTO getStreakInfo(UUID userId, LocalDate today) {
@@ -45,7 +64,7 @@ public class StreakService {
       .currentStreak(user.getCurrentStreak())
       .longestStreak(user.getLongestStreak())
       .restoreTokensRemaining(getRestoreTokensRemaining(user, today))
-      .todayLogged(isTodayLogged(user, today))
+      .todayLogged(readBitmap(user).isSet(today))
       .lastStreakDate(user.getLastStreakDate())
       .build();
   }
@@ -76,6 +95,7 @@ public class StreakService {
       throw new IllegalStateException("Rest day already logged for today");
     }
 
+    recordActivity(user, today);
     recalculateStreak(user, today);
 
     return StreakInfoDTO.builder()
@@ -102,11 +122,12 @@ public class StreakService {
     LocalDate yesterday = today.minusDays(1);
     LocalDate dayBeforeYesterday = today.minusDays(2);
 
-    Set<LocalDate> window = getActiveDays(user, dayBeforeYesterday, yesterday);
-    if (window.contains(yesterday)) {
+    UserActivityBitmap row = lockBitmap(user);
+    ActivityBitmap bitmap = toBitmap(row);
+    if (bitmap.isSet(yesterday)) {
       throw new IllegalStateException("Streak is not broken");
     }
-    if (!window.contains(dayBeforeYesterday)) {
+    if (!bitmap.isSet(dayBeforeYesterday)) {
       throw new IllegalStateException("No active streak to restore");
     }
 
@@ -117,35 +138,29 @@ public class StreakService {
       .build();
     streakRestoreRepository.save(restore);
 
+    bitmap.set(yesterday);
+    store(row, bitmap);
     recalculateStreak(user, today);
 
     return StreakInfoDTO.builder()
       .currentStreak(user.getCurrentStreak())
       .longestStreak(user.getLongestStreak())
       .restoreTokensRemaining(getRestoreTokensRemaining(user, today))
-      .todayLogged(isTodayLogged(user, today))
+      .todayLogged(bitmap.isSet(today))
       .lastStreakDate(user.getLastStreakDate())
       .build();
   }
 
   @Transactional
   public void recalculateStreak(AppUser user, LocalDate today) {
-    int maxLookback = Math.max(user.getCurrentStreak() + 30, 365);
-    LocalDate lookbackStart = today.minusDays(maxLookback);
-
-    Set<LocalDate> activeDays = getActiveDays(user, lookbackStart, today);
+    ActivityBitmap activeDays = readBitmap(user);
 
     // Allow the chain to start at yesterday when today isn't logged yet —
     // today only counts as a break once the user's local day has actually ended.
-    LocalDate mostRecentActiveDay = activeDays.contains(today)
+    LocalDate mostRecentActiveDay = activeDays.isSet(today)
       ? today
       : today.minusDays(1);
-    LocalDate date = mostRecentActiveDay;
-    int streak = 0;
-    while (activeDays.contains(date)) {
-      streak++;
-      date = date.minusDays(1);
-    }
+    int streak = activeDays.runEndingAt(mostRecentActiveDay);
 
     user.setCurrentStreak(streak);
     // Anchor lastStreakDate to the chain's most recent active day, NOT the
@@ -171,38 +186,155 @@ public class StreakService {
     recalculateStreak(user, today);
   }
 
-  private Set<LocalDate> getActiveDays(
+  /** Mark a day active for a new workout (submitted or imported). */
+  @Transactional
+  public void recordActivity(AppUser user, LocalDate date) {
+    recordActivity(user, List.of(date));
+  }
+
+  /** Mark many days active in one locked read-modify-write (bulk import). */
+  @Transactional
+  public void recordActivity(AppUser user, Collection<LocalDate> dates) {
+    UserActivityBitmap row = lockBitmap(user);
+    ActivityBitmap bitmap = toBitmap(row);
+    boolean changed = false;
+    for (LocalDate date : dates) {
+      if (!bitmap.isSet(date)) {
+        bitmap.set(date);
+        changed = true;
+      }
+    }
+    if (changed) {
+      store(row, bitmap);
+    }
+  }
+
+  /**
+   * A workout dated {@code date} was deleted (and flushed). The day stays
+   * active only if something else still happened on it.
+   */
+  @Transactional
+  public void onWorkoutDeleted(AppUser user, LocalDate date) {
+    UserActivityBitmap row = lockBitmap(user);
+    ActivityBitmap bitmap = toBitmap(row);
+    if (
+      bitmap.isSet(date) &&
+      !workoutRepository.existsByUserAndDatePerformed(user, date) &&
+      !restDayRepository.existsByUserAndDate(user, date) &&
+      !streakRestoreRepository.existsByUserAndRestoredDate(user, date)
+    ) {
+      bitmap.clear(date);
+      store(row, bitmap);
+    }
+  }
+
+  /**
+   * Stored bitmaps for a batch of users in one query. A user without a row
+   * (not expected since V55) is absent from the map;
+   * isRestoreAvailable(user, today) rebuilds those.
+   */
+  @Transactional(readOnly = true)
+  public Map<UUID, ActivityBitmap> loadBitmaps(Collection<UUID> userIds) {
+    Map<UUID, ActivityBitmap> bitmaps = new HashMap<>();
+    for (UserActivityBitmap row : userActivityBitmapRepository.findAllById(
+      userIds
+    )) {
+      bitmaps.put(row.getUserId(), toBitmap(row));
+    }
+    return bitmaps;
+  }
+
+  @Transactional(readOnly = true)
+  public boolean isRestoreAvailable(AppUser user, LocalDate today) {
+    if (!user.getTier().atLeast(Tier.PLUS)) {
+      return false;
+    }
+    return isRestoreAvailable(user, today, readBitmap(user));
+  }
+
+  /**
+   * Restore eligibility against an already-loaded bitmap: yesterday missed,
+   * the day before active, and a token left. The token count is the only
+   * query, and runs only for users whose bits qualify.
+   */
+  public boolean isRestoreAvailable(
     AppUser user,
-    LocalDate start,
-    LocalDate end
+    LocalDate today,
+    ActivityBitmap bitmap
   ) {
+    if (!user.getTier().atLeast(Tier.PLUS)) {
+      return false;
+    }
+    if (bitmap.isSet(today.minusDays(1)) || !bitmap.isSet(today.minusDays(2))) {
+      return false;
+    }
+    return getRestoreTokensRemaining(user, today) > 0;
+  }
+
+  /**
+   * The user's bitmap. V55 gives every user a row, so the rebuild from
+   * history (in memory, not saved) only covers a row that has gone missing.
+   */
+  private ActivityBitmap readBitmap(AppUser user) {
+    return userActivityBitmapRepository
+      .findById(user.getUserId())
+      .map(StreakService::toBitmap)
+      .orElseGet(() -> buildFromHistory(user));
+  }
+
+  /** Lock the user's bitmap row for update, creating it from history first. */
+  private UserActivityBitmap lockBitmap(AppUser user) {
+    Optional<UserActivityBitmap> row = userActivityBitmapRepository.findForUpdate(
+      user.getUserId()
+    );
+    if (row.isPresent()) {
+      return row.get();
+    }
+    ActivityBitmap built = buildFromHistory(user);
+    userActivityBitmapRepository.insertIfAbsent(
+      user.getUserId(),
+      (int) built.baseDay(),
+      built.toBytes()
+    );
+    return userActivityBitmapRepository
+      .findForUpdate(user.getUserId())
+      .orElseThrow();
+  }
+
+  private void store(UserActivityBitmap row, ActivityBitmap bitmap) {
+    row.setBaseDay((int) bitmap.baseDay());
+    row.setBits(bitmap.toBytes());
+    userActivityBitmapRepository.save(row);
+  }
+
+  private static ActivityBitmap toBitmap(UserActivityBitmap row) {
+    return ActivityBitmap.of(row.getBaseDay(), row.getBits());
+  }
+
+  private ActivityBitmap buildFromHistory(AppUser user) {
+    ActivityBitmap bitmap = ActivityBitmap.empty();
     List<LocalDate> workoutDates =
-      workoutRepository.findDistinctDatesByUserAndDateBetween(user, start, end);
+      workoutRepository.findDistinctDatesByUserAndDateBetween(
+        user,
+        HISTORY_START,
+        HISTORY_END
+      );
     List<LocalDate> restDayDates =
-      restDayRepository.findDatesByUserAndDateBetween(user, start, end);
+      restDayRepository.findDatesByUserAndDateBetween(
+        user,
+        HISTORY_START,
+        HISTORY_END
+      );
     List<LocalDate> restoredDates =
       streakRestoreRepository.findRestoredDatesByUserAndDateBetween(
         user,
-        start,
-        end
+        HISTORY_START,
+        HISTORY_END
       );
-
-    Set<LocalDate> activeDays = new HashSet<>();
-    activeDays.addAll(workoutDates);
-    activeDays.addAll(restDayDates);
-    activeDays.addAll(restoredDates);
-    return activeDays;
-  }
-
-  @Transactional(readOnly = true)
-  public boolean isRestoreAvailable(AppUser user, LocalDate today) {
-    if (getRestoreTokensRemaining(user, today) <= 0) {
-      return false;
-    }
-    LocalDate yesterday = today.minusDays(1);
-    LocalDate dayBeforeYesterday = today.minusDays(2);
-    Set<LocalDate> window = getActiveDays(user, dayBeforeYesterday, yesterday);
-    return !window.contains(yesterday) && window.contains(dayBeforeYesterday);
+    workoutDates.forEach(bitmap::set);
+    restDayDates.forEach(bitmap::set);
+    restoredDates.forEach(bitmap::set);
+    return bitmap;
   }
 
   private int getRestoreTokensRemaining(AppUser user, LocalDate today) {
@@ -224,13 +356,6 @@ public class StreakService {
     return Math.max(0, 4 - (int) usedThisMonth);
   }
 
-  private boolean isTodayLogged(AppUser user, LocalDate today) {
-    return (
-      workoutRepository.existsByUserAndDatePerformed(user, today) ||
-      restDayRepository.existsByUserAndDate(user, today)
-    );
-  }
-
   /**
    * Recompute the streak if it may have broken since it was last touched.
    * Public so read paths that surface the streak (profile stats, dropdown) can
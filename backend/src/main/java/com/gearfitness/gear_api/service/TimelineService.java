@@ -0,0 +1,331 @@
+package com.gearfitness.gear_api.service;
+
+import com.gearfitness.gear_api.entity.HomeTimelineEntry;
+import com.gearfitness.gear_api.entity.Post;
+import com.gearfitness.gear_api.repository.FollowRepository;
+import com.gearfitness.gear_api.repository.HomeTimelineRepository;
+import com.gearfitness.gear_api.repository.PostRepository;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Maintains and reads the materialized following timeline (home_timeline).
+ *
+ * <p>Writes: a new post is fanned out to its author's accepted followers after
+ * the submit commits; follow/accept seeds the follower's timeline with the
+ * followee's recent posts; unfollow/block prune the author's rows. Authors
+ * with more than {@code feed.timeline.fanout-max-followers} followers are not
+ * fanned out at all — their posts are merged in at read time instead, so one
+ * post from a large account never turns into tens of thousands of inserts.
+ *
+ * <p>Reads: keyset range scans of the owner's rows (plus the large-account
+ * merge), with visibility re-checked only for the entries being returned.
+ * Timelines are trimmed to {@code feed.timeline.max-entries}, so the feed
+ * bottoms out after that many posts.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TimelineService {
+
+  /**
+   * Postgres orders uuid by unsigned bytes; UUID.compareTo is signed. Ties on
+   * createdAt must break the same way the seek queries do.
+   */
+  static final Comparator<UUID> PG_UUID_ORDER = Comparator.comparing(
+    UUID::getMostSignificantBits,
+    Long::compareUnsigned
+  ).thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+  private static final Comparator<HomeTimelineEntry> NEWEST_FIRST = Comparator
+    .comparing(HomeTimelineEntry::getCreatedAt)
+    .thenComparing(HomeTimelineEntry::getPostId, PG_UUID_ORDER)
+    .reversed();
+
+  // Windows read per page before returning a short one.
+  private static final int MAX_FILL_ROUNDS = 5;
+
+  private final HomeTimelineRepository homeTimelineRepository;
+  private final FollowRepository followRepository;
+  private final PostRepository postRepository;
+
+  @Value("${feed.timeline.max-entries:800}")
+  private int maxEntries;
+
+  @Value("${feed.timeline.fanout-max-followers:5000}")
+  private int fanoutMaxFollowers;
+
+  @Value("${feed.timeline.follow-backfill:50}")
+  private int followBackfill;
+
+  // Refreshed by refreshLargeAccounts; swapped whole, never mutated.
+  private volatile Set<UUID> largeAccountIds = Set.of();
+
+  /** A page of visible posts plus the cursor for the next page (null at end). */
+  public record TimelinePage(List<Post> posts, FeedCursor nextCursor) {}
+
+  /**
+   * Push a committed post into its author's followers' timelines. Async and in
+   * its own transaction so a big fan-out never delays the submit response.
+   */
+  @Async
+  @Transactional
+  public void fanOutPost(UUID postId, UUID authorId) {
+    if (largeAccountIds.contains(authorId)) {
+      return; // merged at read time
+    }
+    try {
+      homeTimelineRepository.fanOut(postId);
+    } catch (Exception e) {
+      log.warn("Timeline fan-out failed for post {}", postId, e);
+    }
+  }
+
+  /** A follow edge became ACCEPTED (direct follow or accepted request). */
+  @Transactional
+  public void onFollowAccepted(UUID followerId, UUID followeeId) {
+    if (largeAccountIds.contains(followeeId)) {
+      return;
+    }
+    homeTimelineRepository.backfillFromAuthor(
+      followerId,
+      followeeId,
+      followBackfill
+    );
+  }
+
+  @Transactional
+  public void onUnfollow(UUID followerId, UUID followeeId) {
+    homeTimelineRepository.deleteByOwnerAndAuthor(followerId, followeeId);
+  }
+
+  /** Blocking severs follows both ways, so prune both timelines. */
+  @Transactional
+  public void onBlock(UUID blockerId, UUID targetId) {
+    homeTimelineRepository.deleteByOwnerAndAuthor(blockerId, targetId);
+    homeTimelineRepository.deleteByOwnerAndAuthor(targetId, blockerId);
+  }
+
+  /**
+   * Fills the page from successive windows of the merged timeline until it
+   * has limit + 1 visible posts or the timeline runs out, so posts dropped by
+   * the visibility re-check never leave a short page with more behind it.
+   * After MAX_FILL_ROUNDS windows it returns what it has, with the cursor at
+   * the last entry examined, rather than scanning an unbounded history.
+   */
+  @Transactional(readOnly = true)
+  public TimelinePage readPage(UUID ownerId, FeedCursor position, int limit) {
+    Set<UUID> followedLarge = largeAccountIds.isEmpty()
+      ? Set.of()
+      : followRepository.findFollowedAuthorIds(
+          ownerId,
+          new ArrayList<>(largeAccountIds)
+        );
+
+    List<Post> visible = new ArrayList<>();
+    FeedCursor seek = position;
+    boolean exhausted = false;
+    for (
+      int round = 0;
+      round < MAX_FILL_ROUNDS && !exhausted && visible.size() <= limit;
+      round++
+    ) {
+      Map<UUID, Post> loaded = new LinkedHashMap<>();
+      List<HomeTimelineEntry> window = readWindow(
+        ownerId,
+        followedLarge,
+        seek,
+        limit + 1,
+        loaded
+      );
+      // Both sources were asked for limit + 1; fewer back means both are done.
+      exhausted = window.size() <= limit;
+      if (window.isEmpty()) {
+        break;
+      }
+      HomeTimelineEntry last = window.get(window.size() - 1);
+      seek = new FeedCursor(last.getCreatedAt(), last.getPostId());
+      visible.addAll(filterVisible(ownerId, loadPosts(window, loaded)));
+    }
+
+    if (visible.size() > limit) {
+      Post last = visible.get(limit - 1);
+      return new TimelinePage(
+        new ArrayList<>(visible.subList(0, limit)),
+        new FeedCursor(last.getCreatedAt(), last.getPostId())
+      );
+    }
+    return new TimelinePage(visible, exhausted ? null : seek);
+  }
+
+  /**
+   * Up to size entries strictly before the cursor: the owner's timeline rows
+   * merged with posts from the large accounts they follow (fan-out-on-read),
+   * newest first. Posts read for the merge are put into loaded.
+   */
+  private List<HomeTimelineEntry> readWindow(
+    UUID ownerId,
+    Set<UUID> followedLarge,
+    FeedCursor seek,
+    int size,
+    Map<UUID, Post> loaded
+  ) {
+    PageRequest window = PageRequest.of(0, size);
+    List<HomeTimelineEntry> entries = new ArrayList<>(
+      homeTimelineRepository.findPageBefore(
+        ownerId,
+        seek.createdAt(),
+        seek.postId(),
+        window
+      )
+    );
+    if (!followedLarge.isEmpty()) {
+      for (Post post : postRepository.findByAuthorsBefore(
+        followedLarge,
+        seek.createdAt(),
+        seek.postId(),
+        window
+      )) {
+        loaded.put(post.getPostId(), post);
+        entries.add(
+          HomeTimelineEntry.builder()
+            .ownerId(ownerId)
+            .postId(post.getPostId())
+            .authorId(post.getUser().getUserId())
+            .createdAt(post.getCreatedAt())
+            .build()
+        );
+      }
+    }
+
+    // De-duplicate (a large account may still have pre-threshold rows).
+    return entries
+      .stream()
+      .collect(
+        Collectors.toMap(
+          HomeTimelineEntry::getPostId,
+          Function.identity(),
+          (a, b) -> a,
+          LinkedHashMap::new
+        )
+      )
+      .values()
+      .stream()
+      .sorted(NEWEST_FIRST)
+      .limit(size)
+      .collect(Collectors.toList());
+  }
+
+  /** The window's posts in order, loading any the merge did not. */
+  private List<Post> loadPosts(
+    List<HomeTimelineEntry> window,
+    Map<UUID, Post> loaded
+  ) {
+    List<UUID> missing = window
+      .stream()
+      .map(HomeTimelineEntry::getPostId)
+      .filter(id -> !loaded.containsKey(id))
+      .collect(Collectors.toList());
+    if (!missing.isEmpty()) {
+      // Hidden/moderated posts are filtered out here by Post's @SQLRestriction.
+      for (Post post : postRepository.findAllById(missing)) {
+        loaded.put(post.getPostId(), post);
+      }
+    }
+    return window
+      .stream()
+      .map(entry -> loaded.get(entry.getPostId()))
+      .filter(post -> post != null)
+      .collect(Collectors.toList());
+  }
+
+  /**
+   * Re-check visibility for one page with two batched queries: the owner must
+   * still follow the author (block and unfollow both remove that edge), and
+   * FRIENDS posts additionally need the author to follow the owner back.
+   */
+  private List<Post> filterVisible(UUID ownerId, List<Post> posts) {
+    if (posts.isEmpty()) {
+      return posts;
+    }
+    List<UUID> authorIds = posts
+      .stream()
+      .map(post -> post.getUser().getUserId())
+      .distinct()
+      .collect(Collectors.toList());
+    Set<UUID> followed = followRepository.findFollowedAuthorIds(
+      ownerId,
+      authorIds
+    );
+    Set<UUID> followingBack = new HashSet<>(
+      followRepository.findAuthorIdsFollowingViewer(ownerId, authorIds)
+    );
+
+    return posts
+      .stream()
+      .filter(post -> {
+        UUID authorId = post.getUser().getUserId();
+        if (!followed.contains(authorId)) return false;
+        return switch (post.getVisibility()) {
+          case PUBLIC -> true;
+          case FRIENDS -> followingBack.contains(authorId);
+          case PRIVATE -> false;
+        };
+      })
+      .collect(Collectors.toList());
+  }
+
+  /**
+   * Runs at startup and every 10 minutes. An account that drops back under
+   * the threshold is no longer merged at read time, so its recent posts are
+   * backfilled into its followers' timelines.
+   */
+  @Scheduled(fixedDelay = 600_000)
+  public void refreshLargeAccounts() {
+    try {
+      Set<UUID> current = Set.copyOf(
+        followRepository.findUserIdsWithFollowersOver(fanoutMaxFollowers)
+      );
+      Set<UUID> previous = largeAccountIds;
+      // Swap first so the account's new posts fan out; the backfill then
+      // covers everything before.
+      largeAccountIds = current;
+      for (UUID authorId : previous) {
+        if (!current.contains(authorId)) {
+          homeTimelineRepository.backfillFollowersFromAuthor(
+            authorId,
+            followBackfill
+          );
+        }
+      }
+    } catch (Exception e) {
+      log.warn("Failed to refresh large-account set", e);
+    }
+  }
+
+  /** Hourly, offset from the account purge. */
+  @Scheduled(cron = "0 30 * * * *")
+  @Transactional
+  public void trimTimelines() {
+    int removed = homeTimelineRepository.trimToMaxEntries(maxEntries);
+    if (removed > 0) {
+      log.info("Trimmed {} home timeline row(s)", removed);
+    }
+  }
+}
@@ -0,0 +1,230 @@
+package com.gearfitness.gear_api.service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-memory typeahead index over lowercased usernames and display names, so
+ * user search answers a keystroke with a prefix range scan instead of the
+ * trigram query in AppUserRepository.rankedSearch, at a cost that does not
+ * grow with the user table.
+ *
+ * <p>Terms are kept in one sorted map: each user's username, display name and
+ * every later word of the display name, keyed "term\0userId". A query's
+ * matches are the contiguous range starting at the query, exact terms first.
+ * Match tiers follow rankedSearch: exact 100, prefix 80, word-start 60.
+ *
+ * <p>Each instance loads the index on its first sync and then polls app_user
+ * for rows whose search_updated_at (V64) moved since, re-reading a short
+ * overlap so rows from transactions that committed late are not missed. The
+ * services that sign users up, edit profiles and delete accounts also apply
+ * their change here after commit, so it shows up on this instance at once.
+ * Until the first sync completes, isReady() is false and callers fall back
+ * to the database.
+ */
+@Service
+@Slf4j
+public class UserSearchIndex {
+
+  private static final char SEPARATOR = '\0';
+  private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+  private static final String SYNC_SQL = """
+    SELECT user_id, username, display_name, deleted_at IS NOT NULL,
+      search_updated_at
+    FROM app_user
+    WHERE search_updated_at > ?
+    ORDER BY search_updated_at
+    """;
+
+  /** An indexed user matching a query, with its match tier. */
+  public record Match(UUID userId, String username, int tier) {}
+
+  private record Names(String username, String displayName) {}
+
+  private final JdbcTemplate jdbcTemplate;
+  private final NavigableMap<String, UUID> terms =
+    new ConcurrentSkipListMap<>();
+  private final Map<UUID, Names> users = new ConcurrentHashMap<>();
+
+  private volatile boolean ready;
+  private OffsetDateTime syncedThrough = OffsetDateTime.parse(
+    "1970-01-01T00:00:00Z"
+  );
+
+  public UserSearchIndex(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  /**
+   * Up to limit distinct users whose username or display name has a term
+   * starting with query (already trimmed and lowercased), best tier per user.
+   * Exact terms sort first in the range, so they are never cut off.
+   */
+  public List<Match> prefixMatches(String query, int limit) {
+    Map<UUID, Match> matches = new LinkedHashMap<>();
+    for (Map.Entry<String, UUID> entry : terms
+      .subMap(query, true, query + Character.MAX_VALUE, false)
+      .entrySet()) {
+      if (matches.size() >= limit) {
+        break;
+      }
+      UUID userId = entry.getValue();
+      if (!matches.containsKey(userId)) {
+        Match match = match(userId, query);
+        if (match != null) {
+          matches.put(userId, match);
+        }
+      }
+    }
+    return new ArrayList<>(matches.values());
+  }
+
+  /** How the user matches query (trimmed, lowercased), or null if not at all. */
+  public Match match(UUID userId, String query) {
+    Names names = users.get(userId);
+    if (names == null) {
+      return null;
+    }
+    int tier = Math.max(
+      tier(names.username(), query),
+      tier(names.displayName(), query)
+    );
+    return tier > 0 ? new Match(userId, names.username(), tier) : null;
+  }
+
+  /** Apply a signup, rename or restore once the transaction commits. */
+  public void putAfterCommit(UUID userId, String username, String displayName) {
+    afterCommit(() -> put(userId, username, displayName));
+  }
+
+  /** Drop a deleted account once the transaction commits. */
+  public void removeAfterCommit(UUID userId) {
+    afterCommit(() -> remove(userId));
+  }
+
+  /** Loads everything on the first run, then only what changed. */
+  @Scheduled(fixedDelayString = "${user-search.sync-ms:15000}")
+  public void sync() {
+    OffsetDateTime since = ready
+      ? syncedThrough.minus(SYNC_OVERLAP)
+      : syncedThrough;
+    int[] applied = { 0 };
+    jdbcTemplate.query(
+      SYNC_SQL,
+      rs -> {
+        UUID userId = rs.getObject(1, UUID.class);
+        if (rs.getBoolean(4)) {
+          remove(userId);
+        } else {
+          put(userId, rs.getString(2), rs.getString(3));
+        }
+        OffsetDateTime stamp = rs.getObject(5, OffsetDateTime.class);
+        if (stamp.isAfter(syncedThrough)) {
+          syncedThrough = stamp;
+        }
+        applied[0]++;
+      },
+      since
+    );
+    if (!ready) {
+      ready = true;
+      log.info("User search index loaded {} users", users.size());
+    } else if (applied[0] > 0) {
+      log.debug("User search index applied {} changes", applied[0]);
+    }
+  }
+
+  private synchronized void put(
+    UUID userId,
+    String username,
+    String displayName
+  ) {
+    remove(userId);
+    Names names = new Names(lower(username), lower(displayName));
+    users.put(userId, names);
+    for (String term : terms(names)) {
+      terms.put(term + SEPARATOR + userId, userId);
+    }
+  }
+
+  private synchronized void remove(UUID userId) {
+    Names names = users.remove(userId);
+    if (names != null) {
+      for (String term : terms(names)) {
+        terms.remove(term + SEPARATOR + userId);
+      }
+    }
+  }
+
+  private static List<String> terms(Names names) {
+    List<String> terms = new ArrayList<>();
+    if (names.username() != null) {
+      terms.add(names.username());
+    }
+    if (names.displayName() != null) {
+      terms.add(names.displayName());
+      String[] words = names.displayName().split("\\s+");
+      for (int i = 1; i < words.length; i++) {
+        if (!words[i].isEmpty()) {
+          terms.add(words[i]);
+        }
+      }
+    }
+    return terms;
+  }
+
+  private static int tier(String name, String query) {
+    if (name == null) {
+      return 0;
+    }
+    if (name.equals(query)) {
+      return 100;
+    }
+    if (name.startsWith(query)) {
+      return 80;
+    }
+    return name.contains(" " + query) ? 60 : 0;
+  }
+
+  private static String lower(String value) {
+    if (value == null || value.isBlank()) {
+      return null;
+    }
+    return value.trim().toLowerCase(Locale.ROOT);
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+      new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      }
+    );
+  }
+}
@@ -0,0 +1,285 @@
+package com.gearfitness.gear_api.service;
+
+import com.gearfitness.gear_api.repository.AppUserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Bloom filter over every lowercased username, deleted accounts included, in
+ * front of the availability check the app calls on each keystroke. A name
+ * the filter has never seen is definitely free and is answered without a
+ * database call; a possible hit is confirmed with
+ * existsByUsernameIncludingDeleted, which V65 indexes.
+ *
+ * <p>The filter is rebuilt from app_user at startup and nightly, sized for
+ * twice the current user count at the configured false-positive rate.
+ * Between rebuilds it only grows: new names are added here as they are
+ * saved, and each instance polls search_updated_at (V64) for names written
+ * through other instances. Renames and purges leave stale bits behind, which
+ * only cost a confirming query until the next rebuild clears them. A name
+ * taken on another instance since the last poll can briefly read as
+ * available; signup and profile edit still check the database before saving.
+ *
+ * <p>Metrics: username.filter.rebuild (rebuild time),
+ * username.filter.expected_fpp (estimated false-positive rate at the current
+ * fill) and username.filter.checks by result (negative, taken, false
+ * positive), whose ratio is the observed rate.
+ */
+@Service
+@Slf4j
+public class UsernameFilter {
+
+  private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+  private static final int MIN_CAPACITY = 1024;
+
+  private static final String ALL_SQL = """
+    SELECT LOWER(username), search_updated_at FROM app_user
+    """;
+
+  private static final String CHANGED_SQL = """
+    SELECT LOWER(username), search_updated_at FROM app_user
+    WHERE search_updated_at > ?
+    """;
+
+  /** Fixed-size bit array with k probes per name from double hashing. */
+  private static final class Bloom {
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+    private final AtomicLong inserted = new AtomicLong();
+
+    private Bloom(long capacity, double fpp) {
+      long m = (long) Math.ceil(
+        (-capacity * Math.log(fpp)) / (Math.log(2) * Math.log(2))
+      );
+      this.words = new AtomicLongArray((int) ((m + 63) / 64));
+      this.bits = words.length() * 64L;
+      this.hashes = Math.max(
+        1,
+        (int) Math.round(((double) bits / capacity) * Math.log(2))
+      );
+    }
+
+    private void add(String name) {
+      long hash = hash(name);
+      int h1 = (int) hash;
+      int h2 = (int) (hash >>> 32);
+      for (int i = 1; i <= hashes; i++) {
+        long bit = Math.floorMod(h1 + (long) i * h2, bits);
+        int word = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        long current;
+        do {
+          current = words.get(word);
+        } while (
+          (current & mask) == 0 &&
+          !words.compareAndSet(word, current, current | mask)
+        );
+      }
+      inserted.incrementAndGet();
+    }
+
+    private boolean mightContain(String name) {
+      long hash = hash(name);
+      int h1 = (int) hash;
+      int h2 = (int) (hash >>> 32);
+      for (int i = 1; i <= hashes; i++) {
+        long bit = Math.floorMod(h1 + (long) i * h2, bits);
+        if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /** (1 - e^(-kn/m))^k for the names added so far. */
+    private double expectedFpp() {
+      return Math.pow(
+        1 - Math.exp((-(double) hashes * inserted.get()) / bits),
+        hashes
+      );
+    }
+
+    /** 64-bit FNV-1a over UTF-8, finished with a murmur-style mix. */
+    private static long hash(String name) {
+      long hash = 0xcbf29ce484222325L;
+      for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+        hash ^= b;
+        hash *= 0x100000001b3L;
+      }
+      hash ^= hash >>> 33;
+      hash *= 0xff51afd7ed558ccdL;
+      hash ^= hash >>> 33;
+      return hash;
+    }
+  }
+
+  private final AppUserRepository userRepository;
+  private final JdbcTemplate jdbcTemplate;
+  private final double targetFpp;
+  private final Timer rebuildTimer;
+  private final Counter negatives;
+  private final Counter taken;
+  private final Counter falsePositives;
+
+  private volatile Bloom bloom;
+  // The filter a rebuild is filling, so names saved meanwhile land in it too.
+  private volatile Bloom building;
+  private OffsetDateTime syncedThrough;
+
+  public UsernameFilter(
+    AppUserRepository userRepository,
+    JdbcTemplate jdbcTemplate,
+    MeterRegistry meterRegistry,
+    @Value("${username-filter.false-positive-rate:0.01}") double targetFpp
+  ) {
+    this.userRepository = userRepository;
+    this.jdbcTemplate = jdbcTemplate;
+    this.targetFpp = targetFpp;
+    this.rebuildTimer = meterRegistry.timer("username.filter.rebuild");
+    this.negatives = meterRegistry.counter(
+      "username.filter.checks",
+      "result",
+      "negative"
+    );
+    this.taken = meterRegistry.counter(
+      "username.filter.checks",
+      "result",
+      "taken"
+    );
+    this.falsePositives = meterRegistry.counter(
+      "username.filter.checks",
+      "result",
+      "false_positive"
+    );
+    Gauge.builder("username.filter.expected_fpp", this, filter -> {
+      Bloom current = filter.bloom;
+      return current != null ? current.expectedFpp() : Double.NaN;
+    }).register(meterRegistry);
+  }
+
+  /**
+   * Whether the username (any case) belongs to an account, deleted ones
+   * included. Falls through to the database until the first build is done.
+   */
+  public boolean isTaken(String username) {
+    String name = username.toLowerCase(Locale.ROOT);
+    Bloom current = bloom;
+    if (current != null && !current.mightContain(name)) {
+      negatives.increment();
+      return false;
+    }
+    boolean exists = userRepository.existsByUsernameIncludingDeleted(name);
+    if (current != null) {
+      (exists ? taken : falsePositives).increment();
+    }
+    return exists;
+  }
+
+  /** Record a username just saved (signup or rename). */
+  public void add(String username) {
+    if (username == null) {
+      return;
+    }
+    String name = username.toLowerCase(Locale.ROOT);
+    Bloom current = bloom;
+    if (current != null) {
+      current.add(name);
+    }
+    Bloom next = building;
+    if (next != null) {
+      next.add(name);
+    }
+  }
+
+  /**
+   * Runs at startup, then nightly to drop renamed and purged names. Names
+   * added while the snapshot is read also go into the new filter, and a sync
+   * right after the swap picks up any committed too late for the snapshot.
+   */
+  @Scheduled(
+    fixedDelayString = "${username-filter.rebuild-ms:86400000}",
+    initialDelay = 0
+  )
+  public void rebuild() {
+    long started = System.nanoTime();
+    Long users = jdbcTemplate.queryForObject(
+      "SELECT COUNT(*) FROM app_user",
+      Long.class
+    );
+    Bloom next = new Bloom(
+      Math.max(MIN_CAPACITY, 2 * (users != null ? users : 0L)),
+      targetFpp
+    );
+    building = next;
+    OffsetDateTime[] latest = { syncedThrough };
+    jdbcTemplate.query(ALL_SQL, rs -> {
+      addRow(next, rs.getString(1));
+      OffsetDateTime stamp = rs.getObject(2, OffsetDateTime.class);
+      if (latest[0] == null || stamp.isAfter(latest[0])) {
+        latest[0] = stamp;
+      }
+    });
+    synchronized (this) {
+      bloom = next;
+      building = null;
+      syncedThrough = latest[0];
+    }
+    long elapsed = System.nanoTime() - started;
+    rebuildTimer.record(Duration.ofNanos(elapsed));
+    log.info(
+      "Username filter rebuilt: {} names, {} bits, {} hashes in {} ms",
+      next.inserted.get(),
+      next.bits,
+      next.hashes,
+      elapsed / 1_000_000
+    );
+    sync();
+  }
+
+  /** Pull in names written through other instances since the last poll. */
+  @Scheduled(
+    fixedDelayString = "${username-filter.sync-ms:15000}",
+    initialDelayString = "${username-filter.sync-ms:15000}"
+  )
+  public synchronized void sync() {
+    Bloom current = bloom;
+    if (current == null) {
+      return;
+    }
+    OffsetDateTime since = syncedThrough != null
+      ? syncedThrough.minus(SYNC_OVERLAP)
+      : OffsetDateTime.parse("1970-01-01T00:00:00Z");
+    jdbcTemplate.query(
+      CHANGED_SQL,
+      rs -> {
+        OffsetDateTime stamp = rs.getObject(2, OffsetDateTime.class);
+        addRow(current, rs.getString(1));
+        if (syncedThrough == null || stamp.isAfter(syncedThrough)) {
+          syncedThrough = stamp;
+        }
+      },
+      since
+    );
+  }
+
+  private static void addRow(Bloom target, String name) {
+    if (name != null) {
+      target.add(name);
+    }
+  }
+}
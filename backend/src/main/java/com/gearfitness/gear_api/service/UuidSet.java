@@ -0,0 +1,99 @@
+package com.gearfitness.gear_api.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Immutable set of UUIDs packed into one sorted long[] (two longs per id), so
+ * a cached set costs 16 bytes per member instead of a HashSet node plus a
+ * UUID object. Membership is a binary search.
+ */
+public final class UuidSet {
+
+  public static final UuidSet EMPTY = new UuidSet(new long[0]);
+
+  private final long[] bits;
+
+  private UuidSet(long[] bits) {
+    this.bits = bits;
+  }
+
+  public static UuidSet of(Collection<UUID> ids) {
+    if (ids.isEmpty()) {
+      return EMPTY;
+    }
+    List<UUID> sorted = new ArrayList<>(ids);
+    sorted.sort(UuidSet::compare);
+    long[] bits = new long[sorted.size() * 2];
+    int size = 0;
+    for (UUID id : sorted) {
+      if (
+        size > 0 &&
+        bits[size * 2 - 2] == id.getMostSignificantBits() &&
+        bits[size * 2 - 1] == id.getLeastSignificantBits()
+      ) {
+        continue;
+      }
+      bits[size * 2] = id.getMostSignificantBits();
+      bits[size * 2 + 1] = id.getLeastSignificantBits();
+      size++;
+    }
+    long[] packed = new long[size * 2];
+    System.arraycopy(bits, 0, packed, 0, packed.length);
+    return new UuidSet(packed);
+  }
+
+  public boolean contains(UUID id) {
+    if (id == null) {
+      return false;
+    }
+    long msb = id.getMostSignificantBits();
+    long lsb = id.getLeastSignificantBits();
+    int low = 0;
+    int high = size() - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int cmp = Long.compare(bits[mid * 2], msb);
+      if (cmp == 0) {
+        cmp = Long.compare(bits[mid * 2 + 1], lsb);
+      }
+      if (cmp < 0) {
+        low = mid + 1;
+      } else if (cmp > 0) {
+        high = mid - 1;
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public int size() {
+    return bits.length / 2;
+  }
+
+  public boolean isEmpty() {
+    return bits.length == 0;
+  }
+
+  public List<UUID> toList() {
+    List<UUID> ids = new ArrayList<>(size());
+    for (int i = 0; i < bits.length; i += 2) {
+      ids.add(new UUID(bits[i], bits[i + 1]));
+    }
+    return Collections.unmodifiableList(ids);
+  }
+
+  private static int compare(UUID a, UUID b) {
+    int cmp = Long.compare(
+      a.getMostSignificantBits(),
+      b.getMostSignificantBits()
+    );
+    return cmp != 0
+      ? cmp
+      : Long.compare(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+  }
+}
@@ -0,0 +1,65 @@
+package com.gearfitness.gear_api.service;
+
+import com.gearfitness.gear_api.entity.Workout;
+import com.gearfitness.gear_api.entity.WorkoutExercise;
+import com.gearfitness.gear_api.entity.WorkoutSet;
+import com.gearfitness.gear_api.repository.UserDailyVolumeRepository;
+import java.math.BigDecimal;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Keeps user_daily_volume in step with workout writes. Callers pass the
+ * workout while its exercises/sets are still loaded (after the submit save,
+ * before the delete), so maintaining the rollup costs one upsert and never
+ * re-reads history.
+ */
+@Service
+@RequiredArgsConstructor
+public class VolumeRollupService {
+
+  private final UserDailyVolumeRepository userDailyVolumeRepository;
+
+  @Transactional
+  public void recordWorkout(Workout workout) {
+    userDailyVolumeRepository.addToDay(
+      workout.getUser().getUserId(),
+      workout.getDatePerformed(),
+      volumeOf(workout),
+      1
+    );
+  }
+
+  @Transactional
+  public void removeWorkout(Workout workout) {
+    userDailyVolumeRepository.addToDay(
+      workout.getUser().getUserId(),
+      workout.getDatePerformed(),
+      volumeOf(workout).negate(),
+      -1
+    );
+    userDailyVolumeRepository.deleteEmptyDay(
+      workout.getUser().getUserId(),
+      workout.getDatePerformed()
+    );
+  }
+
+  /** Sum of weight x reps over every set that has both values. */
+  public static BigDecimal volumeOf(Workout workout) {
+    BigDecimal totalVolume = BigDecimal.ZERO;
+    if (workout.getWorkoutExercises() == null) {
+      return totalVolume;
+    }
+    for (WorkoutExercise exercise : workout.getWorkoutExercises()) {
+      for (WorkoutSet set : exercise.getWorkoutSets()) {
+        if (set.getWeightLbs() != null && set.getReps() != null) {
+          totalVolume = totalVolume.add(
+            set.getWeightLbs().multiply(new BigDecimal(set.getReps()))
+          );
+        }
+      }
+    }
+    return totalVolume;
+  }
+}
@@ -0,0 +1,616 @@
+package com.gearfitness.gear_api.service;
+
+import com.gearfitness.gear_api.dto.WorkoutImportResultDTO;
+import com.gearfitness.gear_api.entity.AppUser;
+import com.gearfitness.gear_api.repository.AppUserRepository;
+import com.gearfitness.gear_api.repository.ExerciseRepository;
+import com.gearfitness.gear_api.repository.WorkoutRepository;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Bulk import of workout history from another tracker's CSV export (Strong's
+ * column names, or our own snake_case ones). The file is read one record at a
+ * time and written in batches of JDBC inserts, so memory stays flat however
+ * long the history is.
+ *
+ * The per-workout side effects of submitWorkout run once per import instead:
+ * exercise names are resolved against the catalog in one query up front, PRs
+ * are recomputed once per touched exercise, the volume rollup, workout count
+ * and streak are updated once at the end, and no posts are created (history
+ * shouldn't flood followers' feeds).
+ *
+ * Each workout gets an idempotency key derived from its contents, so
+ * re-uploading the same export, or a later one that overlaps it, skips the
+ * workouts already imported.
+ */
+@Service
+@Slf4j
+public class WorkoutImportService {
+
+  private static final BigDecimal LBS_PER_KG = new BigDecimal("2.20462");
+  private static final int MAX_REPORTED_UNKNOWN = 50;
+  private static final int MAX_NAME_LENGTH = 255;
+  private static final String DEFAULT_WORKOUT_NAME = "Imported workout";
+  private static final String KEY_PREFIX = "import:";
+
+  private static final Pattern HOURS = Pattern.compile("(\\d+)\\s*h");
+  private static final Pattern MINUTES = Pattern.compile("(\\d+)\\s*m");
+  private static final DateTimeFormatter SPACED_DATE_TIME =
+    DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm[:ss]");
+
+  private enum Column {
+    DATE,
+    WORKOUT_NAME,
+    DURATION,
+    EXERCISE,
+    SET_NUMBER,
+    WEIGHT_LBS,
+    WEIGHT_KG,
+    REPS,
+  }
+
+  // Lowercased header -> column. Unlisted headers (notes, RPE, distance...)
+  // are ignored.
+  private static final Map<String, Column> HEADERS = Map.ofEntries(
+    Map.entry("date", Column.DATE),
+    Map.entry("date_performed", Column.DATE),
+    Map.entry("workout name", Column.WORKOUT_NAME),
+    Map.entry("workout_name", Column.WORKOUT_NAME),
+    Map.entry("duration", Column.DURATION),
+    Map.entry("duration_min", Column.DURATION),
+    Map.entry("exercise name", Column.EXERCISE),
+    Map.entry("exercise", Column.EXERCISE),
+    Map.entry("set order", Column.SET_NUMBER),
+    Map.entry("set_number", Column.SET_NUMBER),
+    Map.entry("weight", Column.WEIGHT_LBS),
+    Map.entry("weight_lbs", Column.WEIGHT_LBS),
+    Map.entry("weight_kg", Column.WEIGHT_KG),
+    Map.entry("reps", Column.REPS)
+  );
+
+  private static final String INSERT_WORKOUT = """
+    INSERT INTO workout (workout_id, user_id, name, date_performed,
+      duration_min, created_at, idempotency_key)
+    VALUES (?, ?, ?, ?, ?, ?, ?)
+    """;
+  private static final String INSERT_WORKOUT_EXERCISE = """
+    INSERT INTO workout_exercise (workout_exercise_id, workout_id,
+      exercise_id, position)
+    VALUES (?, ?, ?, ?)
+    """;
+  private static final String INSERT_WORKOUT_SET = """
+    INSERT INTO workout_set (workout_set_id, workout_exercise_id, set_number,
+      reps, weight_lbs, is_pr)
+    VALUES (?, ?, ?, ?, ?, false)
+    """;
+  // Same upsert as UserDailyVolumeRepository.addToDay, batched.
+  private static final String ADD_TO_DAY = """
+    INSERT INTO user_daily_volume (user_id, day, total_volume_lbs, workout_count)
+    VALUES (?, ?, ?, ?)
+    ON CONFLICT (user_id, day) DO UPDATE SET
+      total_volume_lbs = user_daily_volume.total_volume_lbs + EXCLUDED.total_volume_lbs,
+      workout_count = user_daily_volume.workout_count + EXCLUDED.workout_count
+    """;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final AppUserRepository appUserRepository;
+  private final ExerciseRepository exerciseRepository;
+  private final WorkoutRepository workoutRepository;
+  private final PrService prService;
+  private final StreakService streakService;
+  private final int batchSize;
+  private final int maxRows;
+
+  public WorkoutImportService(
+    JdbcTemplate jdbcTemplate,
+    AppUserRepository appUserRepository,
+    ExerciseRepository exerciseRepository,
+    WorkoutRepository workoutRepository,
+    PrService prService,
+    StreakService streakService,
+    @Value("${workout.import.batch-size:500}") int batchSize,
+    @Value("${workout.import.max-rows:250000}") int maxRows
+  ) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.appUserRepository = appUserRepository;
+    this.exerciseRepository = exerciseRepository;
+    this.workoutRepository = workoutRepository;
+    this.prService = prService;
+    this.streakService = streakService;
+    this.batchSize = batchSize;
+    this.maxRows = maxRows;
+  }
+
+  /**
+   * Import a CSV export for the user. One transaction: a file that turns out
+   * malformed or too large part-way through imports nothing.
+   */
+  @Transactional
+  public WorkoutImportResultDTO importCsv(UUID userId, InputStream body) {
+    AppUser user = appUserRepository
+      .findById(userId)
+      .orElseThrow(() ->
+        new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found")
+      );
+
+    ImportRun run = new ImportRun(userId, loadCatalog(userId));
+    try (
+      BufferedReader in = new BufferedReader(
+        new InputStreamReader(body, StandardCharsets.UTF_8)
+      )
+    ) {
+      CsvRecordReader csv = new CsvRecordReader(in);
+      Map<Column, Integer> columns = mapHeader(csv.next());
+      int rows = 0;
+      List<String> record;
+      while ((record = csv.next()) != null) {
+        if (++rows > maxRows) {
+          throw new ResponseStatusException(
+            HttpStatus.PAYLOAD_TOO_LARGE,
+            "Import is limited to " + maxRows + " rows"
+          );
+        }
+        run.accept(record, columns);
+      }
+    } catch (IOException e) {
+      throw new ResponseStatusException(
+        HttpStatus.BAD_REQUEST,
+        "Malformed CSV",
+        e
+      );
+    }
+    run.finish();
+
+    if (run.importedWorkouts > 0) {
+      writeDailyVolumes(userId, run.dayTotals);
+      appUserRepository.adjustWorkoutCount(userId, run.importedWorkouts);
+      // Sorted, the same lock order as PrService.recordWorkout.
+      for (UUID exerciseId : new TreeSet<>(run.touchedExerciseIds)) {
+        prService.recomputePrsForUserExercise(userId, exerciseId);
+      }
+      streakService.recordActivity(user, run.dayTotals.keySet());
+      streakService.recalculateStreak(user, LocalDate.now(ZoneOffset.UTC));
+    }
+
+    log.info(
+      "Imported {} workouts ({} sets) for user {}; {} duplicates, {} rows skipped",
+      run.importedWorkouts,
+      run.importedSets,
+      userId,
+      run.duplicateWorkouts,
+      run.skippedRows
+    );
+    return WorkoutImportResultDTO.builder()
+      .importedWorkouts(run.importedWorkouts)
+      .importedSets(run.importedSets)
+      .duplicateWorkouts(run.duplicateWorkouts)
+      .skippedRows(run.skippedRows)
+      .unknownExercises(new ArrayList<>(run.unknownExercises))
+      .build();
+  }
+
+  /** Lowercased name -> id; the user's own exercises win over global ones. */
+  private Map<String, UUID> loadCatalog(UUID userId) {
+    Map<String, UUID> catalog = new HashMap<>();
+    for (Object[] row : exerciseRepository.findLoggableNamesRaw(userId)) {
+      String key = normalizeName((String) row[1]);
+      boolean own = row[2] != null;
+      if (own || !catalog.containsKey(key)) {
+        catalog.put(key, (UUID) row[0]);
+      }
+    }
+    return catalog;
+  }
+
+  private static Map<Column, Integer> mapHeader(List<String> header) {
+    if (header == null) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Empty file");
+    }
+    Map<Column, Integer> columns = new EnumMap<>(Column.class);
+    for (int i = 0; i < header.size(); i++) {
+      Column column = HEADERS.get(header.get(i).trim().toLowerCase(Locale.ROOT));
+      if (column != null) {
+        columns.putIfAbsent(column, i);
+      }
+    }
+    for (Column required : List.of(Column.DATE, Column.EXERCISE, Column.REPS)) {
+      if (!columns.containsKey(required)) {
+        throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST,
+          "Missing column: " + required.name().toLowerCase(Locale.ROOT)
+        );
+      }
+    }
+    return columns;
+  }
+
+  private void writeDailyVolumes(UUID userId, Map<LocalDate, DayTotal> days) {
+    List<Object[]> args = new ArrayList<>(days.size());
+    for (Map.Entry<LocalDate, DayTotal> day : days.entrySet()) {
+      args.add(
+        new Object[] {
+          userId,
+          day.getKey(),
+          day.getValue().volume,
+          day.getValue().workouts,
+        }
+      );
+    }
+    jdbcTemplate.batchUpdate(ADD_TO_DAY, args);
+  }
+
+  /** State for one import: the workout being assembled and pending batch. */
+  private final class ImportRun {
+
+    private final UUID userId;
+    private final Map<String, UUID> catalog;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private final List<ParsedWorkout> pending = new ArrayList<>();
+    private final Set<UUID> touchedExerciseIds = new HashSet<>();
+    private final Map<LocalDate, DayTotal> dayTotals = new HashMap<>();
+    private final Set<String> unknownExercises = new LinkedHashSet<>();
+    private ParsedWorkout current;
+    private int importedWorkouts;
+    private int importedSets;
+    private int duplicateWorkouts;
+    private int skippedRows;
+
+    private ImportRun(UUID userId, Map<String, UUID> catalog) {
+      this.userId = userId;
+      this.catalog = catalog;
+    }
+
+    void accept(List<String> record, Map<Column, Integer> columns) {
+      if (record.stream().allMatch(String::isBlank)) {
+        return;
+      }
+      String rawDate = cell(record, columns, Column.DATE);
+      LocalDate date = parseDate(rawDate);
+      Integer reps = parseInteger(cell(record, columns, Column.REPS));
+      String exerciseName = cell(record, columns, Column.EXERCISE);
+      if (date == null || reps == null || reps < 0 || exerciseName.isEmpty()) {
+        skippedRows++;
+        return;
+      }
+      BigDecimal weightLbs;
+      try {
+        weightLbs = parseWeight(record, columns);
+      } catch (NumberFormatException e) {
+        skippedRows++;
+        return;
+      }
+
+      // Consecutive rows with the same date/time and name are one workout.
+      String name = cell(record, columns, Column.WORKOUT_NAME);
+      if (name.isEmpty()) {
+        name = DEFAULT_WORKOUT_NAME;
+      } else if (name.length() > MAX_NAME_LENGTH) {
+        name = name.substring(0, MAX_NAME_LENGTH);
+      }
+      String groupKey = rawDate + "\n" + name;
+      if (current == null || !current.groupKey.equals(groupKey)) {
+        close();
+        current = new ParsedWorkout(
+          groupKey,
+          date,
+          name,
+          parseDuration(cell(record, columns, Column.DURATION))
+        );
+      }
+
+      UUID exerciseId = catalog.get(normalizeName(exerciseName));
+      if (exerciseId == null) {
+        if (unknownExercises.size() < MAX_REPORTED_UNKNOWN) {
+          unknownExercises.add(exerciseName);
+        }
+        skippedRows++;
+        return;
+      }
+      List<ParsedExercise> exercises = current.exercises;
+      ParsedExercise exercise = exercises.isEmpty()
+        ? null
+        : exercises.get(exercises.size() - 1);
+      if (exercise == null || !exercise.exerciseId.equals(exerciseId)) {
+        exercise = new ParsedExercise(exerciseId);
+        exercises.add(exercise);
+      }
+      Integer setNumber = parseInteger(cell(record, columns, Column.SET_NUMBER));
+      exercise.sets.add(
+        new ParsedSet(
+          setNumber != null ? setNumber : exercise.sets.size() + 1,
+          reps,
+          weightLbs
+        )
+      );
+    }
+
+    void finish() {
+      close();
+      flush();
+    }
+
+    private void close() {
+      if (current != null && !current.exercises.isEmpty()) {
+        pending.add(current);
+        if (pending.size() >= batchSize) {
+          flush();
+        }
+      }
+      current = null;
+    }
+
+    private void flush() {
+      if (pending.isEmpty()) {
+        return;
+      }
+      Map<String, ParsedWorkout> byKey = new LinkedHashMap<>();
+      for (ParsedWorkout workout : pending) {
+        if (byKey.putIfAbsent(idempotencyKey(workout), workout) != null) {
+          duplicateWorkouts++;
+        }
+      }
+      pending.clear();
+      for (String existing : workoutRepository.findExistingIdempotencyKeys(
+        userId,
+        byKey.keySet()
+      )) {
+        byKey.remove(existing);
+        duplicateWorkouts++;
+      }
+      if (byKey.isEmpty()) {
+        return;
+      }
+
+      List<Object[]> workoutRows = new ArrayList<>();
+      List<Object[]> exerciseRows = new ArrayList<>();
+      List<Object[]> setRows = new ArrayList<>();
+      for (Map.Entry<String, ParsedWorkout> entry : byKey.entrySet()) {
+        ParsedWorkout workout = entry.getValue();
+        UUID workoutId = UUID.randomUUID();
+        workoutRows.add(
+          new Object[] {
+            workoutId,
+            userId,
+            workout.name,
+            workout.date,
+            workout.durationMin,
+            createdAt,
+            entry.getKey(),
+          }
+        );
+        BigDecimal volume = BigDecimal.ZERO;
+        int position = 0;
+        for (ParsedExercise exercise : workout.exercises) {
+          UUID workoutExerciseId = UUID.randomUUID();
+          exerciseRows.add(
+            new Object[] {
+              workoutExerciseId,
+              workoutId,
+              exercise.exerciseId,
+              position++,
+            }
+          );
+          for (ParsedSet set : exercise.sets) {
+            setRows.add(
+              new Object[] {
+                UUID.randomUUID(),
+                workoutExerciseId,
+                set.setNumber,
+                set.reps,
+                set.weightLbs,
+              }
+            );
+            if (set.weightLbs != null) {
+              volume = volume.add(
+                set.weightLbs.multiply(BigDecimal.valueOf(set.reps))
+              );
+            }
+          }
+          touchedExerciseIds.add(exercise.exerciseId);
+        }
+        DayTotal day = dayTotals.computeIfAbsent(workout.date, d ->
+          new DayTotal()
+        );
+        day.volume = day.volume.add(volume);
+        day.workouts++;
+      }
+
+      jdbcTemplate.batchUpdate(INSERT_WORKOUT, workoutRows);
+      jdbcTemplate.batchUpdate(INSERT_WORKOUT_EXERCISE, exerciseRows);
+      jdbcTemplate.batchUpdate(INSERT_WORKOUT_SET, setRows);
+      importedWorkouts += workoutRows.size();
+      importedSets += setRows.size();
+    }
+  }
+
+  private static final class ParsedWorkout {
+
+    private final String groupKey;
+    private final LocalDate date;
+    private final String name;
+    private final Integer durationMin;
+    private final List<ParsedExercise> exercises = new ArrayList<>();
+
+    private ParsedWorkout(
+      String groupKey,
+      LocalDate date,
+      String name,
+      Integer durationMin
+    ) {
+      this.groupKey = groupKey;
+      this.date = date;
+      this.name = name;
+      this.durationMin = durationMin;
+    }
+  }
+
+  private static final class ParsedExercise {
+
+    private final UUID exerciseId;
+    private final List<ParsedSet> sets = new ArrayList<>();
+
+    private ParsedExercise(UUID exerciseId) {
+      this.exerciseId = exerciseId;
+    }
+  }
+
+  private record ParsedSet(int setNumber, int reps, BigDecimal weightLbs) {}
+
+  private static final class DayTotal {
+
+    private BigDecimal volume = BigDecimal.ZERO;
+    private int workouts;
+  }
+
+  /**
+   * Content-derived idempotency key: the same workout exported twice hashes
+   * the same. Prefixed so it can't collide with client-minted submit keys, and
+   * sized to fit the 64-char column.
+   */
+  private static String idempotencyKey(ParsedWorkout workout) {
+    StringBuilder content = new StringBuilder()
+      .append(workout.groupKey)
+      .append('|')
+      .append(workout.durationMin);
+    for (ParsedExercise exercise : workout.exercises) {
+      content.append('|').append(exercise.exerciseId);
+      for (ParsedSet set : exercise.sets) {
+        content
+          .append(';')
+          .append(set.setNumber)
+          .append('x')
+          .append(set.reps)
+          .append('@')
+          .append(set.weightLbs);
+      }
+    }
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(
+        content.toString().getBytes(StandardCharsets.UTF_8)
+      );
+      return KEY_PREFIX + HexFormat.of().formatHex(digest).substring(0, 56);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 unavailable", e);
+    }
+  }
+
+  private static String cell(
+    List<String> record,
+    Map<Column, Integer> columns,
+    Column column
+  ) {
+    Integer index = columns.get(column);
+    if (index == null || index >= record.size()) {
+      return "";
+    }
+    return record.get(index).trim();
+  }
+
+  private static String normalizeName(String name) {
+    return name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+  }
+
+  /** yyyy-MM-dd, optionally followed by a time (ISO 'T' or Strong's space). */
+  static LocalDate parseDate(String value) {
+    if (value.isEmpty()) {
+      return null;
+    }
+    try {
+      if (value.length() == 10) {
+        return LocalDate.parse(value);
+      }
+      if (value.indexOf('T') == 10) {
+        return LocalDateTime.parse(value).toLocalDate();
+      }
+      return LocalDateTime.parse(value, SPACED_DATE_TIME).toLocalDate();
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+
+  /** Whole numbers, tolerating a decimal suffix ("8.0"); null otherwise. */
+  static Integer parseInteger(String value) {
+    if (value.isEmpty()) {
+      return null;
+    }
+    try {
+      return new BigDecimal(value).intValueExact();
+    } catch (NumberFormatException | ArithmeticException e) {
+      return null;
+    }
+  }
+
+  /** Plain minutes ("45"), or Strong's "1h 5m" form. */
+  static Integer parseDuration(String value) {
+    if (value.isEmpty()) {
+      return null;
+    }
+    Integer plain = parseInteger(value);
+    if (plain != null) {
+      return plain;
+    }
+    Matcher hours = HOURS.matcher(value);
+    Matcher minutes = MINUTES.matcher(value);
+    boolean hasHours = hours.find();
+    boolean hasMinutes = minutes.find();
+    if (!hasHours && !hasMinutes) {
+      return null;
+    }
+    return (
+      (hasHours ? Integer.parseInt(hours.group(1)) * 60 : 0) +
+      (hasMinutes ? Integer.parseInt(minutes.group(1)) : 0)
+    );
+  }
+
+  private static BigDecimal parseWeight(
+    List<String> record,
+    Map<Column, Integer> columns
+  ) {
+    String lbs = cell(record, columns, Column.WEIGHT_LBS);
+    if (!lbs.isEmpty()) {
+      return new BigDecimal(lbs).setScale(2, RoundingMode.HALF_UP);
+    }
+    String kg = cell(record, columns, Column.WEIGHT_KG);
+    if (!kg.isEmpty()) {
+      return new BigDecimal(kg)
+        .multiply(LBS_PER_KG)
+        .setScale(2, RoundingMode.HALF_UP);
+    }
+    return null;
+  }
+}
@@ -0,0 +1,58 @@
+package com.gearfitness.gear_api.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a user's workout list, ordered (datePerformed DESC, createdAt
+ * DESC, workoutId DESC). Opaque to clients, like FeedCursor.
+ */
+public record WorkoutListCursor(
+  LocalDate datePerformed,
+  LocalDateTime createdAt,
+  UUID workoutId
+) {
+  /** Sentinel for the first page: every real workout sorts after it. */
+  public static final WorkoutListCursor START = new WorkoutListCursor(
+    LocalDate.of(9999, 12, 31),
+    LocalDateTime.of(9999, 12, 31, 23, 59, 59),
+    new UUID(-1L, -1L)
+  );
+
+  public String encode() {
+    String raw = datePerformed + "|" + createdAt + "|" + workoutId;
+    return Base64.getUrlEncoder()
+      .withoutPadding()
+      .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Null/blank decodes to START. Throws IllegalArgumentException for a token
+   * this server didn't mint.
+   */
+  public static WorkoutListCursor decode(String token) {
+    if (token == null || token.isBlank()) {
+      return START;
+    }
+    try {
+      String raw = new String(
+        Base64.getUrlDecoder().decode(token),
+        StandardCharsets.UTF_8
+      );
+      String[] parts = raw.split("\\|");
+      if (parts.length != 3) {
+        throw new IllegalArgumentException("Malformed workout cursor");
+      }
+      return new WorkoutListCursor(
+        LocalDate.parse(parts[0]),
+        LocalDateTime.parse(parts[1]),
+        UUID.fromString(parts[2])
+      );
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException("Malformed workout cursor", e);
+    }
+  }
+}
@@ -3,13 +3,16 @@ package com.gearfitness.gear_api.service;
 import com.gearfitness.gear_api.dto.BodyPartDTO;
 import com.gearfitness.gear_api.dto.DailyVolumeDTO;
 import com.gearfitness.gear_api.dto.WeeklyVolumeDTO;
+import com.gearfitness.gear_api.dto.WorkoutDTO;
 import com.gearfitness.gear_api.dto.WorkoutDetailDTO;
 import com.gearfitness.gear_api.dto.WorkoutExerciseDTO;
+import com.gearfitness.gear_api.dto.WorkoutPageDTO;
 import com.gearfitness.gear_api.dto.WorkoutSetDTO;
 import com.gearfitness.gear_api.dto.WorkoutSubmissionDTO;
 import com.gearfitness.gear_api.entity.AppUser;
 import com.gearfitness.gear_api.entity.Exercise;
 import com.gearfitness.gear_api.entity.Post;
+import com.gearfitness.gear_api.entity.UserDailyVolume;
 import com.gearfitness.gear_api.entity.Workout;
 import com.gearfitness.gear_api.entity.WorkoutExercise;
 import com.gearfitness.gear_api.entity.WorkoutSet;
@@ -19,24 +22,35 @@ import com.gearfitness.gear_api.repository.ImageModerationRepository;
 import com.gearfitness.gear_api.repository.NotificationRepository;
 import com.gearfitness.gear_api.repository.PostRepository;
 import com.gearfitness.gear_api.repository.ReportRepository;
+import com.gearfitness.gear_api.repository.UserDailyVolumeRepository;
 import com.gearfitness.gear_api.repository.WorkoutRepository;
 import java.math.BigDecimal;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.temporal.TemporalAdjusters;
 import java.util.*;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
 
 @Service
 @RequiredArgsConstructor
 public class WorkoutService {
 
+  static final int MAX_LIST_PAGE_SIZE = 200;
+  // Open bounds for the list filters when the client doesn't pass them.
+  private static final LocalDate EARLIEST_DATE = LocalDate.of(1, 1, 1);
+  private static final LocalDate LATEST_DATE = LocalDate.of(9999, 12, 31);
+  private static final LocalDateTime BEGINNING =
+    LocalDateTime.of(1970, 1, 1, 0, 0);
+
   private final WorkoutRepository workoutRepository;
   private final ExerciseRepository exerciseRepository;
   private final PostRepository postRepository;
@@ -44,22 +58,119 @@ public class WorkoutService {
   private final NotificationRepository notificationRepository;
   private final ReportRepository reportRepository;
   private final ImageModerationRepository imageModerationRepository;
+  private final UserDailyVolumeRepository userDailyVolumeRepository;
   private final StreakService streakService;
   private final S3StorageService s3StorageService;
   private final PrService prService;
   private final ModerationService moderationService;
   private final MentionService mentionService;
+  private final VolumeRollupService volumeRollupService;
+  private final TimelineService timelineService;
 
+  /**
+   * A user's whole workout list, newest first. Kept for older app builds;
+   * new clients page through getWorkoutPage instead.
+   */
   @Transactional(readOnly = true)
-  public List<Workout> getWorkoutsByUser(UUID userId) {
-    AppUser user = appUserRepository
-      .findById(userId)
-      .orElseThrow(() ->
-        new RuntimeException("User not found with id: " + userId)
+  public List<WorkoutDTO> getWorkoutsByUser(UUID userId) {
+    requireUser(userId);
+    WorkoutListCursor start = WorkoutListCursor.START;
+    return workoutRepository
+      .findListPageRaw(
+        userId,
+        EARLIEST_DATE,
+        LATEST_DATE,
+        BEGINNING,
+        start.datePerformed(),
+        start.createdAt(),
+        start.workoutId(),
+        Integer.MAX_VALUE
+      )
+      .stream()
+      .map(WorkoutService::toWorkoutDTO)
+      .toList();
+  }
+
+  /**
+   * One keyset page of a user's workouts, newest first. {@code from}/{@code to}
+   * bound datePerformed (inclusive); {@code since} keeps only workouts created
+   * after it, for incremental sync. Any of them may be null.
+   */
+  @Transactional(readOnly = true)
+  public WorkoutPageDTO getWorkoutPage(
+    UUID userId,
+    String cursor,
+    int size,
+    LocalDate from,
+    LocalDate to,
+    LocalDateTime since
+  ) {
+    requireUser(userId);
+    WorkoutListCursor position;
+    try {
+      position = WorkoutListCursor.decode(cursor);
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(
+        HttpStatus.BAD_REQUEST,
+        "Invalid cursor"
       );
-    return workoutRepository.findByUserOrderByDatePerformedDescCreatedAtDesc(
-      user
+    }
+    int limit = Math.max(1, Math.min(size, MAX_LIST_PAGE_SIZE));
+
+    List<Object[]> rows = workoutRepository.findListPageRaw(
+      userId,
+      from != null ? from : EARLIEST_DATE,
+      to != null ? to : LATEST_DATE,
+      since != null ? since : BEGINNING,
+      position.datePerformed(),
+      position.createdAt(),
+      position.workoutId(),
+      limit + 1
     );
+
+    // One row past the page means there is another page.
+    boolean hasMore = rows.size() > limit;
+    List<WorkoutDTO> workouts = (hasMore ? rows.subList(0, limit) : rows)
+      .stream()
+      .map(WorkoutService::toWorkoutDTO)
+      .toList();
+    String nextCursor = null;
+    if (hasMore) {
+      WorkoutDTO last = workouts.get(workouts.size() - 1);
+      nextCursor = new WorkoutListCursor(
+        last.getDatePerformed(),
+        last.getCreatedAt(),
+        last.getWorkoutId()
+      ).encode();
+    }
+    return WorkoutPageDTO.builder()
+      .workouts(workouts)
+      .nextCursor(nextCursor)
+      .hasMore(hasMore)
+      .build();
+  }
+
+  private void requireUser(UUID userId) {
+    if (!appUserRepository.existsById(userId)) {
+      throw new RuntimeException("User not found with id: " + userId);
+    }
+  }
+
+  private static WorkoutDTO toWorkoutDTO(Object[] row) {
+    return new WorkoutDTO(
+      (UUID) row[0],
+      (String) row[1],
+      NativeRows.toLocalDate(row[2]),
+      NativeRows.toLocalDateTime(row[3]),
+      (Integer) row[4],
+      ((Number) row[5]).intValue(),
+      splitAggregate((String) row[6], ","),
+      splitAggregate((String) row[7], "\n")
+    );
+  }
+
+  private static List<String> splitAggregate(String value, String separator) {
+    return value == null ? List.of() : List.of(value.split(separator));
   }
 
   @Transactional(readOnly = true)
@@ -132,80 +243,42 @@ public class WorkoutService {
       .build();
   }
 
+  @Transactional
   public Workout addWorkout(Workout workout) {
-    return workoutRepository.save(workout);
+    Workout saved = workoutRepository.save(workout);
+    appUserRepository.adjustWorkoutCount(saved.getUser().getUserId(), 1);
+    volumeRollupService.recordWorkout(saved);
+    prService.recordWorkout(saved.getUser().getUserId(), saved);
+    streakService.recordActivity(saved.getUser(), saved.getDatePerformed());
+    return saved;
   }
 
   // Weekly volume statistics
   @Transactional(readOnly = true)
   public List<WeeklyVolumeDTO> getWeeklyVolume(UUID userId, int numberOfWeeks) {
-    List<Workout> workouts = workoutRepository.findByUser_UserId(userId);
-
-    if (workouts.isEmpty()) {
-      return Collections.emptyList();
-    }
-
-    // Group workouts by week
-    Map<LocalDate, List<Workout>> workoutsByWeek = new TreeMap<>();
-
-    for (Workout workout : workouts) {
-      LocalDate workoutDate = workout.getDatePerformed();
-      LocalDate weekStart = workoutDate.with(
-        TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)
-      );
-
-      workoutsByWeek
-        .computeIfAbsent(weekStart, k -> new ArrayList<>())
-        .add(workout);
-    }
-
-    // Calculate volume for each week
-    List<WeeklyVolumeDTO> weeklyVolumes = new ArrayList<>();
-
-    for (Map.Entry<
-      LocalDate,
-      List<Workout>
-    > entry : workoutsByWeek.entrySet()) {
-      LocalDate weekStart = entry.getKey();
-      LocalDate weekEnd = weekStart.plusDays(6);
-      List<Workout> weekWorkouts = entry.getValue();
-
-      BigDecimal totalVolume = BigDecimal.ZERO;
-
-      for (Workout workout : weekWorkouts) {
-        for (WorkoutExercise exercise : workout.getWorkoutExercises()) {
-          for (WorkoutSet set : exercise.getWorkoutSets()) {
-            if (set.getWeightLbs() != null && set.getReps() != null) {
-              BigDecimal setVolume = set
-                .getWeightLbs()
-                .multiply(new BigDecimal(set.getReps()));
-              totalVolume = totalVolume.add(setVolume);
-            }
-          }
-        }
-      }
+    // Most recent N weeks that contain a workout, aggregated from the daily
+    // rollup in SQL. numberOfWeeks <= 0 means every week on record.
+    List<Object[]> rows = userDailyVolumeRepository.findRecentWeeksRaw(
+      userId,
+      numberOfWeeks > 0 ? numberOfWeeks : Integer.MAX_VALUE
+    );
 
+    List<WeeklyVolumeDTO> weeklyVolumes = new ArrayList<>(rows.size());
+    for (Object[] row : rows) {
+      LocalDate weekStart = NativeRows.toLocalDate(row[0]);
       weeklyVolumes.add(
         WeeklyVolumeDTO.builder()
           .weekStartDate(weekStart)
-          .weekEndDate(weekEnd)
-          .totalVolumeLbs(totalVolume)
-          .workoutCount(weekWorkouts.size())
+          .weekEndDate(weekStart.plusDays(6))
+          .totalVolumeLbs((BigDecimal) row[1])
+          .workoutCount(((Number) row[2]).intValue())
           .build()
       );
     }
 
-    // Sort by date
+    // Sort by date (query returns newest first so LIMIT keeps the latest)
     weeklyVolumes.sort(Comparator.comparing(WeeklyVolumeDTO::getWeekStartDate));
 
-    // Return only the requested number of weeks (most recent)
-    if (numberOfWeeks > 0 && weeklyVolumes.size() > numberOfWeeks) {
-      return weeklyVolumes.subList(
-        weeklyVolumes.size() - numberOfWeeks,
-        weeklyVolumes.size()
-      );
-    }
-
     return weeklyVolumes;
   }
 
@@ -217,12 +290,6 @@ public class WorkoutService {
     DayOfWeek weekStartDay,
     String localDate
   ) {
-    List<Workout> workouts = workoutRepository.findByUser_UserId(userId);
-
-    if (workouts.isEmpty()) {
-      return Collections.emptyList();
-    }
-
     // Calculate date range
     // Extend endDate to the end of the current week (Saturday) to ensure full week
     // is displayed
@@ -236,63 +303,35 @@ public class WorkoutService {
     // If numberOfWeeks is 0 or negative, fetch all data from the earliest workout
     LocalDate startDate;
     if (numberOfWeeks <= 0) {
-      // Find the earliest workout date
-      LocalDate earliestDate = workouts
-        .stream()
-        .map(Workout::getDatePerformed)
-        .min(LocalDate::compareTo)
-        .orElse(endDate);
+      Optional<UserDailyVolume> earliest =
+        userDailyVolumeRepository.findFirstByUserIdOrderByDayAsc(userId);
+      if (earliest.isEmpty()) {
+        return Collections.emptyList();
+      }
       // Align to the week start day
-      startDate = earliestDate.with(
-        TemporalAdjusters.previousOrSame(weekStartDay)
-      );
+      startDate = earliest
+        .get()
+        .getDay()
+        .with(TemporalAdjusters.previousOrSame(weekStartDay));
     } else {
+      if (!userDailyVolumeRepository.existsByUserId(userId)) {
+        return Collections.emptyList();
+      }
       startDate = endDate
         .minusWeeks(numberOfWeeks)
         .with(TemporalAdjusters.previousOrSame(weekStartDay));
     }
 
-    // Group workouts by date
-    Map<LocalDate, List<Workout>> workoutsByDate = new TreeMap<>();
-
-    for (Workout workout : workouts) {
-      LocalDate workoutDate = workout.getDatePerformed();
-      // Only include workouts within the date range
-      if (!workoutDate.isBefore(startDate) && !workoutDate.isAfter(endDate)) {
-        workoutsByDate
-          .computeIfAbsent(workoutDate, k -> new ArrayList<>())
-          .add(workout);
-      }
-    }
-
-    // Calculate volume for each date
-    Map<LocalDate, BigDecimal> volumeByDate = new HashMap<>();
-    Map<LocalDate, Integer> workoutCountByDate = new HashMap<>();
-
-    for (Map.Entry<
-      LocalDate,
-      List<Workout>
-    > entry : workoutsByDate.entrySet()) {
-      LocalDate date = entry.getKey();
-      List<Workout> dateWorkouts = entry.getValue();
-
-      BigDecimal totalVolume = BigDecimal.ZERO;
-
-      for (Workout workout : dateWorkouts) {
-        for (WorkoutExercise exercise : workout.getWorkoutExercises()) {
-          for (WorkoutSet set : exercise.getWorkoutSets()) {
-            if (set.getWeightLbs() != null && set.getReps() != null) {
-              BigDecimal setVolume = set
-                .getWeightLbs()
-                .multiply(new BigDecimal(set.getReps()));
-              totalVolume = totalVolume.add(setVolume);
-            }
-          }
-        }
-      }
-
-      volumeByDate.put(date, totalVolume);
-      workoutCountByDate.put(date, dateWorkouts.size());
+    // Read only the requested window from the rollup
+    List<UserDailyVolume> rollup =
+      userDailyVolumeRepository.findByUserIdAndDayBetweenOrderByDayAsc(
+        userId,
+        startDate,
+        endDate
+      );
+    Map<LocalDate, UserDailyVolume> rollupByDate = new HashMap<>();
+    for (UserDailyVolume day : rollup) {
+      rollupByDate.put(day.getDay(), day);
     }
 
     // Fill gaps with zero-volume days and create DTOs
@@ -300,13 +339,12 @@ public class WorkoutService {
     LocalDate currentDate = startDate;
 
     while (!currentDate.isAfter(endDate)) {
+      UserDailyVolume day = rollupByDate.get(currentDate);
       dailyVolumes.add(
         DailyVolumeDTO.builder()
           .date(currentDate)
-          .totalVolumeLbs(
-            volumeByDate.getOrDefault(currentDate, BigDecimal.ZERO)
-          )
-          .workoutCount(workoutCountByDate.getOrDefault(currentDate, 0))
+          .totalVolumeLbs(day != null ? day.getTotalVolumeLbs() : BigDecimal.ZERO)
+          .workoutCount(day != null ? day.getWorkoutCount() : 0)
           .build()
       );
       currentDate = currentDate.plusDays(1);
@@ -391,6 +429,7 @@ public class WorkoutService {
     // controller can catch it; a commit-time violation would surface as
     // TransactionSystemException instead.
     workout = workoutRepository.saveAndFlush(workout);
+    appUserRepository.adjustWorkoutCount(userId, 1);
 
     // Create workout exercises
     int position = 1;
@@ -436,20 +475,17 @@ public class WorkoutService {
     // Save complete workout with exercises and sets
     workout = workoutRepository.save(workout);
 
-    // Recompute PRs for each exercise touched by this workout. Submission may
-    // be back-dated, so a full per-(user, exercise) recompute is needed.
-    Set<UUID> touchedExerciseIds = workout
-      .getWorkoutExercises()
-      .stream()
-      .map(we -> we.getExercise().getExerciseId())
-      .collect(Collectors.toSet());
-    for (UUID exerciseId : touchedExerciseIds) {
-      prService.recomputePrsForUserExercise(userId, exerciseId);
-    }
+    // Fold this workout's volume into the per-day chart rollup.
+    volumeRollupService.recordWorkout(workout);
+
+    // Flag PRs for each exercise touched by this workout. Only a back-dated
+    // submission re-walks earlier history (from its date forward).
+    prService.recordWorkout(userId, workout);
 
     // Update daily streak after workout submission. Use the workout's
     // datePerformed (already in the user's local date) so the streak walks
     // forward from the user's local "today", not the server's UTC date.
+    streakService.recordActivity(user, workout.getDatePerformed());
     streakService.recalculateStreak(user, workout.getDatePerformed());
 
     // Always create a post. Resolve visibility: explicit value wins; if old
@@ -475,6 +511,13 @@ public class WorkoutService {
 
     postRepository.save(post);
 
+    // Push the post into followers' home timelines once it is committed.
+    if (visibility != Post.PostVisibility.PRIVATE) {
+      UUID newPostId = post.getPostId();
+      UUID authorId = user.getUserId();
+      runAfterCommit(() -> timelineService.fanOutPost(newPostId, authorId));
+    }
+
     // Notify any @mentioned users in the caption.
     if (post.getCaption() != null && !post.getCaption().isBlank()) {
       mentionService.notifyCaptionMentions(user, post.getCaption(), post);
@@ -489,13 +532,8 @@ public class WorkoutService {
       imageKey != null && imageKey.startsWith(S3StorageService.POSTS_PREFIX)
     ) {
       UUID postId = post.getPostId();
-      TransactionSynchronizationManager.registerSynchronization(
-        new TransactionSynchronization() {
-          @Override
-          public void afterCommit() {
-            moderationService.moderatePostImage(postId, imageKey);
-          }
-        }
+      runAfterCommit(() ->
+        moderationService.moderatePostImage(postId, imageKey)
       );
     }
 
@@ -503,6 +541,25 @@ public class WorkoutService {
     return getWorkoutDetails(workout.getWorkoutId(), userId);
   }
 
+  /**
+   * Run a side effect once the current transaction commits, so async workers
+   * see the persisted rows. Outside a transaction it runs immediately.
+   */
+  private static void runAfterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+      new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      }
+    );
+  }
+
   /**
    * Recovery lookup for the controller after a concurrent-duplicate
    * DataIntegrityViolationException: the losing transaction is rollback-only,
@@ -577,19 +634,29 @@ public class WorkoutService {
       .map(we -> we.getExercise().getExerciseId())
       .collect(Collectors.toSet());
     AppUser owner = workout.getUser();
+    LocalDate deletedDate = workout.getDatePerformed();
+
+    // Back this workout out of the per-day chart rollup while its sets are
+    // still loaded.
+    volumeRollupService.removeWorkout(workout);
 
     // Delete the workout - cascade will handle related entities
     workoutRepository.delete(workout);
     workoutRepository.flush();
+    appUserRepository.adjustWorkoutCount(owner.getUserId(), -1);
 
     // Recompute PRs for each exercise this workout touched. Sets that were
-    // shadowed by the deleted workout's lifts may now qualify as PRs.
-    for (UUID exerciseId : touchedExerciseIds) {
-      prService.recomputePrsForUserExercise(owner.getUserId(), exerciseId);
-    }
+    // shadowed by the deleted workout's lifts may now qualify as PRs; only
+    // workouts dated on/after the deleted one can be affected.
+    prService.onWorkoutDeleted(
+      owner.getUserId(),
+      touchedExerciseIds,
+      deletedDate
+    );
 
     // Recalculate streak after deletion. Deletion isn't user-time-sensitive,
     // so UTC "today" is acceptable.
+    streakService.onWorkoutDeleted(owner, deletedDate);
     streakService.recalculateStreak(owner, LocalDate.now(ZoneOffset.UTC));
   }
 }
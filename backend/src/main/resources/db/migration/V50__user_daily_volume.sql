@@ -0,0 +1,29 @@
+-- Per-(user, day) rollup of lifted volume and workout count, read by the
+-- weekly/daily volume charts instead of hydrating every workout -> exercise ->
+-- set graph. Maintained incrementally by VolumeRollupService on workout
+-- submit/delete; a row exists only while its day has at least one workout.
+CREATE TABLE user_daily_volume (
+    user_id          UUID NOT NULL REFERENCES app_user(user_id) ON DELETE CASCADE,
+    day              DATE NOT NULL,
+    total_volume_lbs NUMERIC(16,2) NOT NULL DEFAULT 0,
+    workout_count    INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, day)
+);
+
+-- Backfill from existing history. Volume is SUM(weight_lbs * reps) over sets
+-- with a weight (mirrors the old in-Java loop); workouts without any weighted
+-- sets still count toward workout_count.
+INSERT INTO user_daily_volume (user_id, day, total_volume_lbs, workout_count)
+SELECT w.user_id,
+       w.date_performed,
+       COALESCE(SUM(v.volume), 0),
+       COUNT(*)
+FROM workout w
+  LEFT JOIN (
+    SELECT we.workout_id, SUM(s.weight_lbs * s.reps) AS volume
+    FROM workout_exercise we
+      JOIN workout_set s ON s.workout_exercise_id = we.workout_exercise_id
+    WHERE s.weight_lbs IS NOT NULL
+    GROUP BY we.workout_id
+  ) v ON v.workout_id = w.workout_id
+GROUP BY w.user_id, w.date_performed;
@@ -0,0 +1,19 @@
+-- Keyset (seek) pagination for the feeds orders on (created_at, post_id) and
+-- seeks past the last row of the previous page. These indexes let each page be
+-- a bounded index range scan instead of an OFFSET walk.
+
+-- Profile feed and the following feed's per-followee lookups.
+CREATE INDEX IF NOT EXISTS idx_post_user_created_id
+    ON post (user_id, created_at DESC, post_id DESC)
+    WHERE hidden_at IS NULL
+      AND moderation_status = 'VISIBLE';
+
+-- Discover feed. Supersedes idx_post_public_created (V31), which lacks the
+-- post_id tiebreak column.
+CREATE INDEX IF NOT EXISTS idx_post_public_created_id
+    ON post (created_at DESC, post_id DESC)
+    WHERE visibility = 'PUBLIC'
+      AND hidden_at IS NULL
+      AND moderation_status = 'VISIBLE';
+
+DROP INDEX IF EXISTS idx_post_public_created;
@@ -0,0 +1,40 @@
+-- Materialized "following" timeline (fan-out on write). When a post is
+-- created its id is pushed into every accepted follower's timeline, so the
+-- following feed reads one owner's rows with an index range scan instead of
+-- re-running the followee IN (...) and block/friends subqueries over the whole
+-- post table. Visibility is re-checked at read time for the returned page
+-- only. Rows cascade away with the post or the owning user; TimelineService
+-- trims each timeline to a bounded length.
+CREATE TABLE home_timeline (
+    owner_id   UUID NOT NULL REFERENCES app_user(user_id) ON DELETE CASCADE,
+    post_id    UUID NOT NULL REFERENCES post(post_id) ON DELETE CASCADE,
+    author_id  UUID NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (owner_id, post_id)
+);
+
+CREATE INDEX idx_home_timeline_owner_created
+    ON home_timeline (owner_id, created_at DESC, post_id DESC);
+
+-- Prune path for unfollow/block: drop one author's rows from one timeline.
+CREATE INDEX idx_home_timeline_owner_author
+    ON home_timeline (owner_id, author_id);
+
+-- Backfill every existing accepted follow edge with the followee's 50 most
+-- recent non-private posts (matches TimelineService's follow backfill).
+INSERT INTO home_timeline (owner_id, post_id, author_id, created_at)
+SELECT f.follower_id, p.post_id, p.user_id, p.created_at
+FROM follow f
+  JOIN LATERAL (
+    SELECT post_id, user_id, created_at
+    FROM post
+    WHERE user_id = f.followee_id
+      AND visibility <> 'PRIVATE'
+      AND hidden_at IS NULL
+      AND moderation_status = 'VISIBLE'
+    ORDER BY created_at DESC
+    LIMIT 50
+  ) p ON TRUE
+WHERE f.status = 'ACCEPTED'
+  AND f.hidden_at IS NULL
+ON CONFLICT DO NOTHING;
@@ -0,0 +1,23 @@
+-- Per-(user, exercise) running-max index for PR detection. max_weight_lbs is
+-- the heaviest weighted set the user has ever logged for the exercise and
+-- last_date the latest date_performed of any workout that logged a set for it.
+-- A submit dated on/after last_date is chronologically last (created_at is
+-- now), so PrService decides its PRs against max_weight_lbs alone; back-dated
+-- submits and deletes re-walk history from the affected date forward.
+CREATE TABLE exercise_pr_state (
+    user_id        UUID NOT NULL REFERENCES app_user(user_id) ON DELETE CASCADE,
+    exercise_id    UUID NOT NULL REFERENCES exercise(exercise_id) ON DELETE CASCADE,
+    max_weight_lbs NUMERIC(10,2),
+    last_date      DATE NOT NULL,
+    PRIMARY KEY (user_id, exercise_id)
+);
+
+INSERT INTO exercise_pr_state (user_id, exercise_id, max_weight_lbs, last_date)
+SELECT w.user_id,
+       we.exercise_id,
+       MAX(s.weight_lbs),
+       MAX(w.date_performed)
+FROM workout_set s
+  JOIN workout_exercise we ON we.workout_exercise_id = s.workout_exercise_id
+  JOIN workout w ON w.workout_id = we.workout_id
+GROUP BY w.user_id, we.exercise_id;
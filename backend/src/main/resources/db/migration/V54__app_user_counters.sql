@@ -0,0 +1,34 @@
+-- Denormalized profile counters. Kept in step by atomic UPDATEs in the same
+-- transaction as the change they count (FollowService, WorkoutService,
+-- ContentVisibilityRepository), never by saving the AppUser entity, so
+-- concurrent follows/submits can't lose an increment. Counts match what the
+-- profile previously computed live: ACCEPTED, non-hidden follow edges, and
+-- every workout.
+ALTER TABLE app_user
+    ADD COLUMN follower_count  INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN following_count INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN workout_count   INTEGER NOT NULL DEFAULT 0;
+
+UPDATE app_user u SET follower_count = c.n
+FROM (
+    SELECT followee_id AS user_id, COUNT(*) AS n
+    FROM follow
+    WHERE status = 'ACCEPTED' AND hidden_at IS NULL
+    GROUP BY followee_id
+) c
+WHERE c.user_id = u.user_id;
+
+UPDATE app_user u SET following_count = c.n
+FROM (
+    SELECT follower_id AS user_id, COUNT(*) AS n
+    FROM follow
+    WHERE status = 'ACCEPTED' AND hidden_at IS NULL
+    GROUP BY follower_id
+) c
+WHERE c.user_id = u.user_id;
+
+UPDATE app_user u SET workout_count = c.n
+FROM (
+    SELECT user_id, COUNT(*) AS n FROM workout GROUP BY user_id
+) c
+WHERE c.user_id = u.user_id;
@@ -0,0 +1,68 @@
+-- Per-user activity bitmap for the streak engine: bit i of `bits` is set when
+-- the user had a workout, rest day or streak restore on epoch day
+-- base_day + i (see ActivityBitmap). Updated by StreakService on every write
+-- that adds or removes an active day. Every user gets a row: existing users
+-- are backfilled below and new users start with an empty one, so streak reads
+-- never fall back to scanning workout/rest_day/streak_restore history.
+CREATE TABLE user_activity_bitmap (
+    user_id  UUID PRIMARY KEY REFERENCES app_user(user_id) ON DELETE CASCADE,
+    base_day INTEGER NOT NULL,
+    bits     BYTEA NOT NULL
+);
+
+-- Same layout ActivityBitmap writes: base_day a multiple of 8, bits LSB-first
+-- within each byte, days outside [1970-01-01, 2100-01-01) ignored.
+WITH days AS (
+    SELECT user_id, date_performed - DATE '1970-01-01' AS day
+    FROM workout
+    WHERE date_performed >= DATE '1970-01-01'
+      AND date_performed < DATE '2100-01-01'
+    UNION
+    SELECT user_id, date - DATE '1970-01-01'
+    FROM rest_day
+    WHERE date >= DATE '1970-01-01' AND date < DATE '2100-01-01'
+    UNION
+    SELECT user_id, restored_date - DATE '1970-01-01'
+    FROM streak_restore
+    WHERE restored_date >= DATE '1970-01-01'
+      AND restored_date < DATE '2100-01-01'
+),
+bounds AS (
+    SELECT user_id, MIN(day) / 8 * 8 AS base_day, MAX(day) AS last_day
+    FROM days
+    GROUP BY user_id
+),
+bytes AS (
+    SELECT d.user_id, (d.day - b.base_day) / 8 AS idx,
+           bit_or(1 << ((d.day - b.base_day) % 8)) AS val
+    FROM days d
+    JOIN bounds b ON b.user_id = d.user_id
+    GROUP BY d.user_id, (d.day - b.base_day) / 8
+)
+INSERT INTO user_activity_bitmap (user_id, base_day, bits)
+SELECT b.user_id, b.base_day,
+       decode(
+           string_agg(lpad(to_hex(COALESCE(x.val, 0)), 2, '0'), '' ORDER BY g.idx),
+           'hex')
+FROM bounds b
+CROSS JOIN LATERAL generate_series(0, (b.last_day - b.base_day) / 8) AS g(idx)
+LEFT JOIN bytes x ON x.user_id = b.user_id AND x.idx = g.idx
+GROUP BY b.user_id, b.base_day;
+
+INSERT INTO user_activity_bitmap (user_id, base_day, bits)
+SELECT user_id, 0, ''::bytea FROM app_user
+ON CONFLICT (user_id) DO NOTHING;
+
+CREATE FUNCTION user_activity_bitmap_create() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    INSERT INTO user_activity_bitmap (user_id, base_day, bits)
+    VALUES (NEW.user_id, 0, ''::bytea)
+    ON CONFLICT (user_id) DO NOTHING;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER user_activity_bitmap_create
+    AFTER INSERT ON app_user
+    FOR EACH ROW EXECUTE FUNCTION user_activity_bitmap_create();
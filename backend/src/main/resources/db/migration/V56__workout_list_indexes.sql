@@ -0,0 +1,14 @@
+-- Keyset pagination for the workout list (WorkoutRepository.findListPageRaw):
+-- seeks on (date_performed, created_at, workout_id) descending within a user.
+-- Supersedes idx_workout_user_date, whose columns are a prefix of this one.
+CREATE INDEX IF NOT EXISTS idx_workout_user_list
+    ON workout (user_id, date_performed DESC, created_at DESC, workout_id DESC);
+
+DROP INDEX IF EXISTS idx_workout_user_date;
+
+-- The list aggregates tags and counts exercises per workout in SQL.
+CREATE INDEX IF NOT EXISTS idx_workout_body_tags_workout
+    ON workout_body_tags (workout_id);
+
+CREATE INDEX IF NOT EXISTS idx_workout_exercise_workout
+    ON workout_exercise (workout_id);
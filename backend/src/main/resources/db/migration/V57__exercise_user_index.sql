@@ -0,0 +1,5 @@
+-- The exercise catalog merges the caller's custom exercises into the cached
+-- global list on every read; look those up by owner.
+CREATE INDEX IF NOT EXISTS idx_exercise_user_id
+    ON exercise (user_id)
+    WHERE user_id IS NOT NULL;
@@ -0,0 +1,24 @@
+-- Usage counters for rate and spend caps, one row per (scope, subject,
+-- period): e.g. ('ai.text.user', <user id>, '2026-10-18') or
+-- ('ai.text.sonar', 'all', '2026-10'). QuotaLedger takes units with a single
+-- conditional upsert on the primary key, so a cap holds across instances and
+-- restarts. Rows for past periods are pruned by QuotaLedger.
+CREATE TABLE quota_counter (
+    scope      VARCHAR(48) NOT NULL,
+    subject    VARCHAR(64) NOT NULL,
+    period     VARCHAR(10) NOT NULL,
+    used       INTEGER NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (scope, subject, period)
+);
+
+CREATE INDEX idx_quota_counter_updated ON quota_counter (updated_at);
+
+-- The monthly Sonar cap used to count this month's nutrition_cache rows;
+-- carry that count over so the cap doesn't reset mid-month on deploy. The
+-- period is the UTC month, matching QuotaLedger, whatever the session zone.
+INSERT INTO quota_counter (scope, subject, period, used, updated_at)
+SELECT 'ai.text.sonar', 'all', to_char(now() AT TIME ZONE 'UTC', 'YYYY-MM'),
+       COUNT(*), now()
+FROM nutrition_cache
+WHERE created_at >= date_trunc('month', now() AT TIME ZONE 'UTC');
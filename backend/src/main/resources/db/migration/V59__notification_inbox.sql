@@ -0,0 +1,95 @@
+-- Keyset-paginated notification inbox and a maintained unread counter.
+
+-- Inbox pages seek on (created_at, notification_id) per recipient.
+CREATE INDEX IF NOT EXISTS idx_notification_recipient_created_id
+    ON notification (recipient_user_id, created_at DESC, notification_id DESC)
+    WHERE hidden_at IS NULL;
+
+-- Mark-all-read and the recount only visit a recipient's unread rows.
+CREATE INDEX IF NOT EXISTS idx_notification_recipient_unread
+    ON notification (recipient_user_id)
+    WHERE is_read = FALSE AND hidden_at IS NULL;
+
+-- Whether a notification shows up in the unread badge: unread, not hidden,
+-- and no visible BLOCKED edge between recipient and actor in either
+-- direction. Same rule as the inbox query in NotificationRepository.
+CREATE FUNCTION notification_counts_as_unread(
+    p_recipient UUID,
+    p_actor UUID,
+    p_is_read BOOLEAN,
+    p_hidden_at TIMESTAMP
+) RETURNS BOOLEAN
+LANGUAGE sql STABLE AS $$
+    SELECT NOT p_is_read
+       AND p_hidden_at IS NULL
+       AND NOT EXISTS (
+           SELECT 1 FROM follow b
+           WHERE b.status = 'BLOCKED'
+             AND b.hidden_at IS NULL
+             AND ((b.follower_id = p_recipient AND b.followee_id = p_actor)
+               OR (b.follower_id = p_actor AND b.followee_id = p_recipient))
+       )
+$$;
+
+-- One row per user with anything unread; a missing row means zero.
+CREATE TABLE notification_counter (
+    user_id UUID PRIMARY KEY REFERENCES app_user(user_id) ON DELETE CASCADE,
+    unread  INTEGER NOT NULL DEFAULT 0
+);
+
+-- Unlike the app_user counters (V54), notifications also disappear through
+-- FK cascades (V8) that application code never sees, so the counter is kept
+-- by statement-level triggers: each INSERT/UPDATE/DELETE statement applies
+-- one grouped delta per recipient, so a bulk mark-read is a single counter
+-- write. Block and unblock change visibility without touching notification
+-- rows; FollowService recounts both users for those.
+CREATE FUNCTION notification_counter_apply() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        UPDATE notification_counter c
+        SET unread = GREATEST(c.unread - d.n, 0)
+        FROM (
+            SELECT o.recipient_user_id AS user_id, COUNT(*) AS n
+            FROM old_rows o
+            WHERE notification_counts_as_unread(
+                o.recipient_user_id, o.actor_user_id, o.is_read, o.hidden_at)
+            GROUP BY o.recipient_user_id
+        ) d
+        WHERE c.user_id = d.user_id;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO notification_counter (user_id, unread)
+        SELECT n.recipient_user_id, COUNT(*)
+        FROM new_rows n
+        WHERE notification_counts_as_unread(
+            n.recipient_user_id, n.actor_user_id, n.is_read, n.hidden_at)
+        GROUP BY n.recipient_user_id
+        ON CONFLICT (user_id) DO UPDATE
+        SET unread = notification_counter.unread + EXCLUDED.unread;
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER notification_counter_insert
+    AFTER INSERT ON notification
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notification_counter_apply();
+
+CREATE TRIGGER notification_counter_update
+    AFTER UPDATE ON notification
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notification_counter_apply();
+
+CREATE TRIGGER notification_counter_delete
+    AFTER DELETE ON notification
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notification_counter_apply();
+
+INSERT INTO notification_counter (user_id, unread)
+SELECT n.recipient_user_id, COUNT(*)
+FROM notification n
+WHERE notification_counts_as_unread(
+    n.recipient_user_id, n.actor_user_id, n.is_read, n.hidden_at)
+GROUP BY n.recipient_user_id;
@@ -0,0 +1,43 @@
+-- Change feed for the live notification stream (NotificationStreamService).
+-- NOTIFY is delivered at commit to every instance LISTENing, so an SSE
+-- client gets its events whichever instance it is connected to. Payloads
+-- are 'recipient_user_id,value'; subscribers load anything else they need.
+
+-- 'recipient,notification_id' per new visible notification.
+CREATE FUNCTION notification_publish_created() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    PERFORM pg_notify(
+        'notification_created',
+        n.recipient_user_id::text || ',' || n.notification_id::text)
+    FROM new_rows n
+    WHERE n.hidden_at IS NULL;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER notification_publish_created
+    AFTER INSERT ON notification
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notification_publish_created();
+
+-- 'user_id,unread' whenever a badge changes (V59 keeps the counter).
+CREATE FUNCTION notification_publish_unread() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    PERFORM pg_notify(
+        'notification_unread',
+        NEW.user_id::text || ',' || NEW.unread::text);
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER notification_publish_unread_insert
+    AFTER INSERT ON notification_counter
+    FOR EACH ROW EXECUTE FUNCTION notification_publish_unread();
+
+CREATE TRIGGER notification_publish_unread_update
+    AFTER UPDATE ON notification_counter
+    FOR EACH ROW
+    WHEN (OLD.unread IS DISTINCT FROM NEW.unread)
+    EXECUTE FUNCTION notification_publish_unread();
@@ -0,0 +1,29 @@
+-- Denormalized engagement counters on post, so feed cards and like
+-- responses read them instead of aggregating post_like / post_comment per
+-- page. Kept in step by atomic UPDATEs in the same transaction as the change
+-- they count (PostInteractionService, CommentReportService,
+-- ContentVisibilityRepository), never by saving the Post entity; a nightly
+-- repair (PostCounterRepairScheduler) rewrites any that drifted. Counts
+-- match what the feed previously computed live: likes not hidden, and
+-- comments (replies included) neither hidden nor moderated.
+ALTER TABLE post
+    ADD COLUMN like_count    INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN comment_count INTEGER NOT NULL DEFAULT 0;
+
+UPDATE post p SET like_count = c.n
+FROM (
+    SELECT post_id, COUNT(*) AS n
+    FROM post_like
+    WHERE hidden_at IS NULL
+    GROUP BY post_id
+) c
+WHERE c.post_id = p.post_id;
+
+UPDATE post p SET comment_count = c.n
+FROM (
+    SELECT post_id, COUNT(*) AS n
+    FROM post_comment
+    WHERE hidden_at IS NULL AND moderation_status = 'VISIBLE'
+    GROUP BY post_id
+) c
+WHERE c.post_id = p.post_id;
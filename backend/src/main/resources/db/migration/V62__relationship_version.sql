@@ -0,0 +1,59 @@
+-- Per-user version of the follow graph, for RelationshipCache. Every write to
+-- follow bumps both endpoints' versions, so an instance holding a user's
+-- cached blocked/followee sets can confirm they are current with one
+-- primary-key read instead of the NOT EXISTS subquery per row it replaces.
+-- Kept by triggers like notification_counter (V59), because follow rows also
+-- change through moderation hides and FK cascades the application never sees.
+
+-- A missing row means version 0. No FK to app_user: the delete trigger fires
+-- while a purged user's follows cascade away, and a leftover row is harmless.
+CREATE TABLE relationship_version (
+    user_id UUID PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE FUNCTION relationship_version_bump() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        INSERT INTO relationship_version (user_id, version)
+        SELECT u.user_id, 1
+        FROM (
+            SELECT o.follower_id AS user_id FROM old_rows o
+            UNION
+            SELECT o.followee_id FROM old_rows o
+        ) u
+        ON CONFLICT (user_id) DO UPDATE
+        SET version = relationship_version.version + 1;
+    END IF;
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO relationship_version (user_id, version)
+        SELECT u.user_id, 1
+        FROM (
+            SELECT n.follower_id AS user_id FROM new_rows n
+            UNION
+            SELECT n.followee_id FROM new_rows n
+        ) u
+        ON CONFLICT (user_id) DO UPDATE
+        SET version = relationship_version.version + 1;
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+-- Updates never change a row's endpoints (they are its key), so old_rows
+-- covers the same users as new_rows there.
+CREATE TRIGGER relationship_version_insert
+    AFTER INSERT ON follow
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION relationship_version_bump();
+
+CREATE TRIGGER relationship_version_update
+    AFTER UPDATE ON follow
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION relationship_version_bump();
+
+CREATE TRIGGER relationship_version_delete
+    AFTER DELETE ON follow
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION relationship_version_bump();
@@ -0,0 +1,21 @@
+-- Precomputed discover ranking (DiscoverRankService). Each refresh writes a
+-- new generation holding the top posts by time-decayed engagement, numbered
+-- 1..n by position; the discover feed pages through one generation by
+-- position, so a page is a primary-key range read rather than a sort over
+-- every public post. The previous generation is kept until the next refresh
+-- so clients mid-scroll can finish paging the snapshot they started on.
+CREATE SEQUENCE discover_rank_generation_seq;
+
+CREATE TABLE discover_rank (
+    generation BIGINT NOT NULL,
+    position   INTEGER NOT NULL,
+    post_id    UUID NOT NULL REFERENCES post(post_id) ON DELETE CASCADE,
+    author_id  UUID NOT NULL,
+    score      DOUBLE PRECISION NOT NULL,
+    PRIMARY KEY (generation, position)
+);
+
+-- For the cascade from post.
+CREATE INDEX IF NOT EXISTS idx_discover_rank_post ON discover_rank (post_id);
+
+-- Candidates for a refresh are read through idx_post_public_created_id (V51).
@@ -0,0 +1,35 @@
+-- Change stamp for the in-memory user search index (UserSearchIndex). Every
+-- instance keeps its own index and polls for rows stamped since its last
+-- sync, so a signup, rename or (soft) delete through any path or instance
+-- shows up in every index within one poll. Stamped by trigger rather than by
+-- the application because usernames and deleted_at change in several places
+-- (signup, profile edit, account delete/restore, moderation).
+-- now() is stable, so existing rows take it as a stored default without a
+-- table rewrite; the triggers below stamp inserts and changes with
+-- clock_timestamp().
+ALTER TABLE app_user
+    ADD COLUMN search_updated_at TIMESTAMPTZ NOT NULL DEFAULT now();
+
+CREATE FUNCTION app_user_stamp_search() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.search_updated_at := clock_timestamp();
+    RETURN NEW;
+END;
+$$;
+
+CREATE TRIGGER app_user_stamp_search_insert
+    BEFORE INSERT ON app_user
+    FOR EACH ROW
+    EXECUTE FUNCTION app_user_stamp_search();
+
+CREATE TRIGGER app_user_stamp_search
+    BEFORE UPDATE OF username, display_name, deleted_at ON app_user
+    FOR EACH ROW
+    WHEN (OLD.username IS DISTINCT FROM NEW.username
+       OR OLD.display_name IS DISTINCT FROM NEW.display_name
+       OR OLD.deleted_at IS DISTINCT FROM NEW.deleted_at)
+    EXECUTE FUNCTION app_user_stamp_search();
+
+CREATE INDEX IF NOT EXISTS idx_app_user_search_updated
+    ON app_user (search_updated_at);
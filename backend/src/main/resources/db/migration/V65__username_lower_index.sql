@@ -0,0 +1,7 @@
+-- Exact case-insensitive username lookups
+-- (AppUserRepository.existsByUsernameIncludingDeleted). The trigram index
+-- from V17 serves LIKE and similarity, not equality on LOWER(username), so
+-- these were sequential scans. Covers soft-deleted rows too, whose usernames
+-- stay reserved until purge.
+CREATE INDEX IF NOT EXISTS idx_app_user_username_lower
+    ON app_user (LOWER(username));
@@ -3,13 +3,13 @@ package com.gearfitness.gear_api.config;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.when;
 
-import com.gearfitness.gear_api.entity.AppUser;
-import com.gearfitness.gear_api.repository.AppUserRepository;
 import com.gearfitness.gear_api.security.JwtAuthenticationFilter;
+import com.gearfitness.gear_api.security.JwtPrincipal;
 import com.gearfitness.gear_api.security.JwtService;
+import com.gearfitness.gear_api.security.TokenRevocationService;
 import java.net.URI;
 import java.util.Arrays;
-import java.util.Optional;
+import java.util.UUID;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
@@ -86,21 +86,20 @@ class SecurityErrorDispatchTest {
 
   private static final String TOKEN = "test-token";
   private static final String EMAIL = "tester@example.com";
+  private static final UUID USER_ID = UUID.randomUUID();
 
   @MockitoBean
   private JwtService jwtService;
 
   @MockitoBean
-  private AppUserRepository appUserRepository;
+  private TokenRevocationService tokenRevocationService;
 
   @Autowired
   private TestRestTemplate rest;
 
   private HttpHeaders authedHeaders() {
-    when(jwtService.extractEmail(TOKEN)).thenReturn(EMAIL);
-    when(jwtService.isTokenValid(TOKEN, EMAIL)).thenReturn(true);
-    when(appUserRepository.findByEmail(EMAIL)).thenReturn(
-      Optional.of(AppUser.builder().email(EMAIL).passwordHash("hash").build())
+    when(jwtService.parsePrincipal(TOKEN)).thenReturn(
+      new JwtPrincipal(USER_ID, EMAIL)
     );
     HttpHeaders headers = new HttpHeaders();
     headers.setBearerAuth(TOKEN);
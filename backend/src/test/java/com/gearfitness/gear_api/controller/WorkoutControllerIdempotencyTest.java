@@ -9,6 +9,7 @@ import com.gearfitness.gear_api.dto.WorkoutDetailDTO;
 import com.gearfitness.gear_api.dto.WorkoutSubmissionDTO;
 import com.gearfitness.gear_api.security.JwtService;
 import com.gearfitness.gear_api.service.S3StorageService;
+import com.gearfitness.gear_api.service.WorkoutImportService;
 import com.gearfitness.gear_api.service.WorkoutService;
 import java.util.UUID;
 import org.junit.jupiter.api.Test;
@@ -26,6 +27,9 @@ class WorkoutControllerIdempotencyTest {
   @Mock
   private WorkoutService workoutService;
 
+  @Mock
+  private WorkoutImportService workoutImportService;
+
   @Mock
   private JwtService jwtService;
 
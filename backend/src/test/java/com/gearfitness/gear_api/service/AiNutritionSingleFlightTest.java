@@ -0,0 +1,141 @@
+package com.gearfitness.gear_api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.gearfitness.gear_api.dto.AiEstimateResponse;
+import com.gearfitness.gear_api.entity.AppUser;
+import com.gearfitness.gear_api.entity.Tier;
+import com.gearfitness.gear_api.repository.AppUserRepository;
+import com.gearfitness.gear_api.repository.NutritionCacheRepository;
+import com.gearfitness.gear_api.service.PerplexityClient.ParsedFood;
+import com.gearfitness.gear_api.service.PerplexityClient.PerplexityResult;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AiNutritionSingleFlightTest {
+
+  private static final PerplexityResult BOWL = new PerplexityResult(
+    List.of(new ParsedFood("Chipotle bowl", 650, 40, 70, 22)),
+    "Typical chicken burrito bowl",
+    80,
+    List.of()
+  );
+
+  @Mock
+  private PerplexityClient perplexityClient;
+
+  @Mock
+  private NutritionCacheRepository cacheRepository;
+
+  @Mock
+  private NutritionService nutritionService;
+
+  @Mock
+  private AppUserRepository appUserRepository;
+
+  @Mock
+  private PlatformTransactionManager txManager;
+
+  @Mock
+  private QuotaLedger quotaLedger;
+
+  private AiNutritionService service;
+
+  @BeforeEach
+  void setUp() {
+    service = new AiNutritionService(
+      perplexityClient,
+      cacheRepository,
+      nutritionService,
+      appUserRepository,
+      txManager,
+      quotaLedger,
+      500,
+      20,
+      100,
+      60
+    );
+    when(appUserRepository.findById(any())).thenAnswer(inv ->
+      Optional.of(
+        AppUser.builder().userId(inv.getArgument(0)).tier(Tier.PLUS).build()
+      )
+    );
+    when(quotaLedger.tryConsume(any(), anyString())).thenReturn(true);
+    when(cacheRepository.findByNormalizedKey(anyString())).thenReturn(
+      Optional.empty()
+    );
+  }
+
+  @Test
+  void concurrentMissesShareOneSonarCall() throws Exception {
+    CountDownLatch parsing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    when(perplexityClient.parse(anyString())).thenAnswer(inv -> {
+      parsing.countDown();
+      release.await(5, TimeUnit.SECONDS);
+      return BOWL;
+    });
+
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    try {
+      Future<AiEstimateResponse> leader = pool.submit(() ->
+        service.aiEstimate(UUID.randomUUID(), "Chipotle bowl")
+      );
+      assertThat(parsing.await(5, TimeUnit.SECONDS)).isTrue();
+      List<Future<AiEstimateResponse>> waiters = List.of(
+        pool.submit(() ->
+          service.aiEstimate(UUID.randomUUID(), "chipotle bowl")
+        ),
+        pool.submit(() ->
+          service.aiEstimate(UUID.randomUUID(), " Chipotle Bowl!")
+        )
+      );
+      Thread.sleep(100);
+      release.countDown();
+
+      assertThat(leader.get(5, TimeUnit.SECONDS).getCalories()).isEqualTo(
+        650.0
+      );
+      for (Future<AiEstimateResponse> waiter : waiters) {
+        assertThat(waiter.get(5, TimeUnit.SECONDS).getCalories()).isEqualTo(
+          650.0
+        );
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    verify(perplexityClient, times(1)).parse(anyString());
+  }
+
+  @Test
+  void repeatsAreServedFromTheNearCache() {
+    when(perplexityClient.parse(anyString())).thenReturn(BOWL);
+
+    service.aiEstimate(UUID.randomUUID(), "chipotle bowl");
+    service.aiEstimate(UUID.randomUUID(), "chipotle bowl");
+
+    verify(perplexityClient, times(1)).parse(anyString());
+    verify(cacheRepository, times(1)).findByNormalizedKey("chipotle bowl");
+  }
+}
@@ -0,0 +1,253 @@
+package com.gearfitness.gear_api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.gearfitness.gear_api.repository.AppUserRepository;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Drives the push pipeline against a local stub of Expo's push API: batching
+ * stays within Expo's 100-message limit, throttled batches are retried, a bad
+ * message only fails itself, and DeviceNotRegistered tokens are cleared from
+ * both tickets and receipts, including receipts that were not ready at first.
+ */
+class ExpoPushServiceTest {
+
+  private static final String DEAD_TOKEN = "ExponentPushToken[dead]";
+  private static final String GONE_TOKEN = "ExponentPushToken[gone]";
+
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+  private final AtomicInteger delivered = new AtomicInteger();
+  private final AtomicInteger throttleRemaining = new AtomicInteger();
+  // READY answers every receipt, PENDING omits them all, DOWN rejects lookups.
+  private final AtomicReference<String> receiptMode = new AtomicReference<>(
+    "READY"
+  );
+
+  private HttpServer server;
+  private AppUserRepository appUserRepository;
+  private ExpoPushService expoPushService;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.setExecutor(Executors.newFixedThreadPool(4));
+    server.createContext("/--/api/v2/push/send", this::handleSend);
+    server.createContext("/--/api/v2/push/getReceipts", this::handleReceipts);
+    server.start();
+
+    appUserRepository = mock(AppUserRepository.class);
+    ExpoPushClient client = new ExpoPushClient(
+      "http://127.0.0.1:" + server.getAddress().getPort()
+    );
+    expoPushService = new ExpoPushService(
+      client,
+      appUserRepository,
+      10_000,
+      4,
+      20,
+      0
+    );
+    expoPushService.start();
+  }
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    expoPushService.stop();
+    server.stop(0);
+  }
+
+  @Test
+  void groupsNotificationsIntoExpoSizedBatches() throws InterruptedException {
+    int total = 1_050;
+    for (int i = 0; i < total; i++) {
+      expoPushService.sendPushNotification(
+        "ExponentPushToken[" + i + "]",
+        "New like",
+        "Someone liked \"your\" post",
+        "{\"type\":\"LIKE\",\"postId\":\"" + i + "\"}"
+      );
+    }
+
+    awaitDelivered(total);
+
+    assertThat(batchSizes).allSatisfy(size ->
+      assertThat(size).isLessThanOrEqualTo(100)
+    );
+    // One request per message was the old behaviour; allow slack for lingering.
+    assertThat(batchSizes.size()).isLessThan(total / 10);
+  }
+
+  @Test
+  void retriesThrottledBatch() throws InterruptedException {
+    throttleRemaining.set(2);
+
+    expoPushService.sendPushNotification(
+      "ExponentPushToken[retry]",
+      "Title",
+      "Body",
+      null
+    );
+
+    awaitDelivered(1);
+    assertThat(throttleRemaining.get()).isZero();
+  }
+
+  @Test
+  void clearsUnregisteredTokensFromTicketsAndReceipts() {
+    // Same batch: once the dead ticket is handled, the gone receipt is pending.
+    expoPushService.sendPushNotification(GONE_TOKEN, "t", "b", "{}");
+    expoPushService.sendPushNotification(DEAD_TOKEN, "t", "b", "{}");
+
+    verify(appUserRepository, timeout(5_000)).clearExpoPushTokens(
+      Set.of(DEAD_TOKEN)
+    );
+
+    expoPushService.pollReceiptsSentBefore(Long.MAX_VALUE);
+
+    verify(appUserRepository).clearExpoPushTokens(Set.of(GONE_TOKEN));
+  }
+
+  @Test
+  void invalidDataOnlyFailsItsOwnMessage() throws InterruptedException {
+    expoPushService.sendPushNotification(
+      "ExponentPushToken[a]",
+      "t",
+      "b",
+      "{}"
+    );
+    expoPushService.sendPushNotification(
+      "ExponentPushToken[bad]",
+      "t",
+      "b",
+      "{not json"
+    );
+    expoPushService.sendPushNotification(
+      "ExponentPushToken[c]",
+      "t",
+      "b",
+      null
+    );
+
+    awaitDelivered(2);
+  }
+
+  @Test
+  void keepsReceiptsUntilExpoReportsThem() {
+    expoPushService.sendPushNotification(GONE_TOKEN, "t", "b", "{}");
+    expoPushService.sendPushNotification(DEAD_TOKEN, "t", "b", "{}");
+    verify(appUserRepository, timeout(5_000)).clearExpoPushTokens(
+      Set.of(DEAD_TOKEN)
+    );
+
+    receiptMode.set("DOWN");
+    expoPushService.pollReceiptsSentBefore(Long.MAX_VALUE);
+    receiptMode.set("PENDING");
+    expoPushService.pollReceiptsSentBefore(Long.MAX_VALUE);
+    verify(appUserRepository, never()).clearExpoPushTokens(
+      Set.of(GONE_TOKEN)
+    );
+
+    receiptMode.set("READY");
+    expoPushService.pollReceiptsSentBefore(Long.MAX_VALUE);
+    verify(appUserRepository).clearExpoPushTokens(Set.of(GONE_TOKEN));
+
+    // A reported receipt is dropped, so a later poll does not clear it again.
+    expoPushService.pollReceiptsSentBefore(Long.MAX_VALUE);
+    verify(appUserRepository, times(2)).clearExpoPushTokens(any());
+  }
+
+  private void awaitDelivered(int expected) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (
+      delivered.get() < expected && System.currentTimeMillis() < deadline
+    ) {
+      Thread.sleep(10);
+    }
+    assertThat(delivered.get()).isEqualTo(expected);
+  }
+
+  private void handleSend(HttpExchange exchange) throws IOException {
+    JsonNode messages = mapper.readTree(exchange.getRequestBody());
+    if (throttleRemaining.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+      respond(exchange, 429, "{\"errors\":[{\"code\":\"TOO_MANY_REQUESTS\"}]}");
+      return;
+    }
+
+    batchSizes.add(messages.size());
+    ObjectNode response = mapper.createObjectNode();
+    ArrayNode data = response.putArray("data");
+    for (JsonNode message : messages) {
+      String to = message.path("to").asText();
+      ObjectNode ticket = data.addObject();
+      if (DEAD_TOKEN.equals(to)) {
+        ticket.put("status", "error");
+        ticket.put("message", "not a registered push notification recipient");
+        ticket.putObject("details").put("error", "DeviceNotRegistered");
+      } else {
+        ticket.put("status", "ok");
+        ticket.put("id", "receipt-" + to);
+      }
+    }
+    delivered.addAndGet(messages.size());
+    respond(exchange, 200, mapper.writeValueAsString(response));
+  }
+
+  private void handleReceipts(HttpExchange exchange) throws IOException {
+    JsonNode ids = mapper.readTree(exchange.getRequestBody()).path("ids");
+    if ("DOWN".equals(receiptMode.get())) {
+      respond(exchange, 400, "{\"errors\":[{\"code\":\"BAD_REQUEST\"}]}");
+      return;
+    }
+    ObjectNode response = mapper.createObjectNode();
+    ObjectNode data = response.putObject("data");
+    for (JsonNode id : ids) {
+      if ("PENDING".equals(receiptMode.get())) {
+        break;
+      }
+      ObjectNode receipt = data.putObject(id.asText());
+      if (id.asText().equals("receipt-" + GONE_TOKEN)) {
+        receipt.put("status", "error");
+        receipt.putObject("details").put("error", "DeviceNotRegistered");
+      } else {
+        receipt.put("status", "ok");
+      }
+    }
+    respond(exchange, 200, mapper.writeValueAsString(response));
+  }
+
+  private static void respond(HttpExchange exchange, int status, String body)
+    throws IOException {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+}
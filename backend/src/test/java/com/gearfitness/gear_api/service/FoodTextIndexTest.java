@@ -0,0 +1,102 @@
+package com.gearfitness.gear_api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.gearfitness.gear_api.dto.FoodItemDTO;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The in-memory food index against the ranking FoodItemRepository.search
+ * defines: text-match tier, own foods first within a tier, word similarity,
+ * whole foods before branded, shorter descriptions first.
+ */
+class FoodTextIndexTest {
+
+  private final FoodTextIndex index = new FoodTextIndex.Builder()
+    .add(food("Apples, raw, with skin", null))
+    .add(food("Pineapple, raw", null))
+    .add(food("Crab apple, raw", null))
+    .add(food("Apple", null))
+    .add(food("APPLE JUICE", "ACME"))
+    .add(food("Applesauce, canned", null))
+    .add(food("Bananas, raw", null))
+    .add(food("(raw) apple bits", null))
+    .build();
+
+  @Test
+  void ranksByTierThenBrandThenLength() {
+    assertThat(descriptions(index.search("Apple", List.of(), List.of(), 25, 0)))
+      .containsExactly(
+        "Apple",
+        "APPLE JUICE",
+        "Applesauce, canned",
+        "Apples, raw, with skin",
+        "Crab apple, raw",
+        "(raw) apple bits",
+        "Pineapple, raw"
+      );
+  }
+
+  @Test
+  void ownFoodsLeadTheirTierAndMatchOnNickname() {
+    FoodItemDTO smoothie = food("My apple smoothie", null);
+    FoodItemDTO shake = food("Protein shake", null);
+    shake.setNickname("Post-workout apple");
+
+    List<String> results = descriptions(
+      index.search("apple", List.of(smoothie, shake), List.of(), 25, 0)
+    );
+
+    assertThat(results.indexOf("My apple smoothie")).isEqualTo(
+      results.indexOf("Crab apple, raw") - 1
+    );
+    assertThat(results).endsWith("Protein shake");
+  }
+
+  @Test
+  void matchesTyposByTrigramSimilarity() {
+    assertThat(
+      descriptions(index.search("bananna", List.of(), List.of(), 25, 0))
+    ).containsExactly("Bananas, raw");
+    assertThat(index.search("zzz", List.of(), List.of(), 25, 0)).isEmpty();
+  }
+
+  @Test
+  void pagesThroughTheRanking() {
+    assertThat(descriptions(index.search("raw", List.of(), List.of(), 2, 2)))
+      .containsExactly("Crab apple, raw", "Apples, raw, with skin");
+  }
+
+  @Test
+  void searchesSharedRowsAddedAfterTheBuild() {
+    FoodItemDTO scanned = food("Apple cider", "Orchard Co");
+    assertThat(
+      descriptions(index.search("cider", List.of(), List.of(scanned), 25, 0))
+    ).containsExactly("Apple cider");
+  }
+
+  private static FoodItemDTO food(String description, String brandOwner) {
+    return new FoodItemDTO(
+      UUID.randomUUID(),
+      null,
+      description,
+      brandOwner,
+      brandOwner == null ? "sr_legacy_food" : "branded_food",
+      100.0,
+      "g",
+      null,
+      52.0,
+      0.3,
+      13.8,
+      0.2,
+      null,
+      null
+    );
+  }
+
+  private static List<String> descriptions(List<FoodItemDTO> foods) {
+    return foods.stream().map(FoodItemDTO::getDescription).toList();
+  }
+}
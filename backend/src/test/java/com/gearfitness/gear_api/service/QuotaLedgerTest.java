@@ -0,0 +1,125 @@
+package com.gearfitness.gear_api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.gearfitness.gear_api.service.QuotaLedger.Quota;
+import com.gearfitness.gear_api.service.QuotaLedger.Window;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * Drives QuotaLedger against an in-memory quota_counter: leased blocks are
+ * served without writes until exhausted, the cap holds across two instances
+ * sharing the table, and leftover lease units go back on expiry and shutdown.
+ */
+class QuotaLedgerTest {
+
+  private final CounterTable table = new CounterTable();
+
+  @Test
+  void servesLeasedUnitsFromMemoryUntilExhausted() {
+    QuotaLedger ledger = new QuotaLedger(table, 4, 120);
+    Quota quota = ledger.quota("test.scope", Window.DAY, 20);
+
+    for (int i = 0; i < 4; i++) {
+      assertThat(ledger.tryConsume(quota, "user")).isTrue();
+    }
+    assertThat(table.reserves).isEqualTo(1);
+    assertThat(table.used()).isEqualTo(4);
+
+    assertThat(ledger.tryConsume(quota, "user")).isTrue();
+    assertThat(table.reserves).isEqualTo(2);
+    assertThat(table.used()).isEqualTo(8);
+  }
+
+  @Test
+  void capHoldsAcrossInstancesAndReleasedUnitsComeBack() {
+    QuotaLedger first = new QuotaLedger(table, 4, 120);
+    QuotaLedger second = new QuotaLedger(table, 4, 120);
+    Quota quota = first.quota("test.scope", Window.DAY, 10);
+
+    // Lease of two, one left unused on the first instance.
+    assertThat(first.tryConsume(quota, "user")).isTrue();
+    int granted = 0;
+    while (second.tryConsume(quota, "user")) {
+      granted++;
+    }
+    assertThat(granted).isEqualTo(8);
+    assertThat(table.used()).isEqualTo(10);
+
+    first.releaseAll();
+    assertThat(table.used()).isEqualTo(9);
+    assertThat(second.tryConsume(quota, "user")).isTrue();
+    assertThat(second.tryConsume(quota, "user")).isFalse();
+  }
+
+  @Test
+  void expiredLeaseHandsBackLeftovers() {
+    QuotaLedger ledger = new QuotaLedger(table, 4, 0);
+    Quota quota = ledger.quota("test.scope", Window.MONTH, 20);
+
+    assertThat(ledger.tryConsume(quota, "user")).isTrue();
+    assertThat(table.used()).isEqualTo(4);
+
+    ledger.releaseExpiredLeases();
+    assertThat(table.used()).isEqualTo(1);
+  }
+
+  @Test
+  void refundGoesBackToTheLease() {
+    QuotaLedger ledger = new QuotaLedger(table, 4, 120);
+    Quota quota = ledger.quota("test.scope", Window.DAY, 20);
+
+    assertThat(ledger.tryConsume(quota, "user")).isTrue();
+    ledger.refund(quota, "user");
+    for (int i = 0; i < 4; i++) {
+      assertThat(ledger.tryConsume(quota, "user")).isTrue();
+    }
+    assertThat(table.reserves).isEqualTo(1);
+  }
+
+  /** In-memory quota_counter answering the reserve and release statements. */
+  private static final class CounterTable extends JdbcTemplate {
+
+    private final Map<List<Object>, Integer> rows = new HashMap<>();
+    private int reserves;
+
+    private synchronized int used() {
+      return rows.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    // RESERVE_SQL: (scope, subject, period, amount, limit)
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized <T> List<T> query(
+      String sql,
+      RowMapper<T> rowMapper,
+      Object... args
+    ) {
+      reserves++;
+      List<Object> key = List.of(args[0], args[1], args[2]);
+      int next = rows.getOrDefault(key, 0) + (Integer) args[3];
+      if (next > (Integer) args[4]) {
+        return List.of();
+      }
+      rows.put(key, next);
+      return (List<T>) List.of(next);
+    }
+
+    // RELEASE_SQL: (amount, scope, subject, period)
+    @Override
+    public synchronized int update(String sql, Object... args) {
+      List<Object> key = List.of(args[1], args[2], args[3]);
+      Integer used = rows.get(key);
+      if (used == null) {
+        return 0;
+      }
+      rows.put(key, Math.max(used - (Integer) args[0], 0));
+      return 1;
+    }
+  }
+}
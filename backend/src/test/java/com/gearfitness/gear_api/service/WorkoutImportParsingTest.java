@@ -0,0 +1,81 @@
+package com.gearfitness.gear_api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * CSV import parsing against the shapes real exports take: Strong's quoted
+ * notes with commas and line breaks, CRLF endings, a leading BOM, and its
+ * date and duration formats.
+ */
+class WorkoutImportParsingTest {
+
+  @Test
+  void readsQuotedFieldsAcrossLines() throws IOException {
+    CsvRecordReader reader = new CsvRecordReader(
+      new StringReader(
+        "\uFEFFDate,Exercise Name,Reps,Notes\r\n" +
+        "2024-01-15 18:00:00,\"Bench Press (Barbell)\",8," +
+        "\"felt \"\"heavy\"\",\r\nslow\"\r\n" +
+        "2024-01-15 18:00:00,Squat,5,\r\n"
+      )
+    );
+
+    assertThat(reader.next()).containsExactly(
+      "Date",
+      "Exercise Name",
+      "Reps",
+      "Notes"
+    );
+    assertThat(reader.next()).containsExactly(
+      "2024-01-15 18:00:00",
+      "Bench Press (Barbell)",
+      "8",
+      "felt \"heavy\",\r\nslow"
+    );
+    assertThat(reader.next()).containsExactly(
+      "2024-01-15 18:00:00",
+      "Squat",
+      "5",
+      ""
+    );
+    assertThat(reader.next()).isNull();
+  }
+
+  @Test
+  void lastRecordNeedsNoTrailingNewline() throws IOException {
+    CsvRecordReader reader = new CsvRecordReader(new StringReader("a,b\nc,d"));
+
+    assertThat(reader.next()).isEqualTo(List.of("a", "b"));
+    assertThat(reader.next()).isEqualTo(List.of("c", "d"));
+    assertThat(reader.next()).isNull();
+  }
+
+  @Test
+  void rejectsUnterminatedQuote() throws IOException {
+    CsvRecordReader reader = new CsvRecordReader(
+      new StringReader("a,\"never closed\n")
+    );
+
+    assertThatThrownBy(reader::next).isInstanceOf(IOException.class);
+  }
+
+  @Test
+  void parsesStrongDurationsAndDates() {
+    assertThat(WorkoutImportService.parseDuration("1h 5m")).isEqualTo(65);
+    assertThat(WorkoutImportService.parseDuration("45")).isEqualTo(45);
+    assertThat(WorkoutImportService.parseDuration("n/a")).isNull();
+    assertThat(
+      WorkoutImportService.parseDate("2024-01-15 18:00:00")
+    ).hasToString("2024-01-15");
+    assertThat(
+      WorkoutImportService.parseDate("2024-01-15T06:30")
+    ).hasToString("2024-01-15");
+    assertThat(WorkoutImportService.parseDate("15/01/2024")).isNull();
+  }
+}
@@ -17,6 +17,7 @@ import com.gearfitness.gear_api.repository.ImageModerationRepository;
 import com.gearfitness.gear_api.repository.NotificationRepository;
 import com.gearfitness.gear_api.repository.PostRepository;
 import com.gearfitness.gear_api.repository.ReportRepository;
+import com.gearfitness.gear_api.repository.UserDailyVolumeRepository;
 import com.gearfitness.gear_api.repository.WorkoutRepository;
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -54,6 +55,9 @@ class WorkoutServiceIdempotencyTest {
   @Mock
   private ImageModerationRepository imageModerationRepository;
 
+  @Mock
+  private UserDailyVolumeRepository userDailyVolumeRepository;
+
   @Mock
   private StreakService streakService;
 
@@ -69,6 +73,12 @@ class WorkoutServiceIdempotencyTest {
   @Mock
   private MentionService mentionService;
 
+  @Mock
+  private VolumeRollupService volumeRollupService;
+
+  @Mock
+  private TimelineService timelineService;
+
   @InjectMocks
   private WorkoutService workoutService;
 